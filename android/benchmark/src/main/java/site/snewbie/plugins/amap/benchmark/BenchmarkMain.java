@@ -0,0 +1,61 @@
+package site.snewbie.plugins.amap.benchmark;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * 插件 Java 热点路径的基准测试入口。
+ * <p>
+ * 参数：
+ * <ul>
+ *     <li>{@code --filter <text>}：只运行名称包含该文本的用例</li>
+ *     <li>{@code --quick}：缩短预热和计时，用于快速检查</li>
+ *     <li>{@code --csv <file>}：额外把结果写入 CSV 文件，方便与之前的结果比较</li>
+ * </ul>
+ */
+public final class BenchmarkMain {
+
+    private BenchmarkMain() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        String filter = null;
+        String csv = null;
+        boolean quick = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--filter":
+                    filter = args[++i];
+                    break;
+                case "--csv":
+                    csv = args[++i];
+                    break;
+                case "--quick":
+                    quick = true;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+
+        Harness harness = quick ? new Harness(200, 5, 20, filter) : new Harness(2000, 15, 100, filter);
+        System.out.println(Harness.header());
+        EventEncodingBenchmarks.run(harness);
+        TouchBenchmarks.run(harness);
+        ParsingBenchmarks.run(harness);
+        GeofenceBenchmarks.run(harness);
+        SpatialBenchmarks.run(harness);
+        ClusterBenchmarks.run(harness);
+
+        if (csv != null) {
+            try (Writer writer = new FileWriter(csv)) {
+                writer.write("benchmark,median_ns_per_op,min_ns_per_op,bytes_per_op\n");
+                for (Harness.Result result : harness.getResults()) {
+                    writer.write(result.toCsv());
+                    writer.write('\n');
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package site.snewbie.plugins.amap.benchmark;
+
+import java.util.Random;
+
+import site.snewbie.plugins.amap.cluster.ClusterEngine;
+import site.snewbie.plugins.amap.cluster.ClusterPoints;
+import site.snewbie.plugins.amap.cluster.GridClusterer;
+
+/**
+ * 10 万个点的 Marker 聚合：各缩放级别下完整计算一次聚合，以及相机范围不变时命中缓存的差异计算。
+ */
+final class ClusterBenchmarks {
+    private static final int POINTS = 100_000;
+
+    private ClusterBenchmarks() {
+    }
+
+    static void run(Harness harness) {
+        // 约 2° 见方的范围内随机分布
+        Random random = new Random(42);
+        String[] ids = new String[POINTS];
+        double[] latitudes = new double[POINTS];
+        double[] longitudes = new double[POINTS];
+        for (int i = 0; i < POINTS; i++) {
+            ids[i] = "p" + i;
+            latitudes[i] = 39 + random.nextDouble() * 2;
+            longitudes[i] = 115.5 + random.nextDouble() * 2;
+        }
+        ClusterPoints points = new ClusterPoints(ids, latitudes, longitudes);
+        GridClusterer clusterer = new GridClusterer(60, 2, 18);
+
+        for (int zoom = 4; zoom <= 18; zoom += 2) {
+            int level = zoom;
+            harness.measure("cluster/grid/points=" + POINTS + "/zoom=" + zoom, () -> clusterer.cluster(points, level));
+        }
+
+        // 第一次计算后聚合结果已缓存且全部显示，之后每次只比对可视范围
+        ClusterEngine engine = new ClusterEngine(clusterer);
+        engine.setPoints(points);
+        engine.update(12, 39.8, 116.3, 40.0, 116.5);
+        harness.measure("cluster/engine-idle/points=" + POINTS, () -> engine.update(12, 39.8, 116.3, 40.0, 116.5));
+    }
+}
@@ -0,0 +1,102 @@
+package site.snewbie.plugins.amap.benchmark;
+
+import android.view.MotionEvent;
+
+import com.amap.api.maps.model.CameraPosition;
+import com.amap.api.maps.model.LatLng;
+import com.getcapacitor.JSObject;
+
+import site.snewbie.plugins.amap.AMapConfig;
+import site.snewbie.plugins.amap.MapEventEncoders;
+import site.snewbie.plugins.amap.event.PayloadEncoderRegistry;
+
+/**
+ * 事件 payload 编码：逐个类型判断并新建 JSObject 的旧实现与复用 payload 的编码器注册表对比。
+ * 带 {@code +serialize} 的用例包含桥接时的 toString，与 notifyListeners 中实际发生的工作一致。
+ */
+final class EventEncodingBenchmarks {
+    private static final int SAMPLES = 64;
+
+    private EventEncodingBenchmarks() {
+    }
+
+    static void run(Harness harness) {
+        AMapConfig config = new AMapConfig();
+        config.setDevicePixelRatio(2.75f);
+        PayloadEncoderRegistry<JSObject> encoders = MapEventEncoders.create(config, id -> id);
+
+        CameraPosition[] cameras = new CameraPosition[SAMPLES];
+        LatLng[] points = new LatLng[SAMPLES];
+        MotionEvent[] touches = new MotionEvent[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            points[i] = new LatLng(39.9 + i * 1e-4, 116.4 - i * 1e-4);
+            cameras[i] = new CameraPosition(points[i], 12 + i % 8, i % 45, i * 5.5f);
+            touches[i] = MotionEvent.obtain(0, i, MotionEvent.ACTION_MOVE, i * 3.5f, i * 7.25f, 0);
+        }
+        LegacyEncoder legacy = new LegacyEncoder(config.getDevicePixelRatio());
+
+        int[] cursor = {0};
+        harness.measure("encode/camera/legacy", () -> legacy.encode(cameras[next(cursor)]));
+        harness.measure("encode/camera/registry", () -> encoders.encode(cameras[next(cursor)], false));
+        harness.measure("encode/camera/registry-compact", () -> encoders.encode(cameras[next(cursor)], true));
+        harness.measure("encode/camera/legacy+serialize", () -> legacy.encode(cameras[next(cursor)]).toString());
+        harness.measure("encode/camera/registry+serialize", () -> encoders.encode(cameras[next(cursor)], false).toString());
+        harness.measure("encode/camera/registry-compact+serialize", () -> encoders.encode(cameras[next(cursor)], true).toString());
+
+        harness.measure("encode/latLng/legacy", () -> legacy.encode(points[next(cursor)]));
+        harness.measure("encode/latLng/registry", () -> encoders.encode(points[next(cursor)], false));
+        harness.measure("encode/latLng/registry-compact", () -> encoders.encode(points[next(cursor)], true));
+
+        harness.measure("encode/touch/legacy", () -> legacy.encode(touches[next(cursor)]));
+        harness.measure("encode/touch/registry", () -> encoders.encode(touches[next(cursor)], false));
+        harness.measure("encode/touch/registry-compact", () -> encoders.encode(touches[next(cursor)], true));
+    }
+
+    private static int next(int[] cursor) {
+        cursor[0] = (cursor[0] + 1) & (SAMPLES - 1);
+        return cursor[0];
+    }
+
+    /**
+     * 编码器注册表之前 CapacitorAMap.emit 的做法：按 Class.equals 逐个判断，每个事件新建所有 JSObject。
+     */
+    private static final class LegacyEncoder {
+        private final float ratio;
+
+        private LegacyEncoder(float ratio) {
+            this.ratio = ratio;
+        }
+
+        JSObject encode(Object data) {
+            Class<?> clazz = data.getClass();
+            if (JSObject.class.equals(clazz)) {
+                return (JSObject) data;
+            } else if (LatLng.class.equals(clazz)) {
+                return this.latLng2JSObject((LatLng) data);
+            } else if (CameraPosition.class.equals(clazz)) {
+                CameraPosition position = (CameraPosition) data;
+                JSObject payload = new JSObject();
+                payload.put("target", this.latLng2JSObject(position.target));
+                payload.put("zoom", position.zoom);
+                payload.put("tilt", position.tilt);
+                payload.put("bearing", position.bearing);
+                payload.put("isAbroad", position.isAbroad);
+                return payload;
+            } else if (MotionEvent.class.equals(clazz)) {
+                MotionEvent event = (MotionEvent) data;
+                JSObject payload = new JSObject();
+                payload.put("x", event.getX() / this.ratio);
+                payload.put("y", event.getY() / this.ratio);
+                return payload;
+            }
+            throw new IllegalArgumentException("Unsupported data type: " + clazz.getName());
+        }
+
+        private JSObject latLng2JSObject(LatLng latLng) {
+            JSObject payload = new JSObject();
+            payload.put("latitude", latLng.latitude);
+            payload.put("longitude", latLng.longitude);
+            return payload;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package site.snewbie.plugins.amap.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import site.snewbie.plugins.amap.geofence.Geofence;
+import site.snewbie.plugins.amap.geofence.GeofenceEngine;
+
+/**
+ * 每次定位都会执行的围栏判断：索引查询、精确的点在多边形内判断和状态更新，以及围栏变化后重新打包索引。
+ */
+final class GeofenceBenchmarks {
+    private static final int SAMPLES = 4096;
+
+    private GeofenceBenchmarks() {
+    }
+
+    static void run(Harness harness) {
+        // 在约 1° 见方的范围内随机行走，相邻定位约 15 米
+        Random random = new Random(42);
+        double[] latitudes = new double[SAMPLES];
+        double[] longitudes = new double[SAMPLES];
+        double latitude = 30.5;
+        double longitude = 120.5;
+        for (int i = 0; i < SAMPLES; i++) {
+            latitude = Math.max(30, Math.min(31, latitude + (random.nextDouble() - 0.5) * 0.0003));
+            longitude = Math.max(120, Math.min(121, longitude + (random.nextDouble() - 0.5) * 0.0003));
+            latitudes[i] = latitude;
+            longitudes[i] = longitude;
+        }
+        int[] cursor = {0};
+        long[] time = {0};
+
+        for (int count : new int[]{100, 1000, 10_000}) {
+            List<Geofence> fences = fences(count);
+            GeofenceEngine engine = new GeofenceEngine();
+            engine.add(fences);
+
+            harness.measure("geofence/update/fences=" + count, () -> {
+                int i = next(cursor);
+                return engine.update(latitudes[i], longitudes[i], 10, time[0]++);
+            });
+
+            harness.measure("geofence/rebuild/fences=" + count, () -> {
+                engine.add(fences.subList(0, 1));
+                int i = next(cursor);
+                return engine.update(latitudes[i], longitudes[i], 10, time[0]++);
+            });
+        }
+    }
+
+    /**
+     * 一半为半径 200 米的圆，一半为 16 边形，平均每个位置落在少量围栏的外接矩形内。
+     */
+    private static List<Geofence> fences(int count) {
+        Random random = new Random(count);
+        List<Geofence> fences = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            double latitude = 30 + random.nextDouble();
+            double longitude = 120 + random.nextDouble();
+            if (i % 2 == 0) {
+                fences.add(Geofence.circle("circle-" + i, latitude, longitude, 200, GeofenceEngine.DEFAULT_HYSTERESIS, 0));
+            } else {
+                double[] ring = new double[32];
+                for (int v = 0; v < 16; v++) {
+                    double angle = Math.PI * 2 * v / 16;
+                    double radius = 0.001 + random.nextDouble() * 0.002;
+                    ring[v * 2] = latitude + Math.sin(angle) * radius;
+                    ring[v * 2 + 1] = longitude + Math.cos(angle) * radius;
+                }
+                fences.add(Geofence.polygon("polygon-" + i, new double[][]{ring}, GeofenceEngine.DEFAULT_HYSTERESIS, 0));
+            }
+        }
+        return fences;
+    }
+
+    private static int next(int[] cursor) {
+        cursor[0] = (cursor[0] + 1) & (SAMPLES - 1);
+        return cursor[0];
+    }
+}
@@ -0,0 +1,132 @@
+package site.snewbie.plugins.amap.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 简单的微基准测试工具：先预热，再分多轮计时，报告每次操作的耗时中位数和分配的字节数。
+ * 分配字节数来自 HotSpot 的线程分配计数，不受 GC 时机影响，适合比较不同实现的分配差异。
+ */
+public final class Harness {
+    /**
+     * 结果写入 volatile 字段，防止 JIT 消除被测代码或通过逃逸分析省去分配。
+     */
+    private static volatile Object sink;
+
+    private final long warmupNanos;
+    private final int rounds;
+    private final long roundNanos;
+    private final String filter;
+    private final List<Result> results = new ArrayList<>();
+
+    public Harness(long warmupMillis, int rounds, long roundMillis, String filter) {
+        this.warmupNanos = warmupMillis * 1_000_000L;
+        this.rounds = rounds;
+        this.roundNanos = roundMillis * 1_000_000L;
+        this.filter = filter;
+    }
+
+    public interface Operation {
+        /**
+         * @return 操作的结果，会被写入 sink
+         */
+        Object run();
+    }
+
+    public void measure(String name, Operation operation) {
+        if (this.filter != null && !name.contains(this.filter)) {
+            return;
+        }
+
+        // 预热时顺便估算每轮需要的操作次数
+        long batch = 1;
+        long deadline = System.nanoTime() + this.warmupNanos;
+        while (System.nanoTime() < deadline) {
+            long start = System.nanoTime();
+            for (long i = 0; i < batch; i++) {
+                sink = operation.run();
+            }
+            long elapsed = System.nanoTime() - start;
+            if (elapsed < this.roundNanos / 10) {
+                batch *= 2;
+            }
+        }
+
+        double[] nanosPerOp = new double[this.rounds];
+        long allocated = 0;
+        long operations = 0;
+        for (int round = 0; round < this.rounds; round++) {
+            long bytesBefore = allocatedBytes();
+            long start = System.nanoTime();
+            for (long i = 0; i < batch; i++) {
+                sink = operation.run();
+            }
+            long elapsed = System.nanoTime() - start;
+            allocated += allocatedBytes() - bytesBefore;
+            operations += batch;
+            nanosPerOp[round] = (double) elapsed / batch;
+        }
+
+        Arrays.sort(nanosPerOp);
+        Result result = new Result(name, nanosPerOp[this.rounds / 2], nanosPerOp[0], (double) allocated / operations);
+        this.results.add(result);
+        System.out.println(result.format());
+    }
+
+    public List<Result> getResults() {
+        return results;
+    }
+
+    public static String header() {
+        return String.format(Locale.ROOT, "%-52s %12s %12s %12s", "benchmark", "median ns/op", "min ns/op", "bytes/op");
+    }
+
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+
+    public static final class Result {
+        private final String name;
+        private final double medianNanos;
+        private final double minNanos;
+        private final double bytesPerOp;
+
+        private Result(String name, double medianNanos, double minNanos, double bytesPerOp) {
+            this.name = name;
+            this.medianNanos = medianNanos;
+            this.minNanos = minNanos;
+            this.bytesPerOp = bytesPerOp;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public double getMedianNanos() {
+            return medianNanos;
+        }
+
+        public double getMinNanos() {
+            return minNanos;
+        }
+
+        public double getBytesPerOp() {
+            return bytesPerOp;
+        }
+
+        public String format() {
+            return String.format(Locale.ROOT, "%-52s %12.1f %12.1f %12.1f", this.name, this.medianNanos, this.minNanos, this.bytesPerOp);
+        }
+
+        public String toCsv() {
+            return String.format(Locale.ROOT, "%s,%.1f,%.1f,%.1f", this.name, this.medianNanos, this.minNanos, this.bytesPerOp);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package site.snewbie.plugins.amap.benchmark;
+
+import com.getcapacitor.JSObject;
+
+import org.json.JSONException;
+
+import site.snewbie.plugins.amap.AMapConfig;
+import site.snewbie.plugins.amap.CameraOptions;
+import site.snewbie.plugins.amap.Location;
+
+/**
+ * 每次创建地图和移动相机时解析插件调用参数的开销。
+ */
+final class ParsingBenchmarks {
+
+    private ParsingBenchmarks() {
+    }
+
+    static void run(Harness harness) {
+        JSObject target = new JSObject();
+        target.put("latitude", 39.909187);
+        target.put("longitude", 116.397451);
+
+        JSObject camera = new JSObject();
+        camera.put("target", target);
+        camera.put("zoom", 15);
+        camera.put("tilt", 30);
+        camera.put("bearing", 0);
+        camera.put("animated", false);
+
+        JSObject config = new JSObject();
+        config.put("width", 390);
+        config.put("height", 640);
+        config.put("x", 0);
+        config.put("y", 120);
+        config.put("devicePixelRatio", 2.75);
+        config.put("mapType", 1);
+        config.put("zoomControlsEnabled", false);
+        config.put("scrollTracking", "native");
+        config.put("scrollX", 0);
+        config.put("scrollY", 48);
+        config.put("cameraOptions", camera);
+
+        harness.measure("parse/AMapConfig", () -> unchecked(() -> new AMapConfig(config)));
+        harness.measure("parse/CameraOptions", () -> unchecked(() -> new CameraOptions(camera)));
+        harness.measure("parse/Location", () -> unchecked(() -> Location.fromObject(target)));
+    }
+
+    private interface Parser {
+        Object parse() throws JSONException;
+    }
+
+    private static Object unchecked(Parser parser) {
+        try {
+            return parser.parse();
+        } catch (JSONException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
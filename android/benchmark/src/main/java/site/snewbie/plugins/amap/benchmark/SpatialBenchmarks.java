@@ -0,0 +1,69 @@
+package site.snewbie.plugins.amap.benchmark;
+
+import java.util.Random;
+
+import site.snewbie.plugins.amap.spatial.PointIndex;
+
+/**
+ * Marker 空间索引的查询和移动：视野范围、半径范围和最近 k 个点，以及点持续移动时的查询（包含按需重新创建树）。
+ */
+final class SpatialBenchmarks {
+    private static final int SAMPLES = 1024;
+
+    private SpatialBenchmarks() {
+    }
+
+    static void run(Harness harness) {
+        Random random = new Random(42);
+        double[] latitudes = new double[SAMPLES];
+        double[] longitudes = new double[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            latitudes[i] = 30 + random.nextDouble();
+            longitudes[i] = 120 + random.nextDouble();
+        }
+        int[] cursor = {0};
+
+        for (int count : new int[]{10_000, 100_000}) {
+            PointIndex index = new PointIndex();
+            String[] ids = new String[count];
+            Random points = new Random(count);
+            for (int i = 0; i < count; i++) {
+                ids[i] = "vehicle-" + i;
+                index.put(ids[i], 30 + points.nextDouble(), 120 + points.nextDouble());
+            }
+
+            // 约 2 公里见方的视野
+            harness.measure("spatial/bounds/points=" + count, () -> {
+                int i = next(cursor);
+                return index.queryInBounds(latitudes[i], longitudes[i], latitudes[i] + 0.02, longitudes[i] + 0.02, 0);
+            });
+
+            harness.measure("spatial/radius/points=" + count, () -> {
+                int i = next(cursor);
+                return index.queryWithinRadius(latitudes[i], longitudes[i], 1000, 0);
+            });
+
+            harness.measure("spatial/nearest10/points=" + count, () -> {
+                int i = next(cursor);
+                return index.queryNearest(latitudes[i], longitudes[i], 10, 0);
+            });
+
+            // 每次查询前移动 100 个点，约每 count / 800 次查询重新创建一次树
+            int[] moved = {0};
+            harness.measure("spatial/move100+nearest10/points=" + count, () -> {
+                for (int m = 0; m < 100; m++) {
+                    int j = moved[0]++ % count;
+                    int i = next(cursor);
+                    index.put(ids[j], latitudes[i], longitudes[i]);
+                }
+                int i = next(cursor);
+                return index.queryNearest(latitudes[i], longitudes[i], 10, 0);
+            });
+        }
+    }
+
+    private static int next(int[] cursor) {
+        cursor[0] = (cursor[0] + 1) & (SAMPLES - 1);
+        return cursor[0];
+    }
+}
@@ -0,0 +1,110 @@
+package site.snewbie.plugins.amap.benchmark;
+
+import android.view.MotionEvent;
+
+import site.snewbie.plugins.amap.touch.OccluderSet;
+import site.snewbie.plugins.amap.touch.TouchEventQueue;
+import site.snewbie.plugins.amap.touch.TouchTargetIndex;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 每次触摸都会执行的路径：按下时在多个地图之间命中测试、覆盖区域判定，以及等待焦点期间事件队列的写入和重放。
+ */
+final class TouchBenchmarks {
+    private static final int SAMPLES = 256;
+    private static final int SCREEN_WIDTH = 1080;
+    private static final int SCREEN_HEIGHT = 2400;
+
+    private TouchBenchmarks() {
+    }
+
+    static void run(Harness harness) {
+        float[] xs = new float[SAMPLES];
+        float[] ys = new float[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            xs[i] = (i * 7919) % SCREEN_WIDTH;
+            ys[i] = (i * 104729) % SCREEN_HEIGHT;
+        }
+        int[] cursor = {0};
+
+        for (int maps : new int[]{1, 4, 16, 64}) {
+            TouchTargetIndex<String> index = new TouchTargetIndex<>();
+            int rows = (int) Math.ceil(Math.sqrt(maps));
+            int width = SCREEN_WIDTH / rows;
+            int height = SCREEN_HEIGHT / rows;
+            for (int i = 0; i < maps; i++) {
+                String key = "map-" + i;
+                index.register(key, key);
+                int left = (i % rows) * width;
+                int top = (i / rows) * height;
+                // 地图之间留出空隙，部分触摸不会命中
+                index.setBounds(key, left, top, left + width * 3 / 4, top + height * 3 / 4);
+            }
+
+            harness.measure("touch/hitTest/maps=" + maps, () -> {
+                int i = next(cursor);
+                return index.hitTest(xs[i], ys[i]);
+            });
+        }
+
+        for (int count : new int[]{4, 32}) {
+            OccluderSet occluders = new OccluderSet();
+            Map<String, int[]> upserts = new HashMap<>();
+            for (int i = 0; i < count; i++) {
+                int left = (i * 131) % SCREEN_WIDTH;
+                int top = (i * 293) % SCREEN_HEIGHT;
+                upserts.put("occluder-" + i, new int[]{left, top, left + 120, top + 80});
+            }
+            occluders.apply(true, upserts, null);
+
+            harness.measure("touch/occluders/count=" + count, () -> {
+                int i = next(cursor);
+                return occluders.contains(xs[i], ys[i]);
+            });
+        }
+
+        TouchEventQueue.Adapter<MotionEvent> adapter = new TouchEventQueue.Adapter<MotionEvent>() {
+            @Override
+            public boolean isMergeable(MotionEvent event) {
+                return event.getActionMasked() == MotionEvent.ACTION_MOVE;
+            }
+
+            @Override
+            public boolean canMerge(MotionEvent previous, MotionEvent next) {
+                return previous.getActionMasked() == MotionEvent.ACTION_MOVE
+                        && next.getActionMasked() == MotionEvent.ACTION_MOVE
+                        && previous.getPointerCount() == next.getPointerCount();
+            }
+
+            @Override
+            public void recycle(MotionEvent event) {
+                event.recycle();
+            }
+        };
+
+        // 一次按下、一串移动和抬起，等待 JS 判定焦点期间写入后整体重放
+        MotionEvent[] gesture = new MotionEvent[66];
+        gesture[0] = MotionEvent.obtain(0, 0, MotionEvent.ACTION_DOWN, 10, 10, 0);
+        for (int i = 1; i < gesture.length - 1; i++) {
+            gesture[i] = MotionEvent.obtain(0, i, MotionEvent.ACTION_MOVE, 10 + i, 10 + i, 0);
+        }
+        gesture[gesture.length - 1] = MotionEvent.obtain(0, gesture.length, MotionEvent.ACTION_UP, 80, 80, 0);
+
+        TouchEventQueue<MotionEvent> queue = new TouchEventQueue<>(64, adapter);
+        int[] replayed = {0};
+        TouchEventQueue.Consumer<MotionEvent> consumer = event -> replayed[0]++;
+        harness.measure("touch/queue/offer+drain/gesture=66", () -> {
+            for (MotionEvent event : gesture) {
+                queue.offer(event);
+            }
+            return queue.drain(consumer);
+        });
+    }
+
+    private static int next(int[] cursor) {
+        cursor[0] = (cursor[0] + 1) & (SAMPLES - 1);
+        return cursor[0];
+    }
+}
@@ -0,0 +1,28 @@
+package com.amap.api.location;
+
+import android.location.Location;
+
+public class AMapLocation extends Location {
+    private int errorCode;
+    private String errorInfo = "success";
+
+    public AMapLocation(String provider) {
+        super(provider);
+    }
+
+    public int getErrorCode() {
+        return errorCode;
+    }
+
+    public void setErrorCode(int errorCode) {
+        this.errorCode = errorCode;
+    }
+
+    public String getErrorInfo() {
+        return errorInfo;
+    }
+
+    public void setErrorInfo(String errorInfo) {
+        this.errorInfo = errorInfo;
+    }
+}
@@ -0,0 +1,8 @@
+package com.amap.api.maps;
+
+public final class AMap {
+    public static final int MAP_TYPE_NORMAL = 1;
+
+    private AMap() {
+    }
+}
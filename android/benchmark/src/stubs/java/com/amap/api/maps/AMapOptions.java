@@ -0,0 +1,5 @@
+package com.amap.api.maps;
+
+public class AMapOptions {
+    public static final int LOGO_POSITION_BOTTOM_LEFT = 0;
+}
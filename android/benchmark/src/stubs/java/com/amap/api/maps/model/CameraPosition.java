@@ -0,0 +1,17 @@
+package com.amap.api.maps.model;
+
+public final class CameraPosition {
+    public final LatLng target;
+    public final float zoom;
+    public final float tilt;
+    public final float bearing;
+    public final boolean isAbroad;
+
+    public CameraPosition(LatLng target, float zoom, float tilt, float bearing) {
+        this.target = target;
+        this.zoom = zoom;
+        this.tilt = tilt;
+        this.bearing = bearing;
+        this.isAbroad = false;
+    }
+}
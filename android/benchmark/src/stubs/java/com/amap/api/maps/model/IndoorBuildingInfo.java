@@ -0,0 +1,9 @@
+package com.amap.api.maps.model;
+
+public class IndoorBuildingInfo {
+    public String activeFloorName;
+    public int activeFloorIndex;
+    public String poiid;
+    public int[] floor_indexs;
+    public String[] floor_names;
+}
@@ -0,0 +1,11 @@
+package com.amap.api.maps.model;
+
+public final class LatLng {
+    public final double latitude;
+    public final double longitude;
+
+    public LatLng(double latitude, double longitude) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+    }
+}
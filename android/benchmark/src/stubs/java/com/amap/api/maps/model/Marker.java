@@ -0,0 +1,31 @@
+package com.amap.api.maps.model;
+
+public class Marker {
+    private final String id;
+    private final MarkerOptions options;
+    private final LatLng position;
+    private final Object object;
+
+    public Marker(String id, MarkerOptions options, LatLng position, Object object) {
+        this.id = id;
+        this.options = options;
+        this.position = position;
+        this.object = object;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public MarkerOptions getOptions() {
+        return options;
+    }
+
+    public LatLng getPosition() {
+        return position;
+    }
+
+    public Object getObject() {
+        return object;
+    }
+}
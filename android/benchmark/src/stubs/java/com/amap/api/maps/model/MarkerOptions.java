@@ -0,0 +1,24 @@
+package com.amap.api.maps.model;
+
+public final class MarkerOptions {
+    private String title;
+    private String snippet;
+
+    public MarkerOptions title(String title) {
+        this.title = title;
+        return this;
+    }
+
+    public MarkerOptions snippet(String snippet) {
+        this.snippet = snippet;
+        return this;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getSnippet() {
+        return snippet;
+    }
+}
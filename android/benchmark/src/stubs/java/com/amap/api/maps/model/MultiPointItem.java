@@ -0,0 +1,48 @@
+package com.amap.api.maps.model;
+
+import android.graphics.Point;
+
+public class MultiPointItem {
+    private final LatLng latLng;
+    private Point iPoint = new Point(0, 0);
+    private Object object;
+    private String customerId;
+    private String title;
+    private String snippet;
+
+    public MultiPointItem(LatLng latLng) {
+        this.latLng = latLng;
+    }
+
+    public LatLng getLatLng() {
+        return latLng;
+    }
+
+    public Point getIPoint() {
+        return iPoint;
+    }
+
+    public Object getObject() {
+        return object;
+    }
+
+    public void setObject(Object object) {
+        this.object = object;
+    }
+
+    public String getCustomerId() {
+        return customerId;
+    }
+
+    public void setCustomerId(String customerId) {
+        this.customerId = customerId;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getSnippet() {
+        return snippet;
+    }
+}
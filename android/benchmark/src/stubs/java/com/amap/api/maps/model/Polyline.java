@@ -0,0 +1,13 @@
+package com.amap.api.maps.model;
+
+public class Polyline {
+    private final String id;
+
+    public Polyline(String id) {
+        this.id = id;
+    }
+
+    public String getId() {
+        return id;
+    }
+}
@@ -0,0 +1,16 @@
+package com.getcapacitor;
+
+import org.json.JSONArray;
+
+import java.util.Collection;
+
+public class JSArray extends JSONArray {
+
+    public JSArray() {
+        super();
+    }
+
+    public JSArray(Collection<?> copyFrom) {
+        super(copyFrom);
+    }
+}
@@ -0,0 +1,96 @@
+package com.getcapacitor;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Capacitor JSObject 中插件用到的部分：put 不抛出受检异常，取值时返回默认值。
+ */
+public class JSObject extends JSONObject {
+
+    public JSObject() {
+        super();
+    }
+
+    @Override
+    public String getString(String key) {
+        return this.getString(key, null);
+    }
+
+    public String getString(String key, String defaultValue) {
+        Object value = this.opt(key);
+        return value instanceof String ? (String) value : defaultValue;
+    }
+
+    public Integer getInteger(String key) {
+        return this.getInteger(key, null);
+    }
+
+    public Integer getInteger(String key, Integer defaultValue) {
+        Object value = this.opt(key);
+        return value instanceof Number ? Integer.valueOf(((Number) value).intValue()) : defaultValue;
+    }
+
+    public Boolean getBoolean(String key, Boolean defaultValue) {
+        Object value = this.opt(key);
+        return value instanceof Boolean ? (Boolean) value : defaultValue;
+    }
+
+    public JSObject getJSObject(String name) {
+        Object value = this.opt(name);
+        return value instanceof JSObject ? (JSObject) value : null;
+    }
+
+    @Override
+    public JSObject put(String key, boolean value) {
+        try {
+            super.put(key, value);
+        } catch (JSONException ignored) {
+        }
+        return this;
+    }
+
+    @Override
+    public JSObject put(String key, int value) {
+        try {
+            super.put(key, value);
+        } catch (JSONException ignored) {
+        }
+        return this;
+    }
+
+    @Override
+    public JSObject put(String key, long value) {
+        try {
+            super.put(key, value);
+        } catch (JSONException ignored) {
+        }
+        return this;
+    }
+
+    @Override
+    public JSObject put(String key, double value) {
+        try {
+            super.put(key, value);
+        } catch (JSONException ignored) {
+        }
+        return this;
+    }
+
+    @Override
+    public JSObject put(String key, Object value) {
+        try {
+            super.put(key, value);
+        } catch (JSONException ignored) {
+        }
+        return this;
+    }
+
+    public JSObject put(String key, String value) {
+        try {
+            super.put(key, value);
+        } catch (JSONException ignored) {
+        }
+        return this;
+    }
+}
@@ -0,0 +1,13 @@
+package com.getcapacitor;
+
+public class PluginCall {
+    private final JSObject data;
+
+    public PluginCall(JSObject data) {
+        this.data = data;
+    }
+
+    public JSObject getData() {
+        return this.data;
+    }
+}
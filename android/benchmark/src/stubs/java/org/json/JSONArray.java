@@ -0,0 +1,87 @@
+package org.json;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Android org.json 的最小实现。
+ */
+public class JSONArray {
+    private final List<Object> values;
+
+    public JSONArray() {
+        this.values = new ArrayList<>();
+    }
+
+    public JSONArray(Collection<?> copyFrom) {
+        this();
+        if (copyFrom != null) {
+            this.values.addAll(copyFrom);
+        }
+    }
+
+    public int length() {
+        return this.values.size();
+    }
+
+    public JSONArray put(Object value) {
+        this.values.add(value);
+        return this;
+    }
+
+    public JSONArray put(int index, double value) throws JSONException {
+        return this.put(index, (Object) JSON.checkDouble(value));
+    }
+
+    public JSONArray put(int index, Object value) throws JSONException {
+        if (value instanceof Number) {
+            JSON.checkDouble(((Number) value).doubleValue());
+        }
+        if (index < 0) {
+            throw new JSONException("Index " + index + " out of range");
+        }
+        while (this.values.size() <= index) {
+            this.values.add(null);
+        }
+        this.values.set(index, value);
+        return this;
+    }
+
+    public Object get(int index) throws JSONException {
+        if (index < 0 || index >= this.values.size()) {
+            throw new JSONException("Index " + index + " out of range [0.." + this.values.size() + ")");
+        }
+        Object value = this.values.get(index);
+        if (value == null) {
+            throw new JSONException("Value at " + index + " is null.");
+        }
+        return value;
+    }
+
+    public String getString(int index) throws JSONException {
+        Object value = this.get(index);
+        return value instanceof String ? (String) value : String.valueOf(value);
+    }
+
+    public JSONObject getJSONObject(int index) throws JSONException {
+        Object value = this.get(index);
+        if (value instanceof JSONObject) {
+            return (JSONObject) value;
+        }
+        throw new JSONException("Value at " + index + " is not a JSONObject");
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        out.append('[');
+        for (int i = 0; i < this.values.size(); i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            JSON.write(out, this.values.get(i));
+        }
+        return out.append(']').toString();
+    }
+}
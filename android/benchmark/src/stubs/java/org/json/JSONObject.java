@@ -0,0 +1,195 @@
+package org.json;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Android org.json 的最小实现，保留 LinkedHashMap 存储和装箱行为，使分配数量与设备上接近。
+ */
+public class JSONObject {
+    public static final Object NULL = new Object() {
+        @Override
+        public boolean equals(Object o) {
+            return o == this || o == null;
+        }
+
+        @Override
+        public int hashCode() {
+            return 0;
+        }
+
+        @Override
+        public String toString() {
+            return "null";
+        }
+    };
+
+    private final LinkedHashMap<String, Object> nameValuePairs = new LinkedHashMap<>();
+
+    public JSONObject() {
+    }
+
+    public int length() {
+        return this.nameValuePairs.size();
+    }
+
+    public JSONObject put(String name, boolean value) throws JSONException {
+        this.nameValuePairs.put(checkName(name), value);
+        return this;
+    }
+
+    public JSONObject put(String name, double value) throws JSONException {
+        this.nameValuePairs.put(checkName(name), JSON.checkDouble(value));
+        return this;
+    }
+
+    public JSONObject put(String name, int value) throws JSONException {
+        this.nameValuePairs.put(checkName(name), value);
+        return this;
+    }
+
+    public JSONObject put(String name, long value) throws JSONException {
+        this.nameValuePairs.put(checkName(name), value);
+        return this;
+    }
+
+    public JSONObject put(String name, Object value) throws JSONException {
+        if (value == null) {
+            this.nameValuePairs.remove(name);
+            return this;
+        }
+        if (value instanceof Number) {
+            JSON.checkDouble(((Number) value).doubleValue());
+        }
+        this.nameValuePairs.put(checkName(name), value);
+        return this;
+    }
+
+    public Object remove(String name) {
+        return this.nameValuePairs.remove(name);
+    }
+
+    public boolean has(String name) {
+        return this.nameValuePairs.containsKey(name);
+    }
+
+    public boolean isNull(String name) {
+        Object value = this.nameValuePairs.get(name);
+        return value == null || value == NULL;
+    }
+
+    public Object opt(String name) {
+        return this.nameValuePairs.get(name);
+    }
+
+    public Object get(String name) throws JSONException {
+        Object result = this.nameValuePairs.get(name);
+        if (result == null) {
+            throw new JSONException("No value for " + name);
+        }
+        return result;
+    }
+
+    public boolean getBoolean(String name) throws JSONException {
+        Object object = this.get(name);
+        if (object instanceof Boolean) {
+            return (Boolean) object;
+        }
+        if (object instanceof String) {
+            String value = (String) object;
+            if ("true".equalsIgnoreCase(value)) {
+                return true;
+            }
+            if ("false".equalsIgnoreCase(value)) {
+                return false;
+            }
+        }
+        throw new JSONException("Value " + object + " at " + name + " is not a boolean");
+    }
+
+    public double getDouble(String name) throws JSONException {
+        Object object = this.get(name);
+        if (object instanceof Number) {
+            return ((Number) object).doubleValue();
+        }
+        if (object instanceof String) {
+            try {
+                return Double.parseDouble((String) object);
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        throw new JSONException("Value " + object + " at " + name + " is not a double");
+    }
+
+    public int getInt(String name) throws JSONException {
+        Object object = this.get(name);
+        if (object instanceof Number) {
+            return ((Number) object).intValue();
+        }
+        if (object instanceof String) {
+            try {
+                return (int) Double.parseDouble((String) object);
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        throw new JSONException("Value " + object + " at " + name + " is not an int");
+    }
+
+    public long getLong(String name) throws JSONException {
+        Object object = this.get(name);
+        if (object instanceof Number) {
+            return ((Number) object).longValue();
+        }
+        throw new JSONException("Value " + object + " at " + name + " is not a long");
+    }
+
+    public String getString(String name) throws JSONException {
+        Object object = this.get(name);
+        return object instanceof String ? (String) object : String.valueOf(object);
+    }
+
+    public JSONObject getJSONObject(String name) throws JSONException {
+        Object object = this.get(name);
+        if (object instanceof JSONObject) {
+            return (JSONObject) object;
+        }
+        throw new JSONException("Value " + object + " at " + name + " is not a JSONObject");
+    }
+
+    public JSONArray getJSONArray(String name) throws JSONException {
+        Object object = this.get(name);
+        if (object instanceof JSONArray) {
+            return (JSONArray) object;
+        }
+        throw new JSONException("Value " + object + " at " + name + " is not a JSONArray");
+    }
+
+    public Iterator<String> keys() {
+        return this.nameValuePairs.keySet().iterator();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        out.append('{');
+        boolean first = true;
+        for (Map.Entry<String, Object> entry : this.nameValuePairs.entrySet()) {
+            if (!first) {
+                out.append(',');
+            }
+            first = false;
+            JSON.quote(out, entry.getKey());
+            out.append(':');
+            JSON.write(out, entry.getValue());
+        }
+        return out.append('}').toString();
+    }
+
+    private static String checkName(String name) throws JSONException {
+        if (name == null) {
+            throw new JSONException("Names must be non-null");
+        }
+        return name;
+    }
+}
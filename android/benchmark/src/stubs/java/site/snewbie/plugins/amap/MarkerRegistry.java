@@ -0,0 +1,16 @@
+package site.snewbie.plugins.amap;
+
+import com.amap.api.maps.model.Marker;
+
+/**
+ * 只保留编码器用到的静态方法，与插件中的实现一致。
+ */
+public final class MarkerRegistry {
+    private MarkerRegistry() {
+    }
+
+    public static String getMarkerId(Marker nativeMarker) {
+        Object tag = nativeMarker.getObject();
+        return tag instanceof String ? (String) tag : null;
+    }
+}
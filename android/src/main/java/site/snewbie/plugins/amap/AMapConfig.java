@@ -30,6 +30,16 @@ public class AMapConfig {
 
     private CameraOptions cameraOptions;
 
+    /**
+     * 为 true 时由原生端跟踪 WebView 的滚动并平移地图，JS 端只在尺寸变化时上报位置。
+     */
+    private boolean nativeScrollTracking = false;
+    /**
+     * 创建地图时页面的滚动距离，单位：CSS 像素，用于原生滚动跟踪。
+     */
+    private float scrollX;
+    private float scrollY;
+
     public AMapConfig(JSObject fromJSONObject) throws JSONException {
         if (!fromJSONObject.has("width")) {
             throw new IllegalArgumentException("AMapConfig object is missing the required 'width' property");
@@ -87,6 +97,18 @@ public class AMapConfig {
             rotateGesturesEnabled = fromJSONObject.getBoolean("rotateGesturesEnabled");
         }
 
+        if (fromJSONObject.has("scrollTracking")) {
+            nativeScrollTracking = "native".equals(fromJSONObject.getString("scrollTracking"));
+        }
+
+        if (fromJSONObject.has("scrollX")) {
+            scrollX = Double.valueOf(fromJSONObject.getDouble("scrollX")).floatValue();
+        }
+
+        if (fromJSONObject.has("scrollY")) {
+            scrollY = Double.valueOf(fromJSONObject.getDouble("scrollY")).floatValue();
+        }
+
         JSObject cameraOptionsObj = fromJSONObject.getJSObject("cameraOptions");
         if (cameraOptionsObj != null) {
             cameraOptions = new CameraOptions(cameraOptionsObj);
@@ -0,0 +1,149 @@
+package site.snewbie.plugins.amap;
+
+import android.content.Context;
+import android.os.StatFs;
+
+import com.amap.api.maps.AMapException;
+import com.amap.api.maps.MapsInitializer;
+import com.amap.api.maps.offlinemap.OfflineMapCity;
+import com.amap.api.maps.offlinemap.OfflineMapManager;
+import com.amap.api.maps.offlinemap.OfflineMapStatus;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import cn.hutool.core.util.StrUtil;
+import site.snewbie.plugins.amap.offline.OfflineDownloader;
+
+/**
+ * 基于 {@link OfflineMapManager} 的离线地图下载器。SDK 的回调只有城市名称，下载时记录城市名称和编码的对应关系。
+ * 必须在 UI 线程中创建和调用，SDK 的回调也在 UI 线程中执行。
+ */
+public class AMapOfflineDownloader implements OfflineDownloader, OfflineMapManager.OfflineMapDownloadListener {
+    private final Context context;
+    private final OfflineMapManager manager;
+    private final Map<String, String> codesByName = new HashMap<>();
+    private Listener listener;
+
+    public AMapOfflineDownloader(Context context) {
+        this.context = context.getApplicationContext();
+        this.manager = new OfflineMapManager(this.context, this);
+    }
+
+    @Override
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public void download(String cityCode) throws AMapException {
+        OfflineMapCity city = this.manager.getItemByCityCode(cityCode);
+        if (city == null) {
+            throw new IllegalArgumentException("unknown city code " + cityCode);
+        }
+
+        this.codesByName.put(city.getCity(), cityCode);
+        this.manager.downloadByCityCode(cityCode);
+    }
+
+    @Override
+    public void pause(String cityCode) {
+        String name = this.nameOf(cityCode);
+        if (name != null) {
+            this.manager.pauseByName(name);
+        }
+    }
+
+    @Override
+    public void remove(String cityCode) {
+        String name = this.nameOf(cityCode);
+        if (name != null) {
+            this.manager.remove(name);
+        }
+    }
+
+    @Override
+    public long getSize(String cityCode) {
+        try {
+            OfflineMapCity city = this.manager.getItemByCityCode(cityCode);
+            return city != null ? city.getSize() : 0;
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+
+    public List<OfflineMapCity> getCities() {
+        return this.manager.getOfflineMapCityList();
+    }
+
+    /**
+     * 离线地图所在磁盘的剩余空间，未设置 {@link MapsInitializer#sdcardDir} 时按应用的外部存储目录计算。
+     */
+    public long availableBytes() {
+        File directory = StrUtil.isNotBlank(MapsInitializer.sdcardDir) ? new File(MapsInitializer.sdcardDir) : this.context.getExternalFilesDir(null);
+        if (directory == null) {
+            directory = this.context.getFilesDir();
+        }
+        // StatFs 要求路径存在
+        while (directory != null && !directory.exists()) {
+            directory = directory.getParentFile();
+        }
+        return directory != null ? new StatFs(directory.getPath()).getAvailableBytes() : 0;
+    }
+
+    public void destroy() {
+        this.manager.destroy();
+    }
+
+    @Override
+    public void onDownload(int status, int completeCode, String downName) {
+        String cityCode = this.codesByName.get(downName);
+        if (cityCode == null || this.listener == null) {
+            return;
+        }
+
+        switch (status) {
+            case OfflineMapStatus.LOADING:
+                this.listener.onProgress(cityCode, completeCode);
+                break;
+            case OfflineMapStatus.SUCCESS:
+                this.listener.onCompleted(cityCode);
+                break;
+            case OfflineMapStatus.ERROR:
+            case OfflineMapStatus.EXCEPTION_AMAP:
+            case OfflineMapStatus.EXCEPTION_NETWORK_LOADING:
+            case OfflineMapStatus.EXCEPTION_SDCARD:
+            case OfflineMapStatus.START_DOWNLOAD_FAILD:
+                this.listener.onFailed(cityCode, "offline map download failed, status " + status);
+                break;
+            default:
+                // 等待、解压、暂停等状态由调度器自己维护
+                break;
+        }
+    }
+
+    @Override
+    public void onCheckUpdate(boolean hasNew, String name) {
+    }
+
+    @Override
+    public void onRemove(boolean success, String name, String describe) {
+    }
+
+    private String nameOf(String cityCode) {
+        for (Map.Entry<String, String> entry : this.codesByName.entrySet()) {
+            if (entry.getValue().equals(cityCode)) {
+                return entry.getKey();
+            }
+        }
+
+        try {
+            OfflineMapCity city = this.manager.getItemByCityCode(cityCode);
+            return city != null ? city.getCity() : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
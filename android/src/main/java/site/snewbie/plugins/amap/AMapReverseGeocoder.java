@@ -0,0 +1,79 @@
+package site.snewbie.plugins.amap;
+
+import android.content.Context;
+
+import com.amap.api.services.core.LatLonPoint;
+import com.amap.api.services.geocoder.GeocodeResult;
+import com.amap.api.services.geocoder.GeocodeSearch;
+import com.amap.api.services.geocoder.RegeocodeAddress;
+import com.amap.api.services.geocoder.RegeocodeQuery;
+import com.amap.api.services.geocoder.RegeocodeResult;
+import com.amap.api.services.geocoder.StreetNumber;
+import com.getcapacitor.JSObject;
+
+import site.snewbie.plugins.amap.geocode.ReverseGeocoder;
+
+/**
+ * 基于高德搜索服务 {@link GeocodeSearch} 的逆地理编码，地址信息序列化为 JSON 便于缓存。
+ */
+public class AMapReverseGeocoder implements ReverseGeocoder {
+    private final Context context;
+
+    public AMapReverseGeocoder(Context context) {
+        this.context = context;
+    }
+
+    @Override
+    public void reverseGeocode(double latitude, double longitude, float radius, Callback callback) {
+        GeocodeSearch geocodeSearch;
+        try {
+            geocodeSearch = new GeocodeSearch(this.context);
+        } catch (Exception e) {
+            callback.onError(e);
+            return;
+        }
+
+        geocodeSearch.setOnGeocodeSearchListener(new GeocodeSearch.OnGeocodeSearchListener() {
+            @Override
+            public void onRegeocodeSearched(RegeocodeResult regeocodeResult, int rCode) {
+                RegeocodeAddress address = regeocodeResult != null ? regeocodeResult.getRegeocodeAddress() : null;
+                callback.onResult(rCode, address != null ? toJSObject(address).toString() : null);
+            }
+
+            @Override
+            public void onGeocodeSearched(GeocodeResult geocodeResult, int i) {
+
+            }
+        });
+
+        LatLonPoint latLonPoint = new LatLonPoint(latitude, longitude);
+        geocodeSearch.getFromLocationAsyn(new RegeocodeQuery(latLonPoint, radius, GeocodeSearch.AMAP));
+    }
+
+    public static JSObject toJSObject(RegeocodeAddress address) {
+        JSObject payload = new JSObject();
+        payload.put("formatAddress", address.getFormatAddress());
+        payload.put("country", address.getCountry());
+        payload.put("province", address.getProvince());
+        payload.put("city", address.getCity());
+        payload.put("cityCode", address.getCityCode());
+        payload.put("district", address.getDistrict());
+        payload.put("adCode", address.getAdCode());
+        payload.put("township", address.getTownship());
+        payload.put("towncode", address.getTowncode());
+        payload.put("neighborhood", address.getNeighborhood());
+        payload.put("building", address.getBuilding());
+
+        StreetNumber streetNumber = address.getStreetNumber();
+        if (streetNumber != null) {
+            JSObject street = new JSObject();
+            street.put("street", streetNumber.getStreet());
+            street.put("number", streetNumber.getNumber());
+            street.put("direction", streetNumber.getDirection());
+            street.put("distance", streetNumber.getDistance());
+            payload.put("streetNumber", street);
+        }
+
+        return payload;
+    }
+}
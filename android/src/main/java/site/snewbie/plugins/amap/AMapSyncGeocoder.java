@@ -0,0 +1,95 @@
+package site.snewbie.plugins.amap;
+
+import android.content.Context;
+
+import com.amap.api.services.core.AMapException;
+import com.amap.api.services.core.LatLonPoint;
+import com.amap.api.services.geocoder.GeocodeAddress;
+import com.amap.api.services.geocoder.GeocodeQuery;
+import com.amap.api.services.geocoder.GeocodeSearch;
+import com.amap.api.services.geocoder.RegeocodeAddress;
+import com.amap.api.services.geocoder.RegeocodeQuery;
+import com.getcapacitor.JSArray;
+import com.getcapacitor.JSObject;
+
+import java.util.List;
+
+import site.snewbie.plugins.amap.geocode.GeocodeException;
+import site.snewbie.plugins.amap.geocode.SyncGeocoder;
+
+/**
+ * 基于高德搜索服务同步接口的地理编码，每个线程复用一个 {@link GeocodeSearch}，
+ * 配合固定数量的工作线程使用时不会为每次查询创建搜索对象。
+ */
+public class AMapSyncGeocoder implements SyncGeocoder {
+    private final Context context;
+    private final ThreadLocal<GeocodeSearch> searches = new ThreadLocal<>();
+
+    public AMapSyncGeocoder(Context context) {
+        this.context = context;
+    }
+
+    @Override
+    public String geocode(String address, String city) throws GeocodeException {
+        try {
+            List<GeocodeAddress> addresses = this.getSearch().getFromLocationName(new GeocodeQuery(address, city));
+
+            JSArray payload = new JSArray();
+            if (addresses != null) {
+                for (GeocodeAddress geocodeAddress : addresses) {
+                    payload.put(toJSObject(geocodeAddress));
+                }
+            }
+            return payload.toString();
+        } catch (AMapException e) {
+            throw new GeocodeException(e.getErrorCode(), e.getErrorMessage(), e);
+        }
+    }
+
+    @Override
+    public String reverseGeocode(double latitude, double longitude, float radius) throws GeocodeException {
+        try {
+            RegeocodeQuery query = new RegeocodeQuery(new LatLonPoint(latitude, longitude), radius, GeocodeSearch.AMAP);
+            RegeocodeAddress address = this.getSearch().getFromLocation(query);
+            return address != null ? AMapReverseGeocoder.toJSObject(address).toString() : null;
+        } catch (AMapException e) {
+            throw new GeocodeException(e.getErrorCode(), e.getErrorMessage(), e);
+        }
+    }
+
+    private GeocodeSearch getSearch() throws GeocodeException {
+        GeocodeSearch search = this.searches.get();
+        if (search == null) {
+            try {
+                search = new GeocodeSearch(this.context);
+            } catch (Exception e) {
+                throw new GeocodeException(GeocodeException.UNKNOWN, e.getMessage(), e);
+            }
+            this.searches.set(search);
+        }
+        return search;
+    }
+
+    public static JSObject toJSObject(GeocodeAddress address) {
+        JSObject payload = new JSObject();
+        payload.put("formatAddress", address.getFormatAddress());
+        payload.put("province", address.getProvince());
+        payload.put("city", address.getCity());
+        payload.put("district", address.getDistrict());
+        payload.put("township", address.getTownship());
+        payload.put("neighborhood", address.getNeighborhood());
+        payload.put("building", address.getBuilding());
+        payload.put("adCode", address.getAdcode());
+        payload.put("level", address.getLevel());
+
+        LatLonPoint point = address.getLatLonPoint();
+        if (point != null) {
+            JSObject location = new JSObject();
+            location.put("latitude", point.getLatitude());
+            location.put("longitude", point.getLongitude());
+            payload.put("location", location);
+        }
+
+        return payload;
+    }
+}
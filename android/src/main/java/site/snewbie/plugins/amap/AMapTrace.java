@@ -0,0 +1,74 @@
+package site.snewbie.plugins.amap;
+
+import android.os.Build;
+import android.os.Trace;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 可选的 {@link Trace} 埋点，使插件的工作在 Perfetto / systrace 中按地图 id 和事件名称显示。
+ * 默认关闭，可以在 capacitor.config 中通过 {@code tracing: true} 开启，也可以运行时调用 setTracingEnabled。
+ * <p>
+ * 关闭时每个埋点只是读取一个静态字段，调用方必须先判断 {@link #isEnabled()} 再拼接名称，避免产生任何分配；
+ * 开启后只有在系统正在抓取 trace 时才会写入。同步区段必须在同一线程中成对调用。
+ */
+public final class AMapTrace {
+    /**
+     * Trace 区段名称的最大长度。
+     */
+    private static final int MAX_SECTION_NAME_LENGTH = 127;
+
+    private static volatile boolean enabled;
+    private static final AtomicInteger cookies = new AtomicInteger();
+
+    private AMapTrace() {
+    }
+
+    public static void setEnabled(boolean enabled) {
+        AMapTrace.enabled = enabled;
+    }
+
+    /**
+     * 开启了埋点且系统正在抓取 trace。
+     */
+    public static boolean isEnabled() {
+        if (!enabled) {
+            return false;
+        }
+        return Build.VERSION.SDK_INT < Build.VERSION_CODES.Q || Trace.isEnabled();
+    }
+
+    public static void begin(String sectionName) {
+        Trace.beginSection(truncate(sectionName));
+    }
+
+    public static void end() {
+        Trace.endSection();
+    }
+
+    /**
+     * 开始一个可以跨线程结束的异步区段。
+     *
+     * @return 结束时传给 {@link #endAsync} 的 cookie，当前系统不支持异步区段时返回 0
+     */
+    public static int beginAsync(String methodName) {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.Q) {
+            return 0;
+        }
+
+        int cookie = cookies.incrementAndGet();
+        Trace.beginAsyncSection(truncate(methodName), cookie);
+        return cookie;
+    }
+
+    public static void endAsync(String methodName, int cookie) {
+        if (cookie == 0 || Build.VERSION.SDK_INT < Build.VERSION_CODES.Q) {
+            return;
+        }
+        Trace.endAsyncSection(truncate(methodName), cookie);
+    }
+
+    private static String truncate(String name) {
+        return name.length() <= MAX_SECTION_NAME_LENGTH ? name : name.substring(0, MAX_SECTION_NAME_LENGTH);
+    }
+}
@@ -1,82 +1,292 @@
 package site.snewbie.plugins.amap;
 
 import android.graphics.Color;
-import android.graphics.Point;
+import android.graphics.PointF;
 import android.graphics.Rect;
 import android.graphics.RectF;
 import android.location.Location;
 import android.os.Build;
 import android.view.MotionEvent;
 import android.view.ViewGroup;
+import android.view.ViewParent;
+import android.webkit.WebView;
 import android.widget.FrameLayout;
 
 import androidx.annotation.RequiresApi;
 
 import com.amap.api.location.AMapLocation;
 import com.amap.api.maps.AMap;
-import com.amap.api.maps.AMapOptions;
 import com.amap.api.maps.MapView;
 import com.amap.api.maps.UiSettings;
 import com.amap.api.maps.model.CameraPosition;
-import com.amap.api.maps.model.IndoorBuildingInfo;
-import com.amap.api.maps.model.LatLng;
+import com.amap.api.maps.model.LatLngBounds;
 import com.amap.api.maps.model.Marker;
-import com.amap.api.maps.model.MultiPointItem;
-import com.amap.api.maps.model.Poi;
-import com.amap.api.maps.model.Polyline;
 import com.getcapacitor.Bridge;
 import com.getcapacitor.JSObject;
+import com.getcapacitor.Logger;
 import com.getcapacitor.PluginCall;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
 import lombok.Getter;
 import lombok.Setter;
+import site.snewbie.plugins.amap.cluster.Cluster;
+import site.snewbie.plugins.amap.event.PayloadEncoderRegistry;
+import site.snewbie.plugins.amap.geofence.GeofenceEngine;
+import site.snewbie.plugins.amap.perf.EventCounter;
+import site.snewbie.plugins.amap.perf.PerformanceStats;
+import site.snewbie.plugins.amap.touch.OccluderSet;
+import site.snewbie.plugins.amap.touch.TouchEventQueue;
+import site.snewbie.plugins.amap.track.TrackFilter;
+import site.snewbie.plugins.amap.track.TrackPoint;
 
 @Getter
 public class CapacitorAMap {
+    /**
+     * 等待 JS 端判定焦点期间最多缓存的触摸事件数量，连续的 ACTION_MOVE 会被合并。
+     */
+    private static final int TOUCH_EVENT_QUEUE_CAPACITY = 64;
+    /**
+     * 记录定位轨迹时依赖 onMyLocationChange 事件。
+     */
+    private static final String MY_LOCATION_TRACK = "myLocationTrack";
+    /**
+     * 预取瓦片时依赖 onCameraChangeFinish 事件。
+     */
+    private static final String TILE_PREFETCH = "tilePrefetch";
+    /**
+     * 判断地理围栏时依赖 onMyLocationChange 事件。
+     */
+    private static final String GEOFENCE = "geofence";
+    private static final TouchEventQueue.Adapter<MotionEvent> MOTION_EVENT_ADAPTER = new TouchEventQueue.Adapter<MotionEvent>() {
+        @Override
+        public boolean isMergeable(MotionEvent event) {
+            return event.getActionMasked() == MotionEvent.ACTION_MOVE;
+        }
+
+        @Override
+        public boolean canMerge(MotionEvent previous, MotionEvent next) {
+            return previous.getActionMasked() == MotionEvent.ACTION_MOVE
+                    && next.getActionMasked() == MotionEvent.ACTION_MOVE
+                    && previous.getPointerCount() == next.getPointerCount();
+        }
+
+        @Override
+        public void recycle(MotionEvent event) {
+            event.recycle();
+        }
+    };
+
     private final String id;
     private final AMapConfig config;
     private final CapacitorAMapPlugin delegate;
 
     private final MapView mapView;
+    private final MarkerRegistry markers;
+    private final MarkerClusterLayer clusterLayer;
+    private final PolylineLayer polylines;
+    private final Map<String, CapacitorAMapMultiPointOverlay> multiPointOverlays = new ConcurrentHashMap<>();
+    private final Map<String, CapacitorAMapHeatmap> heatmaps = new ConcurrentHashMap<>();
+    private final Map<String, CapacitorAMapTileOverlay> tileOverlays = new ConcurrentHashMap<>();
+    /**
+     * 地理围栏，插件线程中增删，UI 线程中按定位蓝点的位置判断。
+     */
+    private final GeofenceEngine geofences = new GeofenceEngine();
+    /**
+     * 地图专属的后台线程，用于聚合等不需要在 UI 线程执行的计算。
+     */
+    private final ExecutorService worker = Executors.newSingleThreadExecutor();
+    /**
+     * 按调用顺序依次执行的 Marker 操作，前一个完成后才在 worker 中开始下一个。
+     * 等待图标解码时不占用插件线程和 worker。
+     */
+    private final Queue<PendingMarkerOperation> markerOperations = new ArrayDeque<>();
+    private boolean markerOperationRunning;
+    /**
+     * 触摸事件的副本，只在 UI 线程中访问。
+     */
+    private final TouchEventQueue<MotionEvent> touchEvents = new TouchEventQueue<>(TOUCH_EVENT_QUEUE_CAPACITY, MOTION_EVENT_ADAPTER);
+    private final EventEmissionGate emissionGate = new EventEmissionGate(this::emit);
+    /**
+     * 覆盖在地图上方的 DOM 元素区域，开启原生焦点判定后用于直接分发触摸事件。
+     */
+    private final OccluderSet occluders = new OccluderSet();
+    /**
+     * 为 true 时手势开始时按覆盖区域判定焦点，不再询问 JS 端。
+     */
     @Setter
+    private volatile boolean nativeFocus;
+    /**
+     * JS 端有订阅的事件，以及插件内部依赖的事件。
+     */
+    private final Set<String> subscribedEvents = ConcurrentHashMap.newKeySet();
+    private final Map<String, Set<Object>> internalEvents = new HashMap<>();
+    /**
+     * 按数据类型编码事件 payload，只在 UI 线程中使用。
+     */
+    private final PayloadEncoderRegistry<JSObject> encoders;
+    /**
+     * JS 端选择以紧凑格式接收的事件。
+     */
+    private final Set<String> compactEvents = ConcurrentHashMap.newKeySet();
+    /**
+     * 常驻开启的事件计数，以及 UI 线程任务从提交到执行的等待时间。
+     */
+    private final PerformanceStats stats = new PerformanceStats();
+    /**
+     * 记录定位蓝点位置的轨迹 id 和过滤器，只在 UI 线程中访问。
+     */
+    private String myLocationTrackId;
+    private TrackFilter myLocationFilter;
+
+    private final AMap.OnMapLoadedListener mapLoadedListener = () -> this.notifyListeners("onMapReady");
+    private final AMap.OnCameraChangeListener cameraChangeListener = new AMap.OnCameraChangeListener() {
+        @Override
+        public void onCameraChange(CameraPosition cameraPosition) {
+            notifyListeners("onCameraChange", cameraPosition);
+        }
+
+        @Override
+        public void onCameraChangeFinish(CameraPosition cameraPosition) {
+            clusterLayer.onCameraIdle(cameraPosition);
+            polylines.onCameraIdle(cameraPosition);
+            prefetchTiles(cameraPosition);
+            // 保证合并中的最后一帧先于结束事件送达
+            emissionGate.flush("onCameraChange");
+            notifyListeners("onCameraChangeFinish", cameraPosition);
+        }
+    };
+    private final AMap.OnIndoorBuildingActiveListener indoorBuildingActiveListener = indoorBuildingInfo -> this.notifyListeners("onIndoorBuilding", indoorBuildingInfo);
+    private final AMap.OnInfoWindowClickListener infoWindowClickListener = marker -> this.notifyListeners("onInfoWindowClick", marker);
+    private final AMap.OnMapClickListener mapClickListener = point -> this.notifyListeners("onMapClick", point);
+    private final AMap.OnMapLongClickListener mapLongClickListener = point -> this.notifyListeners("onMapLongClick", point);
+    private final AMap.OnMapTouchListener mapTouchListener = event -> this.notifyListeners("onMapTouch", event);
+    private final AMap.OnMarkerClickListener markerClickListener = marker -> {
+        if (marker.getObject() instanceof Cluster) {
+            this.notifyListeners("onClusterClick", marker.getObject());
+        } else {
+            this.notifyListeners("onMarkerClick", marker);
+        }
+        return false;
+    };
+    private final AMap.OnMarkerDragListener markerDragListener = new AMap.OnMarkerDragListener() {
+        @Override
+        public void onMarkerDragStart(Marker marker) {
+            notifyListeners("onMarkerDragStart", marker);
+        }
+
+        @Override
+        public void onMarkerDrag(Marker marker) {
+            notifyListeners("onMarkerDrag", marker);
+        }
+
+        @Override
+        public void onMarkerDragEnd(Marker marker) {
+            markers.syncPosition(marker);
+            notifyListeners("onMarkerDragEnd", marker);
+        }
+    };
+    private final AMap.OnMultiPointClickListener multiPointClickListener = pointItem -> {
+        this.notifyListeners("onMultiPointClick", pointItem);
+        return false;
+    };
+    private final AMap.OnMyLocationChangeListener myLocationChangeListener = location -> {
+        this.recordMyLocation(location);
+        this.evaluateGeofences(location);
+        this.notifyListeners("onMyLocationChange", location);
+    };
+    private final AMap.OnPOIClickListener poiClickListener = poi -> this.notifyListeners("onPOIClick", poi);
+    private final AMap.OnPolylineClickListener polylineClickListener = polyline -> this.notifyListeners("onPolylineClick", polyline);
+
     private boolean touchEnabled;
     @Setter
     private boolean hidden;
+    /**
+     * MapView 是否来自 MapView 池。
+     */
+    private final boolean reused;
+    /**
+     * 设置过 SDK 无法重置的状态（例如地图限制范围）后，销毁时不放回 MapView 池。
+     */
+    @Setter
+    private boolean poolable = true;
+    /**
+     * 销毁后不再注册任何 SDK 监听，只在 UI 线程中访问。
+     */
+    private boolean destroyed;
 
     private RectF lastBounds = new RectF();
+    private final AtomicReference<PendingRender> pendingRender = new AtomicReference<>();
+    /**
+     * 原生滚动跟踪时地图左上角在 WebView 内容中的位置，单位：物理像素，只在 UI 线程中访问。
+     */
+    private final PointF anchor = new PointF();
+    /**
+     * 屏幕密度在地图生命周期内不变，避免每次换算都获取 DisplayMetrics。
+     */
+    private final float density;
 
     public CapacitorAMap(String id, AMapConfig config, CapacitorAMapPlugin delegate, PluginCall call) {
-        this.id = id;
-        this.config = config;
-        this.delegate = delegate;
-
-        AMapOptions mapOptions = new AMapOptions()
-                .logoPosition(config.getLogoPosition())
-                .mapType(config.getMapType())
-                .scaleControlsEnabled(config.isScaleControlsEnabled())
-                .compassEnabled(config.isCompassEnabled())
-                .rotateGesturesEnabled(config.isRotateGesturesEnabled())
-                .scrollGesturesEnabled(config.isScrollGesturesEnabled())
-                .tiltGesturesEnabled(config.isTiltGesturesEnabled())
-                .zoomControlsEnabled(config.isZoomControlsEnabled())
-                .zoomGesturesEnabled(config.isZoomGesturesEnabled());
-
-        if (config.getCameraOptions() != null) {
-            mapOptions.camera(config.getCameraOptions().toCameraPosition());
+        boolean traced = AMapTrace.isEnabled();
+        if (traced) {
+            AMapTrace.begin("AMap#create " + id);
+        }
+        try {
+            this.id = id;
+            this.config = config;
+            this.delegate = delegate;
+            this.density = delegate.getContext().getResources().getDisplayMetrics().density;
+
+            // 开启 MapView 池时优先复用，已加载完成的 MapView 不会再回调 onMapLoaded
+            MapView pooled = delegate.getMapViewPool().acquire(config);
+            this.reused = pooled != null;
+            this.mapView = this.reused ? pooled : delegate.getMapViewPool().create(config);
+
+            AMap map = this.mapView.getMap();
+            UiSettings uiSettings = map.getUiSettings();
+            uiSettings.setAllGesturesEnabled(true);
+
+            this.markers = new MarkerRegistry(map);
+            this.clusterLayer = new MarkerClusterLayer(this, map, this.markers);
+            this.markers.setClusterLayer(this.clusterLayer);
+            this.polylines = new PolylineLayer(this, map);
+            this.encoders = MapEventEncoders.create(config, this.polylines::getPolylineId);
+
+            // 注册到触摸命中索引，后创建的地图位于上层
+            this.delegate.getTouchTargets().register(this.id, this);
+            this.updateTouchBounds(new RectF(config.getX(), config.getY(), config.getX() + config.getWidth(), config.getY() + config.getHeight()));
+
+            this.render(call);
+        } finally {
+            if (traced) {
+                AMapTrace.end();
+            }
         }
-
-        this.mapView = new MapView(delegate.getContext(), mapOptions);
-        this.mapView.onCreate(null);
-
-        AMap map = this.mapView.getMap();
-        UiSettings uiSettings = map.getUiSettings();
-        uiSettings.setAllGesturesEnabled(true);
-
-        this.render(call);
     }
 
     private void render(PluginCall call) {
+        long postedAt = System.nanoTime();
         this.delegate.getActivity().runOnUiThread(() -> {
+            this.stats.latency("render").recordSince(postedAt);
+            boolean traced = AMapTrace.isEnabled();
+            if (traced) {
+                AMapTrace.begin("AMap#render " + this.id);
+            }
             try {
                 Bridge bridge = this.delegate.getBridge();
                 FrameLayout mapViewParent = new FrameLayout(bridge.getContext());
@@ -84,11 +294,11 @@ public class CapacitorAMap {
                 mapViewParent.setMinimumWidth(bridge.getWebView().getWidth());
 
                 FrameLayout.LayoutParams layoutParams = new FrameLayout.LayoutParams(
-                        this.getScaledPixels(bridge, this.config.getWidth()),
-                        this.getScaledPixels(bridge, this.config.getHeight())
+                        this.getScaledPixels(this.config.getWidth()),
+                        this.getScaledPixels(this.config.getHeight())
                 );
-                layoutParams.leftMargin = this.getScaledPixels(bridge, this.config.getX());
-                layoutParams.topMargin = this.getScaledPixels(bridge, this.config.getY());
+                layoutParams.leftMargin = this.getScaledPixels(this.config.getX());
+                layoutParams.topMargin = this.getScaledPixels(this.config.getY());
 
                 mapViewParent.setTag(this.id);
 
@@ -96,21 +306,47 @@ public class CapacitorAMap {
                 this.mapView.setLayoutParams(layoutParams);
                 mapViewParent.addView(this.mapView);
 
+                if (this.config.isNativeScrollTracking()) {
+                    // 原生滚动跟踪只通过平移定位，创建时的位置是相对可视区域的，加上当时的页面滚动距离得到在页面中的位置
+                    this.anchor.set(layoutParams.leftMargin + this.config.getScrollX() * this.density,
+                            layoutParams.topMargin + this.config.getScrollY() * this.density);
+                    layoutParams.leftMargin = 0;
+                    layoutParams.topMargin = 0;
+                    this.onWebViewScroll(bridge.getWebView().getScrollX(), bridge.getWebView().getScrollY());
+                }
+
                 ((ViewGroup) (bridge.getWebView().getParent())).addView(mapViewParent);
 
                 bridge.getWebView().bringToFront();
                 bridge.getWebView().setBackgroundColor(Color.TRANSPARENT);
 
-                this.setMapEventListeners();
+                this.syncMapEventListeners();
 
                 call.resolve();
+
+                if (this.reused) {
+                    this.mapView.post(() -> this.notifyListeners("onMapReady"));
+                }
             } catch (Exception e) {
                 call.reject(e.getMessage(), e);
+            } finally {
+                if (traced) {
+                    AMapTrace.end();
+                }
             }
         });
     }
 
     public void updateRender(RectF updatedBounds) {
+        this.updateRender(updatedBounds, null);
+    }
+
+    /**
+     * @param updatedBounds 地图在 WebView 可视区域中的位置，单位：CSS 像素
+     * @param scroll        测量位置时页面的滚动距离，单位：CSS 像素。原生滚动跟踪时用于计算地图在页面中的位置，
+     *                      为 null 时使用 WebView 当前的滚动距离
+     */
+    public void updateRender(RectF updatedBounds, PointF scroll) {
         // 如果 x, y, width, height 任意一个大于 0，就更新 lastBounds
         if (updatedBounds.left > 0 || updatedBounds.top > 0 || updatedBounds.width() > 0 || updatedBounds.height() > 0) {
             this.lastBounds = updatedBounds;
@@ -120,230 +356,454 @@ public class CapacitorAMap {
         this.config.setY((int) updatedBounds.top);
         this.config.setWidth((int) updatedBounds.width());
         this.config.setHeight((int) updatedBounds.height());
+        this.updateTouchBounds(updatedBounds);
+
+        // 滚动时 JS 端每帧都可能调用，UI 线程处理前的多次更新只应用最后一次
+        if (this.pendingRender.getAndSet(new PendingRender(updatedBounds, scroll)) == null) {
+            long postedAt = System.nanoTime();
+            this.delegate.getActivity().runOnUiThread(() -> {
+                this.stats.latency("updateRender").recordSince(postedAt);
+                PendingRender pending = this.pendingRender.getAndSet(null);
+                if (pending == null) {
+                    return;
+                }
+
+                boolean traced = AMapTrace.isEnabled();
+                if (traced) {
+                    AMapTrace.begin("AMap#updateRender " + this.id);
+                }
+                try {
+                    this.applyRender(pending.bounds, pending.scroll);
+                } finally {
+                    if (traced) {
+                        AMapTrace.end();
+                    }
+                }
+            });
+        }
+    }
+
+    private void applyRender(RectF bounds, PointF scroll) {
+        RectF mapRect = this.getScaledRect(bounds);
+        if (this.config.isNativeScrollTracking()) {
+            WebView webView = this.delegate.getBridge().getWebView();
+            float scrollX = scroll != null ? scroll.x * this.density : webView.getScrollX();
+            float scrollY = scroll != null ? scroll.y * this.density : webView.getScrollY();
+            this.anchor.set(mapRect.left + scrollX, mapRect.top + scrollY);
+            this.onWebViewScroll(webView.getScrollX(), webView.getScrollY());
+        } else {
+            this.mapView.setX(mapRect.left);
+            this.mapView.setY(mapRect.top);
+        }
+
+        // LayoutParams 是物理像素，只有尺寸真正变化时才重新布局
+        int width = this.getScaledPixels(bounds.width());
+        int height = this.getScaledPixels(bounds.height());
+        ViewGroup.LayoutParams layoutParams = this.mapView.getLayoutParams();
+        if (layoutParams.width != width || layoutParams.height != height) {
+            layoutParams.width = width;
+            layoutParams.height = height;
+            this.mapView.requestLayout();
+        }
+    }
+
+    /**
+     * 原生滚动跟踪时按 WebView 的滚动距离平移地图，不重新布局，必须在 UI 线程中调用。
+     *
+     * @param scrollX WebView 的滚动距离，单位：物理像素
+     */
+    public void onWebViewScroll(int scrollX, int scrollY) {
+        if (!this.config.isNativeScrollTracking() || this.destroyed) {
+            return;
+        }
+
+        float x = this.anchor.x - scrollX;
+        float y = this.anchor.y - scrollY;
+        if (x == this.mapView.getTranslationX() && y == this.mapView.getTranslationY()) {
+            return;
+        }
 
+        this.mapView.setTranslationX(x);
+        this.mapView.setTranslationY(y);
+
+        int width = this.mapView.getLayoutParams().width;
+        int height = this.mapView.getLayoutParams().height;
+        this.delegate.getTouchTargets().setBounds(this.id, (int) x, (int) y, (int) x + width, (int) y + height);
+        if (width > 0 || height > 0) {
+            this.config.setX((int) (x / this.density));
+            this.config.setY((int) (y / this.density));
+            this.lastBounds = new RectF(x / this.density, y / this.density, (x + width) / this.density, (y + height) / this.density);
+        }
+    }
+
+    public void setTouchEnabled(boolean touchEnabled) {
+        this.touchEnabled = touchEnabled;
+        this.delegate.getTouchTargets().setTouchEnabled(this.id, touchEnabled);
+    }
+
+    /**
+     * 更新触摸命中索引中的像素区域，隐藏时传入空区域。
+     */
+    private void updateTouchBounds(RectF bounds) {
+        this.delegate.getTouchTargets().setBounds(this.id,
+                this.getScaledPixels(bounds.left),
+                this.getScaledPixels(bounds.top),
+                this.getScaledPixels(bounds.right),
+                this.getScaledPixels(bounds.bottom));
+    }
+
+    /**
+     * 瓦片图层增删后调用，有瓦片图层时保持相机监听，用于预取瓦片。必须在 UI 线程中调用。
+     */
+    public void updateTileOverlays() {
+        this.setInternalEventRequired(TILE_PREFETCH, "onCameraChangeFinish", !this.tileOverlays.isEmpty());
+    }
+
+    private void prefetchTiles(CameraPosition cameraPosition) {
+        if (this.tileOverlays.isEmpty()) {
+            return;
+        }
+
+        LatLngBounds bounds = this.mapView.getMap().getProjection().getVisibleRegion().latLngBounds;
+        for (CapacitorAMapTileOverlay tileOverlay : this.tileOverlays.values()) {
+            tileOverlay.onCameraIdle(cameraPosition.zoom, bounds);
+        }
+    }
+
+    public void destroy() {
+        this.delegate.getTouchTargets().unregister(this.id, this);
+        this.emissionGate.clear();
+        this.worker.shutdownNow();
+        this.rejectMarkerOperations();
         this.delegate.getActivity().runOnUiThread(() -> {
-            Bridge bridge = this.delegate.getBridge();
-            RectF mapRect = getScaledRect(bridge, updatedBounds);
-            mapView.setX(mapRect.left);
-            mapView.setY(mapRect.top);
-            if (mapView.getLayoutParams().width != config.getWidth() || mapView.getLayoutParams().height != config.getHeight()) {
-                mapView.getLayoutParams().width = getScaledPixels(bridge, config.getWidth());
-                mapView.getLayoutParams().height = getScaledPixels(bridge, config.getHeight());
-                mapView.requestLayout();
+            this.touchEvents.clear();
+            this.destroyed = true;
+            this.syncMapEventListeners();
+
+            for (CapacitorAMapMultiPointOverlay multiPointOverlay : this.multiPointOverlays.values()) {
+                multiPointOverlay.getOverlay().remove();
+            }
+            this.multiPointOverlays.clear();
+
+            for (CapacitorAMapHeatmap heatmap : this.heatmaps.values()) {
+                if (heatmap.getOverlay() != null) {
+                    heatmap.getOverlay().remove();
+                }
+            }
+            this.heatmaps.clear();
+
+            for (CapacitorAMapTileOverlay tileOverlay : this.tileOverlays.values()) {
+                if (tileOverlay.getOverlay() != null) {
+                    tileOverlay.getOverlay().remove();
+                }
+                tileOverlay.destroy();
+            }
+            this.tileOverlays.clear();
+
+            // 移除 render 时创建的容器
+            ViewParent container = this.mapView.getParent();
+            if (container instanceof ViewGroup && container.getParent() instanceof ViewGroup) {
+                ((ViewGroup) container.getParent()).removeView((ViewGroup) container);
+            }
+
+            if (this.poolable) {
+                this.delegate.getMapViewPool().recycle(this.mapView);
+            } else {
+                this.mapView.onDestroy();
             }
         });
     }
 
     public Rect getMapBounds() {
         return new Rect(
-                this.getScaledPixels(this.delegate.getBridge(), config.getX()),
-                this.getScaledPixels(this.delegate.getBridge(), config.getY()),
-                this.getScaledPixels(this.delegate.getBridge(), config.getX() + config.getWidth()),
-                this.getScaledPixels(this.delegate.getBridge(), config.getY() + config.getHeight())
+                this.getScaledPixels(config.getX()),
+                this.getScaledPixels(config.getY()),
+                this.getScaledPixels(config.getX() + config.getWidth()),
+                this.getScaledPixels(config.getY() + config.getHeight())
         );
     }
 
-    private Integer getScaledPixels(Bridge bridge, int pixels) {
-        // Get the screen's density scale
-        float scale = bridge.getActivity().getResources().getDisplayMetrics().density;
+    private int getScaledPixels(float pixels) {
         // Convert the dps to pixels, based on density scale
-        return (int) (pixels * scale + 0.5f);
+        return (int) (pixels * this.density + 0.5f);
     }
 
-    private Float getScaledPixelsF(Bridge bridge, Float pixels) {
-        // Get the screen's density scale
-        float scale = bridge.getActivity().getResources().getDisplayMetrics().density;
-        // Convert the dps to pixels, based on density scale
-        return (pixels * scale + 0.5f);
-    }
-
-    private RectF getScaledRect(Bridge bridge, RectF rectF) {
+    private RectF getScaledRect(RectF rectF) {
         return new RectF(
-                this.getScaledPixelsF(bridge, rectF.left),
-                this.getScaledPixelsF(bridge, rectF.top),
-                this.getScaledPixelsF(bridge, rectF.right),
-                this.getScaledPixelsF(bridge, rectF.bottom)
+                rectF.left * this.density + 0.5f,
+                rectF.top * this.density + 0.5f,
+                rectF.right * this.density + 0.5f,
+                rectF.bottom * this.density + 0.5f
         );
     }
 
-    private void setMapEventListeners() {
-        AMap map = this.mapView.getMap();
+    /**
+     * 设置 JS 端有订阅的事件，只为这些事件注册 SDK 监听并发送到 WebView。
+     */
+    public void setSubscribedEvents(Collection<String> events) {
+        this.subscribedEvents.clear();
+        this.subscribedEvents.addAll(events);
+        this.syncMapEventListeners();
+    }
 
-        // 设置地图状态的监听接口
-        map.setOnCameraChangeListener(new AMap.OnCameraChangeListener() {
-            @Override
-            public void onCameraChange(CameraPosition cameraPosition) {
-                notifyListeners("onCameraChange", cameraPosition);
+    /**
+     * 声明插件内部是否依赖某个事件，例如聚合依赖相机停止移动事件。
+     * 插件内部依赖的事件即使没有 JS 订阅也会注册 SDK 监听，但不会发送到 WebView。
+     *
+     * @param requester 依赖该事件的对象，多个对象依赖同一事件时分别计数
+     */
+    public void setInternalEventRequired(Object requester, String event, boolean required) {
+        Set<Object> requesters = this.internalEvents.computeIfAbsent(event, key -> new HashSet<>());
+        boolean wasActive = !requesters.isEmpty();
+        if (required) {
+            requesters.add(requester);
+        } else {
+            requesters.remove(requester);
+        }
+
+        if (wasActive != !requesters.isEmpty()) {
+            this.syncMapEventListeners();
+        }
+    }
+
+    /**
+     * 将定位蓝点的位置写入轨迹存储，即使 JS 端没有订阅 onMyLocationChange。必须在 UI 线程中调用。
+     *
+     * @param trackId 轨迹 id，为 null 时停止记录
+     */
+    public void setMyLocationTrack(String trackId, TrackFilter filter) {
+        this.myLocationTrackId = trackId;
+        this.myLocationFilter = filter;
+        this.setInternalEventRequired(MY_LOCATION_TRACK, "onMyLocationChange", trackId != null);
+    }
+
+    private void recordMyLocation(Location location) {
+        String trackId = this.myLocationTrackId;
+        if (trackId == null || location == null) {
+            return;
+        }
+        if (location instanceof AMapLocation && ((AMapLocation) location).getErrorCode() != AMapLocation.LOCATION_SUCCESS) {
+            return;
+        }
+
+        TrackPoint point = new TrackPoint(location.getLatitude(), location.getLongitude(), location.getAccuracy(),
+                location.getAltitude(), location.getBearing(), location.getSpeed(), location.getTime());
+        if (this.myLocationFilter.accept(point)) {
+            this.delegate.appendTrack(trackId, Collections.singletonList(point));
+        }
+    }
+
+    /**
+     * 加入 Marker 操作队列，保证后调用的更新和移除不会先于添加执行。可以在任意线程中调用。
+     *
+     * @param call 操作对应的调用，地图销毁时尚未开始的操作以 "map destroyed" 拒绝
+     */
+    public void enqueueMarkerOperation(PluginCall call, MarkerOperation operation) {
+        synchronized (this.markerOperations) {
+            this.markerOperations.add(new PendingMarkerOperation(call, operation));
+            if (this.markerOperationRunning) {
+                return;
             }
+            this.markerOperationRunning = true;
+        }
+        this.scheduleNextMarkerOperation();
+    }
 
-            @Override
-            public void onCameraChangeFinish(CameraPosition cameraPosition) {
-                notifyListeners("onCameraChangeFinish", cameraPosition);
+    private void scheduleNextMarkerOperation() {
+        try {
+            // 总是在 worker 中开始下一个操作，同步完成的操作不会递归
+            this.worker.execute(this::runNextMarkerOperation);
+        } catch (RejectedExecutionException e) {
+            // 地图已销毁
+            this.rejectMarkerOperations();
+        }
+    }
+
+    /**
+     * 清空 Marker 操作队列，拒绝尚未开始的操作对应的调用。
+     */
+    private void rejectMarkerOperations() {
+        List<PendingMarkerOperation> pending;
+        synchronized (this.markerOperations) {
+            pending = new ArrayList<>(this.markerOperations);
+            this.markerOperations.clear();
+            this.markerOperationRunning = false;
+        }
+        for (PendingMarkerOperation operation : pending) {
+            operation.call.reject("map destroyed");
+        }
+    }
+
+    private void runNextMarkerOperation() {
+        PendingMarkerOperation operation;
+        synchronized (this.markerOperations) {
+            operation = this.markerOperations.poll();
+            if (operation == null) {
+                this.markerOperationRunning = false;
+                return;
             }
-        });
+        }
+
+        AtomicBoolean finished = new AtomicBoolean();
+        Runnable done = () -> {
+            if (finished.compareAndSet(false, true)) {
+                this.scheduleNextMarkerOperation();
+            }
+        };
+        try {
+            operation.operation.run(done);
+        } catch (Exception e) {
+            Logger.error("marker operation failed", e);
+            operation.call.reject(e.getMessage(), e);
+            done.run();
+        }
+    }
+
+    /**
+     * 地理围栏增删后调用，有围栏时保持定位监听。必须在 UI 线程中调用。
+     */
+    public void updateGeofences() {
+        this.setInternalEventRequired(GEOFENCE, "onMyLocationChange", this.geofences.size() > 0);
+    }
+
+    private void evaluateGeofences(Location location) {
+        if (location == null || this.geofences.size() == 0) {
+            return;
+        }
+        if (location instanceof AMapLocation && ((AMapLocation) location).getErrorCode() != AMapLocation.LOCATION_SUCCESS) {
+            return;
+        }
+
+        // 只发送状态变化，没有进出围栏的定位不会产生事件
+        for (GeofenceEngine.Transition transition : this.geofences.update(location.getLatitude(), location.getLongitude(),
+                location.getAccuracy(), location.getTime())) {
+            this.notifyListeners("onGeofenceTransition", transition);
+        }
+    }
+
+    private boolean isEventActive(String... events) {
+        if (this.destroyed) {
+            return false;
+        }
+
+        for (String event : events) {
+            Set<Object> requesters = this.internalEvents.get(event);
+            if (this.subscribedEvents.contains(event) || (requesters != null && !requesters.isEmpty())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 按需注册 SDK 监听，没有订阅的事件不注册，避免 SDK 在手势过程中持续回调。
+     * 必须在 UI 线程中调用。
+     */
+    private void syncMapEventListeners() {
+        AMap map = this.mapView.getMap();
+
+        // 设置地图加载完成监听接口，create 依赖该事件，销毁前始终注册
+        map.setOnMapLoadedListener(this.destroyed ? null : this.mapLoadedListener);
+        // 设置地图状态的监听接口
+        map.setOnCameraChangeListener(this.isEventActive("onCameraChange", "onCameraChangeFinish") ? this.cameraChangeListener : null);
         // 设置室内地图状态监听接口
-        map.setOnIndoorBuildingActiveListener(indoorBuildingInfo -> this.notifyListeners("onIndoorBuilding", indoorBuildingInfo));
+        map.setOnIndoorBuildingActiveListener(this.isEventActive("onIndoorBuilding") ? this.indoorBuildingActiveListener : null);
         // 设置marker的信息窗口点击事件监听接口
-        map.setOnInfoWindowClickListener(marker -> this.notifyListeners("onInfoWindowClick", marker));
+        map.setOnInfoWindowClickListener(this.isEventActive("onInfoWindowClick") ? this.infoWindowClickListener : null);
         // 设置地图点击事件监听接口
-        map.setOnMapClickListener(point -> this.notifyListeners("onMapClick", point));
-        // 设置地图加载完成监听接口
-        map.setOnMapLoadedListener(() -> this.notifyListeners("onMapReady"));
+        map.setOnMapClickListener(this.isEventActive("onMapClick") ? this.mapClickListener : null);
         // 设置地图长按事件监听接口
-        map.setOnMapLongClickListener(point -> this.notifyListeners("onMapLongClick", point));
+        map.setOnMapLongClickListener(this.isEventActive("onMapLongClick") ? this.mapLongClickListener : null);
         // 设置地图触摸事件监听接口
-        map.setOnMapTouchListener(event -> this.notifyListeners("onMapTouch", event));
+        map.setOnMapTouchListener(this.isEventActive("onMapTouch") ? this.mapTouchListener : null);
         // 设置marker点击事件监听接口
-        map.setOnMarkerClickListener(marker -> {
-            this.notifyListeners("onMarkerClick", marker);
-            return false;
-        });
+        map.setOnMarkerClickListener(this.isEventActive("onMarkerClick", "onClusterClick") ? this.markerClickListener : null);
         // marker拖动事件监听接口
-        map.setOnMarkerDragListener(new AMap.OnMarkerDragListener() {
-            @Override
-            public void onMarkerDragStart(Marker marker) {
-                notifyListeners("onMarkerDragStart", marker);
-            }
-
-            @Override
-            public void onMarkerDrag(Marker marker) {
-                notifyListeners("onMarkerDrag", marker);
-            }
-
-            @Override
-            public void onMarkerDragEnd(Marker marker) {
-                notifyListeners("onMarkerDragEnd", marker);
-            }
-        });
+        map.setOnMarkerDragListener(this.isEventActive("onMarkerDragStart", "onMarkerDrag", "onMarkerDragEnd") ? this.markerDragListener : null);
         // 设置海量点单击事件监听
-        map.setOnMultiPointClickListener(pointItem -> {
-            this.notifyListeners("onMultiPointClick", pointItem);
-            return false;
-        });
+        map.setOnMultiPointClickListener(this.isEventActive("onMultiPointClick") ? this.multiPointClickListener : null);
         // 设置用户定位信息监听接口。
-        map.setOnMyLocationChangeListener(location -> this.notifyListeners("onMyLocationChange", location));
+        map.setOnMyLocationChangeListener(this.isEventActive("onMyLocationChange") ? this.myLocationChangeListener : null);
         // 设置底图poi点击事件监听接口
-        map.setOnPOIClickListener(poi -> this.notifyListeners("onPOIClick", poi));
+        map.setOnPOIClickListener(this.isEventActive("onPOIClick") ? this.poiClickListener : null);
         // 设置polyline点击事件监听接口
-        map.setOnPolylineClickListener(polyline -> this.notifyListeners("onPolylineClick", polyline));
+        map.setOnPolylineClickListener(this.isEventActive("onPolylineClick") ? this.polylineClickListener : null);
+    }
+
+    /**
+     * 设置以紧凑格式发送的事件，替换之前的设置。不支持紧凑格式的事件仍按对象格式发送。
+     */
+    public void setCompactEvents(Collection<String> events) {
+        this.compactEvents.retainAll(events);
+        this.compactEvents.addAll(events);
     }
 
     public void notifyListeners(String eventName) {
+        EventCounter counter = this.stats.event(eventName);
+        counter.onReceived();
+        counter.onEmitted();
         this.delegate.notifyListeners(this.id, eventName, null);
     }
 
     public void notifyListeners(String eventName, Object data) {
-        Class<?> clazz = data.getClass();
-        if (JSObject.class.equals(clazz)) {
-            this.delegate.notifyListeners(this.id, eventName, (JSObject) data);
-        } else if (LatLng.class.equals(clazz)) {
-            this.delegate.notifyListeners(this.id, eventName, this.latLng2JSObject((LatLng) data));
-        } else if (CameraPosition.class.equals(clazz)) {
-            CameraPosition position = (CameraPosition) data;
-            JSObject payload = new JSObject();
-            payload.put("target", this.latLng2JSObject(position.target));
-            payload.put("zoom", position.zoom);
-            payload.put("tilt", position.tilt);
-            payload.put("bearing", position.bearing);
-            payload.put("isAbroad", position.isAbroad);
-
-            this.delegate.notifyListeners(this.id, eventName, payload);
-        } else if (Marker.class.equals(clazz)) {
-            Marker marker = (Marker) data;
-            JSObject options = new JSObject();
-            options.put("title", marker.getOptions().getTitle());
-            options.put("snippet", marker.getOptions().getSnippet());
-
-            JSObject payload = new JSObject();
-            payload.put("id", marker.getId());
-            payload.put("position", this.latLng2JSObject(marker.getPosition()));
-            payload.put("options", options);
-
-            this.delegate.notifyListeners(this.id, eventName, payload);
-        } else if (MotionEvent.class.equals(clazz)) {
-            MotionEvent event = (MotionEvent) data;
-            JSObject payload = new JSObject();
-            payload.put("x", event.getX() / this.config.getDevicePixelRatio());
-            payload.put("y", event.getY() / this.config.getDevicePixelRatio());
-            this.delegate.notifyListeners(this.id, eventName, payload);
-        } else if (IndoorBuildingInfo.class.equals(clazz)) {
-            IndoorBuildingInfo indoorBuildingInfo = (IndoorBuildingInfo) data;
-            JSObject payload = new JSObject();
-            payload.put("activeFloorName", indoorBuildingInfo.activeFloorName);
-            payload.put("activeFloorIndex", indoorBuildingInfo.activeFloorIndex);
-            payload.put("poiId", indoorBuildingInfo.poiid);
-            payload.put("floorIndexs", indoorBuildingInfo.floor_indexs);
-            payload.put("floorNames", indoorBuildingInfo.floor_names);
-            this.delegate.notifyListeners(this.id, eventName, payload);
-        } else if (Location.class.equals(clazz)) {
-            this.delegate.notifyListeners(this.id, eventName, this.location2JSObject((Location) data));
-        } else if (AMapLocation.class.equals(clazz)) {
-            this.delegate.notifyListeners(this.id, eventName, this.location2JSObject((AMapLocation) data));
-        } else if (MultiPointItem.class.equals(clazz)) {
-            MultiPointItem pointItem = (MultiPointItem) data;
-            JSObject payload = new JSObject();
-            payload.put("latLng", this.latLng2JSObject(pointItem.getLatLng()));
-            payload.put("point", this.point2JSObject(pointItem.getIPoint()));
-            payload.put("object", pointItem.getObject());
-            payload.put("customerId", pointItem.getCustomerId());
-            payload.put("title", pointItem.getTitle());
-            payload.put("snippet", pointItem.getSnippet());
-            this.delegate.notifyListeners(this.id, eventName, payload);
-        } else if (Poi.class.equals(clazz)) {
-            Poi poi = (Poi) data;
-            JSObject payload = new JSObject();
-            payload.put("name", poi.getName());
-            payload.put("coordinate", this.latLng2JSObject(poi.getCoordinate()));
-            payload.put("poiId", poi.getPoiId());
-            this.delegate.notifyListeners(this.id, eventName, payload);
-        } else if (Polyline.class.equals(clazz)) {
-            Polyline polyline = (Polyline) data;
-            JSObject payload = new JSObject();
-            payload.put("id", polyline.getId());
-            this.delegate.notifyListeners(this.id, eventName, payload);
-        } else {
-            throw new IllegalArgumentException("Unsupported data type: " + clazz.getName());
+        // 仅因插件内部依赖而注册的事件不需要序列化
+        if (!this.subscribedEvents.contains(eventName)) {
+            return;
         }
-    }
 
-    private JSObject latLng2JSObject(LatLng latLng) {
-        JSObject payload = new JSObject();
-        payload.put("latitude", latLng.latitude);
-        payload.put("longitude", latLng.longitude);
-        return payload;
+        this.stats.event(eventName).onReceived();
+        if (this.emissionGate.tryEmit(eventName, data)) {
+            this.emit(eventName, data);
+        }
     }
 
-    private JSObject point2JSObject(Point point) {
-        JSObject payload = new JSObject();
-        payload.put("x", point.x / this.config.getDevicePixelRatio());
-        payload.put("y", point.y / this.config.getDevicePixelRatio());
-        return payload;
+    private void emit(String eventName, Object data) {
+        boolean traced = AMapTrace.isEnabled();
+        if (traced) {
+            AMapTrace.begin("AMap#emit " + eventName);
+        }
+        try {
+            JSObject payload = this.encoders.encode(data, this.compactEvents.contains(eventName));
+            // 没有编码器的类型直接丢弃，不能让 SDK 回调抛出异常
+            if (payload != null) {
+                this.delegate.notifyListeners(this.id, eventName, payload);
+
+                EventCounter counter = this.stats.event(eventName);
+                if (counter.onEmitted()) {
+                    counter.recordSize(payload.toString().length());
+                }
+            }
+        } finally {
+            if (traced) {
+                AMapTrace.end();
+            }
+        }
     }
 
-    private JSObject location2JSObject(Location location) {
-        JSObject payload = new JSObject();
-        payload.put("latitude", location.getLatitude());
-        payload.put("longitude", location.getLongitude());
-        payload.put("accuracy", location.getAccuracy());
-        payload.put("altitude", location.getAltitude());
-        payload.put("bearing", location.getBearing());
-        payload.put("speed", location.getSpeed());
-        payload.put("time", location.getTime());
-        return payload;
+    public interface MarkerOperation {
+        /**
+         * 操作完成或失败后必须调用 done，之后才会开始下一个操作。
+         */
+        void run(Runnable done);
     }
 
-    private JSObject location2JSObject(AMapLocation location) {
-        if (location.getErrorCode() != 0) {
-            JSObject payload = new JSObject();
-            payload.put("errorCode", location.getErrorCode());
-            payload.put("errorInfo", location.getErrorInfo());
-            return payload;
-        }
+    private static final class PendingMarkerOperation {
+        private final PluginCall call;
+        private final MarkerOperation operation;
 
-        JSObject payload = this.location2JSObject((Location) location);
-        payload.put("errorCode", location.getErrorCode());
-        payload.put("errorInfo", location.getErrorInfo());
-        return payload;
+        private PendingMarkerOperation(PluginCall call, MarkerOperation operation) {
+            this.call = call;
+            this.operation = operation;
+        }
     }
 
+    private static final class PendingRender {
+        private final RectF bounds;
+        private final PointF scroll;
+
+        private PendingRender(RectF bounds, PointF scroll) {
+            this.bounds = bounds;
+            this.scroll = scroll;
+        }
+    }
 }
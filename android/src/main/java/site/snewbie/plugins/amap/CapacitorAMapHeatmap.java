@@ -0,0 +1,110 @@
+package site.snewbie.plugins.amap;
+
+import android.graphics.Bitmap;
+import android.graphics.Color;
+
+import com.amap.api.maps.model.Tile;
+import com.amap.api.maps.model.TileOverlay;
+import com.amap.api.maps.model.TileProvider;
+import com.getcapacitor.Logger;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.ByteArrayOutputStream;
+
+import lombok.Getter;
+import lombok.Setter;
+import site.snewbie.plugins.amap.heatmap.HeatmapGradient;
+import site.snewbie.plugins.amap.heatmap.HeatmapLayer;
+import site.snewbie.plugins.amap.heatmap.HeatmapStyle;
+
+/**
+ * 由插件管理的热力图图层。
+ * <p>
+ * SDK 的 HeatmapTileProvider 创建后不能修改数据，每次更新权重都要重新构建，
+ * 这里用 {@link HeatmapLayer} 实现 {@link TileProvider}：点在地图的后台线程中聚合到网格，
+ * 更新权重时只修改网格并移除受影响的缓存瓦片，再清空 SDK 的瓦片缓存重新请求可见瓦片。
+ */
+@Getter
+public class CapacitorAMapHeatmap implements TileProvider {
+    private final String id;
+    private final HeatmapLayer layer;
+    /**
+     * 在 UI 线程中添加到地图后设置。
+     */
+    @Setter
+    private TileOverlay overlay;
+
+    public CapacitorAMapHeatmap(String id, HeatmapStyle style, long cacheBytes) {
+        this.id = id;
+        this.layer = new HeatmapLayer(HeatmapLayer.DEFAULT_CELL_SIZE, HeatmapLayer.DEFAULT_MAX_ZOOM, cacheBytes, style, CapacitorAMapHeatmap::encode);
+    }
+
+    @Override
+    public Tile getTile(int x, int y, int zoom) {
+        try {
+            byte[] data = this.layer.getTile(x, y, zoom);
+            return data != null ? new Tile(HeatmapLayer.TILE_SIZE, HeatmapLayer.TILE_SIZE, data) : NO_TILE;
+        } catch (Exception e) {
+            Logger.error("failed to render heatmap tile", e);
+            return NO_TILE;
+        }
+    }
+
+    @Override
+    public int getTileWidth() {
+        return HeatmapLayer.TILE_SIZE;
+    }
+
+    @Override
+    public int getTileHeight() {
+        return HeatmapLayer.TILE_SIZE;
+    }
+
+    /**
+     * 在当前样式的基础上合并 radius、opacity、maxIntensity 和 gradient，未指定的参数保持不变。
+     *
+     * @return 没有指定任何样式参数时返回 null
+     */
+    public static HeatmapStyle parseStyle(JSONObject data, HeatmapStyle base) throws JSONException {
+        if (!data.has("radius") && !data.has("opacity") && !data.has("maxIntensity") && !data.has("gradient")) {
+            return null;
+        }
+
+        int radius = data.has("radius") ? data.getInt("radius") : base.getRadius();
+        double opacity = data.has("opacity") ? data.getDouble("opacity") : base.getOpacity();
+        double maxIntensity = data.has("maxIntensity") ? data.getDouble("maxIntensity") : base.getMaxIntensity();
+
+        HeatmapGradient gradient = base.getGradient();
+        if (data.has("gradient")) {
+            JSONObject gradientObject = data.getJSONObject("gradient");
+            JSONArray colorArray = gradientObject.getJSONArray("colors");
+            JSONArray startPointArray = gradientObject.getJSONArray("startPoints");
+
+            int[] colors = new int[colorArray.length()];
+            for (int i = 0; i < colors.length; i++) {
+                colors[i] = Color.parseColor(colorArray.getString(i));
+            }
+            float[] startPoints = new float[startPointArray.length()];
+            for (int i = 0; i < startPoints.length; i++) {
+                startPoints[i] = (float) startPointArray.getDouble(i);
+            }
+            gradient = new HeatmapGradient(colors, startPoints);
+        }
+
+        return new HeatmapStyle(radius, gradient, opacity, maxIntensity);
+    }
+
+    private static byte[] encode(int[] pixels, int size) {
+        Bitmap bitmap = Bitmap.createBitmap(pixels, size, size, Bitmap.Config.ARGB_8888);
+        try {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            bitmap.compress(Bitmap.CompressFormat.PNG, 100, output);
+            return output.toByteArray();
+        } finally {
+            bitmap.recycle();
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package site.snewbie.plugins.amap;
+
+import com.amap.api.maps.model.BitmapDescriptor;
+import com.amap.api.maps.model.Marker;
+import com.amap.api.maps.model.MarkerOptions;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import lombok.Getter;
+import lombok.Setter;
+import site.snewbie.plugins.amap.icon.IconSpec;
+
+@Getter
+public class CapacitorAMapMarker {
+    private final String id;
+
+    @Setter
+    private Location position;
+    private String title;
+    private String snippet;
+    private Boolean draggable;
+    private Boolean visible;
+    private Boolean flat;
+    private Boolean infoWindowEnable;
+    private Float alpha;
+    private Float anchorU;
+    private Float anchorV;
+    private Float zIndex;
+    private Float rotateAngle;
+    private IconSpec icon;
+
+    /**
+     * 解码后的图标，解码失败时为 null，使用默认图标。
+     */
+    @Setter
+    private BitmapDescriptor iconDescriptor;
+
+    @Setter
+    private Marker marker;
+
+    /**
+     * @param scale 图标尺寸从 CSS 像素换算为物理像素的比例
+     */
+    public CapacitorAMapMarker(JSONObject fromJSONObject, float scale) throws JSONException {
+        if (!fromJSONObject.has("id")) {
+            throw new IllegalArgumentException("Marker object is missing the required 'id' property");
+        }
+
+        id = fromJSONObject.getString("id");
+
+        if (fromJSONObject.has("position")) {
+            position = Location.fromObject(fromJSONObject.get("position"));
+        }
+
+        if (fromJSONObject.has("title")) {
+            title = fromJSONObject.getString("title");
+        }
+
+        if (fromJSONObject.has("snippet")) {
+            snippet = fromJSONObject.getString("snippet");
+        }
+
+        if (fromJSONObject.has("draggable")) {
+            draggable = fromJSONObject.getBoolean("draggable");
+        }
+
+        if (fromJSONObject.has("visible")) {
+            visible = fromJSONObject.getBoolean("visible");
+        }
+
+        if (fromJSONObject.has("flat")) {
+            flat = fromJSONObject.getBoolean("flat");
+        }
+
+        if (fromJSONObject.has("infoWindowEnable")) {
+            infoWindowEnable = fromJSONObject.getBoolean("infoWindowEnable");
+        }
+
+        if (fromJSONObject.has("alpha")) {
+            alpha = Double.valueOf(fromJSONObject.getDouble("alpha")).floatValue();
+        }
+
+        if (fromJSONObject.has("anchorU")) {
+            anchorU = Double.valueOf(fromJSONObject.getDouble("anchorU")).floatValue();
+        }
+
+        if (fromJSONObject.has("anchorV")) {
+            anchorV = Double.valueOf(fromJSONObject.getDouble("anchorV")).floatValue();
+        }
+
+        if (fromJSONObject.has("zIndex")) {
+            zIndex = Double.valueOf(fromJSONObject.getDouble("zIndex")).floatValue();
+        }
+
+        if (fromJSONObject.has("rotateAngle")) {
+            rotateAngle = Double.valueOf(fromJSONObject.getDouble("rotateAngle")).floatValue();
+        }
+
+        if (fromJSONObject.has("icon")) {
+            icon = iconFromObject(fromJSONObject.get("icon"), scale);
+        }
+    }
+
+    /**
+     * 图标可以是图片地址，也可以是包含 uri、width、height 的对象。
+     */
+    public static IconSpec iconFromObject(Object object, float scale) throws JSONException {
+        if (object instanceof JSONObject) {
+            JSONObject iconObject = (JSONObject) object;
+            return new IconSpec(
+                    iconObject.getString("uri"),
+                    (float) iconObject.optDouble("width", 0),
+                    (float) iconObject.optDouble("height", 0),
+                    scale
+            );
+        }
+        return new IconSpec(object.toString(), 0, 0, scale);
+    }
+
+    /**
+     * 将局部更新合并到当前配置中，未设置的属性保持不变。
+     */
+    public void merge(CapacitorAMapMarker update) {
+        if (update.position != null) {
+            position = update.position;
+        }
+        if (update.title != null) {
+            title = update.title;
+        }
+        if (update.snippet != null) {
+            snippet = update.snippet;
+        }
+        if (update.draggable != null) {
+            draggable = update.draggable;
+        }
+        if (update.visible != null) {
+            visible = update.visible;
+        }
+        if (update.flat != null) {
+            flat = update.flat;
+        }
+        if (update.infoWindowEnable != null) {
+            infoWindowEnable = update.infoWindowEnable;
+        }
+        if (update.alpha != null) {
+            alpha = update.alpha;
+        }
+        if (update.anchorU != null) {
+            anchorU = update.anchorU;
+        }
+        if (update.anchorV != null) {
+            anchorV = update.anchorV;
+        }
+        if (update.zIndex != null) {
+            zIndex = update.zIndex;
+        }
+        if (update.rotateAngle != null) {
+            rotateAngle = update.rotateAngle;
+        }
+        if (update.icon != null) {
+            icon = update.icon;
+            iconDescriptor = update.iconDescriptor;
+        }
+    }
+
+    public MarkerOptions toMarkerOptions() {
+        if (position == null) {
+            throw new IllegalArgumentException("Marker '" + id + "' is missing the required 'position' property");
+        }
+
+        MarkerOptions options = new MarkerOptions().position(position.toLatLng());
+        if (title != null) {
+            options.title(title);
+        }
+        if (snippet != null) {
+            options.snippet(snippet);
+        }
+        if (draggable != null) {
+            options.draggable(draggable);
+        }
+        if (visible != null) {
+            options.visible(visible);
+        }
+        if (flat != null) {
+            options.setFlat(flat);
+        }
+        if (infoWindowEnable != null) {
+            options.infoWindowEnable(infoWindowEnable);
+        }
+        if (alpha != null) {
+            options.alpha(alpha);
+        }
+        if (anchorU != null || anchorV != null) {
+            options.anchor(anchorU != null ? anchorU : 0.5f, anchorV != null ? anchorV : 1.0f);
+        }
+        if (zIndex != null) {
+            options.zIndex(zIndex);
+        }
+        if (rotateAngle != null) {
+            options.rotateAngle(rotateAngle);
+        }
+        if (iconDescriptor != null) {
+            options.icon(iconDescriptor);
+        }
+        return options;
+    }
+
+    /**
+     * 将局部更新直接作用到已添加的原生 Marker 上，只修改设置了的属性。
+     */
+    public void applyTo(Marker target, CapacitorAMapMarker merged) {
+        if (position != null) {
+            target.setPosition(position.toLatLng());
+        }
+        if (title != null) {
+            target.setTitle(title);
+        }
+        if (snippet != null) {
+            target.setSnippet(snippet);
+        }
+        if (draggable != null) {
+            target.setDraggable(draggable);
+        }
+        if (visible != null) {
+            target.setVisible(visible);
+        }
+        if (flat != null) {
+            target.setFlat(flat);
+        }
+        if (infoWindowEnable != null) {
+            target.setInfoWindowEnable(infoWindowEnable);
+        }
+        if (alpha != null) {
+            target.setAlpha(alpha);
+        }
+        if (anchorU != null || anchorV != null) {
+            target.setAnchor(
+                    merged.anchorU != null ? merged.anchorU : 0.5f,
+                    merged.anchorV != null ? merged.anchorV : 1.0f
+            );
+        }
+        if (zIndex != null) {
+            target.setZIndex(zIndex);
+        }
+        if (rotateAngle != null) {
+            target.setRotateAngle(rotateAngle);
+        }
+        if (iconDescriptor != null) {
+            target.setIcon(iconDescriptor);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package site.snewbie.plugins.amap;
+
+import com.amap.api.maps.model.LatLng;
+import com.amap.api.maps.model.MultiPointItem;
+import com.amap.api.maps.model.MultiPointOverlay;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import lombok.Getter;
+
+/**
+ * 由插件管理的海量点图层。海量点数据只在地图的后台线程中修改。
+ * 局部替换时只解码和创建新写入的点，未变化的 {@link MultiPointItem} 直接复用；
+ * SDK 没有局部更新接口，每次替换后仍会以完整列表调用 {@link MultiPointOverlay#setItems}。
+ */
+public class CapacitorAMapMultiPointOverlay {
+    @Getter
+    private final String id;
+    @Getter
+    private final MultiPointOverlay overlay;
+    @Getter
+    private final List<MultiPointItem> items = new ArrayList<>();
+    /**
+     * 与 items 一一对应，标记 customerId 是否为默认的下标
+     */
+    private final List<Boolean> indexed = new ArrayList<>();
+
+    public CapacitorAMapMultiPointOverlay(String id, MultiPointOverlay overlay) {
+        this.id = id;
+        this.overlay = overlay;
+    }
+
+    /**
+     * 与 JS 中 Array.prototype.splice 语义一致：从 start 开始删除 deleteCount 个点，再插入新的点。
+     *
+     * @param coordinates 经纬度交替排列的坐标
+     * @param customerIds 可选，与坐标一一对应的自定义 id，未指定时使用点的下标，点的下标移动时随之更新
+     */
+    public void splice(int start, int deleteCount, double[] coordinates, String[] customerIds) {
+        int size = this.items.size();
+        start = Math.max(0, Math.min(start, size));
+        deleteCount = Math.max(0, Math.min(deleteCount, size - start));
+
+        int count = coordinates.length / 2;
+        if (customerIds != null && customerIds.length != count) {
+            throw new IllegalArgumentException("customerIds length does not match coordinates");
+        }
+
+        List<MultiPointItem> inserted = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            MultiPointItem item = new MultiPointItem(new LatLng(coordinates[i * 2], coordinates[i * 2 + 1]));
+            item.setCustomerId(customerIds != null ? customerIds[i] : String.valueOf(start + i));
+            item.setObject(this.id);
+            inserted.add(item);
+        }
+        Boolean defaultId = customerIds == null;
+
+        // 数量相同时原地替换，避免移动后续元素
+        int replaced = Math.min(deleteCount, count);
+        for (int i = 0; i < replaced; i++) {
+            this.items.set(start + i, inserted.get(i));
+            this.indexed.set(start + i, defaultId);
+        }
+
+        if (deleteCount > count) {
+            this.items.subList(start + count, start + deleteCount).clear();
+            this.indexed.subList(start + count, start + deleteCount).clear();
+        } else if (count > deleteCount) {
+            this.items.addAll(start + deleteCount, inserted.subList(deleteCount, count));
+            this.indexed.addAll(start + deleteCount, Collections.nCopies(count - deleteCount, defaultId));
+        }
+
+        // 数量变化时后续的点下标移动，使用默认 id 的点需要重新编号，否则点击事件返回过时的下标
+        if (count != deleteCount) {
+            for (int i = start + count; i < this.items.size(); i++) {
+                if (this.indexed.get(i)) {
+                    this.items.get(i).setCustomerId(String.valueOf(i));
+                }
+            }
+        }
+
+        // 传入副本，避免 SDK 渲染线程读取时列表被修改
+        this.overlay.setItems(new ArrayList<>(this.items));
+    }
+
+    public int size() {
+        return this.items.size();
+    }
+}
@@ -5,29 +5,41 @@ import static com.amap.api.maps.AMap.MAP_TYPE_NORMAL;
 
 import android.annotation.SuppressLint;
 import android.content.BroadcastReceiver;
+import android.content.ComponentCallbacks2;
 import android.content.Context;
 import android.content.Intent;
 import android.content.IntentFilter;
-import android.graphics.Rect;
+import android.content.res.Configuration;
+import android.graphics.PointF;
 import android.graphics.RectF;
 import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.view.Choreographer;
 import android.view.MotionEvent;
+import android.view.ViewTreeObserver;
+import android.webkit.WebView;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.RequiresApi;
 
+import com.amap.api.location.AMapLocationClient;
 import com.amap.api.maps.CameraUpdate;
 import com.amap.api.maps.CameraUpdateFactory;
 import com.amap.api.maps.MapsInitializer;
 import com.amap.api.maps.UiSettings;
+import com.amap.api.maps.model.BitmapDescriptor;
+import com.amap.api.maps.model.BitmapDescriptorFactory;
 import com.amap.api.maps.model.LatLngBounds;
+import com.amap.api.maps.model.MultiPointOverlay;
+import com.amap.api.maps.model.MultiPointOverlayOptions;
 import com.amap.api.maps.model.MyLocationStyle;
-import com.amap.api.services.core.LatLonPoint;
-import com.amap.api.services.geocoder.GeocodeResult;
-import com.amap.api.services.geocoder.GeocodeSearch;
-import com.amap.api.services.geocoder.RegeocodeQuery;
-import com.amap.api.services.geocoder.RegeocodeResult;
+import com.amap.api.maps.model.TileOverlayOptions;
+import com.amap.api.maps.offlinemap.OfflineMapCity;
+import com.getcapacitor.JSArray;
 import com.getcapacitor.JSObject;
+import com.getcapacitor.Logger;
 import com.getcapacitor.PermissionState;
 import com.getcapacitor.Plugin;
 import com.getcapacitor.PluginCall;
@@ -36,16 +48,55 @@ import com.getcapacitor.annotation.CapacitorPlugin;
 import com.getcapacitor.annotation.Permission;
 import com.getcapacitor.annotation.PermissionCallback;
 
+import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
+import org.json.JSONTokener;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.BiPredicate;
 
-import cn.hutool.core.util.BooleanUtil;
 import cn.hutool.core.util.ObjUtil;
 import cn.hutool.core.util.StrUtil;
 import site.snewbie.plugins.amap.extend.OfflineMapActivity;
+import site.snewbie.plugins.amap.geocode.BatchGeocoder;
+import site.snewbie.plugins.amap.geocode.FileGeocodeDiskStore;
+import site.snewbie.plugins.amap.geocode.GeocodeDiskStore;
+import site.snewbie.plugins.amap.geocode.RateLimiter;
+import site.snewbie.plugins.amap.geocode.ReverseGeocodeCache;
+import site.snewbie.plugins.amap.geocode.ReverseGeocoder;
+import site.snewbie.plugins.amap.geofence.Geofence;
+import site.snewbie.plugins.amap.geofence.GeofenceEngine;
+import site.snewbie.plugins.amap.heatmap.HeatmapLayer;
+import site.snewbie.plugins.amap.heatmap.HeatmapStyle;
+import site.snewbie.plugins.amap.icon.IconRegistry;
+import site.snewbie.plugins.amap.icon.IconSpec;
+import site.snewbie.plugins.amap.offline.OfflineScheduler;
+import site.snewbie.plugins.amap.perf.EventCounter;
+import site.snewbie.plugins.amap.perf.LatencyRecorder;
+import site.snewbie.plugins.amap.perf.PerformanceStats;
+import site.snewbie.plugins.amap.pool.BoundedPool;
+import site.snewbie.plugins.amap.spatial.PointIndex;
+import site.snewbie.plugins.amap.tile.TileDiskCache;
+import site.snewbie.plugins.amap.tile.TileLoader;
+import site.snewbie.plugins.amap.tile.TileSource;
+import site.snewbie.plugins.amap.touch.TouchTargetIndex;
+import site.snewbie.plugins.amap.track.TrackBuffer;
+import site.snewbie.plugins.amap.track.TrackFilter;
+import site.snewbie.plugins.amap.track.TrackPoint;
+import site.snewbie.plugins.amap.track.TrackStore;
 
 @RequiresApi(api = Build.VERSION_CODES.R)
 @CapacitorPlugin(name = "CapacitorAMap", permissions = {
@@ -55,13 +106,147 @@ import site.snewbie.plugins.amap.extend.OfflineMapActivity;
         }, alias = "location")
 })
 public class CapacitorAMapPlugin extends Plugin {
-    private final Map<String, CapacitorAMap> maps = new HashMap<>();
-    private final Map<String, MutableList<MotionEvent>> cachedTouchEvents = new HashMap<>();
+    /**
+     * 插件线程中创建和销毁，UI 线程中按帧遍历。
+     */
+    private final Map<String, CapacitorAMap> maps = new ConcurrentHashMap<>();
+    /**
+     * 地图在 WebView 中的像素区域，触摸事件据此命中测试，不需要遍历地图计算区域。
+     */
+    private final TouchTargetIndex<CapacitorAMap> touchTargets = new TouchTargetIndex<>();
+    /**
+     * 逆地理编码缓存，首次使用时按默认配置创建。
+     */
+    private volatile ReverseGeocodeCache geocodeCache;
+    /**
+     * 批量地理编码调度器，所有批次共享并发和限流配置，首次使用时按默认配置创建。
+     */
+    private volatile BatchGeocoder batchGeocoder;
+
+    private MapViewPool mapViewPool;
+    /**
+     * 后台持续定位，只在 UI 线程中访问。
+     */
+    private LocationTracker locationTracker;
+    /**
+     * 持续定位的结果同时写入的轨迹 id，为 null 时不记录。
+     */
+    private volatile String locationTrackId;
+    /**
+     * 按轨迹 id 打开的轨迹存储，写入在单独的线程中进行，查询在插件线程中进行。
+     */
+    private final Map<String, TrackStore> trackStores = new HashMap<>();
+    private final ExecutorService trackWriter = Executors.newSingleThreadExecutor();
+    /**
+     * Marker 图标缓存，所有地图共享，图标在 iconDecoder 中解码。
+     */
+    private IconRegistry<BitmapDescriptor> iconRegistry;
+    private final ExecutorService iconDecoder = Executors.newFixedThreadPool(2);
+    /**
+     * 离线地图下载，首次使用时在 UI 线程中创建，只在 UI 线程中访问。
+     */
+    private AMapOfflineDownloader offlineDownloader;
+    private OfflineScheduler offlineScheduler;
+    /**
+     * 等待离线地图页面打开的广播接收器，收到广播或插件销毁时注销。
+     */
+    private BroadcastReceiver offlineMapActivityReceiver;
+    private final ComponentCallbacks2 memoryCallbacks = new ComponentCallbacks2() {
+        @Override
+        public void onTrimMemory(int level) {
+            if (level == TRIM_MEMORY_RUNNING_LOW || level == TRIM_MEMORY_RUNNING_CRITICAL || level >= TRIM_MEMORY_BACKGROUND) {
+                getActivity().runOnUiThread(() -> mapViewPool.clear());
+                // 已添加的 Marker 仍然持有各自的图标，只释放缓存中未使用的部分
+                iconRegistry.clear();
+            }
+        }
+
+        @Override
+        public void onConfigurationChanged(@NonNull Configuration newConfig) {
+
+        }
+
+        @Override
+        public void onLowMemory() {
+            getActivity().runOnUiThread(() -> mapViewPool.clear());
+            iconRegistry.clear();
+        }
+    };
+
+    /**
+     * WebView 滚动时在下一帧统一平移原生滚动跟踪的地图，同一帧内的多次滚动只处理一次。
+     */
+    private final ViewTreeObserver.OnScrollChangedListener webViewScrollListener = this::scheduleScrollFrame;
+    private final Choreographer.FrameCallback scrollFrameCallback = frameTimeNanos -> {
+        this.scrollFramePending = false;
+        WebView webView = this.bridge.getWebView();
+        int scrollX = webView.getScrollX();
+        int scrollY = webView.getScrollY();
+        for (CapacitorAMap map : this.maps.values()) {
+            map.onWebViewScroll(scrollX, scrollY);
+        }
+    };
+    private boolean scrollFramePending;
+
+    // 以下手势状态只在 UI 线程中访问
+    private CapacitorAMap gestureMap;
+    private Boolean gestureFocus;
+    private int gestureSequence;
+    private long gestureFocusRequestedAt;
+    /**
+     * 等待 JS 端判定焦点的异步 trace 区段，未开启 trace 时为 0。
+     */
+    private int gestureFocusTraceCookie;
+
+    /**
+     * 插件级别的耗时统计，各地图的事件计数在 {@link CapacitorAMap#getStats()} 中。
+     */
+    private final PerformanceStats stats = new PerformanceStats();
+    private final Handler perfStatsHandler = new Handler(Looper.getMainLooper());
+    private final Runnable perfStatsTask = new Runnable() {
+        @Override
+        public void run() {
+            if (perfStatsIntervalMs <= 0) {
+                return;
+            }
+            if (hasListeners("onPerfStats")) {
+                notifyListeners("onPerfStats", buildPerformanceStats(null));
+            }
+            perfStatsHandler.postDelayed(this, perfStatsIntervalMs);
+        }
+    };
+    private volatile long perfStatsIntervalMs;
 
     @Override
     public void load() {
         super.load();
+        // trace 埋点默认关闭，可以在 capacitor.config 中开启，也可以运行时调用 setTracingEnabled
+        AMapTrace.setEnabled(super.getConfig().getBoolean("tracing", false));
         this.setOnTouchListener();
+        super.bridge.getWebView().getViewTreeObserver().addOnScrollChangedListener(this.webViewScrollListener);
+
+        // MapView 池默认关闭，可以在 capacitor.config 中开启，也可以运行时调用 setMapViewPoolOptions
+        this.mapViewPool = new MapViewPool(super.getContext());
+        this.mapViewPool.configure(
+                super.getConfig().getInt("mapViewPoolSize", 0),
+                super.getConfig().getInt("mapViewPoolMaxMemoryMB", MapViewPool.DEFAULT_MAX_MEMORY_MB));
+        // Marker 图标缓存默认 16MB，可以在 capacitor.config 中通过 iconCacheMB 修改
+        this.iconRegistry = new IconRegistry<>(
+                super.getConfig().getInt("iconCacheMB", (int) (IconRegistry.DEFAULT_MAX_BYTES >> 20)) * 1024L * 1024L,
+                MarkerIconDecoder::sizeOf,
+                new MarkerIconDecoder(super.getContext()),
+                this.iconDecoder);
+        super.getContext().registerComponentCallbacks(this.memoryCallbacks);
+        super.getActivity().runOnUiThread(() -> this.mapViewPool.schedulePrewarm());
+
+        // 定位结果保留到 JS 端注册监听，页面重新加载期间的结果不会丢失
+        this.locationTracker = new LocationTracker(super.getContext(), points -> {
+            String trackId = this.locationTrackId;
+            if (trackId != null) {
+                this.appendTrack(trackId, points);
+            }
+            this.notifyListeners("onLocationBatch", this.trackPointsToJSObject(points), true);
+        });
     }
 
     @SuppressLint("ClickableViewAccessibility")
@@ -74,38 +259,76 @@ public class CapacitorAMapPlugin extends Plugin {
                 return v == null || v.onTouchEvent(event);
             }
 
-            for (CapacitorAMap map : maps.values()) {
-                if (BooleanUtil.isFalse(map.isTouchEnabled())) {
-                    continue;
-                }
+            int action = event.getActionMasked();
+            if (action == MotionEvent.ACTION_DOWN) {
+                // 只在手势开始时命中测试并询问 JS 端，手势结束前目标地图保持不变
+                this.gestureSequence++;
+                this.gestureFocus = null;
+                this.endGestureFocusTrace();
 
-                float touchX = event.getX();
-                float touchY = event.getY();
+                boolean traced = AMapTrace.isEnabled();
+                if (traced) {
+                    AMapTrace.begin("AMap#hitTest");
+                }
+                try {
+                    this.gestureMap = this.touchTargets.hitTest(event.getX(), event.getY());
+                } finally {
+                    if (traced) {
+                        AMapTrace.end();
+                    }
+                }
+                if (this.gestureMap == null) {
+                    return v == null || v.onTouchEvent(event);
+                }
 
-                Rect mapRect = map.getMapBounds();
-                if (mapRect.contains((int) touchX, (int) touchY)) {
-                    MutableList<MotionEvent> events = cachedTouchEvents.get(map.getId());
-                    if (event.getAction() == MotionEvent.ACTION_DOWN) {
-                        if (events == null) {
-                            events = new MutableList<>();
-                            cachedTouchEvents.put(map.getId(), events);
-                        }
+                CapacitorAMap map = this.gestureMap;
+                // 上一个手势未重放的事件直接回收
+                map.getTouchEvents().clear();
 
-                        events.clear();
+                if (map.isNativeFocus()) {
+                    // 按 JS 端同步的覆盖区域在当前帧判定，整个手势直接分发
+                    this.gestureFocus = !map.getOccluders().contains(event.getX(), event.getY());
+                    if (this.gestureFocus) {
+                        map.getMapView().dispatchTouchEvent(event);
+                        return true;
                     }
+                    return v == null || v.onTouchEvent(event);
+                }
 
-                    MotionEvent motionEvent = MotionEvent.obtain(event);
-                    if (events != null) {
-                        events.add(motionEvent);
-                    }
+                map.getTouchEvents().offer(MotionEvent.obtain(event));
 
-                    JSObject payload = new JSObject();
-                    payload.put("x", touchX / map.getConfig().getDevicePixelRatio());
-                    payload.put("y", touchY / map.getConfig().getDevicePixelRatio());
+                JSObject payload = new JSObject();
+                payload.put("x", event.getX() / map.getConfig().getDevicePixelRatio());
+                payload.put("y", event.getY() / map.getConfig().getDevicePixelRatio());
+                payload.put("gesture", this.gestureSequence);
 
-                    this.notifyListeners(map.getId(), "isMapInFocus", payload);
-                    return true;
+                this.gestureFocusRequestedAt = System.nanoTime();
+                if (traced) {
+                    this.gestureFocusTraceCookie = AMapTrace.beginAsync("AMap#touchFocus");
                 }
+                this.notifyListeners(map.getId(), "isMapInFocus", payload);
+                return true;
+            }
+
+            CapacitorAMap map = this.gestureMap;
+            if (map == null) {
+                return v == null || v.onTouchEvent(event);
+            }
+
+            if (action == MotionEvent.ACTION_UP || action == MotionEvent.ACTION_CANCEL) {
+                this.gestureMap = null;
+            }
+
+            Boolean focus = this.gestureFocus;
+            if (focus == null) {
+                // JS 端尚未返回判定结果，先缓存，收到结果后按顺序重放
+                map.getTouchEvents().offer(MotionEvent.obtain(event));
+                return true;
+            }
+
+            if (focus) {
+                map.getMapView().dispatchTouchEvent(event);
+                return true;
             }
 
             return v == null || v.onTouchEvent(event);
@@ -115,11 +338,37 @@ public class CapacitorAMapPlugin extends Plugin {
     @Override
     protected void handleOnDestroy() {
         super.handleOnDestroy();
+        super.bridge.getWebView().getViewTreeObserver().removeOnScrollChangedListener(this.webViewScrollListener);
 
         maps.values().removeIf(map -> {
-            map.getMapView().onDestroy();
+            map.destroy();
             return true;
         });
+
+        BatchGeocoder batchGeocoder = this.batchGeocoder;
+        if (batchGeocoder != null) {
+            batchGeocoder.shutdown();
+        }
+        this.iconDecoder.shutdownNow();
+
+        this.perfStatsIntervalMs = 0;
+        this.perfStatsHandler.removeCallbacks(this.perfStatsTask);
+
+        this.unregisterOfflineMapActivityReceiver();
+
+        super.getActivity().runOnUiThread(() -> {
+            if (this.offlineDownloader != null) {
+                this.offlineDownloader.destroy();
+            }
+            this.locationTracker.stop();
+            // 排在最后一批定位写入之后
+            this.trackWriter.execute(this::closeTrackStores);
+            this.trackWriter.shutdown();
+        });
+
+        super.getContext().unregisterComponentCallbacks(this.memoryCallbacks);
+        // 排在地图销毁之后，回收的 MapView 一并释放
+        super.getActivity().runOnUiThread(() -> this.mapViewPool.clear());
     }
 
     @Override
@@ -140,42 +389,52 @@ public class CapacitorAMapPlugin extends Plugin {
     public void getFromLocation(PluginCall call) {
         try {
             Location location = Location.fromJSObject(call, "location");
+            float radius = call.getFloat("radius", 1000F);
+            boolean useCache = Boolean.TRUE.equals(call.getBoolean("cache", true));
 
-            GeocodeSearch geocodeSearch = new GeocodeSearch(super.getContext());
-            geocodeSearch.setOnGeocodeSearchListener(new GeocodeSearch.OnGeocodeSearchListener() {
+            ReverseGeocoder geocoder = useCache ? this.getGeocodeCache() : new AMapReverseGeocoder(super.getContext());
+            int traceCookie = AMapTrace.isEnabled() ? AMapTrace.beginAsync("AMap#reverseGeocode") : 0;
+            geocoder.reverseGeocode(location.getLatitude(), location.getLongitude(), radius, new ReverseGeocoder.Callback() {
                 @Override
-                public void onRegeocodeSearched(RegeocodeResult regeocodeResult, int rCode) {
-                    JSObject result = new JSObject();
-                    result.put("code", rCode);
-                    result.put("address", regeocodeResult.getRegeocodeAddress());
-                    call.resolve(result);
+                public void onResult(int code, String payload) {
+                    AMapTrace.endAsync("AMap#reverseGeocode", traceCookie);
+                    try {
+                        JSObject result = new JSObject();
+                        result.put("code", code);
+                        result.put("address", payload != null ? new JSObject(payload) : null);
+                        call.resolve(result);
+                    } catch (Exception e) {
+                        call.reject(e.getMessage(), e);
+                    }
                 }
 
                 @Override
-                public void onGeocodeSearched(GeocodeResult geocodeResult, int i) {
-
+                public void onError(Exception e) {
+                    AMapTrace.endAsync("AMap#reverseGeocode", traceCookie);
+                    call.reject(e.getMessage(), e);
                 }
             });
-
-            LatLonPoint latLonPoint = new LatLonPoint(location.getLatitude(), location.getLongitude());
-            float radius = call.getFloat("radius", 1000F);
-            RegeocodeQuery regeocodeQuery = new RegeocodeQuery(latLonPoint, radius, GeocodeSearch.AMAP);
-
-            geocodeSearch.getFromLocationAsyn(regeocodeQuery);
         } catch (Exception e) {
             call.reject(e.getMessage(), e);
         }
     }
 
     @PluginMethod
-    public void updatePrivacyShow(PluginCall call) {
+    public void setGeocodeCacheOptions(PluginCall call) {
         try {
-            // isContains: 隐私权政策是否包含高德开平隐私权政策  true是包含
-            // isShow: 隐私权政策是否弹窗展示告知用户 true是展示
-            boolean isContains = Boolean.TRUE.equals(call.getBoolean("isContains", false));
-            boolean isShow = Boolean.TRUE.equals(call.getBoolean("isShow", false));
-
-            MapsInitializer.updatePrivacyShow(super.getContext(), isContains, isShow);
+            int maxEntries = call.getInt("maxEntries", ReverseGeocodeCache.DEFAULT_MAX_ENTRIES);
+            int precision = call.getInt("precision", ReverseGeocodeCache.DEFAULT_PRECISION);
+            long ttl = call.getLong("ttl", ReverseGeocodeCache.DEFAULT_TTL_MILLIS);
+            boolean persistent = Boolean.TRUE.equals(call.getBoolean("persistent", false));
+            int maxDiskEntries = call.getInt("maxDiskEntries", 4096);
+
+            GeocodeDiskStore diskStore = persistent
+                    ? new FileGeocodeDiskStore(new File(super.getContext().getCacheDir(), "amap-geocode"), maxDiskEntries)
+                    : null;
+
+            // 替换后旧缓存中进行的查询仍会正常回调
+            this.geocodeCache = new ReverseGeocodeCache(new AMapReverseGeocoder(super.getContext()),
+                    maxEntries, precision, ttl, diskStore, System::currentTimeMillis);
             call.resolve();
         } catch (Exception e) {
             call.reject(e.getMessage(), e);
@@ -183,24 +442,32 @@ public class CapacitorAMapPlugin extends Plugin {
     }
 
     @PluginMethod
-    public void updatePrivacyAgree(PluginCall call) {
+    public void getGeocodeCacheStats(PluginCall call) {
         try {
-            // isAgree: 隐私权政策是否取得用户同意  true是用户同意
-            boolean isAgree = Boolean.TRUE.equals(call.getBoolean("isAgree", false));
-
-            MapsInitializer.updatePrivacyAgree(super.getContext(), isAgree);
-            call.resolve();
+            ReverseGeocodeCache.Stats stats = this.getGeocodeCache().getStats();
+
+            JSObject result = new JSObject();
+            result.put("hits", stats.getHits());
+            result.put("diskHits", stats.getDiskHits());
+            result.put("misses", stats.getMisses());
+            result.put("joined", stats.getJoined());
+            result.put("evictions", stats.getEvictions());
+            result.put("size", stats.getSize());
+            result.put("inFlight", stats.getInFlight());
+            call.resolve(result);
         } catch (Exception e) {
             call.reject(e.getMessage(), e);
         }
     }
 
     @PluginMethod
-    public void setTerrainEnable(PluginCall call) {
+    public void clearGeocodeCache(PluginCall call) {
         try {
-            boolean isTerrainEnable = Boolean.TRUE.equals(call.getBoolean("isTerrainEnable", false));
-
-            MapsInitializer.setTerrainEnable(isTerrainEnable);
+            ReverseGeocodeCache cache = this.getGeocodeCache();
+            cache.clear();
+            if (Boolean.TRUE.equals(call.getBoolean("resetStats", false))) {
+                cache.resetStats();
+            }
             call.resolve();
         } catch (Exception e) {
             call.reject(e.getMessage(), e);
@@ -208,67 +475,87 @@ public class CapacitorAMapPlugin extends Plugin {
     }
 
     @PluginMethod
-    @RequiresApi(api = Build.VERSION_CODES.TIRAMISU)
-    public void openOfflineMapActivity(PluginCall call) {
+    public void batchGeocode(PluginCall call) {
         try {
-            IntentFilter filter = new IntentFilter(OfflineMapActivity.ON_CREATED_ACTION);
-            this.bridge.getActivity().registerReceiver(new BroadcastReceiver() {
-                @Override
-                public void onReceive(Context context, Intent intent) {
-                    if (OfflineMapActivity.ON_CREATED_ACTION.equals(intent.getAction())) {
-                        call.resolve();
+            JSArray addressesArray = call.getArray("addresses");
+            if (null == addressesArray) {
+                throw new IllegalArgumentException("addresses array is missing");
+            }
+
+            String defaultCity = call.getString("city");
+            List<BatchGeocoder.Query> queries = new ArrayList<>(addressesArray.length());
+            for (int i = 0; i < addressesArray.length(); i++) {
+                Object item = addressesArray.get(i);
+                String address;
+                String city = defaultCity;
+                if (item instanceof JSONObject itemObj) {
+                    address = itemObj.getString("address");
+                    if (itemObj.has("city")) {
+                        city = itemObj.getString("city");
                     }
+                } else {
+                    address = String.valueOf(item);
                 }
-            }, filter, Context.RECEIVER_NOT_EXPORTED);
 
-            Intent intent = new Intent(this.bridge.getActivity(), OfflineMapActivity.class);
-            this.bridge.getActivity().startActivity(intent);
+                String queryCity = city;
+                queries.add(geocoder -> geocoder.geocode(address, queryCity));
+            }
+
+            this.submitGeocodeBatch(call, "addresses", queries);
         } catch (Exception e) {
             call.reject(e.getMessage(), e);
         }
     }
 
     @PluginMethod
-    public void create(PluginCall call) {
+    public void batchReverseGeocode(PluginCall call) {
         try {
-            String id = call.getString("id");
-            if (StrUtil.isBlank(id)) {
-                throw new IllegalArgumentException("id is required");
+            JSArray locationsArray = call.getArray("locations");
+            if (null == locationsArray) {
+                throw new IllegalArgumentException("locations array is missing");
             }
 
-            JSObject config = call.getObject("config");
-            if (null == config) {
-                throw new IllegalArgumentException("config object is missing");
-            }
+            float radius = call.getFloat("radius", 1000F);
+            List<BatchGeocoder.Query> queries = new ArrayList<>(locationsArray.length());
+            for (int i = 0; i < locationsArray.length(); i++) {
+                Location location = Location.fromObject(locationsArray.get(i));
+                if (location == null) {
+                    throw new IllegalArgumentException("location is missing at index " + i);
+                }
 
-            Boolean forceCreate = call.getBoolean("forceCreate", false);
+                queries.add(geocoder -> geocoder.reverseGeocode(location.getLatitude(), location.getLongitude(), radius));
+            }
 
-            if (maps.containsKey(id)) {
-                if (ObjUtil.notEqual(forceCreate, true)) {
-                    call.resolve();
-                    return;
-                }
+            this.submitGeocodeBatch(call, "address", queries);
+        } catch (Exception e) {
+            call.reject(e.getMessage(), e);
+        }
+    }
 
-                CapacitorAMap oldMap = maps.remove(id);
-                if (oldMap != null) {
-                    oldMap.getMapView().onDestroy();
-                }
+    @PluginMethod
+    public void cancelGeocodeBatch(PluginCall call) {
+        try {
+            String batchId = call.getString("batchId");
+            if (StrUtil.isBlank(batchId)) {
+                throw new IllegalArgumentException("batchId is required");
             }
 
-            CapacitorAMap map = new CapacitorAMap(id, new AMapConfig(config), this, call);
-            maps.put(id, map);
-            call.resolve();
+            JSObject result = new JSObject();
+            result.put("cancelled", this.getBatchGeocoder().cancel(batchId));
+            call.resolve(result);
         } catch (Exception e) {
             call.reject(e.getMessage(), e);
         }
     }
 
     @PluginMethod
-    public void showIndoorMap(PluginCall call) {
+    public void setBatchGeocodeOptions(PluginCall call) {
         try {
-            CapacitorAMap map = this.getMap(call);
-            boolean enable = Boolean.TRUE.equals(call.getBoolean("enable", false));
-            map.getMapView().getMap().showIndoorMap(enable);
+            int concurrency = call.getInt("concurrency", BatchGeocoder.DEFAULT_CONCURRENCY);
+            double queriesPerSecond = call.getDouble("queriesPerSecond", BatchGeocoder.DEFAULT_QUERIES_PER_SECOND);
+
+            // 在同一个调度器中修改设置，已提交的批次按新的设置继续执行，仍然可以取消
+            this.getBatchGeocoder().configure(concurrency, new RateLimiter(queriesPerSecond));
             call.resolve();
         } catch (Exception e) {
             call.reject(e.getMessage(), e);
@@ -276,51 +563,90 @@ public class CapacitorAMapPlugin extends Plugin {
     }
 
     @PluginMethod
-    public void setMapType(PluginCall call) {
+    public void setMapViewPoolOptions(PluginCall call) {
         try {
-            CapacitorAMap map = this.getMap(call);
-            if (!call.hasOption("type")) {
-                throw new IllegalArgumentException("type is required");
+            int size = call.getInt("size", MapViewPool.DEFAULT_SIZE);
+            int maxMemoryMB = call.getInt("maxMemoryMB", MapViewPool.DEFAULT_MAX_MEMORY_MB);
+            if (size < 0 || maxMemoryMB < 0) {
+                throw new IllegalArgumentException("size and maxMemoryMB must not be negative");
             }
 
-            Integer type = call.getInt("type", null);
-            if (type == null || type < MAP_TYPE_NORMAL || type > MAP_TYPE_NAVI_NIGHT) {
-                throw new IllegalArgumentException("type is invalid");
-            }
+            super.getActivity().runOnUiThread(() -> {
+                try {
+                    this.mapViewPool.configure(size, maxMemoryMB);
+                    if (Boolean.TRUE.equals(call.getBoolean("prewarm", true))) {
+                        this.mapViewPool.schedulePrewarm();
+                    }
+                    call.resolve();
+                } catch (Exception e) {
+                    call.reject(e.getMessage(), e);
+                }
+            });
+        } catch (Exception e) {
+            call.reject(e.getMessage(), e);
+        }
+    }
 
-            map.getMapView().getMap().setMapType(type);
-            call.resolve();
+    @PluginMethod
+    public void getMapViewPoolStats(PluginCall call) {
+        try {
+            BoundedPool.Stats stats = this.mapViewPool.getStats();
+
+            JSObject result = new JSObject();
+            result.put("hits", stats.getHits());
+            result.put("coldCreates", stats.getMisses());
+            result.put("recycled", stats.getRecycled());
+            result.put("prewarmed", stats.getPrewarmed());
+            result.put("evictions", stats.getEvictions());
+            result.put("size", stats.getSize());
+            result.put("bytes", stats.getBytes());
+            call.resolve(result);
         } catch (Exception e) {
             call.reject(e.getMessage(), e);
         }
     }
 
     @PluginMethod
-    public void setTrafficEnabled(PluginCall call) {
+    public void getPerformanceStats(PluginCall call) {
         try {
-            CapacitorAMap map = this.getMap(call);
-            boolean enable = Boolean.TRUE.equals(call.getBoolean("enable", false));
-            map.getMapView().getMap().setTrafficEnabled(enable);
-            call.resolve();
+            call.resolve(this.buildPerformanceStats(call.getString("id")));
         } catch (Exception e) {
             call.reject(e.getMessage(), e);
         }
     }
 
     @PluginMethod
-    public void destroy(PluginCall call) {
+    public void resetPerformanceStats(PluginCall call) {
         try {
             String id = call.getString("id");
-            if (StrUtil.isBlank(id)) {
-                throw new IllegalArgumentException("id is required");
+            if (id == null) {
+                this.stats.reset();
+                for (CapacitorAMap map : this.maps.values()) {
+                    map.getStats().reset();
+                }
+            } else {
+                this.getMap(call).getStats().reset();
             }
+            call.resolve();
+        } catch (Exception e) {
+            call.reject(e.getMessage(), e);
+        }
+    }
 
-            CapacitorAMap removedMap = maps.remove(id);
-            if (removedMap == null) {
-                throw new IllegalArgumentException("map not found");
+    @PluginMethod
+    public void setPerformanceStatsOptions(PluginCall call) {
+        try {
+            Integer intervalMs = call.getInt("intervalMs", 0);
+            if (intervalMs == null || intervalMs < 0) {
+                throw new IllegalArgumentException("intervalMs must not be negative");
             }
 
-            removedMap.getMapView().onDestroy();
+            // 间隔为 0 时停止定时发送 onPerfStats
+            this.perfStatsIntervalMs = intervalMs;
+            this.perfStatsHandler.removeCallbacks(this.perfStatsTask);
+            if (intervalMs > 0) {
+                this.perfStatsHandler.postDelayed(this.perfStatsTask, intervalMs);
+            }
             call.resolve();
         } catch (Exception e) {
             call.reject(e.getMessage(), e);
@@ -328,12 +654,9 @@ public class CapacitorAMapPlugin extends Plugin {
     }
 
     @PluginMethod
-    public void show(PluginCall call) {
+    public void setTracingEnabled(PluginCall call) {
         try {
-            CapacitorAMap map = this.getMap(call);
-            map.setHidden(false);
-            map.updateRender(new RectF(map.getLastBounds()));
-            map.getMapView().refreshDrawableState();
+            AMapTrace.setEnabled(Boolean.TRUE.equals(call.getBoolean("enabled", false)));
             call.resolve();
         } catch (Exception e) {
             call.reject(e.getMessage(), e);
@@ -341,198 +664,1548 @@ public class CapacitorAMapPlugin extends Plugin {
     }
 
     @PluginMethod
-    public void hide(PluginCall call) {
+    public void startLocationTracking(PluginCall call) {
         try {
-            CapacitorAMap map = this.getMap(call);
-            map.setHidden(true);
-            map.updateRender(new RectF(0, 0, 0, 0));
-            call.resolve();
+            if (super.getPermissionState("location") != PermissionState.GRANTED) {
+                super.requestPermissionForAlias("location", call, "trackingPermsCallback");
+                return;
+            }
+
+            long interval = call.getLong("interval", 2000L);
+            if (interval <= 0) {
+                throw new IllegalArgumentException("interval must be greater than 0");
+            }
+            boolean highAccuracy = Boolean.TRUE.equals(call.getBoolean("highAccuracy", true));
+            TrackFilter filter = new TrackFilter(
+                    call.getDouble("minDistance", 10D),
+                    call.getLong("minInterval", 0L),
+                    call.getFloat("maxAccuracy", 100F));
+            int batchSize = call.getInt("batchSize", 20);
+            TrackBuffer buffer = new TrackBuffer(
+                    batchSize,
+                    call.getLong("maxBatchDelay", 60_000L),
+                    call.getInt("bufferCapacity", Math.max(batchSize, 1000)));
+
+            String trackId = call.getString("trackId");
+            if (trackId != null) {
+                this.getTrackStore(trackId);
+            }
+
+            JSObject notification = call.getObject("notification");
+            super.getActivity().runOnUiThread(() -> {
+                try {
+                    // 先停止上一次定位，已缓存的结果写入上一条轨迹
+                    this.locationTracker.stop();
+                    this.locationTrackId = trackId;
+                    this.locationTracker.start(filter, buffer, interval, highAccuracy, notification == null ? null
+                            : this.locationTracker.createNotification(notification.getString("title", ""), notification.getString("text", "")));
+                    call.resolve();
+                } catch (Exception e) {
+                    call.reject(e.getMessage(), e);
+                }
+            });
         } catch (Exception e) {
             call.reject(e.getMessage(), e);
         }
     }
 
+    @PermissionCallback
+    private void trackingPermsCallback(PluginCall call) {
+        if (super.getPermissionState("location") == PermissionState.GRANTED) {
+            this.startLocationTracking(call);
+        } else {
+            call.reject("Permission is required to track location");
+        }
+    }
+
     @PluginMethod
-    public void enableTouch(PluginCall call) {
-        this.setOnTouchListener();
-        this.setTouchEnabled(call, true);
+    public void stopLocationTracking(PluginCall call) {
+        super.getActivity().runOnUiThread(() -> {
+            try {
+                this.locationTracker.stop();
+                call.resolve();
+            } catch (Exception e) {
+                call.reject(e.getMessage(), e);
+            }
+        });
     }
 
     @PluginMethod
-    public void disableTouch(PluginCall call) {
-        this.setTouchEnabled(call, false);
+    public void flushLocationTracking(PluginCall call) {
+        super.getActivity().runOnUiThread(() -> {
+            try {
+                this.locationTracker.flush();
+                call.resolve();
+            } catch (Exception e) {
+                call.reject(e.getMessage(), e);
+            }
+        });
     }
 
     @PluginMethod
-    public void onScroll(PluginCall call) {
-        this.onResize(call);
+    public void getLocationTrackingStats(PluginCall call) {
+        super.getActivity().runOnUiThread(() -> {
+            try {
+                LocationTracker tracker = this.locationTracker;
+                JSObject result = new JSObject();
+                result.put("started", tracker.isStarted());
+                result.put("errors", tracker.getErrors());
+                if (tracker.getLastErrorCode() != 0) {
+                    result.put("lastErrorCode", tracker.getLastErrorCode());
+                    result.put("lastErrorInfo", tracker.getLastErrorInfo());
+                }
+
+                TrackFilter.Stats filterStats = tracker.getFilterStats();
+                if (filterStats != null) {
+                    result.put("accepted", filterStats.getAccepted());
+                    result.put("inaccurate", filterStats.getInaccurate());
+                    result.put("duplicates", filterStats.getDuplicates());
+                    result.put("tooSoon", filterStats.getTooSoon());
+                    result.put("tooClose", filterStats.getTooClose());
+                }
+
+                TrackBuffer.Stats bufferStats = tracker.getBufferStats();
+                if (bufferStats != null) {
+                    result.put("delivered", bufferStats.getDelivered());
+                    result.put("batches", bufferStats.getBatches());
+                    result.put("overflowed", bufferStats.getOverflowed());
+                    result.put("buffered", bufferStats.getBuffered());
+                }
+                call.resolve(result);
+            } catch (Exception e) {
+                call.reject(e.getMessage(), e);
+            }
+        });
     }
 
     @PluginMethod
-    public void onResize(PluginCall call) {
+    public void recordMyLocationTrack(PluginCall call) {
         try {
             CapacitorAMap map = this.getMap(call);
-
-            JSONObject boundsObj = call.getObject("mapBounds");
-            if (null == boundsObj) {
-                throw new IllegalArgumentException("mapBounds object is missing");
+            String trackId = call.getString("trackId");
+            TrackFilter filter = trackId == null ? null : new TrackFilter(
+                    call.getDouble("minDistance", 0D),
+                    call.getLong("minInterval", 0L),
+                    call.getFloat("maxAccuracy", 0F));
+            if (trackId != null) {
+                this.getTrackStore(trackId);
             }
 
-            RectF bounds = this.boundsObjectToRect(boundsObj);
-
-            map.updateRender(bounds);
-
-            call.resolve();
+            super.getActivity().runOnUiThread(() -> {
+                map.setMyLocationTrack(trackId, filter);
+                call.resolve();
+            });
         } catch (Exception e) {
             call.reject(e.getMessage(), e);
         }
     }
 
     @PluginMethod
-    public void onDisplay(PluginCall call) {
-        call.unavailable("this call is not available on android");
+    public void queryTrack(PluginCall call) {
+        try {
+            String trackId = call.getString("trackId");
+            long from = call.getLong("from", Long.MIN_VALUE);
+            long to = call.getLong("to", Long.MAX_VALUE);
+            int maxPoints = call.getInt("maxPoints", 0);
+
+            TrackStore.Result result = this.getTrackStore(trackId).query(from, to, maxPoints);
+            JSObject data = new JSObject();
+            data.put("total", result.getTotal());
+            data.put("count", result.getCount());
+            data.put("points", PackedCoordinates.encode(result.getValues(), result.getCount() * TrackStore.STRIDE));
+            call.resolve(data);
+        } catch (Exception e) {
+            call.reject(e.getMessage(), e);
+        }
     }
 
     @PluginMethod
-    public void dispatchMapEvent(PluginCall call) {
+    public void deleteTrack(PluginCall call) {
         try {
-            CapacitorAMap map = this.getMap(call);
-
-            String id = call.getString("id");
-
-            boolean focus = Boolean.TRUE.equals(call.getBoolean("focus", false));
-
-            MutableList<MotionEvent> events = cachedTouchEvents.get(id);
-            if (events != null) {
-                while (events.size() > 0) {
-                    MotionEvent event = events.first();
-                    if (focus) {
-                        map.getMapView().dispatchTouchEvent(event);
+            String trackId = call.getString("trackId");
+            Long before = call.getLong("before");
+            TrackStore store = this.getTrackStore(trackId);
+
+            // 在写入线程中删除，之前排队的定位结果写入后再删除，之后的写入使用新的存储
+            this.trackWriter.execute(() -> {
+                try {
+                    long deleted;
+                    if (before != null) {
+                        deleted = store.deleteBefore(before);
                     } else {
-                        this.bridge.getWebView().onTouchEvent(event);
+                        synchronized (this.trackStores) {
+                            this.trackStores.remove(trackId);
+                            deleted = store.deleteAll();
+                        }
                     }
-                    events.removeFirst();
-                }
-            }
 
-            call.resolve();
+                    JSObject result = new JSObject();
+                    result.put("deleted", deleted);
+                    call.resolve(result);
+                } catch (Exception e) {
+                    call.reject(e.getMessage(), e);
+                }
+            });
         } catch (Exception e) {
             call.reject(e.getMessage(), e);
         }
     }
 
-    private void setTouchEnabled(PluginCall call, boolean enabled) {
+    @PluginMethod
+    public void updatePrivacyShow(PluginCall call) {
         try {
-            CapacitorAMap map = this.getMap(call);
-            map.setTouchEnabled(enabled);
+            // isContains: 隐私权政策是否包含高德开平隐私权政策  true是包含
+            // isShow: 隐私权政策是否弹窗展示告知用户 true是展示
+            boolean isContains = Boolean.TRUE.equals(call.getBoolean("isContains", false));
+            boolean isShow = Boolean.TRUE.equals(call.getBoolean("isShow", false));
+
+            MapsInitializer.updatePrivacyShow(super.getContext(), isContains, isShow);
+            AMapLocationClient.updatePrivacyShow(super.getContext(), isContains, isShow);
             call.resolve();
         } catch (Exception e) {
             call.reject(e.getMessage(), e);
         }
     }
 
-    private RectF boundsObjectToRect(JSONObject jsonObject) throws JSONException {
-        if (!jsonObject.has("width")) {
-            throw new IllegalArgumentException("AMapConfig object is missing the required 'width' property");
+    @PluginMethod
+    public void updatePrivacyAgree(PluginCall call) {
+        try {
+            // isAgree: 隐私权政策是否取得用户同意  true是用户同意
+            boolean isAgree = Boolean.TRUE.equals(call.getBoolean("isAgree", false));
+
+            MapsInitializer.updatePrivacyAgree(super.getContext(), isAgree);
+            AMapLocationClient.updatePrivacyAgree(super.getContext(), isAgree);
+            if (isAgree) {
+                // 同意隐私政策前无法创建 MapView，预热在此之前会失败
+                super.getActivity().runOnUiThread(() -> this.mapViewPool.schedulePrewarm());
+            }
+            call.resolve();
+        } catch (Exception e) {
+            call.reject(e.getMessage(), e);
+        }
+    }
+
+    @PluginMethod
+    public void setTerrainEnable(PluginCall call) {
+        try {
+            boolean isTerrainEnable = Boolean.TRUE.equals(call.getBoolean("isTerrainEnable", false));
+
+            MapsInitializer.setTerrainEnable(isTerrainEnable);
+            call.resolve();
+        } catch (Exception e) {
+            call.reject(e.getMessage(), e);
+        }
+    }
+
+    @PluginMethod
+    @RequiresApi(api = Build.VERSION_CODES.TIRAMISU)
+    public void openOfflineMapActivity(PluginCall call) {
+        try {
+            // 上一次打开时页面没有创建成功，接收器仍在注册中
+            this.unregisterOfflineMapActivityReceiver();
+
+            BroadcastReceiver receiver = new BroadcastReceiver() {
+                @Override
+                public void onReceive(Context context, Intent intent) {
+                    if (OfflineMapActivity.ON_CREATED_ACTION.equals(intent.getAction())) {
+                        unregisterOfflineMapActivityReceiver();
+                        call.resolve();
+                    }
+                }
+            };
+            IntentFilter filter = new IntentFilter(OfflineMapActivity.ON_CREATED_ACTION);
+            this.bridge.getActivity().registerReceiver(receiver, filter, Context.RECEIVER_NOT_EXPORTED);
+            this.offlineMapActivityReceiver = receiver;
+
+            Intent intent = new Intent(this.bridge.getActivity(), OfflineMapActivity.class);
+            this.bridge.getActivity().startActivity(intent);
+        } catch (Exception e) {
+            this.unregisterOfflineMapActivityReceiver();
+            call.reject(e.getMessage(), e);
+        }
+    }
+
+    private synchronized void unregisterOfflineMapActivityReceiver() {
+        BroadcastReceiver receiver = this.offlineMapActivityReceiver;
+        if (receiver != null) {
+            this.offlineMapActivityReceiver = null;
+            try {
+                this.bridge.getActivity().unregisterReceiver(receiver);
+            } catch (IllegalArgumentException e) {
+                // 已经注销
+            }
+        }
+    }
+
+    @PluginMethod
+    public void listOfflineCities(PluginCall call) {
+        super.getActivity().runOnUiThread(() -> {
+            try {
+                JSArray cities = new JSArray();
+                this.getOfflineScheduler();
+                for (OfflineMapCity city : this.offlineDownloader.getCities()) {
+                    JSObject item = new JSObject();
+                    item.put("cityCode", city.getCode());
+                    item.put("city", city.getCity());
+                    item.put("size", city.getSize());
+                    item.put("state", city.getState());
+                    item.put("progress", city.getcompleteCode());
+                    item.put("version", city.getVersion());
+                    cities.put(item);
+                }
+
+                JSObject result = new JSObject();
+                result.put("cities", cities);
+                call.resolve(result);
+            } catch (Exception e) {
+                call.reject(e.getMessage(), e);
+            }
+        });
+    }
+
+    @PluginMethod
+    public void enqueueOfflineCities(PluginCall call) {
+        try {
+            List<String> cityCodes = Arrays.asList(this.getStringArray(call, "cityCodes"));
+            int priority = call.getInt("priority", 0);
+
+            super.getActivity().runOnUiThread(() -> {
+                try {
+                    OfflineScheduler scheduler = this.getOfflineScheduler();
+                    JSArray tasks = new JSArray();
+                    for (String cityCode : cityCodes) {
+                        tasks.put(this.offlineTaskToJSObject(scheduler.enqueue(cityCode, priority)));
+                    }
+
+                    JSObject result = new JSObject();
+                    result.put("tasks", tasks);
+                    call.resolve(result);
+                } catch (Exception e) {
+                    call.reject(e.getMessage(), e);
+                }
+            });
+        } catch (Exception e) {
+            call.reject(e.getMessage(), e);
+        }
+    }
+
+    @PluginMethod
+    public void pauseOfflineCity(PluginCall call) {
+        this.updateOfflineTask(call, OfflineScheduler::pause);
+    }
+
+    @PluginMethod
+    public void resumeOfflineCity(PluginCall call) {
+        this.updateOfflineTask(call, OfflineScheduler::resume);
+    }
+
+    @PluginMethod
+    public void removeOfflineCity(PluginCall call) {
+        this.updateOfflineTask(call, OfflineScheduler::remove);
+    }
+
+    private void updateOfflineTask(PluginCall call, BiPredicate<OfflineScheduler, String> action) {
+        try {
+            String cityCode = call.getString("cityCode");
+            if (StrUtil.isBlank(cityCode)) {
+                throw new IllegalArgumentException("cityCode is missing");
+            }
+
+            super.getActivity().runOnUiThread(() -> {
+                try {
+                    JSObject result = new JSObject();
+                    result.put("updated", action.test(this.getOfflineScheduler(), cityCode));
+                    call.resolve(result);
+                } catch (Exception e) {
+                    call.reject(e.getMessage(), e);
+                }
+            });
+        } catch (Exception e) {
+            call.reject(e.getMessage(), e);
+        }
+    }
+
+    @PluginMethod
+    public void getOfflineTasks(PluginCall call) {
+        super.getActivity().runOnUiThread(() -> {
+            try {
+                JSArray tasks = new JSArray();
+                for (OfflineScheduler.Task task : this.getOfflineScheduler().getTasks()) {
+                    tasks.put(this.offlineTaskToJSObject(task));
+                }
+
+                JSObject result = new JSObject();
+                result.put("tasks", tasks);
+                call.resolve(result);
+            } catch (Exception e) {
+                call.reject(e.getMessage(), e);
+            }
+        });
+    }
+
+    @PluginMethod
+    public void setOfflineDownloadOptions(PluginCall call) {
+        try {
+            int maxConcurrent = call.getInt("maxConcurrent", OfflineScheduler.DEFAULT_MAX_CONCURRENT);
+            int maxRetries = call.getInt("maxRetries", OfflineScheduler.DEFAULT_MAX_RETRIES);
+            long retryDelay = call.getLong("retryDelay", OfflineScheduler.DEFAULT_RETRY_DELAY_MILLIS);
+            long progressInterval = call.getLong("progressInterval", OfflineScheduler.DEFAULT_PROGRESS_INTERVAL_MILLIS);
+            long reservedMB = call.getLong("reservedMB", OfflineScheduler.DEFAULT_RESERVED_BYTES / 1024 / 1024);
+
+            super.getActivity().runOnUiThread(() -> {
+                try {
+                    this.getOfflineScheduler().configure(maxConcurrent, maxRetries, retryDelay, progressInterval, reservedMB * 1024 * 1024);
+                    call.resolve();
+                } catch (Exception e) {
+                    call.reject(e.getMessage(), e);
+                }
+            });
+        } catch (Exception e) {
+            call.reject(e.getMessage(), e);
+        }
+    }
+
+    @PluginMethod
+    public void create(PluginCall call) {
+        try {
+            String id = call.getString("id");
+            if (StrUtil.isBlank(id)) {
+                throw new IllegalArgumentException("id is required");
+            }
+
+            JSObject config = call.getObject("config");
+            if (null == config) {
+                throw new IllegalArgumentException("config object is missing");
+            }
+
+            Boolean forceCreate = call.getBoolean("forceCreate", false);
+
+            if (maps.containsKey(id)) {
+                if (ObjUtil.notEqual(forceCreate, true)) {
+                    call.resolve();
+                    return;
+                }
+
+                CapacitorAMap oldMap = maps.remove(id);
+                if (oldMap != null) {
+                    oldMap.destroy();
+                }
+            }
+
+            CapacitorAMap map = new CapacitorAMap(id, new AMapConfig(config), this, call);
+            maps.put(id, map);
+            // 复用后补充池中的 MapView
+            super.getActivity().runOnUiThread(() -> this.mapViewPool.schedulePrewarm());
+            call.resolve();
+        } catch (Exception e) {
+            call.reject(e.getMessage(), e);
+        }
+    }
+
+    @PluginMethod
+    public void showIndoorMap(PluginCall call) {
+        try {
+            CapacitorAMap map = this.getMap(call);
+            boolean enable = Boolean.TRUE.equals(call.getBoolean("enable", false));
+            map.getMapView().getMap().showIndoorMap(enable);
+            call.resolve();
+        } catch (Exception e) {
+            call.reject(e.getMessage(), e);
+        }
+    }
+
+    @PluginMethod
+    public void setMapType(PluginCall call) {
+        try {
+            CapacitorAMap map = this.getMap(call);
+            if (!call.hasOption("type")) {
+                throw new IllegalArgumentException("type is required");
+            }
+
+            Integer type = call.getInt("type", null);
+            if (type == null || type < MAP_TYPE_NORMAL || type > MAP_TYPE_NAVI_NIGHT) {
+                throw new IllegalArgumentException("type is invalid");
+            }
+
+            map.getMapView().getMap().setMapType(type);
+            call.resolve();
+        } catch (Exception e) {
+            call.reject(e.getMessage(), e);
+        }
+    }
+
+    @PluginMethod
+    public void setTrafficEnabled(PluginCall call) {
+        try {
+            CapacitorAMap map = this.getMap(call);
+            boolean enable = Boolean.TRUE.equals(call.getBoolean("enable", false));
+            map.getMapView().getMap().setTrafficEnabled(enable);
+            call.resolve();
+        } catch (Exception e) {
+            call.reject(e.getMessage(), e);
+        }
+    }
+
+    @PluginMethod
+    public void destroy(PluginCall call) {
+        try {
+            String id = call.getString("id");
+            if (StrUtil.isBlank(id)) {
+                throw new IllegalArgumentException("id is required");
+            }
+
+            CapacitorAMap removedMap = maps.remove(id);
+            if (removedMap == null) {
+                throw new IllegalArgumentException("map not found");
+            }
+
+            removedMap.destroy();
+            call.resolve();
+        } catch (Exception e) {
+            call.reject(e.getMessage(), e);
+        }
+    }
+
+    @PluginMethod
+    public void show(PluginCall call) {
+        try {
+            CapacitorAMap map = this.getMap(call);
+            map.setHidden(false);
+            map.updateRender(new RectF(map.getLastBounds()));
+            map.getMapView().refreshDrawableState();
+            call.resolve();
+        } catch (Exception e) {
+            call.reject(e.getMessage(), e);
+        }
+    }
+
+    @PluginMethod
+    public void hide(PluginCall call) {
+        try {
+            CapacitorAMap map = this.getMap(call);
+            map.setHidden(true);
+            map.updateRender(new RectF(0, 0, 0, 0));
+            call.resolve();
+        } catch (Exception e) {
+            call.reject(e.getMessage(), e);
+        }
+    }
+
+    @PluginMethod
+    public void enableTouch(PluginCall call) {
+        this.setOnTouchListener();
+        this.setTouchEnabled(call, true);
+    }
+
+    @PluginMethod
+    public void disableTouch(PluginCall call) {
+        this.setTouchEnabled(call, false);
+    }
+
+    @PluginMethod
+    public void onScroll(PluginCall call) {
+        this.onResize(call);
+    }
+
+    @PluginMethod
+    public void onResize(PluginCall call) {
+        try {
+            CapacitorAMap map = this.getMap(call);
+
+            JSONObject boundsObj = call.getObject("mapBounds");
+            if (null == boundsObj) {
+                throw new IllegalArgumentException("mapBounds object is missing");
+            }
+
+            RectF bounds = this.boundsObjectToRect(boundsObj);
+
+            // 原生滚动跟踪时 JS 端同时上报测量位置时的页面滚动距离
+            JSObject scrollObj = call.getObject("scroll");
+            PointF scroll = null;
+            if (scrollObj != null) {
+                scroll = new PointF((float) scrollObj.getDouble("x"), (float) scrollObj.getDouble("y"));
+            }
+
+            map.updateRender(bounds, scroll);
+
+            call.resolve();
+        } catch (Exception e) {
+            call.reject(e.getMessage(), e);
+        }
+    }
+
+    @PluginMethod
+    public void onDisplay(PluginCall call) {
+        call.unavailable("this call is not available on android");
+    }
+
+    @PluginMethod
+    public void updateOccluders(PluginCall call) {
+        try {
+            CapacitorAMap map = this.getMap(call);
+
+            boolean clear = Boolean.TRUE.equals(call.getBoolean("clear", false));
+            String[] removed = this.getStringArray(call, "remove");
+
+            Map<String, int[]> upserts = new HashMap<>();
+            JSArray upsertArray = call.getArray("upsert", null);
+            if (upsertArray != null) {
+                float density = map.getDensity();
+                for (int i = 0; i < upsertArray.length(); i++) {
+                    JSONObject occluderObj = upsertArray.getJSONObject(i);
+                    RectF rect = this.boundsObjectToRect(occluderObj);
+                    // 与触摸事件坐标一致，使用 WebView 中的物理像素
+                    upserts.put(occluderObj.getString("id"), new int[]{
+                            (int) (rect.left * density + 0.5f),
+                            (int) (rect.top * density + 0.5f),
+                            (int) (rect.right * density + 0.5f),
+                            (int) (rect.bottom * density + 0.5f)
+                    });
+                }
+            }
+
+            int count = map.getOccluders().apply(clear, upserts, removed != null ? Arrays.asList(removed) : null);
+            if (call.hasOption("enabled")) {
+                map.setNativeFocus(Boolean.TRUE.equals(call.getBoolean("enabled", false)));
+            }
+
+            JSObject result = new JSObject();
+            result.put("count", count);
+            call.resolve(result);
+        } catch (Exception e) {
+            call.reject(e.getMessage(), e);
+        }
+    }
+
+    @PluginMethod
+    public void dispatchMapEvent(PluginCall call) {
+        try {
+            CapacitorAMap map = this.getMap(call);
+
+            boolean focus = Boolean.TRUE.equals(call.getBoolean("focus", false));
+            Integer gesture = call.getInt("gesture");
+
+            // 触摸事件在 UI 线程中产生，也必须在 UI 线程中重放
+            long postedAt = System.nanoTime();
+            super.getActivity().runOnUiThread(() -> {
+                this.stats.latency("dispatchMapEvent").recordSince(postedAt);
+                boolean traced = AMapTrace.isEnabled();
+                if (traced) {
+                    AMapTrace.begin("AMap#dispatchMapEvent " + map.getId());
+                }
+                try {
+                    // 同一手势的后续事件直接按判定结果分发，不再询问 JS 端
+                    if (this.gestureMap == map && (gesture == null || gesture == this.gestureSequence)) {
+                        if (this.gestureFocus == null) {
+                            // 手势开始到 JS 端返回判定结果的时间，这期间的触摸事件都在等待
+                            this.stats.latency("touchFocus").recordSince(this.gestureFocusRequestedAt);
+                            this.endGestureFocusTrace();
+                        }
+                        this.gestureFocus = focus;
+                    }
+
+                    // 重放后的事件由队列回收
+                    int replayed = map.getTouchEvents().drain(event -> {
+                        if (focus) {
+                            map.getMapView().dispatchTouchEvent(event);
+                        } else {
+                            this.bridge.getWebView().onTouchEvent(event);
+                        }
+                    });
+
+                    JSObject result = new JSObject();
+                    result.put("replayed", replayed);
+                    result.put("dropped", map.getTouchEvents().takeDropped());
+                    call.resolve(result);
+                } finally {
+                    if (traced) {
+                        AMapTrace.end();
+                    }
+                }
+            });
+        } catch (Exception e) {
+            call.reject(e.getMessage(), e);
+        }
+    }
+
+    private void setTouchEnabled(PluginCall call, boolean enabled) {
+        try {
+            CapacitorAMap map = this.getMap(call);
+            map.setTouchEnabled(enabled);
+            call.resolve();
+        } catch (Exception e) {
+            call.reject(e.getMessage(), e);
+        }
+    }
+
+    private RectF boundsObjectToRect(JSONObject jsonObject) throws JSONException {
+        if (!jsonObject.has("width")) {
+            throw new IllegalArgumentException("AMapConfig object is missing the required 'width' property");
         }
 
         if (!jsonObject.has("height")) {
             throw new IllegalArgumentException("AMapConfig object is missing the required 'height' property");
         }
 
-        if (!jsonObject.has("x")) {
-            throw new IllegalArgumentException("AMapConfig object is missing the required 'x' property");
+        if (!jsonObject.has("x")) {
+            throw new IllegalArgumentException("AMapConfig object is missing the required 'x' property");
+        }
+
+        if (!jsonObject.has("y")) {
+            throw new IllegalArgumentException("AMapConfig object is missing the required 'y' property");
+        }
+
+        Double width = jsonObject.getDouble("width");
+        Double height = jsonObject.getDouble("height");
+        Double x = jsonObject.getDouble("x");
+        Double y = jsonObject.getDouble("y");
+
+        return new RectF(x.floatValue(), y.floatValue(), (float) (x + width), (float) (y + height));
+    }
+
+    @PluginMethod
+    public void enableMyLocation(PluginCall call) {
+        try {
+            CapacitorAMap map = this.getMap(call);
+
+            if (super.getPermissionState("location") != PermissionState.GRANTED) {
+                super.requestPermissionForAlias("location", call, "locationPermsCallback");
+                return;
+            }
+
+            map.getMapView().getMap().setMyLocationEnabled(true);
+
+            call.resolve();
+        } catch (Exception e) {
+            call.reject(e.getMessage(), e);
+        }
+    }
+
+    @PermissionCallback
+    private void locationPermsCallback(PluginCall call) {
+        if (super.getPermissionState("location") == PermissionState.GRANTED) {
+            this.enableMyLocation(call);
+        } else {
+            call.reject("Permission is required to enable location");
+        }
+    }
+
+    @PluginMethod
+    public void disableMyLocation(PluginCall call) {
+        try {
+            CapacitorAMap map = this.getMap(call);
+            map.getMapView().getMap().setMyLocationEnabled(false);
+            call.resolve();
+        } catch (Exception e) {
+            call.reject(e.getMessage(), e);
+        }
+    }
+
+    @PluginMethod
+    public void setMyLocationStyle(PluginCall call) {
+        try {
+            CapacitorAMap map = this.getMap(call);
+
+            JSObject style = call.getObject("style");
+            if (null == style) {
+                throw new IllegalArgumentException("style object is missing");
+            }
+
+            MyLocationStyle myLocationStyle = new MyLocationStyle();
+            if (style.has("interval")) {
+                myLocationStyle.interval(style.getInt("interval"));
+            }
+            if (style.has("myLocationType")) {
+                myLocationStyle.myLocationType(style.getInt("myLocationType"));
+            }
+            if (style.has("showMyLocation")) {
+                myLocationStyle.showMyLocation(style.getBoolean("showMyLocation"));
+            }
+
+            map.getMapView().getMap().setMyLocationStyle(myLocationStyle);
+
+            call.resolve();
+        } catch (Exception e) {
+            call.reject(e.getMessage(), e);
+        }
+    }
+
+    @PluginMethod
+    public void setUiSettings(PluginCall call) {
+        try {
+            CapacitorAMap map = this.getMap(call);
+
+            UiSettings uiSettings = map.getMapView().getMap().getUiSettings();
+            if (call.hasOption("myLocationButtonEnabled")) {
+                uiSettings.setMyLocationButtonEnabled(Boolean.TRUE.equals(call.getBoolean("myLocationButtonEnabled", false)));
+            }
+
+            call.resolve();
+        } catch (Exception e) {
+            call.reject(e.getMessage(), e);
+        }
+    }
+
+    @PluginMethod
+    public void cameraUpdatePosition(PluginCall call) {
+        try {
+            CapacitorAMap map = this.getMap(call);
+
+            if (!call.getData().has("cameraOptions")) {
+                throw new IllegalArgumentException("cameraOptions is required");
+            }
+
+            CameraOptions cameraOptions = new CameraOptions(call.getObject("cameraOptions"));
+
+            // 改变地图的中心点
+            // 参数依次是：视角调整区域的中心点坐标、希望调整到的缩放级别、俯仰角0°~45°（垂直与地图时为0）、偏航角 0~360° (正北方为0)
+            CameraUpdate cameraUpdate = CameraUpdateFactory.newCameraPosition(cameraOptions.toCameraPosition());
+
+            if (cameraOptions.isAnimated()) {
+                map.getMapView().getMap().animateCamera(cameraUpdate);
+            } else {
+                map.getMapView().getMap().moveCamera(cameraUpdate);
+            }
+
+            call.resolve();
+        } catch (Exception e) {
+            call.reject(e.getMessage(), e);
+        }
+    }
+
+    @PluginMethod
+    public void cameraZoomTo(PluginCall call) {
+        try {
+            CapacitorAMap map = this.getMap(call);
+
+            boolean animated = Boolean.TRUE.equals(call.getBoolean("animated", false));
+            Integer zoom = call.getInt("zoom", null);
+            if (zoom == null) {
+                throw new IllegalArgumentException("zoom is required");
+            }
+
+            // 改变地图的缩放级别
+            // 设置希望展示的地图缩放级别
+            CameraUpdate mCameraUpdate = CameraUpdateFactory.zoomTo(zoom);
+
+            if (animated) {
+                map.getMapView().getMap().animateCamera(mCameraUpdate);
+            } else {
+                map.getMapView().getMap().moveCamera(mCameraUpdate);
+            }
+
+            call.resolve();
+        } catch (Exception e) {
+            call.reject(e.getMessage(), e);
+        }
+    }
+
+    @PluginMethod
+    public void setMapStatusLimits(PluginCall call) {
+        try {
+            CapacitorAMap map = this.getMap(call);
+
+            Location southwest = Location.fromJSObject(call, "southwest");
+            if (null == southwest) {
+                throw new IllegalArgumentException("southwest object is missing");
+            }
+
+            Location northeast = Location.fromJSObject(call, "northeast");
+            if (null == northeast) {
+                throw new IllegalArgumentException("northeast object is missing");
+            }
+
+            LatLngBounds latLngBounds = new LatLngBounds(southwest.toLatLng(), northeast.toLatLng());
+            map.getMapView().getMap().setMapStatusLimits(latLngBounds);
+            // SDK 没有取消限制范围的接口，这个 MapView 不能再复用
+            map.setPoolable(false);
+
+            call.resolve();
+        } catch (Exception e) {
+            call.reject(e.getMessage(), e);
+        }
+    }
+
+    @PluginMethod
+    public void addMarkers(PluginCall call) {
+        try {
+            CapacitorAMap map = this.getMap(call);
+            List<CapacitorAMapMarker> markers = this.getMarkers(call, map.getConfig().getDevicePixelRatio());
+
+            // 解析在插件线程完成，图标在解码线程中解码，之后 UI 线程中一次性添加全部 Marker
+            map.enqueueMarkerOperation(call, done -> this.resolveMarkerIcons(markers, () -> super.getActivity().runOnUiThread(() -> {
+                try {
+                    JSObject result = this.idsToJSObject(map.getMarkers().add(markers));
+                    // 拖动结束后需要同步 Marker 位置
+                    map.setInternalEventRequired(map.getMarkers(), "onMarkerDragEnd", map.getMarkers().size() > 0);
+                    call.resolve(result);
+                } catch (Exception e) {
+                    call.reject(e.getMessage(), e);
+                } finally {
+                    done.run();
+                }
+            })));
+        } catch (Exception e) {
+            call.reject(e.getMessage(), e);
         }
+    }
 
-        if (!jsonObject.has("y")) {
-            throw new IllegalArgumentException("AMapConfig object is missing the required 'y' property");
+    @PluginMethod
+    public void updateMarkers(PluginCall call) {
+        try {
+            CapacitorAMap map = this.getMap(call);
+            List<CapacitorAMapMarker> markers = this.getMarkers(call, map.getConfig().getDevicePixelRatio());
+
+            map.enqueueMarkerOperation(call, done -> this.resolveMarkerIcons(markers, () -> super.getActivity().runOnUiThread(() -> {
+                try {
+                    call.resolve(this.idsToJSObject(map.getMarkers().update(markers)));
+                } catch (Exception e) {
+                    call.reject(e.getMessage(), e);
+                } finally {
+                    done.run();
+                }
+            })));
+        } catch (Exception e) {
+            call.reject(e.getMessage(), e);
         }
+    }
 
-        Double width = jsonObject.getDouble("width");
-        Double height = jsonObject.getDouble("height");
-        Double x = jsonObject.getDouble("x");
-        Double y = jsonObject.getDouble("y");
+    @PluginMethod
+    public void removeMarkers(PluginCall call) {
+        try {
+            CapacitorAMap map = this.getMap(call);
 
-        return new RectF(x.floatValue(), y.floatValue(), (float) (x + width), (float) (y + height));
+            JSArray idsArray = call.getArray("ids");
+            if (null == idsArray) {
+                throw new IllegalArgumentException("ids array is missing");
+            }
+
+            List<String> ids = new ArrayList<>(idsArray.length());
+            for (int i = 0; i < idsArray.length(); i++) {
+                ids.add(idsArray.getString(i));
+            }
+
+            // 排在之前的添加和更新之后执行
+            map.enqueueMarkerOperation(call, done -> super.getActivity().runOnUiThread(() -> {
+                try {
+                    JSObject result = this.idsToJSObject(map.getMarkers().remove(ids));
+                    // 拖动结束后需要同步 Marker 位置
+                    map.setInternalEventRequired(map.getMarkers(), "onMarkerDragEnd", map.getMarkers().size() > 0);
+                    call.resolve(result);
+                } catch (Exception e) {
+                    call.reject(e.getMessage(), e);
+                } finally {
+                    done.run();
+                }
+            }));
+        } catch (Exception e) {
+            call.reject(e.getMessage(), e);
+        }
+    }
+
+    @PluginMethod
+    public void preloadIcons(PluginCall call) {
+        try {
+            JSArray iconsArray = call.getArray("icons");
+            if (null == iconsArray) {
+                throw new IllegalArgumentException("icons array is missing");
+            }
+
+            float scale = call.getFloat("scale", 1f);
+            List<IconSpec> specs = new ArrayList<>(iconsArray.length());
+            for (int i = 0; i < iconsArray.length(); i++) {
+                specs.add(CapacitorAMapMarker.iconFromObject(iconsArray.get(i), scale));
+            }
+
+            // 不阻塞插件线程，之后添加的 Marker 会共享进行中的解码
+            this.iconRegistry.loadAll(specs, (loaded, failed) -> {
+                JSArray failedArray = new JSArray();
+                for (Map.Entry<IconSpec, Exception> entry : failed.entrySet()) {
+                    JSObject item = new JSObject();
+                    item.put("uri", entry.getKey().toString());
+                    item.put("message", entry.getValue().getMessage());
+                    failedArray.put(item);
+                }
+
+                JSObject result = new JSObject();
+                result.put("loaded", loaded.size());
+                result.put("failed", failedArray);
+                call.resolve(result);
+            });
+        } catch (Exception e) {
+            call.reject(e.getMessage(), e);
+        }
+    }
+
+    @PluginMethod
+    public void setMarkerClustering(PluginCall call) {
+        try {
+            CapacitorAMap map = this.getMap(call);
+
+            boolean enabled = Boolean.TRUE.equals(call.getBoolean("enabled", false));
+            int gridSize = call.getInt("gridSize", 60);
+            int minClusterSize = call.getInt("minClusterSize", 2);
+            int maxZoom = call.getInt("maxZoom", 18);
+            if (gridSize <= 0) {
+                throw new IllegalArgumentException("gridSize is invalid");
+            }
+
+            super.getActivity().runOnUiThread(() -> {
+                try {
+                    if (enabled) {
+                        map.getClusterLayer().enable(gridSize, minClusterSize, maxZoom);
+                    } else {
+                        map.getClusterLayer().disable();
+                    }
+                    call.resolve();
+                } catch (Exception e) {
+                    call.reject(e.getMessage(), e);
+                }
+            });
+        } catch (Exception e) {
+            call.reject(e.getMessage(), e);
+        }
+    }
+
+    @PluginMethod
+    public void addMultiPointOverlay(PluginCall call) {
+        try {
+            CapacitorAMap map = this.getMap(call);
+
+            String overlayId = call.getString("overlayId");
+            if (StrUtil.isBlank(overlayId)) {
+                throw new IllegalArgumentException("overlayId is required");
+            }
+
+            if (map.getMultiPointOverlays().containsKey(overlayId)) {
+                throw new IllegalArgumentException("overlay already exists");
+            }
+
+            double[] coordinates = PackedCoordinates.decode(call.getString("coordinates"), 2);
+            String[] customerIds = this.getStringArray(call, "customerIds");
+
+            MultiPointOverlayOptions options = new MultiPointOverlayOptions();
+            options.icon(BitmapDescriptorFactory.defaultMarker());
+            options.anchor(call.getFloat("anchorU", 0.5f), call.getFloat("anchorV", 0.5f));
+
+            super.getActivity().runOnUiThread(() -> {
+                try {
+                    MultiPointOverlay overlay = map.getMapView().getMap().addMultiPointOverlay(options);
+                    CapacitorAMapMultiPointOverlay multiPointOverlay = new CapacitorAMapMultiPointOverlay(overlayId, overlay);
+                    map.getMultiPointOverlays().put(overlayId, multiPointOverlay);
+
+                    // 海量点数据在地图的后台线程中设置，不阻塞 UI 线程
+                    map.getWorker().execute(() -> {
+                        try {
+                            multiPointOverlay.splice(0, 0, coordinates, customerIds);
+
+                            JSObject result = new JSObject();
+                            result.put("count", multiPointOverlay.size());
+                            call.resolve(result);
+                        } catch (Exception e) {
+                            call.reject(e.getMessage(), e);
+                        }
+                    });
+                } catch (Exception e) {
+                    call.reject(e.getMessage(), e);
+                }
+            });
+        } catch (Exception e) {
+            call.reject(e.getMessage(), e);
+        }
+    }
+
+    @PluginMethod
+    public void setMultiPointItems(PluginCall call) {
+        try {
+            CapacitorAMap map = this.getMap(call);
+            CapacitorAMapMultiPointOverlay multiPointOverlay = this.getMultiPointOverlay(map, call);
+
+            double[] coordinates = PackedCoordinates.decode(call.getString("coordinates"), 2);
+            String[] customerIds = this.getStringArray(call, "customerIds");
+
+            // 未指定 start 时替换全部海量点
+            Integer start = call.getInt("start", null);
+            Integer deleteCount = call.getInt("deleteCount", null);
+
+            map.getWorker().execute(() -> {
+                try {
+                    if (start == null) {
+                        multiPointOverlay.splice(0, Integer.MAX_VALUE, coordinates, customerIds);
+                    } else {
+                        multiPointOverlay.splice(start, deleteCount != null ? deleteCount : coordinates.length / 2, coordinates, customerIds);
+                    }
+
+                    JSObject result = new JSObject();
+                    result.put("count", multiPointOverlay.size());
+                    call.resolve(result);
+                } catch (Exception e) {
+                    call.reject(e.getMessage(), e);
+                }
+            });
+        } catch (Exception e) {
+            call.reject(e.getMessage(), e);
+        }
+    }
+
+    @PluginMethod
+    public void removeMultiPointOverlay(PluginCall call) {
+        try {
+            CapacitorAMap map = this.getMap(call);
+            CapacitorAMapMultiPointOverlay multiPointOverlay = this.getMultiPointOverlay(map, call);
+            map.getMultiPointOverlays().remove(multiPointOverlay.getId());
+
+            // 排在已提交的数据更新之后再移除
+            map.getWorker().execute(() -> super.getActivity().runOnUiThread(() -> {
+                try {
+                    multiPointOverlay.getOverlay().remove();
+                    call.resolve();
+                } catch (Exception e) {
+                    call.reject(e.getMessage(), e);
+                }
+            }));
+        } catch (Exception e) {
+            call.reject(e.getMessage(), e);
+        }
+    }
+
+    @PluginMethod
+    public void addHeatmap(PluginCall call) {
+        try {
+            CapacitorAMap map = this.getMap(call);
+
+            String heatmapId = call.getString("heatmapId");
+            if (StrUtil.isBlank(heatmapId)) {
+                throw new IllegalArgumentException("heatmapId is required");
+            }
+
+            HeatmapStyle style = CapacitorAMapHeatmap.parseStyle(call.getData(), new HeatmapStyle());
+            long cacheSize = call.getLong("cacheSize", HeatmapLayer.DEFAULT_CACHE_BYTES);
+            CapacitorAMapHeatmap heatmap = new CapacitorAMapHeatmap(heatmapId, style, cacheSize);
+            if (map.getHeatmaps().putIfAbsent(heatmapId, heatmap) != null) {
+                throw new IllegalArgumentException("heatmap already exists");
+            }
+
+            String points = call.getString("points");
+            TileOverlayOptions options = new TileOverlayOptions()
+                    .tileProvider(heatmap)
+                    .zIndex(call.getFloat("zIndex", 0f))
+                    .visible(call.getBoolean("visible", true))
+                    // 瓦片由 HeatmapLayer 缓存，更新权重后只需要重新渲染受影响的瓦片
+                    .memoryCacheEnabled(false)
+                    .diskCacheEnabled(false);
+
+            // 解码和聚合在地图的后台线程中执行，不阻塞 UI 线程
+            map.getWorker().execute(() -> {
+                try {
+                    heatmap.getLayer().setPoints(PackedCoordinates.decode(points, HeatmapLayer.STRIDE));
+                    super.getActivity().runOnUiThread(() -> {
+                        try {
+                            heatmap.setOverlay(map.getMapView().getMap().addTileOverlay(options));
+                            call.resolve(this.heatmapStatsToJSObject(heatmap));
+                        } catch (Exception e) {
+                            map.getHeatmaps().remove(heatmapId, heatmap);
+                            call.reject(e.getMessage(), e);
+                        }
+                    });
+                } catch (Exception e) {
+                    map.getHeatmaps().remove(heatmapId, heatmap);
+                    call.reject(e.getMessage(), e);
+                }
+            });
+        } catch (Exception e) {
+            call.reject(e.getMessage(), e);
+        }
+    }
+
+    @PluginMethod
+    public void updateHeatmap(PluginCall call) {
+        try {
+            CapacitorAMap map = this.getMap(call);
+            CapacitorAMapHeatmap heatmap = this.getHeatmap(map, call);
+
+            String mode = call.getString("mode", "add");
+            if (!"add".equals(mode) && !"replace".equals(mode)) {
+                throw new IllegalArgumentException("mode must be add or replace");
+            }
+
+            HeatmapStyle style = CapacitorAMapHeatmap.parseStyle(call.getData(), heatmap.getLayer().getStyle());
+            String points = call.getString("points");
+
+            map.getWorker().execute(() -> {
+                try {
+                    if (style != null) {
+                        heatmap.getLayer().setStyle(style);
+                    }
+                    if (points != null) {
+                        double[] values = PackedCoordinates.decode(points, HeatmapLayer.STRIDE);
+                        if ("replace".equals(mode)) {
+                            heatmap.getLayer().setPoints(values);
+                        } else {
+                            heatmap.getLayer().addWeights(values);
+                        }
+                    }
+
+                    super.getActivity().runOnUiThread(() -> {
+                        try {
+                            // 清空 SDK 的瓦片缓存后，可见瓦片重新请求，未受影响的瓦片直接命中 HeatmapLayer 的缓存
+                            if (heatmap.getOverlay() != null) {
+                                heatmap.getOverlay().clearTileCache();
+                            }
+                            call.resolve(this.heatmapStatsToJSObject(heatmap));
+                        } catch (Exception e) {
+                            call.reject(e.getMessage(), e);
+                        }
+                    });
+                } catch (Exception e) {
+                    call.reject(e.getMessage(), e);
+                }
+            });
+        } catch (Exception e) {
+            call.reject(e.getMessage(), e);
+        }
+    }
+
+    @PluginMethod
+    public void removeHeatmap(PluginCall call) {
+        try {
+            CapacitorAMap map = this.getMap(call);
+            CapacitorAMapHeatmap heatmap = this.getHeatmap(map, call);
+            map.getHeatmaps().remove(heatmap.getId());
+
+            // 排在已提交的聚合之后再移除
+            map.getWorker().execute(() -> super.getActivity().runOnUiThread(() -> {
+                try {
+                    if (heatmap.getOverlay() != null) {
+                        heatmap.getOverlay().remove();
+                    }
+                    heatmap.getLayer().clearCache();
+                    call.resolve();
+                } catch (Exception e) {
+                    call.reject(e.getMessage(), e);
+                }
+            }));
+        } catch (Exception e) {
+            call.reject(e.getMessage(), e);
+        }
+    }
+
+    @PluginMethod
+    public void addTileOverlay(PluginCall call) {
+        try {
+            CapacitorAMap map = this.getMap(call);
+
+            String overlayId = call.getString("overlayId");
+            if (StrUtil.isBlank(overlayId) || !overlayId.matches("[A-Za-z0-9_-]+")) {
+                throw new IllegalArgumentException("overlayId must only contain letters, digits, '_' and '-'");
+            }
+
+            JSObject sourceObject = call.getObject("source");
+            if (sourceObject == null) {
+                throw new IllegalArgumentException("source is required");
+            }
+
+            // 相同 overlayId 的图层共用磁盘缓存，应用重启后仍然可以命中
+            long diskCacheSize = call.getLong("diskCacheSize", 50L * 1024 * 1024);
+            TileDiskCache diskCache = diskCacheSize > 0
+                    ? new TileDiskCache(new File(new File(super.getContext().getCacheDir(), "amap-tiles"), overlayId), diskCacheSize)
+                    : null;
+
+            TileSource source = CapacitorAMapTileOverlay.createSource(sourceObject);
+            CapacitorAMapTileOverlay tileOverlay = new CapacitorAMapTileOverlay(overlayId, source,
+                    call.getInt("tileSize", CapacitorAMapTileOverlay.DEFAULT_TILE_SIZE),
+                    call.getLong("memoryCacheSize", TileLoader.DEFAULT_MEMORY_CACHE_BYTES),
+                    diskCache,
+                    call.getInt("prefetchRing", 1),
+                    call.getInt("minZoom", 3),
+                    call.getInt("maxZoom", 20));
+            if (map.getTileOverlays().putIfAbsent(overlayId, tileOverlay) != null) {
+                tileOverlay.destroy();
+                throw new IllegalArgumentException("overlay already exists");
+            }
+
+            TileOverlayOptions options = new TileOverlayOptions()
+                    .tileProvider(tileOverlay)
+                    .zIndex(call.getFloat("zIndex", 0f))
+                    .visible(call.getBoolean("visible", true))
+                    // 磁盘缓存由 TileLoader 管理，SDK 只保留内存中已解码的瓦片
+                    .diskCacheEnabled(false);
+
+            super.getActivity().runOnUiThread(() -> {
+                try {
+                    tileOverlay.setOverlay(map.getMapView().getMap().addTileOverlay(options));
+                    map.updateTileOverlays();
+                    call.resolve();
+                } catch (Exception e) {
+                    map.getTileOverlays().remove(overlayId, tileOverlay);
+                    tileOverlay.destroy();
+                    call.reject(e.getMessage(), e);
+                }
+            });
+        } catch (Exception e) {
+            call.reject(e.getMessage(), e);
+        }
+    }
+
+    @PluginMethod
+    public void removeTileOverlay(PluginCall call) {
+        try {
+            CapacitorAMap map = this.getMap(call);
+            CapacitorAMapTileOverlay tileOverlay = this.getTileOverlay(map, call);
+            boolean clearCache = call.getBoolean("clearCache", false);
+
+            super.getActivity().runOnUiThread(() -> {
+                try {
+                    map.getTileOverlays().remove(tileOverlay.getId());
+                    map.updateTileOverlays();
+                    tileOverlay.getOverlay().remove();
+                    tileOverlay.destroy();
+                    if (clearCache) {
+                        tileOverlay.getLoader().clear();
+                    }
+                    call.resolve();
+                } catch (Exception e) {
+                    call.reject(e.getMessage(), e);
+                }
+            });
+        } catch (Exception e) {
+            call.reject(e.getMessage(), e);
+        }
+    }
+
+    @PluginMethod
+    public void clearTileOverlayCache(PluginCall call) {
+        try {
+            CapacitorAMap map = this.getMap(call);
+            CapacitorAMapTileOverlay tileOverlay = this.getTileOverlay(map, call);
+            tileOverlay.getLoader().clear();
+
+            super.getActivity().runOnUiThread(() -> {
+                try {
+                    tileOverlay.getOverlay().clearTileCache();
+                    call.resolve();
+                } catch (Exception e) {
+                    call.reject(e.getMessage(), e);
+                }
+            });
+        } catch (Exception e) {
+            call.reject(e.getMessage(), e);
+        }
+    }
+
+    @PluginMethod
+    public void getTileOverlayStats(PluginCall call) {
+        try {
+            CapacitorAMap map = this.getMap(call);
+            TileLoader.Stats stats = this.getTileOverlay(map, call).getLoader().getStats();
+
+            JSObject result = new JSObject();
+            result.put("memoryTiles", stats.getMemory().getEntries());
+            result.put("memoryBytes", stats.getMemory().getBytes());
+            result.put("memoryHits", stats.getMemory().getHits());
+            result.put("memoryMisses", stats.getMemory().getMisses());
+            if (stats.getDisk() != null) {
+                result.put("diskTiles", stats.getDisk().getEntries());
+                result.put("diskBytes", stats.getDisk().getBytes());
+                result.put("diskHits", stats.getDisk().getHits());
+                result.put("diskEvictions", stats.getDisk().getEvictions());
+            }
+            result.put("sourceReads", stats.getSourceReads());
+            result.put("joined", stats.getJoined());
+            result.put("failures", stats.getFailures());
+            result.put("prefetched", stats.getPrefetched());
+            call.resolve(result);
+        } catch (Exception e) {
+            call.reject(e.getMessage(), e);
+        }
+    }
+
+    @PluginMethod
+    public void addGeofences(PluginCall call) {
+        try {
+            CapacitorAMap map = this.getMap(call);
+
+            JSArray geofencesArray = call.getArray("geofences");
+            if (null == geofencesArray) {
+                throw new IllegalArgumentException("geofences array is missing");
+            }
+
+            List<Geofence> geofences = new ArrayList<>(geofencesArray.length());
+            for (int i = 0; i < geofencesArray.length(); i++) {
+                geofences.add(this.parseGeofence(geofencesArray.getJSONObject(i)));
+            }
+
+            // 解析和索引打包在插件线程完成，定位回调中只做查询
+            GeofenceEngine engine = map.getGeofences();
+            engine.add(geofences);
+            engine.buildIndex();
+
+            super.getActivity().runOnUiThread(() -> {
+                map.updateGeofences();
+                JSObject result = new JSObject();
+                result.put("count", engine.size());
+                call.resolve(result);
+            });
+        } catch (Exception e) {
+            call.reject(e.getMessage(), e);
+        }
+    }
+
+    @PluginMethod
+    public void removeGeofences(PluginCall call) {
+        try {
+            CapacitorAMap map = this.getMap(call);
+            GeofenceEngine engine = map.getGeofences();
+
+            int removed;
+            String[] ids = this.getStringArray(call, "geofenceIds");
+            if (ids == null) {
+                removed = engine.size();
+                engine.clear();
+            } else {
+                removed = engine.remove(Arrays.asList(ids));
+            }
+            engine.buildIndex();
+
+            super.getActivity().runOnUiThread(() -> {
+                map.updateGeofences();
+                JSObject result = new JSObject();
+                result.put("removed", removed);
+                result.put("count", engine.size());
+                call.resolve(result);
+            });
+        } catch (Exception e) {
+            call.reject(e.getMessage(), e);
+        }
+    }
+
+    @PluginMethod
+    public void getGeofenceStats(PluginCall call) {
+        try {
+            GeofenceEngine engine = this.getMap(call).getGeofences();
+            GeofenceEngine.Stats stats = engine.getStats();
+
+            JSObject result = new JSObject();
+            result.put("geofences", stats.getGeofences());
+            result.put("inside", new JSArray(engine.getInside()));
+            result.put("fixes", stats.getFixes());
+            result.put("ignoredFixes", stats.getIgnoredFixes());
+            result.put("candidates", stats.getCandidates());
+            result.put("transitions", stats.getTransitions());
+            call.resolve(result);
+        } catch (Exception e) {
+            call.reject(e.getMessage(), e);
+        }
     }
 
+    /**
+     * 空间查询只读取 Marker 的空间索引，直接在插件线程中执行，不经过 UI 线程。
+     */
     @PluginMethod
-    public void enableMyLocation(PluginCall call) {
+    public void queryInBounds(PluginCall call) {
         try {
             CapacitorAMap map = this.getMap(call);
 
-            if (super.getPermissionState("location") != PermissionState.GRANTED) {
-                super.requestPermissionForAlias("location", call, "locationPermsCallback");
-                return;
+            Location southwest = Location.fromJSObject(call, "southwest");
+            if (null == southwest) {
+                throw new IllegalArgumentException("southwest object is missing");
             }
 
-            map.getMapView().getMap().setMyLocationEnabled(true);
+            Location northeast = Location.fromJSObject(call, "northeast");
+            if (null == northeast) {
+                throw new IllegalArgumentException("northeast object is missing");
+            }
 
-            call.resolve();
+            PointIndex.Result result = map.getMarkers().getIndex().queryInBounds(southwest.getLatitude(), southwest.getLongitude(),
+                    northeast.getLatitude(), northeast.getLongitude(), call.getInt("limit", 0));
+            call.resolve(this.spatialResultToJSObject(result));
         } catch (Exception e) {
             call.reject(e.getMessage(), e);
         }
     }
 
-    @PermissionCallback
-    private void locationPermsCallback(PluginCall call) {
-        if (super.getPermissionState("location") == PermissionState.GRANTED) {
-            this.enableMyLocation(call);
-        } else {
-            call.reject("Permission is required to enable location");
-        }
-    }
-
     @PluginMethod
-    public void disableMyLocation(PluginCall call) {
+    public void queryWithinRadius(PluginCall call) {
         try {
             CapacitorAMap map = this.getMap(call);
-            map.getMapView().getMap().setMyLocationEnabled(false);
-            call.resolve();
+
+            Location center = Location.fromJSObject(call, "center");
+            if (null == center) {
+                throw new IllegalArgumentException("center object is missing");
+            }
+
+            Double radius = call.getDouble("radius");
+            if (radius == null) {
+                throw new IllegalArgumentException("radius is required");
+            }
+
+            PointIndex.Result result = map.getMarkers().getIndex().queryWithinRadius(center.getLatitude(), center.getLongitude(),
+                    radius, call.getInt("limit", 0));
+            call.resolve(this.spatialResultToJSObject(result));
         } catch (Exception e) {
             call.reject(e.getMessage(), e);
         }
     }
 
     @PluginMethod
-    public void setMyLocationStyle(PluginCall call) {
+    public void queryNearest(PluginCall call) {
         try {
             CapacitorAMap map = this.getMap(call);
 
-            JSObject style = call.getObject("style");
-            if (null == style) {
-                throw new IllegalArgumentException("style object is missing");
+            Location center = Location.fromJSObject(call, "center");
+            if (null == center) {
+                throw new IllegalArgumentException("center object is missing");
             }
 
-            MyLocationStyle myLocationStyle = new MyLocationStyle();
-            if (style.has("interval")) {
-                myLocationStyle.interval(style.getInt("interval"));
-            }
-            if (style.has("myLocationType")) {
-                myLocationStyle.myLocationType(style.getInt("myLocationType"));
+            Integer k = call.getInt("k");
+            if (k == null) {
+                throw new IllegalArgumentException("k is required");
             }
-            if (style.has("showMyLocation")) {
-                myLocationStyle.showMyLocation(style.getBoolean("showMyLocation"));
+
+            PointIndex.Result result = map.getMarkers().getIndex().queryNearest(center.getLatitude(), center.getLongitude(),
+                    k, call.getDouble("maxDistance", 0D));
+            call.resolve(this.spatialResultToJSObject(result));
+        } catch (Exception e) {
+            call.reject(e.getMessage(), e);
+        }
+    }
+
+    @PluginMethod
+    public void setEventEmissionPolicy(PluginCall call) {
+        try {
+            CapacitorAMap map = this.getMap(call);
+
+            String event = call.getString("event");
+            if (StrUtil.isBlank(event)) {
+                throw new IllegalArgumentException("event is required");
             }
 
-            map.getMapView().getMap().setMyLocationStyle(myLocationStyle);
+            EventEmissionPolicy policy = EventEmissionPolicy.fromJSObject(call.getData());
 
-            call.resolve();
+            super.getActivity().runOnUiThread(() -> {
+                try {
+                    map.getEmissionGate().setPolicy(event, policy);
+                    call.resolve();
+                } catch (Exception e) {
+                    call.reject(e.getMessage(), e);
+                }
+            });
         } catch (Exception e) {
             call.reject(e.getMessage(), e);
         }
     }
 
     @PluginMethod
-    public void setUiSettings(PluginCall call) {
+    public void setCompactEvents(PluginCall call) {
         try {
             CapacitorAMap map = this.getMap(call);
 
-            UiSettings uiSettings = map.getMapView().getMap().getUiSettings();
-            if (call.hasOption("myLocationButtonEnabled")) {
-                uiSettings.setMyLocationButtonEnabled(Boolean.TRUE.equals(call.getBoolean("myLocationButtonEnabled", false)));
+            String[] events = this.getStringArray(call, "events");
+            if (null == events) {
+                throw new IllegalArgumentException("events array is missing");
             }
 
+            map.setCompactEvents(Arrays.asList(events));
             call.resolve();
         } catch (Exception e) {
             call.reject(e.getMessage(), e);
@@ -540,84 +2213,484 @@ public class CapacitorAMapPlugin extends Plugin {
     }
 
     @PluginMethod
-    public void cameraUpdatePosition(PluginCall call) {
+    public void setSubscribedEvents(PluginCall call) {
         try {
             CapacitorAMap map = this.getMap(call);
 
-            if (!call.getData().has("cameraOptions")) {
-                throw new IllegalArgumentException("cameraOptions is required");
+            JSArray eventsArray = call.getArray("events");
+            if (null == eventsArray) {
+                throw new IllegalArgumentException("events array is missing");
             }
 
-            CameraOptions cameraOptions = new CameraOptions(call.getObject("cameraOptions"));
-
-            // 改变地图的中心点
-            // 参数依次是：视角调整区域的中心点坐标、希望调整到的缩放级别、俯仰角0°~45°（垂直与地图时为0）、偏航角 0~360° (正北方为0)
-            CameraUpdate cameraUpdate = CameraUpdateFactory.newCameraPosition(cameraOptions.toCameraPosition());
-
-            if (cameraOptions.isAnimated()) {
-                map.getMapView().getMap().animateCamera(cameraUpdate);
-            } else {
-                map.getMapView().getMap().moveCamera(cameraUpdate);
+            List<String> events = new ArrayList<>(eventsArray.length());
+            for (int i = 0; i < eventsArray.length(); i++) {
+                events.add(eventsArray.getString(i));
             }
 
-            call.resolve();
+            super.getActivity().runOnUiThread(() -> {
+                try {
+                    map.setSubscribedEvents(events);
+                    call.resolve();
+                } catch (Exception e) {
+                    call.reject(e.getMessage(), e);
+                }
+            });
         } catch (Exception e) {
             call.reject(e.getMessage(), e);
         }
     }
 
     @PluginMethod
-    public void cameraZoomTo(PluginCall call) {
+    public void addPolylines(PluginCall call) {
         try {
             CapacitorAMap map = this.getMap(call);
 
-            boolean animated = Boolean.TRUE.equals(call.getBoolean("animated", false));
-            Integer zoom = call.getInt("zoom", null);
-            if (zoom == null) {
-                throw new IllegalArgumentException("zoom is required");
+            JSArray polylinesArray = call.getArray("polylines");
+            if (null == polylinesArray) {
+                throw new IllegalArgumentException("polylines array is missing");
             }
 
-            // 改变地图的缩放级别
-            // 设置希望展示的地图缩放级别
-            CameraUpdate mCameraUpdate = CameraUpdateFactory.zoomTo(zoom);
-
-            if (animated) {
-                map.getMapView().getMap().animateCamera(mCameraUpdate);
-            } else {
-                map.getMapView().getMap().moveCamera(mCameraUpdate);
+            // 解析和解码在插件线程完成
+            List<CapacitorAMapPolyline> polylines = new ArrayList<>(polylinesArray.length());
+            for (int i = 0; i < polylinesArray.length(); i++) {
+                polylines.add(new CapacitorAMapPolyline(polylinesArray.getJSONObject(i)));
             }
 
-            call.resolve();
+            super.getActivity().runOnUiThread(() -> {
+                try {
+                    map.getPolylines().add(polylines, ids -> call.resolve(this.idsToJSObject(ids)));
+                } catch (Exception e) {
+                    call.reject(e.getMessage(), e);
+                }
+            });
         } catch (Exception e) {
             call.reject(e.getMessage(), e);
         }
     }
 
     @PluginMethod
-    public void setMapStatusLimits(PluginCall call) {
+    public void updatePolyline(PluginCall call) {
         try {
             CapacitorAMap map = this.getMap(call);
 
-            Location southwest = Location.fromJSObject(call, "southwest");
-            if (null == southwest) {
-                throw new IllegalArgumentException("southwest object is missing");
+            JSObject polylineObj = call.getObject("polyline");
+            if (null == polylineObj) {
+                throw new IllegalArgumentException("polyline object is missing");
             }
 
-            Location northeast = Location.fromJSObject(call, "northeast");
-            if (null == northeast) {
-                throw new IllegalArgumentException("northeast object is missing");
-            }
+            CapacitorAMapPolyline update = new CapacitorAMapPolyline(polylineObj);
 
-            LatLngBounds latLngBounds = new LatLngBounds(southwest.toLatLng(), northeast.toLatLng());
-            map.getMapView().getMap().setMapStatusLimits(latLngBounds);
+            super.getActivity().runOnUiThread(() -> {
+                try {
+                    map.getPolylines().update(update, call::resolve);
+                } catch (Exception e) {
+                    call.reject(e.getMessage(), e);
+                }
+            });
+        } catch (Exception e) {
+            call.reject(e.getMessage(), e);
+        }
+    }
 
-            call.resolve();
+    @PluginMethod
+    public void removePolylines(PluginCall call) {
+        try {
+            CapacitorAMap map = this.getMap(call);
+
+            String[] ids = this.getStringArray(call, "ids");
+            if (null == ids) {
+                throw new IllegalArgumentException("ids array is missing");
+            }
+
+            super.getActivity().runOnUiThread(() -> {
+                try {
+                    call.resolve(this.idsToJSObject(map.getPolylines().remove(Arrays.asList(ids))));
+                } catch (Exception e) {
+                    call.reject(e.getMessage(), e);
+                }
+            });
         } catch (Exception e) {
             call.reject(e.getMessage(), e);
         }
     }
 
     @NonNull
+    private CapacitorAMapMultiPointOverlay getMultiPointOverlay(CapacitorAMap map, PluginCall call) {
+        String overlayId = call.getString("overlayId");
+        if (StrUtil.isBlank(overlayId)) {
+            throw new IllegalArgumentException("overlayId is required");
+        }
+
+        CapacitorAMapMultiPointOverlay multiPointOverlay = map.getMultiPointOverlays().get(overlayId);
+        if (multiPointOverlay == null) {
+            throw new IllegalArgumentException("overlay not found");
+        }
+
+        return multiPointOverlay;
+    }
+
+    private CapacitorAMapHeatmap getHeatmap(CapacitorAMap map, PluginCall call) {
+        String heatmapId = call.getString("heatmapId");
+        if (StrUtil.isBlank(heatmapId)) {
+            throw new IllegalArgumentException("heatmapId is required");
+        }
+
+        CapacitorAMapHeatmap heatmap = map.getHeatmaps().get(heatmapId);
+        if (heatmap == null) {
+            throw new IllegalArgumentException("heatmap not found");
+        }
+
+        return heatmap;
+    }
+
+    private CapacitorAMapTileOverlay getTileOverlay(CapacitorAMap map, PluginCall call) {
+        String overlayId = call.getString("overlayId");
+        if (StrUtil.isBlank(overlayId)) {
+            throw new IllegalArgumentException("overlayId is required");
+        }
+
+        CapacitorAMapTileOverlay tileOverlay = map.getTileOverlays().get(overlayId);
+        if (tileOverlay == null) {
+            throw new IllegalArgumentException("overlay not found");
+        }
+
+        return tileOverlay;
+    }
+
+    /**
+     * 圆形围栏为 {type: 'circle', center, radius}，多边形围栏为 {type: 'polygon', points, holes}，坐标为打包后的字符串。
+     */
+    private Geofence parseGeofence(JSONObject object) throws JSONException {
+        String geofenceId = object.getString("geofenceId");
+        double hysteresis = object.optDouble("hysteresis", GeofenceEngine.DEFAULT_HYSTERESIS);
+        long dwellMillis = object.optLong("dwellMs", 0);
+
+        String type = object.optString("type", "circle");
+        switch (type) {
+            case "circle": {
+                Location center = Location.fromObject(object.opt("center"));
+                if (center == null) {
+                    throw new IllegalArgumentException("Geofence '" + geofenceId + "' is missing the required 'center' property");
+                }
+                return Geofence.circle(geofenceId, center.getLatitude(), center.getLongitude(), object.getDouble("radius"), hysteresis, dwellMillis);
+            }
+            case "polygon": {
+                JSONArray holes = object.optJSONArray("holes");
+                double[][] rings = new double[1 + (holes != null ? holes.length() : 0)][];
+                rings[0] = PackedCoordinates.decode(object.getString("points"), 2);
+                for (int i = 1; i < rings.length; i++) {
+                    rings[i] = PackedCoordinates.decode(holes.getString(i - 1), 2);
+                }
+                return Geofence.polygon(geofenceId, rings, hysteresis, dwellMillis);
+            }
+            default:
+                throw new IllegalArgumentException("unknown geofence type " + type);
+        }
+    }
+
+    private JSObject heatmapStatsToJSObject(CapacitorAMapHeatmap heatmap) {
+        HeatmapLayer.Stats stats = heatmap.getLayer().getStats();
+        JSObject result = new JSObject();
+        result.put("cells", stats.getCells());
+        result.put("renderedTiles", stats.getRenderedTiles());
+        result.put("cachedTiles", stats.getCache().getEntries());
+        result.put("cacheBytes", stats.getCache().getBytes());
+        return result;
+    }
+
+    private String[] getStringArray(PluginCall call, String key) throws JSONException {
+        JSArray array = call.getArray(key, null);
+        if (null == array) {
+            return null;
+        }
+
+        String[] values = new String[array.length()];
+        for (int i = 0; i < array.length(); i++) {
+            values[i] = array.getString(i);
+        }
+        return values;
+    }
+
+    private List<CapacitorAMapMarker> getMarkers(PluginCall call, float scale) throws JSONException {
+        JSArray markersArray = call.getArray("markers");
+        if (null == markersArray) {
+            throw new IllegalArgumentException("markers array is missing");
+        }
+
+        List<CapacitorAMapMarker> markers = new ArrayList<>(markersArray.length());
+        for (int i = 0; i < markersArray.length(); i++) {
+            markers.add(new CapacitorAMapMarker(markersArray.getJSONObject(i), scale));
+        }
+
+        return markers;
+    }
+
+    /**
+     * 异步解码 Marker 的图标，多个图标在解码线程中并行解码，全部完成后调用 then。
+     * 不阻塞插件线程，调用顺序由地图的 Marker 操作队列保证。解码失败的 Marker 使用默认图标。
+     */
+    private void resolveMarkerIcons(List<CapacitorAMapMarker> markers, Runnable then) {
+        List<IconSpec> specs = new ArrayList<>();
+        for (CapacitorAMapMarker marker : markers) {
+            if (marker.getIcon() != null) {
+                specs.add(marker.getIcon());
+            }
+        }
+        if (specs.isEmpty()) {
+            then.run();
+            return;
+        }
+
+        this.iconRegistry.loadAll(specs, (loaded, failed) -> {
+            for (Map.Entry<IconSpec, Exception> entry : failed.entrySet()) {
+                Logger.error(getLogTag(), "unable to load marker icon " + entry.getKey(), entry.getValue());
+            }
+            for (CapacitorAMapMarker marker : markers) {
+                if (marker.getIcon() != null) {
+                    marker.setIconDescriptor(loaded.get(marker.getIcon()));
+                }
+            }
+            then.run();
+        });
+    }
+
+    private JSObject idsToJSObject(Map<String, String> ids) {
+        JSObject idsObj = new JSObject();
+        for (Map.Entry<String, String> entry : ids.entrySet()) {
+            idsObj.put(entry.getKey(), entry.getValue() != null ? entry.getValue() : JSONObject.NULL);
+        }
+
+        JSObject result = new JSObject();
+        result.put("ids", idsObj);
+        return result;
+    }
+
+    private JSObject spatialResultToJSObject(PointIndex.Result result) {
+        JSObject data = new JSObject();
+        data.put("ids", new JSArray(result.getIds()));
+        data.put("total", result.getTotal());
+        return data;
+    }
+
+    @NonNull
+    private ReverseGeocodeCache getGeocodeCache() {
+        ReverseGeocodeCache cache = this.geocodeCache;
+        if (cache == null) {
+            synchronized (this) {
+                if (this.geocodeCache == null) {
+                    this.geocodeCache = new ReverseGeocodeCache(new AMapReverseGeocoder(super.getContext()));
+                }
+                cache = this.geocodeCache;
+            }
+        }
+        return cache;
+    }
+
+    @NonNull
+    private BatchGeocoder getBatchGeocoder() {
+        BatchGeocoder batchGeocoder = this.batchGeocoder;
+        if (batchGeocoder == null) {
+            synchronized (this) {
+                if (this.batchGeocoder == null) {
+                    this.batchGeocoder = new BatchGeocoder(new AMapSyncGeocoder(super.getContext()));
+                }
+                batchGeocoder = this.batchGeocoder;
+            }
+        }
+        return batchGeocoder;
+    }
+
+    /**
+     * 提交批量地理编码，立即返回批次 id，结果通过 onGeocodeBatchProgress 事件分块返回，
+     * 全部完成后发送 onGeocodeBatchComplete 事件。
+     *
+     * @param resultKey 进度事件中查询结果的字段名
+     */
+    private void submitGeocodeBatch(PluginCall call, String resultKey, List<BatchGeocoder.Query> queries) {
+        String batchId = call.getString("batchId");
+        if (StrUtil.isBlank(batchId)) {
+            batchId = UUID.randomUUID().toString();
+        }
+        int chunkSize = call.getInt("chunkSize", BatchGeocoder.DEFAULT_CHUNK_SIZE);
+
+        JSObject result = new JSObject();
+        result.put("batchId", batchId);
+        result.put("total", queries.size());
+        // 先返回批次 id，再开始发送进度事件
+        call.resolve(result);
+
+        int traceCookie = AMapTrace.isEnabled() ? AMapTrace.beginAsync("AMap#geocodeBatch") : 0;
+        this.getBatchGeocoder().submit(batchId, queries, chunkSize, new BatchGeocoder.Listener() {
+            @Override
+            public void onProgress(String batchId, List<BatchGeocoder.Result> results, int completed, int total) {
+                JSArray resultsArray = new JSArray();
+                for (BatchGeocoder.Result item : results) {
+                    JSObject itemObj = new JSObject();
+                    itemObj.put("index", item.getIndex());
+                    itemObj.put("code", item.getCode());
+                    if (item.getPayload() != null) {
+                        try {
+                            itemObj.put(resultKey, new JSONTokener(item.getPayload()).nextValue());
+                        } catch (JSONException e) {
+                            itemObj.put("message", e.getMessage());
+                        }
+                    }
+                    if (item.getMessage() != null) {
+                        itemObj.put("message", item.getMessage());
+                    }
+                    resultsArray.put(itemObj);
+                }
+
+                JSObject data = new JSObject();
+                data.put("batchId", batchId);
+                data.put("results", resultsArray);
+                data.put("completed", completed);
+                data.put("total", total);
+                notifyListeners("onGeocodeBatchProgress", data);
+            }
+
+            @Override
+            public void onComplete(String batchId, int succeeded, int failed, int cancelled) {
+                AMapTrace.endAsync("AMap#geocodeBatch", traceCookie);
+                JSObject data = new JSObject();
+                data.put("batchId", batchId);
+                data.put("succeeded", succeeded);
+                data.put("failed", failed);
+                data.put("cancelled", cancelled);
+                notifyListeners("onGeocodeBatchComplete", data);
+            }
+        });
+    }
+
+    /**
+     * 在写入线程中追加定位结果，失败时只记录日志，不影响定位。
+     */
+    public void appendTrack(String trackId, List<TrackPoint> points) {
+        try {
+            this.trackWriter.execute(() -> {
+                try {
+                    this.getTrackStore(trackId).append(points);
+                } catch (IOException e) {
+                    Logger.error(this.getLogTag(), "failed to append track " + trackId, e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // 插件已销毁
+        }
+    }
+
+    /**
+     * 打开轨迹存储，轨迹 id 只能包含字母、数字、下划线和连字符。
+     */
+    private TrackStore getTrackStore(String trackId) throws IOException {
+        if (StrUtil.isBlank(trackId) || !trackId.matches("[A-Za-z0-9_-]+")) {
+            throw new IllegalArgumentException("trackId must only contain letters, digits, '_' and '-'");
+        }
+
+        synchronized (this.trackStores) {
+            TrackStore store = this.trackStores.get(trackId);
+            if (store == null) {
+                store = new TrackStore(new File(new File(super.getContext().getFilesDir(), "amap-tracks"), trackId));
+                this.trackStores.put(trackId, store);
+            }
+            return store;
+        }
+    }
+
+    private void closeTrackStores() {
+        synchronized (this.trackStores) {
+            for (TrackStore store : this.trackStores.values()) {
+                try {
+                    store.close();
+                } catch (IOException e) {
+                    Logger.error(this.getLogTag(), "failed to close track store", e);
+                }
+            }
+            this.trackStores.clear();
+        }
+    }
+
+    /**
+     * 必须在 UI 线程中调用。
+     */
+    private OfflineScheduler getOfflineScheduler() {
+        if (this.offlineScheduler == null) {
+            Handler handler = new Handler(Looper.getMainLooper());
+            this.offlineDownloader = new AMapOfflineDownloader(super.getContext());
+            this.offlineScheduler = new OfflineScheduler(this.offlineDownloader, (task, delayMillis) -> {
+                handler.postDelayed(task, delayMillis);
+                return () -> handler.removeCallbacks(task);
+            }, SystemClock::elapsedRealtime, this.offlineDownloader::availableBytes, new OfflineScheduler.Listener() {
+                @Override
+                public void onStateChanged(OfflineScheduler.Task task) {
+                    notifyListeners("onOfflineMapStateChange", offlineTaskToJSObject(task));
+                }
+
+                @Override
+                public void onProgress(OfflineScheduler.Task task) {
+                    notifyListeners("onOfflineMapProgress", offlineTaskToJSObject(task));
+                }
+            });
+        }
+        return this.offlineScheduler;
+    }
+
+    private JSObject offlineTaskToJSObject(OfflineScheduler.Task task) {
+        JSObject result = new JSObject();
+        result.put("cityCode", task.getCityCode());
+        result.put("priority", task.getPriority());
+        result.put("state", task.getState().name().toLowerCase(Locale.ROOT));
+        result.put("progress", task.getProgress());
+        result.put("attempts", task.getAttempts());
+        if (task.getError() != null) {
+            result.put("error", task.getError());
+        }
+        return result;
+    }
+
+    private JSObject trackPointsToJSObject(List<TrackPoint> points) {
+        JSArray locations = new JSArray();
+        for (TrackPoint point : points) {
+            JSObject location = new JSObject();
+            location.put("latitude", point.getLatitude());
+            location.put("longitude", point.getLongitude());
+            location.put("accuracy", point.getAccuracy());
+            location.put("altitude", point.getAltitude());
+            location.put("bearing", point.getBearing());
+            location.put("speed", point.getSpeed());
+            location.put("time", point.getTime());
+            locations.put(location);
+        }
+
+        JSObject data = new JSObject();
+        data.put("locations", locations);
+        return data;
+    }
+
+    private void endGestureFocusTrace() {
+        if (this.gestureFocusTraceCookie != 0) {
+            AMapTrace.endAsync("AMap#touchFocus", this.gestureFocusTraceCookie);
+            this.gestureFocusTraceCookie = 0;
+        }
+    }
+
+    private void scheduleScrollFrame() {
+        if (this.scrollFramePending) {
+            return;
+        }
+
+        this.scrollFramePending = true;
+        Choreographer.getInstance().postFrameCallback(this.scrollFrameCallback);
+    }
+
+    public MapViewPool getMapViewPool() {
+        return this.mapViewPool;
+    }
+
+    public TouchTargetIndex<CapacitorAMap> getTouchTargets() {
+        return this.touchTargets;
+    }
+
     private CapacitorAMap getMap(PluginCall call) {
         String id = call.getString("id");
         if (StrUtil.isBlank(id)) {
@@ -632,6 +2705,64 @@ public class CapacitorAMapPlugin extends Plugin {
         return map;
     }
 
+    /**
+     * @param mapId 为 null 时包含所有地图
+     */
+    private JSObject buildPerformanceStats(String mapId) {
+        JSObject maps = new JSObject();
+        for (CapacitorAMap map : this.maps.values()) {
+            if (mapId == null || mapId.equals(map.getId())) {
+                maps.put(map.getId(), this.performanceStatsToJSObject(map.getStats()));
+            }
+        }
+
+        IconRegistry.Stats iconStats = this.iconRegistry.getStats();
+        JSObject icons = new JSObject();
+        icons.put("entries", iconStats.getEntries());
+        icons.put("bytes", iconStats.getBytes());
+        icons.put("maxBytes", iconStats.getMaxBytes());
+        icons.put("hits", iconStats.getHits());
+        icons.put("misses", iconStats.getMisses());
+        icons.put("failures", iconStats.getFailures());
+        icons.put("evictions", iconStats.getEvictions());
+
+        JSObject result = this.performanceStatsToJSObject(this.stats);
+        result.put("maps", maps);
+        result.put("icons", icons);
+        return result;
+    }
+
+    private JSObject performanceStatsToJSObject(PerformanceStats stats) {
+        JSObject events = new JSObject();
+        for (Map.Entry<String, EventCounter.Snapshot> entry : stats.getEvents().entrySet()) {
+            EventCounter.Snapshot snapshot = entry.getValue();
+            JSObject event = new JSObject();
+            event.put("received", snapshot.getReceived());
+            event.put("emitted", snapshot.getEmitted());
+            event.put("dropped", snapshot.getDropped());
+            event.put("bytes", snapshot.getBytes());
+            events.put(entry.getKey(), event);
+        }
+
+        JSObject latencies = new JSObject();
+        for (Map.Entry<String, LatencyRecorder.Snapshot> entry : stats.getLatencies().entrySet()) {
+            LatencyRecorder.Snapshot snapshot = entry.getValue();
+            JSObject latency = new JSObject();
+            latency.put("count", snapshot.getCount());
+            latency.put("meanMs", snapshot.getMeanNanos() / 1e6);
+            latency.put("p50Ms", snapshot.getP50Nanos() / 1e6);
+            latency.put("p95Ms", snapshot.getP95Nanos() / 1e6);
+            latency.put("p99Ms", snapshot.getP99Nanos() / 1e6);
+            latency.put("maxMs", snapshot.getMaxNanos() / 1e6);
+            latencies.put(entry.getKey(), latency);
+        }
+
+        JSObject result = new JSObject();
+        result.put("events", events);
+        result.put("latencies", latencies);
+        return result;
+    }
+
     public void notifyListeners(String mapId, String event, JSObject data) {
         if (data == null) {
             data = new JSObject();
@@ -0,0 +1,186 @@
+package site.snewbie.plugins.amap;
+
+import android.graphics.Color;
+
+import com.amap.api.maps.model.LatLng;
+import com.amap.api.maps.model.Polyline;
+import com.amap.api.maps.model.PolylineOptions;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Getter;
+import lombok.Setter;
+import site.snewbie.plugins.amap.simplify.SimplifiedPolyline;
+
+@Getter
+public class CapacitorAMapPolyline {
+    private final String id;
+
+    /**
+     * 经纬度交替排列的原始坐标，局部更新时为 null 表示不修改。
+     */
+    private double[] coordinates;
+    private Float width;
+    private Integer color;
+    private Float zIndex;
+    private Boolean visible;
+    private Boolean geodesic;
+    private Boolean dottedLine;
+    private Float tolerance;
+
+    /**
+     * 由地图的后台线程计算，计算完成后在 UI 线程中设置。
+     */
+    @Setter
+    private SimplifiedPolyline simplified;
+    /**
+     * 当前显示的简化级别。
+     */
+    @Setter
+    private int[] level;
+    @Setter
+    private Polyline polyline;
+
+    public CapacitorAMapPolyline(JSONObject fromJSONObject) throws JSONException {
+        if (!fromJSONObject.has("id")) {
+            throw new IllegalArgumentException("Polyline object is missing the required 'id' property");
+        }
+
+        id = fromJSONObject.getString("id");
+
+        if (fromJSONObject.has("points")) {
+            coordinates = PackedCoordinates.decode(fromJSONObject.getString("points"), 2);
+        }
+
+        if (fromJSONObject.has("width")) {
+            width = Double.valueOf(fromJSONObject.getDouble("width")).floatValue();
+        }
+
+        if (fromJSONObject.has("color")) {
+            color = Color.parseColor(fromJSONObject.getString("color"));
+        }
+
+        if (fromJSONObject.has("zIndex")) {
+            zIndex = Double.valueOf(fromJSONObject.getDouble("zIndex")).floatValue();
+        }
+
+        if (fromJSONObject.has("visible")) {
+            visible = fromJSONObject.getBoolean("visible");
+        }
+
+        if (fromJSONObject.has("geodesic")) {
+            geodesic = fromJSONObject.getBoolean("geodesic");
+        }
+
+        if (fromJSONObject.has("dottedLine")) {
+            dottedLine = fromJSONObject.getBoolean("dottedLine");
+        }
+
+        if (fromJSONObject.has("tolerance")) {
+            tolerance = Double.valueOf(fromJSONObject.getDouble("tolerance")).floatValue();
+        }
+    }
+
+    /**
+     * 在后台线程中计算各缩放级别的简化结果，默认容差为 1 像素。
+     */
+    public SimplifiedPolyline simplify() {
+        if (coordinates == null) {
+            throw new IllegalArgumentException("Polyline object is missing the required 'points' property");
+        }
+
+        return new SimplifiedPolyline(coordinates, tolerance != null ? tolerance : 1f);
+    }
+
+    /**
+     * 将局部更新合并到当前配置中，未设置的属性保持不变。
+     */
+    public void merge(CapacitorAMapPolyline update) {
+        if (update.coordinates != null) {
+            coordinates = update.coordinates;
+        }
+        if (update.width != null) {
+            width = update.width;
+        }
+        if (update.color != null) {
+            color = update.color;
+        }
+        if (update.zIndex != null) {
+            zIndex = update.zIndex;
+        }
+        if (update.visible != null) {
+            visible = update.visible;
+        }
+        if (update.geodesic != null) {
+            geodesic = update.geodesic;
+        }
+        if (update.dottedLine != null) {
+            dottedLine = update.dottedLine;
+        }
+        if (update.tolerance != null) {
+            tolerance = update.tolerance;
+        }
+    }
+
+    public PolylineOptions toPolylineOptions(List<LatLng> points) {
+        PolylineOptions options = new PolylineOptions().addAll(points);
+        if (width != null) {
+            options.width(width);
+        }
+        if (color != null) {
+            options.color(color);
+        }
+        if (zIndex != null) {
+            options.zIndex(zIndex);
+        }
+        if (visible != null) {
+            options.visible(visible);
+        }
+        if (geodesic != null) {
+            options.geodesic(geodesic);
+        }
+        if (dottedLine != null) {
+            options.setDottedLine(dottedLine);
+        }
+        return options;
+    }
+
+    /**
+     * 只把局部更新中设置了的样式应用到原生 Polyline，坐标由简化结果单独设置。
+     */
+    public void applyTo(Polyline target) {
+        if (width != null) {
+            target.setWidth(width);
+        }
+        if (color != null) {
+            target.setColor(color);
+        }
+        if (zIndex != null) {
+            target.setZIndex(zIndex);
+        }
+        if (visible != null) {
+            target.setVisible(visible);
+        }
+        if (geodesic != null) {
+            target.setGeodesic(geodesic);
+        }
+        if (dottedLine != null) {
+            target.setDottedLine(dottedLine);
+        }
+    }
+
+    /**
+     * 根据简化级别生成坐标，应在后台线程中调用。
+     */
+    public static List<LatLng> toLatLngs(SimplifiedPolyline simplified, int[] level) {
+        List<LatLng> points = new ArrayList<>(level.length);
+        for (int index : level) {
+            points.add(new LatLng(simplified.getLatitude(index), simplified.getLongitude(index)));
+        }
+        return points;
+    }
+}
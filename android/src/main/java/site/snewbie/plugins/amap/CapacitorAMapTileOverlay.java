@@ -0,0 +1,130 @@
+package site.snewbie.plugins.amap;
+
+import com.amap.api.maps.model.LatLngBounds;
+import com.amap.api.maps.model.Tile;
+import com.amap.api.maps.model.TileOverlay;
+import com.amap.api.maps.model.TileProvider;
+import com.getcapacitor.Logger;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import lombok.Getter;
+import lombok.Setter;
+import site.snewbie.plugins.amap.tile.DirectoryTileSource;
+import site.snewbie.plugins.amap.tile.TileDiskCache;
+import site.snewbie.plugins.amap.tile.TileLoader;
+import site.snewbie.plugins.amap.tile.TileSource;
+import site.snewbie.plugins.amap.tile.UrlTileSource;
+
+/**
+ * 由插件管理的自定义瓦片图层，瓦片通过 {@link TileLoader} 从本地目录、MBTiles 文件或网络加载，
+ * 并在内存和磁盘中缓存。相机停止移动后在后台线程中预取可见范围周围的瓦片。
+ */
+@Getter
+public class CapacitorAMapTileOverlay implements TileProvider {
+    public static final int DEFAULT_TILE_SIZE = 256;
+    private static final int PREFETCH_THREADS = 2;
+
+    private final String id;
+    private final int tileSize;
+    /**
+     * 可见范围外额外预取的圈数，小于 0 时不预取。
+     */
+    private final int prefetchRing;
+    private final ExecutorService prefetchExecutor;
+    private final TileLoader loader;
+    /**
+     * 在 UI 线程中添加到地图后设置。
+     */
+    @Setter
+    private TileOverlay overlay;
+
+    public CapacitorAMapTileOverlay(String id, TileSource source, int tileSize, long memoryCacheBytes, TileDiskCache diskCache,
+                                    int prefetchRing, int minZoom, int maxZoom) {
+        this.id = id;
+        this.tileSize = tileSize;
+        this.prefetchRing = prefetchRing;
+        this.prefetchExecutor = prefetchRing >= 0 ? Executors.newFixedThreadPool(PREFETCH_THREADS) : null;
+        this.loader = new TileLoader(source, memoryCacheBytes, diskCache, this.prefetchExecutor, minZoom, maxZoom);
+    }
+
+    @Override
+    public Tile getTile(int x, int y, int zoom) {
+        try {
+            byte[] data = this.loader.load(x, y, zoom);
+            return data != null ? new Tile(this.tileSize, this.tileSize, data) : NO_TILE;
+        } catch (IOException e) {
+            Logger.error("failed to load tile " + zoom + "/" + x + "/" + y, e);
+            // 返回 null 表示暂时无法获取，SDK 稍后会重新请求
+            return null;
+        }
+    }
+
+    @Override
+    public int getTileWidth() {
+        return this.tileSize;
+    }
+
+    @Override
+    public int getTileHeight() {
+        return this.tileSize;
+    }
+
+    /**
+     * 相机停止移动后预取当前缩放级别可见范围周围的瓦片，必须在 UI 线程中调用。
+     */
+    public void onCameraIdle(float zoom, LatLngBounds bounds) {
+        if (this.prefetchRing < 0 || bounds == null) {
+            return;
+        }
+
+        this.loader.prefetch(Math.round(zoom), bounds.southwest.latitude, bounds.southwest.longitude,
+                bounds.northeast.latitude, bounds.northeast.longitude, this.prefetchRing);
+    }
+
+    public void destroy() {
+        if (this.prefetchExecutor != null) {
+            this.prefetchExecutor.shutdownNow();
+        }
+        this.loader.close();
+    }
+
+    /**
+     * 根据 {type, path, url, template, headers, timeout} 创建瓦片数据源，type 为 directory、mbtiles 或 url。
+     */
+    public static TileSource createSource(JSONObject source) throws JSONException {
+        String type = source.getString("type");
+        switch (type) {
+            case "directory":
+                return new DirectoryTileSource(toFile(source.getString("path")), source.optString("template", DirectoryTileSource.DEFAULT_TEMPLATE));
+            case "mbtiles":
+                return new MbTilesTileSource(toFile(source.getString("path")));
+            case "url":
+                Map<String, String> headers = new HashMap<>();
+                JSONObject headerObject = source.optJSONObject("headers");
+                if (headerObject != null) {
+                    Iterator<String> keys = headerObject.keys();
+                    while (keys.hasNext()) {
+                        String key = keys.next();
+                        headers.put(key, headerObject.getString(key));
+                    }
+                }
+                return new UrlTileSource(source.getString("url"), source.optInt("timeout", UrlTileSource.DEFAULT_TIMEOUT_MILLIS), headers);
+            default:
+                throw new IllegalArgumentException("unknown tile source type " + type);
+        }
+    }
+
+    private static File toFile(String path) {
+        return new File(path.startsWith("file://") ? path.substring("file://".length()) : path);
+    }
+}
@@ -0,0 +1,78 @@
+package site.snewbie.plugins.amap;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+
+import com.amap.api.maps.model.BitmapDescriptor;
+import com.amap.api.maps.model.BitmapDescriptorFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 绘制聚合点图标，按显示的文字缓存，数量较大时按量级合并以限制缓存大小。
+ */
+public class ClusterIconFactory {
+    private static final int SIZE_DP = 40;
+
+    private final float density;
+    private final Map<String, BitmapDescriptor> icons = new HashMap<>();
+
+    public ClusterIconFactory(float density) {
+        this.density = density;
+    }
+
+    public BitmapDescriptor get(int count) {
+        String label = label(count);
+        BitmapDescriptor icon = this.icons.get(label);
+        if (icon == null) {
+            icon = BitmapDescriptorFactory.fromBitmap(this.draw(label, count));
+            this.icons.put(label, icon);
+        }
+        return icon;
+    }
+
+    static String label(int count) {
+        if (count < 100) {
+            return String.valueOf(count);
+        }
+
+        if (count < 1000) {
+            return (count / 100 * 100) + "+";
+        }
+
+        return (count / 1000) + "k+";
+    }
+
+    private Bitmap draw(String label, int count) {
+        int size = (int) (SIZE_DP * this.density + 0.5f);
+        Bitmap bitmap = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(bitmap);
+
+        Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        float radius = size / 2f;
+
+        paint.setColor(Color.WHITE);
+        canvas.drawCircle(radius, radius, radius, paint);
+
+        if (count < 10) {
+            paint.setColor(Color.rgb(51, 136, 255));
+        } else if (count < 100) {
+            paint.setColor(Color.rgb(255, 153, 0));
+        } else {
+            paint.setColor(Color.rgb(238, 68, 68));
+        }
+        canvas.drawCircle(radius, radius, radius - 2 * this.density, paint);
+
+        paint.setColor(Color.WHITE);
+        paint.setTextAlign(Paint.Align.CENTER);
+        paint.setTextSize((label.length() > 3 ? 11 : 14) * this.density);
+        paint.setFakeBoldText(true);
+        float baseline = radius - (paint.descent() + paint.ascent()) / 2;
+        canvas.drawText(label, radius, baseline, paint);
+
+        return bitmap;
+    }
+}
@@ -0,0 +1,126 @@
+package site.snewbie.plugins.amap;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 按事件发送策略过滤单个地图的事件，被丢弃的事件不会进行任何序列化。
+ * 地图 SDK 的回调都在 UI 线程中执行，该类也只在 UI 线程中使用。
+ */
+public class EventEmissionGate {
+    /**
+     * 必须送达的事件，不允许设置发送策略。
+     */
+    public static final Set<String> ALWAYS_DELIVERED = new HashSet<>(Arrays.asList("onCameraChangeFinish", "onMapReady"));
+
+    public interface Emitter {
+        void emit(String eventName, Object data);
+    }
+
+    private static class State {
+        EventEmissionPolicy policy = EventEmissionPolicy.ALL;
+        long lastEmittedAt = Long.MIN_VALUE / 2;
+        Object pending;
+        Runnable flush;
+    }
+
+    private final Emitter emitter;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Map<String, State> states = new HashMap<>();
+
+    public EventEmissionGate(Emitter emitter) {
+        this.emitter = emitter;
+    }
+
+    public void setPolicy(String eventName, EventEmissionPolicy policy) {
+        if (ALWAYS_DELIVERED.contains(eventName)) {
+            throw new IllegalArgumentException(eventName + " is always delivered");
+        }
+
+        State state = this.states.get(eventName);
+        if (state == null) {
+            if (policy.getMode() == EventEmissionPolicy.Mode.ALL) {
+                return;
+            }
+            state = new State();
+            this.states.put(eventName, state);
+        }
+
+        // 切换策略前先把合并中的事件送出去
+        this.flush(eventName);
+        state.policy = policy;
+    }
+
+    /**
+     * @return true 表示调用方应立即发送该事件
+     */
+    public boolean tryEmit(String eventName, Object data) {
+        State state = this.states.get(eventName);
+        if (state == null) {
+            return true;
+        }
+
+        switch (state.policy.getMode()) {
+            case OFF:
+                return false;
+            case THROTTLE: {
+                long now = SystemClock.uptimeMillis();
+                if (now - state.lastEmittedAt < state.policy.getIntervalMs()) {
+                    return false;
+                }
+                state.lastEmittedAt = now;
+                return true;
+            }
+            case COALESCE: {
+                state.pending = data;
+                if (state.flush == null) {
+                    state.flush = () -> this.flush(eventName);
+                    long now = SystemClock.uptimeMillis();
+                    long delay = Math.max(0, state.lastEmittedAt + state.policy.getIntervalMs() - now);
+                    this.handler.postDelayed(state.flush, delay);
+                }
+                return false;
+            }
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * 立即发送合并中的最新事件。
+     */
+    public void flush(String eventName) {
+        State state = this.states.get(eventName);
+        if (state == null) {
+            return;
+        }
+
+        if (state.flush != null) {
+            this.handler.removeCallbacks(state.flush);
+            state.flush = null;
+        }
+
+        Object pending = state.pending;
+        if (pending != null) {
+            state.pending = null;
+            state.lastEmittedAt = SystemClock.uptimeMillis();
+            this.emitter.emit(eventName, pending);
+        }
+    }
+
+    public void clear() {
+        for (State state : this.states.values()) {
+            if (state.flush != null) {
+                this.handler.removeCallbacks(state.flush);
+            }
+        }
+        this.states.clear();
+    }
+}
@@ -0,0 +1,71 @@
+package site.snewbie.plugins.amap;
+
+import com.getcapacitor.JSObject;
+
+import java.util.Locale;
+
+import lombok.Getter;
+
+/**
+ * 单个事件的发送策略，在序列化之前决定是否需要跨桥发送。
+ */
+@Getter
+public class EventEmissionPolicy {
+    public static final EventEmissionPolicy ALL = new EventEmissionPolicy(Mode.ALL, 0);
+
+    /**
+     * 合并模式下未指定间隔时，按一帧的时间合并。
+     */
+    private static final long FRAME_INTERVAL_MS = 16;
+
+    public enum Mode {
+        /**
+         * 每次都发送。
+         */
+        ALL,
+        /**
+         * 间隔内只发送第一次，其余直接丢弃。
+         */
+        THROTTLE,
+        /**
+         * 间隔内只保留最新的一次，到期后发送。
+         */
+        COALESCE,
+        /**
+         * 不发送。
+         */
+        OFF
+    }
+
+    private final Mode mode;
+    private final long intervalMs;
+
+    public EventEmissionPolicy(Mode mode, long intervalMs) {
+        this.mode = mode;
+        this.intervalMs = intervalMs;
+    }
+
+    public static EventEmissionPolicy fromJSObject(JSObject fromJSONObject) {
+        String mode = fromJSONObject.getString("mode", "all");
+        long intervalMs = fromJSONObject.getInteger("throttleMs", 0);
+        if (intervalMs < 0) {
+            throw new IllegalArgumentException("throttleMs must not be negative");
+        }
+
+        switch (mode.toLowerCase(Locale.ROOT)) {
+            case "all":
+                return ALL;
+            case "throttle":
+                if (intervalMs == 0) {
+                    throw new IllegalArgumentException("throttleMs is required in throttle mode");
+                }
+                return new EventEmissionPolicy(Mode.THROTTLE, intervalMs);
+            case "coalesce":
+                return new EventEmissionPolicy(Mode.COALESCE, intervalMs > 0 ? intervalMs : FRAME_INTERVAL_MS);
+            case "off":
+                return new EventEmissionPolicy(Mode.OFF, 0);
+            default:
+                throw new IllegalArgumentException("mode is invalid");
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package site.snewbie.plugins.amap;
+
+import android.app.Notification;
+import android.app.NotificationChannel;
+import android.app.NotificationManager;
+import android.content.Context;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import com.amap.api.location.AMapLocation;
+import com.amap.api.location.AMapLocationClient;
+import com.amap.api.location.AMapLocationClientOption;
+import com.amap.api.location.AMapLocationListener;
+
+import java.util.List;
+
+import lombok.Getter;
+import site.snewbie.plugins.amap.track.TrackBuffer;
+import site.snewbie.plugins.amap.track.TrackFilter;
+import site.snewbie.plugins.amap.track.TrackPoint;
+
+/**
+ * 基于 {@link AMapLocationClient} 的持续定位，与地图是否显示无关。
+ * 定位结果先经过 {@link TrackFilter} 过滤，再缓存在 {@link TrackBuffer} 中按批发送，
+ * 避免每次定位都唤醒 WebView。指定通知时以前台服务的方式定位，应用进入后台后仍然可以持续定位。
+ * 所有方法都必须在 UI 线程中调用，定位回调也在 UI 线程中执行。
+ */
+public class LocationTracker implements AMapLocationListener {
+    public static final int NOTIFICATION_ID = 0x414D4150;
+    private static final String NOTIFICATION_CHANNEL_ID = "capacitor_amap_location_tracking";
+
+    private final Context context;
+    private final Listener listener;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable flushTask = this::flushDue;
+
+    private AMapLocationClient client;
+    private TrackFilter filter;
+    private TrackBuffer buffer;
+    private boolean background;
+
+    /**
+     * 本次定位中 SDK 返回错误的次数。
+     */
+    @Getter
+    private long errors;
+    @Getter
+    private int lastErrorCode;
+    @Getter
+    private String lastErrorInfo;
+
+    public LocationTracker(Context context, Listener listener) {
+        this.context = context.getApplicationContext();
+        this.listener = listener;
+    }
+
+    /**
+     * 开始定位，正在定位时先停止并发送已缓存的结果。
+     *
+     * @param intervalMillis SDK 的定位间隔，单位：毫秒
+     * @param highAccuracy   为 true 时同时使用 GPS 和网络定位，否则只使用网络定位
+     * @param notification   前台服务的通知，为 null 时只在应用位于前台时定位
+     */
+    public void start(TrackFilter filter, TrackBuffer buffer, long intervalMillis, boolean highAccuracy,
+                      Notification notification) throws Exception {
+        this.stop();
+
+        AMapLocationClientOption option = new AMapLocationClientOption();
+        option.setLocationMode(highAccuracy
+                ? AMapLocationClientOption.AMapLocationMode.Hight_Accuracy
+                : AMapLocationClientOption.AMapLocationMode.Battery_Saving);
+        option.setInterval(intervalMillis);
+        option.setOnceLocation(false);
+        option.setNeedAddress(false);
+        // 过滤器按定位时间去重，SDK 的缓存结果没有意义
+        option.setLocationCacheEnable(false);
+
+        AMapLocationClient client = new AMapLocationClient(this.context);
+        client.setLocationOption(option);
+        client.setLocationListener(this);
+
+        this.filter = filter;
+        this.buffer = buffer;
+        this.client = client;
+        this.errors = 0;
+        this.lastErrorCode = 0;
+        this.lastErrorInfo = null;
+
+        if (notification != null) {
+            client.enableBackgroundLocation(NOTIFICATION_ID, notification);
+            this.background = true;
+        }
+        client.startLocation();
+    }
+
+    /**
+     * 停止定位，已缓存的结果全部发送。
+     */
+    public void stop() {
+        AMapLocationClient client = this.client;
+        if (client == null) {
+            return;
+        }
+
+        this.client = null;
+        client.stopLocation();
+        if (this.background) {
+            client.disableBackgroundLocation(true);
+            this.background = false;
+        }
+        client.unRegisterLocationListener(this);
+        client.onDestroy();
+
+        this.flush();
+    }
+
+    /**
+     * 立即发送所有缓存的结果。
+     */
+    public void flush() {
+        this.handler.removeCallbacks(this.flushTask);
+        TrackBuffer buffer = this.buffer;
+        if (buffer == null) {
+            return;
+        }
+
+        long now = SystemClock.elapsedRealtime();
+        while (buffer.size() > 0) {
+            this.listener.onBatch(buffer.poll(now));
+        }
+    }
+
+    public boolean isStarted() {
+        return this.client != null;
+    }
+
+    @Override
+    public void onLocationChanged(AMapLocation location) {
+        if (location == null || this.client == null) {
+            return;
+        }
+        if (location.getErrorCode() != AMapLocation.LOCATION_SUCCESS) {
+            this.errors++;
+            this.lastErrorCode = location.getErrorCode();
+            this.lastErrorInfo = location.getErrorInfo();
+            return;
+        }
+
+        TrackPoint point = new TrackPoint(location.getLatitude(), location.getLongitude(), location.getAccuracy(),
+                location.getAltitude(), location.getBearing(), location.getSpeed(), location.getTime());
+        if (!this.filter.accept(point)) {
+            return;
+        }
+
+        long now = SystemClock.elapsedRealtime();
+        if (this.buffer.add(point, now)) {
+            this.flushDue();
+        } else {
+            this.scheduleFlush(now);
+        }
+    }
+
+    /**
+     * 发送一批到期的结果，剩余的结果重新计时。
+     */
+    private void flushDue() {
+        this.handler.removeCallbacks(this.flushTask);
+        long now = SystemClock.elapsedRealtime();
+        List<TrackPoint> batch = this.buffer.poll(now);
+        if (!batch.isEmpty()) {
+            this.listener.onBatch(batch);
+        }
+        this.scheduleFlush(now);
+    }
+
+    private void scheduleFlush(long now) {
+        long delay = this.buffer.millisUntilDue(now);
+        if (delay >= 0) {
+            this.handler.removeCallbacks(this.flushTask);
+            this.handler.postDelayed(this.flushTask, delay);
+        }
+    }
+
+    public TrackFilter.Stats getFilterStats() {
+        return this.filter != null ? this.filter.getStats() : null;
+    }
+
+    public TrackBuffer.Stats getBufferStats() {
+        return this.buffer != null ? this.buffer.getStats() : null;
+    }
+
+    /**
+     * 创建前台服务的通知，Android 8.0 以上需要先创建通知渠道。
+     */
+    public Notification createNotification(String title, String text) {
+        Notification.Builder builder;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            NotificationManager manager = (NotificationManager) this.context.getSystemService(Context.NOTIFICATION_SERVICE);
+            NotificationChannel channel = new NotificationChannel(NOTIFICATION_CHANNEL_ID, title, NotificationManager.IMPORTANCE_LOW);
+            manager.createNotificationChannel(channel);
+            builder = new Notification.Builder(this.context, NOTIFICATION_CHANNEL_ID);
+        } else {
+            builder = new Notification.Builder(this.context);
+        }
+
+        return builder.setContentTitle(title)
+                .setContentText(text)
+                .setSmallIcon(this.context.getApplicationInfo().icon)
+                .setOngoing(true)
+                .build();
+    }
+
+    public interface Listener {
+        /**
+         * 发送一批按定位时间排序的结果，不会为空。
+         */
+        void onBatch(List<TrackPoint> points);
+    }
+}
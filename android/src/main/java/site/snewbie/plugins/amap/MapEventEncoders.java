@@ -0,0 +1,344 @@
+package site.snewbie.plugins.amap;
+
+import android.graphics.Point;
+import android.location.Location;
+import android.view.MotionEvent;
+
+import com.amap.api.location.AMapLocation;
+import com.amap.api.maps.model.CameraPosition;
+import com.amap.api.maps.model.IndoorBuildingInfo;
+import com.amap.api.maps.model.LatLng;
+import com.amap.api.maps.model.Marker;
+import com.amap.api.maps.model.MultiPointItem;
+import com.amap.api.maps.model.Poi;
+import com.amap.api.maps.model.Polyline;
+import com.getcapacitor.JSArray;
+import com.getcapacitor.JSObject;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.function.Function;
+
+import site.snewbie.plugins.amap.cluster.Cluster;
+import site.snewbie.plugins.amap.event.PayloadEncoder;
+import site.snewbie.plugins.amap.event.PayloadEncoderRegistry;
+import site.snewbie.plugins.amap.geofence.GeofenceEngine;
+
+/**
+ * 地图事件的 payload 编码器。每个编码器复用自己的 {@link JSObject}，
+ * Capacitor 在 notifyListeners 中同步完成序列化，因此复用是安全的；所有编码器只在 UI 线程中使用。
+ * <p>
+ * 高频事件支持紧凑格式，payload 只包含一个按位置排列的数组 {@code v}，由 JS 端还原：
+ * <ul>
+ *     <li>CameraPosition：{@code [latitude, longitude, zoom, tilt, bearing, isAbroad]}</li>
+ *     <li>LatLng：{@code [latitude, longitude]}</li>
+ *     <li>MotionEvent：{@code [x, y]}</li>
+ *     <li>Location：{@code [latitude, longitude, accuracy, altitude, bearing, speed, time]}</li>
+ * </ul>
+ */
+public final class MapEventEncoders {
+    public static final String COMPACT_KEY = "v";
+
+    private MapEventEncoders() {
+    }
+
+    /**
+     * @param polylineIds 根据 SDK 的折线 id 查找调用方提供的折线 id
+     */
+    public static PayloadEncoderRegistry<JSObject> create(AMapConfig config, Function<String, String> polylineIds) {
+        return new PayloadEncoderRegistry<JSObject>()
+                .register(JSObject.class, (data, compact) -> data)
+                .register(LatLng.class, new LatLngEncoder())
+                .register(CameraPosition.class, new CameraPositionEncoder())
+                .register(Marker.class, new MarkerEncoder())
+                .register(Cluster.class, new ClusterEncoder())
+                .register(MotionEvent.class, new MotionEventEncoder(config))
+                .register(IndoorBuildingInfo.class, new IndoorBuildingEncoder())
+                .register(Location.class, new LocationEncoder())
+                .register(AMapLocation.class, new AMapLocationEncoder())
+                .register(MultiPointItem.class, new MultiPointItemEncoder(config))
+                .register(Poi.class, new PoiEncoder())
+                .register(Polyline.class, new PolylineEncoder(polylineIds))
+                .register(GeofenceEngine.Transition.class, new GeofenceTransitionEncoder());
+    }
+
+    private static void writeLatLng(JSObject target, double latitude, double longitude) {
+        target.put("latitude", latitude);
+        target.put("longitude", longitude);
+    }
+
+    /**
+     * 紧凑格式的数组长度固定，按下标覆盖即可复用。
+     */
+    private static void set(JSArray array, int index, double value) {
+        try {
+            // NaN 和无穷大无法写入 JSON
+            array.put(index, Double.isNaN(value) || Double.isInfinite(value) ? JSONObject.NULL : (Object) value);
+        } catch (JSONException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static JSObject compact(JSObject payload, JSArray values) {
+        payload.put(COMPACT_KEY, values);
+        return payload;
+    }
+
+    private static final class LatLngEncoder implements PayloadEncoder<LatLng, JSObject> {
+        private final JSObject payload = new JSObject();
+        private final JSObject compactPayload = new JSObject();
+        private final JSArray values = new JSArray();
+
+        @Override
+        public JSObject encode(LatLng data, boolean compact) {
+            if (compact) {
+                set(this.values, 0, data.latitude);
+                set(this.values, 1, data.longitude);
+                return MapEventEncoders.compact(this.compactPayload, this.values);
+            }
+
+            writeLatLng(this.payload, data.latitude, data.longitude);
+            return this.payload;
+        }
+    }
+
+    private static final class CameraPositionEncoder implements PayloadEncoder<CameraPosition, JSObject> {
+        private final JSObject payload = new JSObject();
+        private final JSObject target = new JSObject();
+        private final JSObject compactPayload = new JSObject();
+        private final JSArray values = new JSArray();
+
+        @Override
+        public JSObject encode(CameraPosition data, boolean compact) {
+            if (compact) {
+                set(this.values, 0, data.target.latitude);
+                set(this.values, 1, data.target.longitude);
+                set(this.values, 2, data.zoom);
+                set(this.values, 3, data.tilt);
+                set(this.values, 4, data.bearing);
+                set(this.values, 5, data.isAbroad ? 1 : 0);
+                return MapEventEncoders.compact(this.compactPayload, this.values);
+            }
+
+            writeLatLng(this.target, data.target.latitude, data.target.longitude);
+            this.payload.put("target", this.target);
+            this.payload.put("zoom", data.zoom);
+            this.payload.put("tilt", data.tilt);
+            this.payload.put("bearing", data.bearing);
+            this.payload.put("isAbroad", data.isAbroad);
+            return this.payload;
+        }
+    }
+
+    private static final class MarkerEncoder implements PayloadEncoder<Marker, JSObject> {
+        private final JSObject payload = new JSObject();
+        private final JSObject position = new JSObject();
+        private final JSObject options = new JSObject();
+
+        @Override
+        public JSObject encode(Marker data, boolean compact) {
+            this.options.put("title", data.getOptions().getTitle());
+            this.options.put("snippet", data.getOptions().getSnippet());
+
+            LatLng latLng = data.getPosition();
+            writeLatLng(this.position, latLng.latitude, latLng.longitude);
+
+            this.payload.put("id", data.getId());
+            this.payload.put("markerId", MarkerRegistry.getMarkerId(data));
+            this.payload.put("position", this.position);
+            this.payload.put("options", this.options);
+            return this.payload;
+        }
+    }
+
+    private static final class ClusterEncoder implements PayloadEncoder<Cluster, JSObject> {
+        private final JSObject payload = new JSObject();
+        private final JSObject position = new JSObject();
+
+        @Override
+        public JSObject encode(Cluster data, boolean compact) {
+            writeLatLng(this.position, data.getLatitude(), data.getLongitude());
+
+            this.payload.put("position", this.position);
+            this.payload.put("count", data.size());
+            this.payload.put("memberIds", new JSArray(Arrays.asList(data.getMemberIds())));
+            return this.payload;
+        }
+    }
+
+    private static final class MotionEventEncoder implements PayloadEncoder<MotionEvent, JSObject> {
+        private final AMapConfig config;
+        private final JSObject payload = new JSObject();
+        private final JSObject compactPayload = new JSObject();
+        private final JSArray values = new JSArray();
+
+        private MotionEventEncoder(AMapConfig config) {
+            this.config = config;
+        }
+
+        @Override
+        public JSObject encode(MotionEvent data, boolean compact) {
+            float ratio = this.config.getDevicePixelRatio();
+            if (compact) {
+                set(this.values, 0, data.getX() / ratio);
+                set(this.values, 1, data.getY() / ratio);
+                return MapEventEncoders.compact(this.compactPayload, this.values);
+            }
+
+            this.payload.put("x", data.getX() / ratio);
+            this.payload.put("y", data.getY() / ratio);
+            return this.payload;
+        }
+    }
+
+    private static final class IndoorBuildingEncoder implements PayloadEncoder<IndoorBuildingInfo, JSObject> {
+        private final JSObject payload = new JSObject();
+
+        @Override
+        public JSObject encode(IndoorBuildingInfo data, boolean compact) {
+            this.payload.put("activeFloorName", data.activeFloorName);
+            this.payload.put("activeFloorIndex", data.activeFloorIndex);
+            this.payload.put("poiId", data.poiid);
+            this.payload.put("floorIndexs", data.floor_indexs);
+            this.payload.put("floorNames", data.floor_names);
+            return this.payload;
+        }
+    }
+
+    private static class LocationEncoder implements PayloadEncoder<Location, JSObject> {
+        private final JSObject payload = new JSObject();
+        private final JSObject compactPayload = new JSObject();
+        private final JSArray values = new JSArray();
+
+        @Override
+        public JSObject encode(Location data, boolean compact) {
+            if (compact) {
+                set(this.values, 0, data.getLatitude());
+                set(this.values, 1, data.getLongitude());
+                set(this.values, 2, data.getAccuracy());
+                set(this.values, 3, data.getAltitude());
+                set(this.values, 4, data.getBearing());
+                set(this.values, 5, data.getSpeed());
+                set(this.values, 6, data.getTime());
+                return MapEventEncoders.compact(this.compactPayload, this.values);
+            }
+
+            writeLatLng(this.payload, data.getLatitude(), data.getLongitude());
+            this.payload.put("accuracy", data.getAccuracy());
+            this.payload.put("altitude", data.getAltitude());
+            this.payload.put("bearing", data.getBearing());
+            this.payload.put("speed", data.getSpeed());
+            this.payload.put("time", data.getTime());
+            return this.payload;
+        }
+    }
+
+    /**
+     * 定位失败时只有错误信息，紧凑格式只用于定位成功的结果。
+     */
+    private static final class AMapLocationEncoder extends LocationEncoder {
+        private final JSObject errorPayload = new JSObject();
+
+        @Override
+        public JSObject encode(Location data, boolean compact) {
+            AMapLocation location = (AMapLocation) data;
+            if (location.getErrorCode() != 0) {
+                this.errorPayload.put("errorCode", location.getErrorCode());
+                this.errorPayload.put("errorInfo", location.getErrorInfo());
+                return this.errorPayload;
+            }
+
+            JSObject payload = super.encode(data, compact);
+            if (!compact) {
+                payload.put("errorCode", location.getErrorCode());
+                payload.put("errorInfo", location.getErrorInfo());
+            }
+            return payload;
+        }
+    }
+
+    private static final class MultiPointItemEncoder implements PayloadEncoder<MultiPointItem, JSObject> {
+        private final AMapConfig config;
+        private final JSObject payload = new JSObject();
+        private final JSObject latLng = new JSObject();
+        private final JSObject point = new JSObject();
+
+        private MultiPointItemEncoder(AMapConfig config) {
+            this.config = config;
+        }
+
+        @Override
+        public JSObject encode(MultiPointItem data, boolean compact) {
+            LatLng position = data.getLatLng();
+            writeLatLng(this.latLng, position.latitude, position.longitude);
+
+            Point iPoint = data.getIPoint();
+            this.point.put("x", iPoint.x / this.config.getDevicePixelRatio());
+            this.point.put("y", iPoint.y / this.config.getDevicePixelRatio());
+
+            this.payload.put("latLng", this.latLng);
+            this.payload.put("point", this.point);
+            this.payload.put("object", data.getObject());
+            this.payload.put("customerId", data.getCustomerId());
+            if (data.getObject() instanceof String) {
+                this.payload.put("overlayId", data.getObject());
+            } else {
+                this.payload.remove("overlayId");
+            }
+            this.payload.put("title", data.getTitle());
+            this.payload.put("snippet", data.getSnippet());
+            return this.payload;
+        }
+    }
+
+    private static final class PoiEncoder implements PayloadEncoder<Poi, JSObject> {
+        private final JSObject payload = new JSObject();
+        private final JSObject coordinate = new JSObject();
+
+        @Override
+        public JSObject encode(Poi data, boolean compact) {
+            LatLng latLng = data.getCoordinate();
+            writeLatLng(this.coordinate, latLng.latitude, latLng.longitude);
+
+            this.payload.put("name", data.getName());
+            this.payload.put("coordinate", this.coordinate);
+            this.payload.put("poiId", data.getPoiId());
+            return this.payload;
+        }
+    }
+
+    private static final class PolylineEncoder implements PayloadEncoder<Polyline, JSObject> {
+        private final Function<String, String> polylineIds;
+        private final JSObject payload = new JSObject();
+
+        private PolylineEncoder(Function<String, String> polylineIds) {
+            this.polylineIds = polylineIds;
+        }
+
+        @Override
+        public JSObject encode(Polyline data, boolean compact) {
+            this.payload.put("id", data.getId());
+            this.payload.put("polylineId", this.polylineIds.apply(data.getId()));
+            return this.payload;
+        }
+    }
+
+    private static final class GeofenceTransitionEncoder implements PayloadEncoder<GeofenceEngine.Transition, JSObject> {
+        private final JSObject payload = new JSObject();
+        private final JSObject position = new JSObject();
+
+        @Override
+        public JSObject encode(GeofenceEngine.Transition data, boolean compact) {
+            writeLatLng(this.position, data.getLatitude(), data.getLongitude());
+
+            this.payload.put("geofenceId", data.getGeofenceId());
+            this.payload.put("type", data.getType().name().toLowerCase(Locale.ROOT));
+            this.payload.put("position", this.position);
+            this.payload.put("time", data.getTime());
+            return this.payload;
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package site.snewbie.plugins.amap;
+
+import android.content.Context;
+import android.os.Looper;
+import android.util.DisplayMetrics;
+import android.view.ViewGroup;
+import android.view.ViewParent;
+
+import com.amap.api.maps.AMap;
+import com.amap.api.maps.AMapOptions;
+import com.amap.api.maps.CameraUpdateFactory;
+import com.amap.api.maps.MapView;
+import com.amap.api.maps.UiSettings;
+import com.amap.api.maps.model.CameraPosition;
+
+import site.snewbie.plugins.amap.pool.BoundedPool;
+
+/**
+ * 预先初始化的 {@link MapView} 池，默认关闭。
+ * 地图销毁时 MapView 被重置后放回池中，再次创建地图时直接复用，省去引擎和 GL 环境的初始化；
+ * 池未满时在主线程空闲期间预先创建 MapView。池的容量同时受数量和估算内存限制，内存紧张时清空。
+ * 除 {@link #acquire} 和 {@link #create} 外，所有方法都必须在 UI 线程中调用。
+ */
+public class MapViewPool {
+    public static final int DEFAULT_SIZE = 2;
+    public static final int DEFAULT_MAX_MEMORY_MB = 48;
+
+    private final Context context;
+    private final BoundedPool<MapView> pool = new BoundedPool<>(0, 0, MapView::onDestroy);
+    /**
+     * 未指定初始相机的地图使用 SDK 默认位置，复用时恢复，避免沿用上一个地图的相机。
+     */
+    private volatile CameraPosition defaultCamera;
+    private boolean prewarmScheduled;
+
+    public MapViewPool(Context context) {
+        this.context = context;
+    }
+
+    /**
+     * @param size        池中最多保留的 MapView 数量，为 0 时关闭
+     * @param maxMemoryMB 池中 MapView 估算内存之和的上限，单位：MB
+     */
+    public void configure(int size, int maxMemoryMB) {
+        this.pool.resize(size, maxMemoryMB * 1024L * 1024L);
+    }
+
+    /**
+     * 从池中取出 MapView 并应用地图配置，池为空时返回 null。
+     */
+    public MapView acquire(AMapConfig config) {
+        MapView mapView = this.pool.acquire();
+        if (mapView == null) {
+            return null;
+        }
+
+        AMap map = mapView.getMap();
+        map.setMapType(config.getMapType());
+
+        UiSettings uiSettings = map.getUiSettings();
+        uiSettings.setLogoPosition(config.getLogoPosition());
+        uiSettings.setScaleControlsEnabled(config.isScaleControlsEnabled());
+        uiSettings.setCompassEnabled(config.isCompassEnabled());
+        uiSettings.setRotateGesturesEnabled(config.isRotateGesturesEnabled());
+        uiSettings.setScrollGesturesEnabled(config.isScrollGesturesEnabled());
+        uiSettings.setTiltGesturesEnabled(config.isTiltGesturesEnabled());
+        uiSettings.setZoomControlsEnabled(config.isZoomControlsEnabled());
+        uiSettings.setZoomGesturesEnabled(config.isZoomGesturesEnabled());
+
+        CameraPosition camera = config.getCameraOptions() != null ? config.getCameraOptions().toCameraPosition() : this.defaultCamera;
+        if (camera != null) {
+            map.moveCamera(CameraUpdateFactory.newCameraPosition(camera));
+        }
+
+        mapView.onResume();
+        return mapView;
+    }
+
+    /**
+     * 新建 MapView，config 为 null 时使用 SDK 默认配置。
+     */
+    public MapView create(AMapConfig config) {
+        AMapOptions mapOptions = new AMapOptions();
+        if (config != null) {
+            mapOptions.logoPosition(config.getLogoPosition())
+                    .mapType(config.getMapType())
+                    .scaleControlsEnabled(config.isScaleControlsEnabled())
+                    .compassEnabled(config.isCompassEnabled())
+                    .rotateGesturesEnabled(config.isRotateGesturesEnabled())
+                    .scrollGesturesEnabled(config.isScrollGesturesEnabled())
+                    .tiltGesturesEnabled(config.isTiltGesturesEnabled())
+                    .zoomControlsEnabled(config.isZoomControlsEnabled())
+                    .zoomGesturesEnabled(config.isZoomGesturesEnabled());
+
+            if (config.getCameraOptions() != null) {
+                mapOptions.camera(config.getCameraOptions().toCameraPosition());
+            }
+        }
+
+        MapView mapView = new MapView(this.context, mapOptions);
+        mapView.onCreate(null);
+
+        if (this.defaultCamera == null && (config == null || config.getCameraOptions() == null)) {
+            this.defaultCamera = mapView.getMap().getCameraPosition();
+        }
+        return mapView;
+    }
+
+    /**
+     * 重置地图销毁后的 MapView 并放回池中，池已满或超出内存限制时直接销毁。
+     * 调用前地图的 SDK 监听必须已经移除。
+     */
+    public void recycle(MapView mapView) {
+        long cost = this.estimateBytes(mapView);
+
+        ViewParent parent = mapView.getParent();
+        if (parent instanceof ViewGroup) {
+            ((ViewGroup) parent).removeView(mapView);
+        }
+
+        if (!this.pool.accepts(cost)) {
+            mapView.onDestroy();
+            return;
+        }
+
+        try {
+            AMap map = mapView.getMap();
+            map.clear();
+            map.setMyLocationEnabled(false);
+            map.setTrafficEnabled(false);
+            map.showIndoorMap(false);
+            map.getUiSettings().setMyLocationButtonEnabled(false);
+            mapView.setTranslationX(0);
+            mapView.setTranslationY(0);
+            mapView.onPause();
+        } catch (Exception e) {
+            mapView.onDestroy();
+            return;
+        }
+
+        this.pool.release(mapView, cost);
+    }
+
+    /**
+     * 在主线程空闲时逐个创建 MapView 直到池满，每次空闲只创建一个，避免阻塞界面。
+     */
+    public void schedulePrewarm() {
+        if (this.prewarmScheduled || this.pool.getDeficit() == 0) {
+            return;
+        }
+
+        this.prewarmScheduled = true;
+        Looper.myQueue().addIdleHandler(() -> {
+            long cost = this.estimateBytes(null);
+            if (this.pool.getDeficit() == 0 || !this.pool.fits(cost)) {
+                this.prewarmScheduled = false;
+                return false;
+            }
+
+            try {
+                MapView mapView = this.create(null);
+                mapView.onPause();
+                this.pool.prewarm(mapView, cost);
+            } catch (Exception e) {
+                // 隐私合规未完成时无法创建 MapView，同意后重新预热
+                this.prewarmScheduled = false;
+                return false;
+            }
+
+            this.prewarmScheduled = this.pool.getDeficit() > 0;
+            return this.prewarmScheduled;
+        });
+    }
+
+    /**
+     * 内存紧张时释放池中所有 MapView。
+     */
+    public void clear() {
+        this.pool.clear();
+    }
+
+    public BoundedPool.Stats getStats() {
+        return this.pool.getStats();
+    }
+
+    public void resetStats() {
+        this.pool.resetStats();
+    }
+
+    /**
+     * 按 MapView 尺寸估算 GL 双缓冲占用的内存，尚未布局时按屏幕尺寸估算。
+     */
+    private long estimateBytes(MapView mapView) {
+        long width = mapView != null ? mapView.getWidth() : 0;
+        long height = mapView != null ? mapView.getHeight() : 0;
+        if (width <= 0 || height <= 0) {
+            DisplayMetrics metrics = this.context.getResources().getDisplayMetrics();
+            width = metrics.widthPixels;
+            height = metrics.heightPixels;
+        }
+        return width * height * 4 * 2;
+    }
+}
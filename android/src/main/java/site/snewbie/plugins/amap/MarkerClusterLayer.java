@@ -0,0 +1,205 @@
+package site.snewbie.plugins.amap;
+
+import com.amap.api.maps.AMap;
+import com.amap.api.maps.model.CameraPosition;
+import com.amap.api.maps.model.LatLng;
+import com.amap.api.maps.model.LatLngBounds;
+import com.amap.api.maps.model.Marker;
+import com.amap.api.maps.model.MarkerOptions;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import lombok.Getter;
+import site.snewbie.plugins.amap.cluster.Cluster;
+import site.snewbie.plugins.amap.cluster.ClusterDiff;
+import site.snewbie.plugins.amap.cluster.ClusterEngine;
+import site.snewbie.plugins.amap.cluster.ClusterPoints;
+import site.snewbie.plugins.amap.cluster.GridClusterer;
+
+/**
+ * Marker 聚合图层。相机停止移动后在地图的后台线程中计算聚合，
+ * 再回到 UI 线程只增删成员发生变化的原生 Marker。
+ * 除 {@link ClusterEngine} 外，所有状态只在 UI 线程中访问。
+ */
+public class MarkerClusterLayer {
+    private final CapacitorAMap owner;
+    private final AMap map;
+    private final MarkerRegistry registry;
+    private final ClusterIconFactory iconFactory;
+
+    /**
+     * 当前显示的原生 Marker，以聚合指纹作为键。
+     */
+    private final Map<Long, Marker> displayed = new HashMap<>();
+
+    @Getter
+    private boolean enabled;
+    private ClusterEngine engine;
+    private int snapshotVersion = -1;
+
+    public MarkerClusterLayer(CapacitorAMap owner, AMap map, MarkerRegistry registry) {
+        this.owner = owner;
+        this.map = map;
+        this.registry = registry;
+        this.iconFactory = new ClusterIconFactory(owner.getDelegate().getContext().getResources().getDisplayMetrics().density);
+    }
+
+    public void enable(int gridSize, int minClusterSize, int maxZoom) {
+        if (this.enabled) {
+            this.clearDisplayed();
+        } else {
+            this.registry.detachAll();
+        }
+
+        this.engine = new ClusterEngine(new GridClusterer(gridSize, minClusterSize, maxZoom));
+        this.snapshotVersion = -1;
+        this.enabled = true;
+        // 聚合依赖相机停止移动事件，即使 JS 端没有订阅
+        this.owner.setInternalEventRequired(this, "onCameraChangeFinish", true);
+
+        this.refresh();
+    }
+
+    public void disable() {
+        if (!this.enabled) {
+            return;
+        }
+
+        this.enabled = false;
+        this.engine = null;
+        this.owner.setInternalEventRequired(this, "onCameraChangeFinish", false);
+        this.clearDisplayed();
+        this.registry.attachAll();
+    }
+
+    public void refresh() {
+        this.onCameraIdle(this.map.getCameraPosition());
+    }
+
+    public void onCameraIdle(CameraPosition position) {
+        if (!this.enabled || position == null) {
+            return;
+        }
+
+        ClusterEngine engine = this.engine;
+        ClusterPoints points = null;
+        if (this.registry.getVersion() != this.snapshotVersion) {
+            points = this.registry.snapshot();
+            this.snapshotVersion = this.registry.getVersion();
+        }
+
+        LatLngBounds bounds = this.map.getProjection().getVisibleRegion().latLngBounds;
+        int zoom = (int) Math.floor(position.zoom);
+
+        ClusterPoints updatedPoints = points;
+        this.owner.getWorker().execute(() -> {
+            if (updatedPoints != null) {
+                engine.setPoints(updatedPoints);
+            }
+
+            ClusterDiff diff = engine.update(zoom,
+                    bounds.southwest.latitude, bounds.southwest.longitude,
+                    bounds.northeast.latitude, bounds.northeast.longitude);
+
+            // 聚合结果没有变化时不打扰 UI 线程
+            if (diff.isEmpty()) {
+                return;
+            }
+
+            this.owner.getDelegate().getActivity().runOnUiThread(() -> this.apply(engine, diff));
+        });
+    }
+
+    /**
+     * 由插件管理的 Marker 被移除或替换时调用。
+     */
+    public void onMarkerRemoved(String id) {
+        long fingerprint = GridClusterer.singleFingerprint(id);
+        Marker marker = this.displayed.remove(fingerprint);
+        if (marker != null) {
+            marker.remove();
+        }
+
+        ClusterEngine engine = this.engine;
+        if (engine != null) {
+            this.owner.getWorker().execute(() -> engine.forget(fingerprint));
+        }
+    }
+
+    private void apply(ClusterEngine engine, ClusterDiff diff) {
+        // 计算期间聚合被关闭或重新开启
+        if (engine != this.engine) {
+            return;
+        }
+
+        for (Cluster cluster : diff.getRemoved()) {
+            Marker marker = this.displayed.remove(cluster.getFingerprint());
+            if (marker == null) {
+                continue;
+            }
+
+            marker.remove();
+            if (cluster.isSingle()) {
+                CapacitorAMapMarker entry = this.registry.get(cluster.getMemberIds()[0]);
+                if (entry != null && entry.getMarker() == marker) {
+                    entry.setMarker(null);
+                }
+            }
+        }
+
+        List<Cluster> pending = new ArrayList<>(diff.getAdded().size());
+        ArrayList<MarkerOptions> options = new ArrayList<>(diff.getAdded().size());
+        for (Cluster cluster : diff.getAdded()) {
+            if (cluster.isSingle()) {
+                CapacitorAMapMarker entry = this.registry.get(cluster.getMemberIds()[0]);
+                if (entry == null) {
+                    continue;
+                }
+                options.add(entry.toMarkerOptions());
+            } else {
+                options.add(new MarkerOptions()
+                        .position(new LatLng(cluster.getLatitude(), cluster.getLongitude()))
+                        .icon(this.iconFactory.get(cluster.size()))
+                        .anchor(0.5f, 0.5f)
+                        .title(String.valueOf(cluster.size())));
+            }
+            pending.add(cluster);
+        }
+
+        if (options.isEmpty()) {
+            return;
+        }
+
+        ArrayList<Marker> markers = this.map.addMarkers(options, false);
+        for (int i = 0; i < pending.size(); i++) {
+            Cluster cluster = pending.get(i);
+            Marker marker = markers.get(i);
+            this.displayed.put(cluster.getFingerprint(), marker);
+
+            if (cluster.isSingle()) {
+                String id = cluster.getMemberIds()[0];
+                marker.setObject(id);
+                this.registry.get(id).setMarker(marker);
+            } else {
+                marker.setObject(cluster);
+            }
+        }
+    }
+
+    private void clearDisplayed() {
+        for (Marker marker : this.displayed.values()) {
+            Object tag = marker.getObject();
+            if (tag instanceof String) {
+                CapacitorAMapMarker entry = this.registry.get((String) tag);
+                if (entry != null) {
+                    entry.setMarker(null);
+                }
+            }
+            marker.remove();
+        }
+        this.displayed.clear();
+    }
+}
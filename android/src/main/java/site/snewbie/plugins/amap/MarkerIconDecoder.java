@@ -0,0 +1,84 @@
+package site.snewbie.plugins.amap;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.util.Base64;
+
+import com.amap.api.maps.model.BitmapDescriptor;
+import com.amap.api.maps.model.BitmapDescriptorFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import site.snewbie.plugins.amap.icon.IconRegistry;
+import site.snewbie.plugins.amap.icon.IconSpec;
+
+/**
+ * 将图标描述解码为 {@link BitmapDescriptor}。先只读取图片尺寸，按目标尺寸计算采样率后再解码，
+ * 大图不会以原始尺寸加载到内存中。相对路径从 Capacitor 的 Web 资源目录中读取。
+ */
+public class MarkerIconDecoder implements IconRegistry.Decoder<BitmapDescriptor> {
+    private static final String WEB_ASSETS = "public/";
+
+    private final Context context;
+
+    public MarkerIconDecoder(Context context) {
+        this.context = context.getApplicationContext();
+    }
+
+    /**
+     * 按 ARGB_8888 估算图标占用的内存。
+     */
+    public static long sizeOf(BitmapDescriptor descriptor) {
+        return (long) descriptor.getWidth() * descriptor.getHeight() * 4;
+    }
+
+    @Override
+    public BitmapDescriptor decode(IconSpec spec) throws IOException {
+        byte[] data = spec.getType() == IconSpec.Type.DATA ? Base64.decode(spec.getData(), Base64.DEFAULT) : null;
+
+        BitmapFactory.Options bounds = new BitmapFactory.Options();
+        bounds.inJustDecodeBounds = true;
+        try (InputStream input = this.open(spec, data)) {
+            BitmapFactory.decodeStream(input, null, bounds);
+        }
+        if (bounds.outWidth <= 0 || bounds.outHeight <= 0) {
+            throw new IOException("unsupported icon image " + spec);
+        }
+
+        int[] target = spec.targetSize(bounds.outWidth, bounds.outHeight);
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = IconSpec.sampleSize(bounds.outWidth, bounds.outHeight, target[0], target[1]);
+
+        Bitmap bitmap;
+        try (InputStream input = this.open(spec, data)) {
+            bitmap = BitmapFactory.decodeStream(input, null, options);
+        }
+        if (bitmap == null) {
+            throw new IOException("unable to decode icon " + spec);
+        }
+
+        if (bitmap.getWidth() != target[0] || bitmap.getHeight() != target[1]) {
+            Bitmap scaled = Bitmap.createScaledBitmap(bitmap, target[0], target[1], true);
+            if (scaled != bitmap) {
+                bitmap.recycle();
+                bitmap = scaled;
+            }
+        }
+        return BitmapDescriptorFactory.fromBitmap(bitmap);
+    }
+
+    private InputStream open(IconSpec spec, byte[] data) throws IOException {
+        switch (spec.getType()) {
+            case DATA:
+                return new ByteArrayInputStream(data);
+            case FILE:
+                return new FileInputStream(spec.getPath());
+            default:
+                return this.context.getAssets().open(WEB_ASSETS + spec.getPath());
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package site.snewbie.plugins.amap;
+
+import com.amap.api.maps.AMap;
+import com.amap.api.maps.model.Marker;
+import com.amap.api.maps.model.MarkerOptions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import lombok.Getter;
+import lombok.Setter;
+import site.snewbie.plugins.amap.cluster.ClusterPoints;
+import site.snewbie.plugins.amap.spatial.PointIndex;
+
+/**
+ * 单个地图实例上由插件管理的 Marker，以调用方提供的 id 作为键。
+ * 除查询方法外，所有方法都必须在 UI 线程中调用。
+ */
+public class MarkerRegistry {
+    private final AMap map;
+    private final Map<String, CapacitorAMapMarker> markers = new LinkedHashMap<>();
+
+    /**
+     * 所有 Marker 位置的空间索引，随添加、移动和移除同步更新，可以在任意线程中查询。
+     */
+    @Getter
+    private final PointIndex index = new PointIndex();
+
+    /**
+     * 开启聚合后原生 Marker 由聚合图层按需创建。
+     */
+    @Setter
+    private MarkerClusterLayer clusterLayer;
+
+    /**
+     * 位置或成员发生变化时递增，聚合图层据此判断是否需要重新生成快照。
+     */
+    @Getter
+    private int version;
+
+    public MarkerRegistry(AMap map) {
+        this.map = map;
+    }
+
+    /**
+     * 批量添加 Marker，已存在的 id 会被替换。
+     *
+     * @return 调用方 id 与原生 Marker id 的映射，聚合模式下原生 Marker 按需创建，对应的值为 null
+     */
+    public Map<String, String> add(List<CapacitorAMapMarker> added) {
+        // 同一批次中重复的 id 以最后一个为准
+        Map<String, CapacitorAMapMarker> batch = new LinkedHashMap<>();
+        for (CapacitorAMapMarker marker : added) {
+            // 提前校验，避免替换到一半时失败
+            marker.toMarkerOptions();
+            batch.put(marker.getId(), marker);
+        }
+
+        this.detach(batch.keySet());
+        this.version++;
+
+        for (CapacitorAMapMarker marker : batch.values()) {
+            this.indexPosition(marker);
+        }
+
+        if (this.isClustered()) {
+            Map<String, String> ids = new LinkedHashMap<>();
+            for (CapacitorAMapMarker marker : batch.values()) {
+                this.markers.put(marker.getId(), marker);
+                ids.put(marker.getId(), null);
+            }
+
+            this.clusterLayer.refresh();
+            return ids;
+        }
+
+        Map<String, String> ids = this.attach(batch.values());
+        for (CapacitorAMapMarker marker : batch.values()) {
+            this.markers.put(marker.getId(), marker);
+        }
+        return ids;
+    }
+
+    /**
+     * 批量局部更新 Marker，不存在的 id 会被忽略。
+     *
+     * @return 被更新的调用方 id 与原生 Marker id 的映射
+     */
+    public Map<String, String> update(List<CapacitorAMapMarker> updates) {
+        Map<String, String> ids = new LinkedHashMap<>();
+        boolean moved = false;
+        for (CapacitorAMapMarker update : updates) {
+            CapacitorAMapMarker existing = this.markers.get(update.getId());
+            if (existing == null) {
+                continue;
+            }
+
+            existing.merge(update);
+            moved = moved || update.getPosition() != null || update.getVisible() != null;
+            if (update.getPosition() != null) {
+                this.indexPosition(existing);
+            }
+
+            Marker nativeMarker = existing.getMarker();
+            if (nativeMarker != null) {
+                update.applyTo(nativeMarker, existing);
+            }
+            ids.put(existing.getId(), nativeMarker != null ? nativeMarker.getId() : null);
+        }
+
+        if (moved) {
+            this.version++;
+            if (this.isClustered()) {
+                this.clusterLayer.refresh();
+            }
+        }
+
+        return ids;
+    }
+
+    /**
+     * 批量移除 Marker，不存在的 id 会被忽略。
+     *
+     * @return 被移除的调用方 id 与原生 Marker id 的映射
+     */
+    public Map<String, String> remove(Collection<String> removedIds) {
+        Map<String, String> ids = this.detach(removedIds);
+        if (!ids.isEmpty()) {
+            this.version++;
+            if (this.isClustered()) {
+                this.clusterLayer.refresh();
+            }
+        }
+
+        return ids;
+    }
+
+    public void clear() {
+        this.remove(new ArrayList<>(this.markers.keySet()));
+    }
+
+    /**
+     * 为所有 Marker 创建原生 Marker，关闭聚合时调用。
+     */
+    public void attachAll() {
+        List<CapacitorAMapMarker> detached = new ArrayList<>();
+        for (CapacitorAMapMarker marker : this.markers.values()) {
+            if (marker.getMarker() == null) {
+                detached.add(marker);
+            }
+        }
+
+        this.attach(detached);
+    }
+
+    /**
+     * 移除所有原生 Marker 但保留配置，开启聚合时调用。
+     */
+    public void detachAll() {
+        for (CapacitorAMapMarker marker : this.markers.values()) {
+            if (marker.getMarker() != null) {
+                marker.getMarker().remove();
+                marker.setMarker(null);
+            }
+        }
+    }
+
+    /**
+     * 生成当前可见 Marker 的位置快照，供后台线程聚合计算。
+     */
+    public ClusterPoints snapshot() {
+        int size = this.markers.size();
+        String[] ids = new String[size];
+        double[] latitudes = new double[size];
+        double[] longitudes = new double[size];
+
+        int count = 0;
+        for (CapacitorAMapMarker marker : this.markers.values()) {
+            if (marker.getPosition() == null || Boolean.FALSE.equals(marker.getVisible())) {
+                continue;
+            }
+
+            ids[count] = marker.getId();
+            latitudes[count] = marker.getPosition().getLatitude();
+            longitudes[count] = marker.getPosition().getLongitude();
+            count++;
+        }
+
+        if (count < size) {
+            ids = Arrays.copyOf(ids, count);
+            latitudes = Arrays.copyOf(latitudes, count);
+            longitudes = Arrays.copyOf(longitudes, count);
+        }
+
+        return new ClusterPoints(ids, latitudes, longitudes);
+    }
+
+    /**
+     * 拖动结束后同步原生 Marker 的位置。
+     */
+    public void syncPosition(Marker nativeMarker) {
+        String id = getMarkerId(nativeMarker);
+        CapacitorAMapMarker marker = id == null ? null : this.markers.get(id);
+        if (marker != null) {
+            marker.setPosition(Location.fromLatLng(nativeMarker.getPosition()));
+            this.indexPosition(marker);
+            this.version++;
+        }
+    }
+
+    /**
+     * 根据原生 Marker 获取调用方提供的 id，非插件管理的 Marker 返回 null。
+     */
+    public static String getMarkerId(Marker nativeMarker) {
+        Object tag = nativeMarker.getObject();
+        return tag instanceof String ? (String) tag : null;
+    }
+
+    public CapacitorAMapMarker get(String id) {
+        return this.markers.get(id);
+    }
+
+    public int size() {
+        return this.markers.size();
+    }
+
+    private boolean isClustered() {
+        return this.clusterLayer != null && this.clusterLayer.isEnabled();
+    }
+
+    private void indexPosition(CapacitorAMapMarker marker) {
+        Location position = marker.getPosition();
+        if (position != null) {
+            this.index.put(marker.getId(), position.getLatitude(), position.getLongitude());
+        } else {
+            this.index.remove(marker.getId());
+        }
+    }
+
+    private Map<String, String> detach(Collection<String> removedIds) {
+        Map<String, String> ids = new LinkedHashMap<>();
+        for (String id : removedIds) {
+            CapacitorAMapMarker removed = this.markers.remove(id);
+            if (removed == null) {
+                continue;
+            }
+
+            this.index.remove(id);
+            Marker nativeMarker = removed.getMarker();
+            ids.put(id, nativeMarker != null ? nativeMarker.getId() : null);
+
+            if (this.isClustered()) {
+                this.clusterLayer.onMarkerRemoved(id);
+            } else if (nativeMarker != null) {
+                nativeMarker.remove();
+            }
+            removed.setMarker(null);
+        }
+
+        return ids;
+    }
+
+    private Map<String, String> attach(Collection<CapacitorAMapMarker> detached) {
+        Map<String, String> ids = new LinkedHashMap<>();
+        if (detached.isEmpty()) {
+            return ids;
+        }
+
+        ArrayList<MarkerOptions> options = new ArrayList<>(detached.size());
+        for (CapacitorAMapMarker marker : detached) {
+            options.add(marker.toMarkerOptions());
+        }
+
+        // 一次调用添加全部 Marker，避免逐个添加时的多次重绘
+        ArrayList<Marker> nativeMarkers = this.map.addMarkers(options, false);
+
+        int index = 0;
+        for (CapacitorAMapMarker marker : detached) {
+            Marker nativeMarker = nativeMarkers.get(index++);
+            nativeMarker.setObject(marker.getId());
+            marker.setMarker(nativeMarker);
+            ids.put(marker.getId(), nativeMarker.getId());
+        }
+
+        return ids;
+    }
+}
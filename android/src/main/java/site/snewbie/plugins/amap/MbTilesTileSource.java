@@ -0,0 +1,40 @@
+package site.snewbie.plugins.amap;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import java.io.File;
+
+import site.snewbie.plugins.amap.tile.TileSource;
+
+/**
+ * MBTiles 文件中的瓦片。MBTiles 使用 TMS 编号，行号需要上下翻转。
+ * {@link SQLiteDatabase} 是线程安全的，SDK 的多个瓦片线程可以同时读取。
+ */
+public class MbTilesTileSource implements TileSource {
+    private static final String QUERY = "SELECT tile_data FROM tiles WHERE zoom_level = ? AND tile_column = ? AND tile_row = ?";
+
+    private final SQLiteDatabase database;
+
+    public MbTilesTileSource(File file) {
+        if (!file.isFile()) {
+            throw new IllegalArgumentException("mbtiles file not found: " + file);
+        }
+
+        this.database = SQLiteDatabase.openDatabase(file.getPath(), null,
+                SQLiteDatabase.OPEN_READONLY | SQLiteDatabase.NO_LOCALIZED_COLLATORS);
+    }
+
+    @Override
+    public byte[] read(int x, int y, int zoom) {
+        String row = String.valueOf((1 << zoom) - 1 - y);
+        try (Cursor cursor = this.database.rawQuery(QUERY, new String[]{String.valueOf(zoom), String.valueOf(x), row})) {
+            return cursor.moveToFirst() ? cursor.getBlob(0) : null;
+        }
+    }
+
+    @Override
+    public void close() {
+        this.database.close();
+    }
+}
@@ -0,0 +1,41 @@
+package site.snewbie.plugins.amap;
+
+import android.util.Base64;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+
+/**
+ * 以 base64 编码的小端 Float64 数组传输的坐标数据，例如 [lat0, lng0, lat1, lng1, ...]。
+ * 相比逐个解析 {latitude, longitude} 对象，大批量数据的解析耗时可以忽略不计。
+ */
+public final class PackedCoordinates {
+    private PackedCoordinates() {
+    }
+
+    /**
+     * @param stride 每条记录包含的数值个数，例如经纬度为 2
+     */
+    public static double[] decode(String base64, int stride) {
+        if (base64 == null || base64.isEmpty()) {
+            return new double[0];
+        }
+
+        byte[] bytes = Base64.decode(base64, Base64.DEFAULT);
+        if (bytes.length % (Double.BYTES * stride) != 0) {
+            throw new IllegalArgumentException("packed coordinates length must be a multiple of " + (Double.BYTES * stride) + " bytes");
+        }
+
+        DoubleBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+        double[] values = new double[buffer.remaining()];
+        buffer.get(values);
+        return values;
+    }
+
+    public static String encode(double[] values, int length) {
+        ByteBuffer buffer = ByteBuffer.allocate(length * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asDoubleBuffer().put(values, 0, length);
+        return Base64.encodeToString(buffer.array(), Base64.NO_WRAP);
+    }
+}
@@ -0,0 +1,208 @@
+package site.snewbie.plugins.amap;
+
+import com.amap.api.maps.AMap;
+import com.amap.api.maps.model.CameraPosition;
+import com.amap.api.maps.model.LatLng;
+import com.amap.api.maps.model.Polyline;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import site.snewbie.plugins.amap.simplify.SimplifiedPolyline;
+
+/**
+ * 单个地图实例上由插件管理的折线。
+ * 折线简化和坐标转换在地图的后台线程中完成，相机停止移动后只为简化级别发生变化的折线替换坐标，
+ * 原生折线的顶点数不会超过当前缩放级别下屏幕能分辨的数量。
+ * 除后台任务外，所有方法都必须在 UI 线程中调用。
+ */
+public class PolylineLayer {
+    private final CapacitorAMap owner;
+    private final AMap map;
+    private final Map<String, CapacitorAMapPolyline> polylines = new LinkedHashMap<>();
+    /**
+     * 原生 Polyline 不支持附加对象，点击事件通过原生 id 找到调用方 id。
+     */
+    private final Map<String, String> callerIds = new HashMap<>();
+
+    public PolylineLayer(CapacitorAMap owner, AMap map) {
+        this.owner = owner;
+        this.map = map;
+    }
+
+    /**
+     * 批量添加折线，已存在的 id 会被替换。简化完成后在 UI 线程中回调。
+     *
+     * @param done 接收调用方 id 与原生 Polyline id 的映射
+     */
+    public void add(List<CapacitorAMapPolyline> added, Consumer<Map<String, String>> done) {
+        // 同一批次中重复的 id 以最后一个为准
+        Map<String, CapacitorAMapPolyline> batch = new LinkedHashMap<>();
+        for (CapacitorAMapPolyline polyline : added) {
+            if (polyline.getCoordinates() == null) {
+                throw new IllegalArgumentException("Polyline object is missing the required 'points' property");
+            }
+            batch.put(polyline.getId(), polyline);
+        }
+
+        float zoom = this.map.getCameraPosition().zoom;
+        this.owner.getWorker().execute(() -> {
+            List<SimplifiedPolyline> simplified = new ArrayList<>(batch.size());
+            List<List<LatLng>> points = new ArrayList<>(batch.size());
+            for (CapacitorAMapPolyline polyline : batch.values()) {
+                SimplifiedPolyline result = polyline.simplify();
+                simplified.add(result);
+                points.add(CapacitorAMapPolyline.toLatLngs(result, result.getLevel(zoom)));
+            }
+
+            this.owner.getDelegate().getActivity().runOnUiThread(() -> {
+                this.remove(batch.keySet());
+
+                Map<String, String> ids = new LinkedHashMap<>();
+                int index = 0;
+                for (CapacitorAMapPolyline polyline : batch.values()) {
+                    SimplifiedPolyline result = simplified.get(index);
+                    Polyline nativePolyline = this.map.addPolyline(polyline.toPolylineOptions(points.get(index)));
+                    index++;
+
+                    polyline.setSimplified(result);
+                    polyline.setLevel(result.getLevel(zoom));
+                    polyline.setPolyline(nativePolyline);
+                    this.polylines.put(polyline.getId(), polyline);
+                    this.callerIds.put(nativePolyline.getId(), polyline.getId());
+                    ids.put(polyline.getId(), nativePolyline.getId());
+                }
+
+                this.updateInternalEvents();
+                done.accept(ids);
+            });
+        });
+    }
+
+    /**
+     * 局部更新折线样式，更新坐标或容差时重新简化，完成后在 UI 线程中回调。
+     */
+    public void update(CapacitorAMapPolyline update, Runnable done) {
+        CapacitorAMapPolyline existing = this.polylines.get(update.getId());
+        if (existing == null) {
+            throw new IllegalArgumentException("polyline not found");
+        }
+
+        existing.merge(update);
+        update.applyTo(existing.getPolyline());
+
+        if (update.getCoordinates() == null && update.getTolerance() == null) {
+            done.run();
+            return;
+        }
+
+        float zoom = this.map.getCameraPosition().zoom;
+        this.owner.getWorker().execute(() -> {
+            SimplifiedPolyline simplified = existing.simplify();
+            int[] level = simplified.getLevel(zoom);
+            List<LatLng> points = CapacitorAMapPolyline.toLatLngs(simplified, level);
+
+            this.owner.getDelegate().getActivity().runOnUiThread(() -> {
+                // 简化期间折线已被移除或替换
+                if (this.polylines.get(existing.getId()) == existing) {
+                    existing.setSimplified(simplified);
+                    existing.setLevel(level);
+                    existing.getPolyline().setPoints(points);
+                }
+                done.run();
+            });
+        });
+    }
+
+    /**
+     * 批量移除折线，不存在的 id 会被忽略。
+     *
+     * @return 被移除的调用方 id 与原生 Polyline id 的映射
+     */
+    public Map<String, String> remove(Collection<String> removedIds) {
+        Map<String, String> ids = new LinkedHashMap<>();
+        for (String id : removedIds) {
+            CapacitorAMapPolyline removed = this.polylines.remove(id);
+            if (removed == null) {
+                continue;
+            }
+
+            Polyline nativePolyline = removed.getPolyline();
+            this.callerIds.remove(nativePolyline.getId());
+            nativePolyline.remove();
+            removed.setPolyline(null);
+            ids.put(id, nativePolyline.getId());
+        }
+
+        if (!ids.isEmpty()) {
+            this.updateInternalEvents();
+        }
+        return ids;
+    }
+
+    /**
+     * 相机停止移动后为简化级别发生变化的折线替换坐标。
+     */
+    public void onCameraIdle(CameraPosition position) {
+        if (this.polylines.isEmpty() || position == null) {
+            return;
+        }
+
+        List<CapacitorAMapPolyline> changed = new ArrayList<>();
+        List<SimplifiedPolyline> simplified = new ArrayList<>();
+        List<int[]> levels = new ArrayList<>();
+        for (CapacitorAMapPolyline polyline : this.polylines.values()) {
+            int[] level = polyline.getSimplified().getLevel(position.zoom);
+            // 相邻缩放级别结果相同时共用同一个数组
+            if (level != polyline.getLevel()) {
+                changed.add(polyline);
+                simplified.add(polyline.getSimplified());
+                levels.add(level);
+            }
+        }
+
+        if (changed.isEmpty()) {
+            return;
+        }
+
+        this.owner.getWorker().execute(() -> {
+            List<List<LatLng>> points = new ArrayList<>(changed.size());
+            for (int i = 0; i < changed.size(); i++) {
+                points.add(CapacitorAMapPolyline.toLatLngs(simplified.get(i), levels.get(i)));
+            }
+
+            this.owner.getDelegate().getActivity().runOnUiThread(() -> {
+                for (int i = 0; i < changed.size(); i++) {
+                    CapacitorAMapPolyline polyline = changed.get(i);
+                    // 计算期间折线被移除或重新简化
+                    if (this.polylines.get(polyline.getId()) != polyline || polyline.getSimplified() != simplified.get(i)) {
+                        continue;
+                    }
+
+                    polyline.setLevel(levels.get(i));
+                    polyline.getPolyline().setPoints(points.get(i));
+                }
+            });
+        });
+    }
+
+    /**
+     * 根据原生 Polyline id 获取调用方提供的 id，非插件管理的折线返回 null。
+     */
+    public String getPolylineId(String nativeId) {
+        return this.callerIds.get(nativeId);
+    }
+
+    public int size() {
+        return this.polylines.size();
+    }
+
+    private void updateInternalEvents() {
+        this.owner.setInternalEventRequired(this, "onCameraChangeFinish", !this.polylines.isEmpty());
+    }
+}
@@ -0,0 +1,30 @@
+package site.snewbie.plugins.amap.cluster;
+
+import lombok.Getter;
+
+/**
+ * 一次聚合计算得到的结果。只包含一个成员时表示不需要聚合的单个点。
+ * {@link #getFingerprint()} 只由成员（及多成员时的中心点）决定，用于在两次计算之间做增量比对。
+ */
+@Getter
+public final class Cluster {
+    private final long fingerprint;
+    private final double latitude;
+    private final double longitude;
+    private final String[] memberIds;
+
+    Cluster(long fingerprint, double latitude, double longitude, String[] memberIds) {
+        this.fingerprint = fingerprint;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.memberIds = memberIds;
+    }
+
+    public int size() {
+        return memberIds.length;
+    }
+
+    public boolean isSingle() {
+        return memberIds.length == 1;
+    }
+}
@@ -0,0 +1,23 @@
+package site.snewbie.plugins.amap.cluster;
+
+import java.util.List;
+
+import lombok.Getter;
+
+/**
+ * 两次聚合结果之间的差异，只包含需要新增和移除的聚合。
+ */
+@Getter
+public final class ClusterDiff {
+    private final List<Cluster> added;
+    private final List<Cluster> removed;
+
+    ClusterDiff(List<Cluster> added, List<Cluster> removed) {
+        this.added = added;
+        this.removed = removed;
+    }
+
+    public boolean isEmpty() {
+        return added.isEmpty() && removed.isEmpty();
+    }
+}
@@ -0,0 +1,102 @@
+package site.snewbie.plugins.amap.cluster;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 聚合计算引擎，缓存各缩放级别的聚合结果并记录当前已显示的聚合，
+ * 每次相机停止移动后只返回需要新增或移除的部分。
+ * 该类不是线程安全的，应始终在同一个后台线程中使用。
+ */
+public class ClusterEngine {
+    private static final int MAX_CACHED_ZOOMS = 4;
+
+    private final GridClusterer clusterer;
+    private final Map<Long, Cluster> displayed = new HashMap<>();
+    private final Map<Integer, List<Cluster>> cache = new LinkedHashMap<Integer, List<Cluster>>(MAX_CACHED_ZOOMS, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<Cluster>> eldest) {
+            return size() > MAX_CACHED_ZOOMS;
+        }
+    };
+
+    private ClusterPoints points = new ClusterPoints(new String[0], new double[0], new double[0]);
+
+    public ClusterEngine(GridClusterer clusterer) {
+        this.clusterer = clusterer;
+    }
+
+    public void setPoints(ClusterPoints points) {
+        this.points = points;
+        this.cache.clear();
+    }
+
+    /**
+     * 计算指定缩放级别和可视范围内的聚合，并与上一次的结果比对。
+     * 可视范围会向四周扩展一半，减少小幅平移时的增删。
+     */
+    public ClusterDiff update(int zoom, double south, double west, double north, double east) {
+        List<Cluster> clusters = this.cache.get(zoom);
+        if (clusters == null) {
+            clusters = this.clusterer.cluster(this.points, zoom);
+            this.cache.put(zoom, clusters);
+        }
+
+        double latitudePadding = (north - south) / 2;
+        double longitudePadding = (east - west) / 2;
+        south -= latitudePadding;
+        north += latitudePadding;
+        west -= longitudePadding;
+        east += longitudePadding;
+
+        Map<Long, Cluster> visible = new HashMap<>();
+        for (Cluster cluster : clusters) {
+            if (cluster.getLatitude() >= south && cluster.getLatitude() <= north
+                    && cluster.getLongitude() >= west && cluster.getLongitude() <= east) {
+                visible.put(cluster.getFingerprint(), cluster);
+            }
+        }
+
+        List<Cluster> removed = new ArrayList<>();
+        for (Cluster cluster : this.displayed.values()) {
+            if (!visible.containsKey(cluster.getFingerprint())) {
+                removed.add(cluster);
+            }
+        }
+
+        List<Cluster> added = new ArrayList<>();
+        for (Cluster cluster : visible.values()) {
+            if (!this.displayed.containsKey(cluster.getFingerprint())) {
+                added.add(cluster);
+            }
+        }
+
+        for (Cluster cluster : removed) {
+            this.displayed.remove(cluster.getFingerprint());
+        }
+        for (Cluster cluster : added) {
+            this.displayed.put(cluster.getFingerprint(), cluster);
+        }
+
+        return new ClusterDiff(added, removed);
+    }
+
+    /**
+     * 对应的原生 Marker 已经在外部被移除时调用，下一次计算会重新添加。
+     */
+    public void forget(long fingerprint) {
+        this.displayed.remove(fingerprint);
+    }
+
+    public void reset() {
+        this.displayed.clear();
+        this.cache.clear();
+    }
+
+    public int getDisplayedCount() {
+        return this.displayed.size();
+    }
+}
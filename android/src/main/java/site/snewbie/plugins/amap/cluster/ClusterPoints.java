@@ -0,0 +1,90 @@
+package site.snewbie.plugins.amap.cluster;
+
+/**
+ * 参与聚合的点集快照，创建后不再修改，可以安全地交给后台线程使用。
+ * 经纬度会预先投影为 Web 墨卡托归一化坐标（0~1），避免每次聚合重复计算。
+ */
+public final class ClusterPoints {
+    private final String[] ids;
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final double[] xs;
+    private final double[] ys;
+    private final long[] hashes;
+
+    public ClusterPoints(String[] ids, double[] latitudes, double[] longitudes) {
+        if (ids.length != latitudes.length || ids.length != longitudes.length) {
+            throw new IllegalArgumentException("ids, latitudes and longitudes must have the same length");
+        }
+
+        int size = ids.length;
+        this.ids = ids;
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+        this.xs = new double[size];
+        this.ys = new double[size];
+        this.hashes = new long[size];
+
+        for (int i = 0; i < size; i++) {
+            this.xs[i] = longitudeToX(longitudes[i]);
+            this.ys[i] = latitudeToY(latitudes[i]);
+            this.hashes[i] = hash(ids[i]);
+        }
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public String getId(int index) {
+        return ids[index];
+    }
+
+    public double getLatitude(int index) {
+        return latitudes[index];
+    }
+
+    public double getLongitude(int index) {
+        return longitudes[index];
+    }
+
+    double getX(int index) {
+        return xs[index];
+    }
+
+    double getY(int index) {
+        return ys[index];
+    }
+
+    long getHash(int index) {
+        return hashes[index];
+    }
+
+    public static double longitudeToX(double longitude) {
+        return longitude / 360.0 + 0.5;
+    }
+
+    public static double latitudeToY(double latitude) {
+        double sin = Math.sin(Math.toRadians(latitude));
+        double y = 0.5 - Math.log((1 + sin) / (1 - sin)) / (4 * Math.PI);
+        return Math.min(Math.max(y, 0.0), 1.0);
+    }
+
+    /**
+     * 64 位 FNV-1a，用于生成与顺序无关的聚合成员指纹。
+     */
+    static long hash(String id) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < id.length(); i++) {
+            hash ^= id.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
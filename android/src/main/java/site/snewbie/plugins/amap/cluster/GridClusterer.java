@@ -0,0 +1,144 @@
+package site.snewbie.plugins.amap.cluster;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 基于网格的点聚合算法。
+ * 网格以世界像素坐标为基准，与屏幕位置无关，因此同一缩放级别下平移地图不会改变聚合结果。
+ */
+public class GridClusterer {
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final long SIZE_SALT = 0x9e3779b97f4a7c15L;
+
+    private final int gridSize;
+    private final int minClusterSize;
+    private final int maxZoom;
+
+    /**
+     * @param gridSize       网格边长，单位：像素
+     * @param minClusterSize 网格内点数不小于该值时才聚合
+     * @param maxZoom        缩放级别大于该值时不再聚合
+     */
+    public GridClusterer(int gridSize, int minClusterSize, int maxZoom) {
+        if (gridSize <= 0) {
+            throw new IllegalArgumentException("gridSize must be greater than 0");
+        }
+
+        this.gridSize = gridSize;
+        this.minClusterSize = Math.max(2, minClusterSize);
+        this.maxZoom = maxZoom;
+    }
+
+    public List<Cluster> cluster(ClusterPoints points, int zoom) {
+        int size = points.size();
+        List<Cluster> clusters = new ArrayList<>();
+        if (size == 0) {
+            return clusters;
+        }
+
+        if (zoom > this.maxZoom) {
+            for (int i = 0; i < size; i++) {
+                clusters.add(single(points, i));
+            }
+            return clusters;
+        }
+
+        double scale = 256.0 * Math.pow(2, zoom) / this.gridSize;
+
+        // 开放寻址的 long -> int 哈希表，避免为 10 万级的点装箱
+        int capacity = Integer.highestOneBit(Math.max(size * 2, 16) - 1) << 1;
+        int mask = capacity - 1;
+        long[] tableKeys = new long[capacity];
+        int[] tableValues = new int[capacity];
+        Arrays.fill(tableKeys, EMPTY);
+
+        int[] clusterOf = new int[size];
+        int[] counts = new int[size];
+        int clusterCount = 0;
+
+        for (int i = 0; i < size; i++) {
+            long cellX = (long) (points.getX(i) * scale);
+            long cellY = (long) (points.getY(i) * scale);
+            long key = (cellX << 32) | (cellY & 0xffffffffL);
+
+            int slot = (int) ClusterPoints.mix(key) & mask;
+            while (tableKeys[slot] != EMPTY && tableKeys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+
+            if (tableKeys[slot] == EMPTY) {
+                tableKeys[slot] = key;
+                tableValues[slot] = clusterCount++;
+            }
+
+            int cluster = tableValues[slot];
+            clusterOf[i] = cluster;
+            counts[cluster]++;
+        }
+
+        // 计数排序，把同一网格的成员放在连续区间
+        int[] offsets = new int[clusterCount + 1];
+        for (int c = 0; c < clusterCount; c++) {
+            offsets[c + 1] = offsets[c] + counts[c];
+        }
+
+        int[] members = new int[size];
+        int[] cursor = Arrays.copyOf(offsets, clusterCount);
+        for (int i = 0; i < size; i++) {
+            members[cursor[clusterOf[i]]++] = i;
+        }
+
+        for (int c = 0; c < clusterCount; c++) {
+            int from = offsets[c];
+            int to = offsets[c + 1];
+            int count = to - from;
+
+            if (count < this.minClusterSize) {
+                for (int m = from; m < to; m++) {
+                    clusters.add(single(points, members[m]));
+                }
+                continue;
+            }
+
+            double sumLatitude = 0;
+            double sumLongitude = 0;
+            long fingerprint = 0;
+            String[] memberIds = new String[count];
+            for (int m = from; m < to; m++) {
+                int index = members[m];
+                sumLatitude += points.getLatitude(index);
+                sumLongitude += points.getLongitude(index);
+                fingerprint += points.getHash(index);
+                memberIds[m - from] = points.getId(index);
+            }
+
+            double latitude = sumLatitude / count;
+            double longitude = sumLongitude / count;
+            // 成员不变但位置变化时中心点也会变化，需要重新绘制
+            fingerprint += count * SIZE_SALT;
+            fingerprint = ClusterPoints.mix(fingerprint ^ Double.doubleToLongBits(latitude) * 31 ^ Double.doubleToLongBits(longitude));
+
+            clusters.add(new Cluster(fingerprint, latitude, longitude, memberIds));
+        }
+
+        return clusters;
+    }
+
+    /**
+     * 单个点的指纹只与 id 相关，位置变化由 Marker 本身更新，不需要重新创建。
+     */
+    public static long singleFingerprint(String id) {
+        return ClusterPoints.hash(id) + SIZE_SALT;
+    }
+
+    private static Cluster single(ClusterPoints points, int index) {
+        return new Cluster(
+                points.getHash(index) + SIZE_SALT,
+                points.getLatitude(index),
+                points.getLongitude(index),
+                new String[]{points.getId(index)}
+        );
+    }
+}
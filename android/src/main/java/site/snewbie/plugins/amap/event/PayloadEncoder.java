@@ -0,0 +1,15 @@
+package site.snewbie.plugins.amap.event;
+
+/**
+ * 把事件数据写入可复用的 payload。实现类持有自己的 payload 对象并在每次编码时覆盖，
+ * 返回的 payload 只在下一次编码之前有效，调用方必须在此之前完成序列化。
+ *
+ * @param <T> 事件数据的类型
+ * @param <P> payload 的类型
+ */
+public interface PayloadEncoder<T, P> {
+    /**
+     * @param compact 为 true 时写出按位置排列的紧凑格式，不支持紧凑格式的实现忽略该参数
+     */
+    P encode(T data, boolean compact);
+}
@@ -0,0 +1,99 @@
+package site.snewbie.plugins.amap.event;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 按数据类型查找 {@link PayloadEncoder} 的注册表。没有精确匹配的类型时依次查找父类和接口，
+ * 查找结果按具体类型缓存，之后每次编码只需要一次哈希查找。该类不是线程安全的，注册和编码都应在同一线程中进行。
+ *
+ * @param <P> payload 的类型
+ */
+public class PayloadEncoderRegistry<P> {
+    private static final PayloadEncoder<Object, ?> UNSUPPORTED = (data, compact) -> null;
+
+    private final Map<Class<?>, PayloadEncoder<Object, P>> encoders = new HashMap<>();
+    private final Map<Class<?>, PayloadEncoder<Object, P>> resolved = new HashMap<>();
+
+    /**
+     * 注册类型对应的编码器，已注册的类型会被替换。
+     */
+    @SuppressWarnings("unchecked")
+    public <T> PayloadEncoderRegistry<P> register(Class<T> type, PayloadEncoder<? super T, P> encoder) {
+        if (type == null || encoder == null) {
+            throw new IllegalArgumentException("type and encoder are required");
+        }
+
+        this.encoders.put(type, (PayloadEncoder<Object, P>) encoder);
+        this.resolved.clear();
+        return this;
+    }
+
+    /**
+     * 编码事件数据。
+     *
+     * @return 复用的 payload，没有对应的编码器时返回 null
+     */
+    public P encode(Object data, boolean compact) {
+        if (data == null) {
+            return null;
+        }
+        return this.find(data.getClass()).encode(data, compact);
+    }
+
+    public boolean supports(Class<?> type) {
+        return this.find(type) != UNSUPPORTED;
+    }
+
+    @SuppressWarnings("unchecked")
+    private PayloadEncoder<Object, P> find(Class<?> type) {
+        PayloadEncoder<Object, P> encoder = this.resolved.get(type);
+        if (encoder == null) {
+            encoder = this.lookup(type);
+            if (encoder == null) {
+                encoder = (PayloadEncoder<Object, P>) UNSUPPORTED;
+            }
+            this.resolved.put(type, encoder);
+        }
+        return encoder;
+    }
+
+    /**
+     * 先沿父类链查找，再按广度优先查找接口，与方法重载时就近匹配的直觉一致。
+     */
+    private PayloadEncoder<Object, P> lookup(Class<?> type) {
+        for (Class<?> clazz = type; clazz != null; clazz = clazz.getSuperclass()) {
+            PayloadEncoder<Object, P> encoder = this.encoders.get(clazz);
+            if (encoder != null) {
+                return encoder;
+            }
+        }
+
+        Deque<Class<?>> queue = new ArrayDeque<>();
+        Set<Class<?>> visited = new HashSet<>();
+        for (Class<?> clazz = type; clazz != null; clazz = clazz.getSuperclass()) {
+            for (Class<?> face : clazz.getInterfaces()) {
+                queue.add(face);
+            }
+        }
+        while (!queue.isEmpty()) {
+            Class<?> face = queue.poll();
+            if (!visited.add(face)) {
+                continue;
+            }
+
+            PayloadEncoder<Object, P> encoder = this.encoders.get(face);
+            if (encoder != null) {
+                return encoder;
+            }
+            for (Class<?> parent : face.getInterfaces()) {
+                queue.add(parent);
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,253 @@
+package site.snewbie.plugins.amap.geocode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import lombok.Getter;
+
+/**
+ * 批量地理编码调度器。查询在固定数量的工作线程中执行，所有批次共享同一个限流器，
+ * 结果按完成顺序分块回调，不需要等待整个批次完成。
+ * 工作线程数量固定，{@link SyncGeocoder} 可以按线程复用查询对象。
+ * 并发数和限流器可以通过 {@link #configure} 修改，已提交的批次不受影响，仍然可以取消。
+ */
+public class BatchGeocoder {
+    public static final int DEFAULT_CONCURRENCY = 4;
+    public static final double DEFAULT_QUERIES_PER_SECOND = 10;
+    public static final int DEFAULT_CHUNK_SIZE = 20;
+
+    private final SyncGeocoder geocoder;
+    private final ThreadPoolExecutor executor;
+    private volatile RateLimiter rateLimiter;
+    private final Map<String, Batch> batches = new ConcurrentHashMap<>();
+
+    public BatchGeocoder(SyncGeocoder geocoder, int concurrency, RateLimiter rateLimiter) {
+        checkConcurrency(concurrency);
+
+        this.geocoder = geocoder;
+        this.rateLimiter = rateLimiter;
+
+        AtomicInteger count = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(concurrency, concurrency, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "amap-geocode-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public BatchGeocoder(SyncGeocoder geocoder) {
+        this(geocoder, DEFAULT_CONCURRENCY, new RateLimiter(DEFAULT_QUERIES_PER_SECOND));
+    }
+
+    /**
+     * 提交一个批次，立即返回。
+     *
+     * @param chunkSize 每次进度回调最多包含的结果数量
+     */
+    public void submit(String batchId, List<Query> queries, int chunkSize, Listener listener) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be greater than 0");
+        }
+
+        Batch batch = new Batch(batchId, queries.size(), chunkSize, listener);
+        if (this.batches.putIfAbsent(batchId, batch) != null) {
+            throw new IllegalArgumentException("batch already exists");
+        }
+
+        if (queries.isEmpty()) {
+            this.batches.remove(batchId);
+            listener.onComplete(batchId, 0, 0, 0);
+            return;
+        }
+
+        for (int i = 0; i < queries.size(); i++) {
+            int index = i;
+            Query query = queries.get(i);
+            this.executor.execute(() -> this.run(batch, index, query));
+        }
+    }
+
+    /**
+     * 取消批次中尚未开始的查询，已开始的查询仍会回调结果。
+     *
+     * @return 批次不存在或已完成时返回 false
+     */
+    public boolean cancel(String batchId) {
+        Batch batch = this.batches.get(batchId);
+        if (batch == null) {
+            return false;
+        }
+
+        batch.cancelled = true;
+        return true;
+    }
+
+    /**
+     * 修改并发数和限流器。尚未开始的查询按新的设置执行，多出的工作线程在当前查询完成后退出。
+     */
+    public synchronized void configure(int concurrency, RateLimiter rateLimiter) {
+        checkConcurrency(concurrency);
+
+        // 始终保持核心线程数不大于最大线程数
+        if (concurrency > this.executor.getMaximumPoolSize()) {
+            this.executor.setMaximumPoolSize(concurrency);
+            this.executor.setCorePoolSize(concurrency);
+        } else {
+            this.executor.setCorePoolSize(concurrency);
+            this.executor.setMaximumPoolSize(concurrency);
+        }
+        this.rateLimiter = rateLimiter;
+    }
+
+    /**
+     * 不再接受新的批次，已提交的查询继续执行。
+     */
+    public void shutdown() {
+        this.executor.shutdown();
+    }
+
+    private static void checkConcurrency(int concurrency) {
+        if (concurrency <= 0) {
+            throw new IllegalArgumentException("concurrency must be greater than 0");
+        }
+    }
+
+    private void run(Batch batch, int index, Query query) {
+        if (batch.cancelled) {
+            this.record(batch, null);
+            return;
+        }
+
+        try {
+            this.rateLimiter.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            this.record(batch, null);
+            return;
+        }
+
+        // 等待许可期间批次被取消
+        if (batch.cancelled) {
+            this.record(batch, null);
+            return;
+        }
+
+        Result result;
+        try {
+            result = new Result(index, ReverseGeocoder.SUCCESS, query.execute(this.geocoder), null);
+        } catch (GeocodeException e) {
+            result = new Result(index, e.getCode(), null, e.getMessage());
+        } catch (Exception e) {
+            result = new Result(index, GeocodeException.UNKNOWN, null, e.getMessage());
+        }
+        this.record(batch, result);
+    }
+
+    /**
+     * @param result 为 null 表示查询被取消
+     */
+    private void record(Batch batch, Result result) {
+        // 在批次的锁内回调，保证进度按顺序到达
+        synchronized (batch) {
+            batch.completed++;
+            if (result == null) {
+                batch.cancelledCount++;
+            } else {
+                if (result.code == ReverseGeocoder.SUCCESS) {
+                    batch.succeeded++;
+                } else {
+                    batch.failed++;
+                }
+                batch.pending.add(result);
+            }
+
+            boolean done = batch.completed == batch.total;
+            if (!batch.pending.isEmpty() && (batch.pending.size() >= batch.chunkSize || done)) {
+                List<Result> chunk = batch.pending;
+                batch.pending = new ArrayList<>(batch.chunkSize);
+                batch.listener.onProgress(batch.id, chunk, batch.completed, batch.total);
+            }
+
+            if (done) {
+                this.batches.remove(batch.id);
+                batch.listener.onComplete(batch.id, batch.succeeded, batch.failed, batch.cancelledCount);
+            }
+        }
+    }
+
+    /**
+     * 批次中的单个查询，在工作线程中执行。
+     */
+    public interface Query {
+        /**
+         * @return JSON 格式的查询结果
+         */
+        String execute(SyncGeocoder geocoder) throws GeocodeException;
+    }
+
+    /**
+     * 回调在工作线程中执行，同一批次的回调不会并发。
+     */
+    public interface Listener {
+        /**
+         * @param results   本次完成的结果，按完成顺序排列
+         * @param completed 已完成（包括失败和取消）的查询数量
+         */
+        void onProgress(String batchId, List<Result> results, int completed, int total);
+
+        void onComplete(String batchId, int succeeded, int failed, int cancelled);
+    }
+
+    @Getter
+    public static class Result {
+        /**
+         * 查询在批次中的下标。
+         */
+        private final int index;
+        /**
+         * 返回码，{@link ReverseGeocoder#SUCCESS} 表示成功。
+         */
+        private final int code;
+        /**
+         * JSON 格式的查询结果，失败时为 null。
+         */
+        private final String payload;
+        private final String message;
+
+        public Result(int index, int code, String payload, String message) {
+            this.index = index;
+            this.code = code;
+            this.payload = payload;
+            this.message = message;
+        }
+    }
+
+    private static final class Batch {
+        private final String id;
+        private final int total;
+        private final int chunkSize;
+        private final Listener listener;
+        private volatile boolean cancelled;
+
+        // 以下字段在批次的锁内访问
+        private List<Result> pending;
+        private int completed;
+        private int succeeded;
+        private int failed;
+        private int cancelledCount;
+
+        private Batch(String id, int total, int chunkSize, Listener listener) {
+            this.id = id;
+            this.total = total;
+            this.chunkSize = chunkSize;
+            this.listener = listener;
+            this.pending = new ArrayList<>(chunkSize);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package site.snewbie.plugins.amap.geocode;
+
+import lombok.Getter;
+
+/**
+ * 缓存的逆地理编码结果。
+ */
+@Getter
+public class CachedAddress {
+    private final long createdAt;
+    private final String payload;
+
+    public CachedAddress(long createdAt, String payload) {
+        this.createdAt = createdAt;
+        this.payload = payload;
+    }
+
+    public boolean isExpired(long now, long ttlMillis) {
+        return ttlMillis > 0 && now - createdAt >= ttlMillis;
+    }
+}
@@ -0,0 +1,123 @@
+package site.snewbie.plugins.amap.geocode;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 每个缓存键一个文件的磁盘存储。文件第一行是写入时间，其余部分是地址信息。
+ * 文件数量超过上限时按修改时间删除最旧的文件。
+ */
+public class FileGeocodeDiskStore implements GeocodeDiskStore {
+    private static final String SUFFIX = ".geo";
+
+    private final File directory;
+    private final int maxEntries;
+    private int writesSinceTrim;
+
+    public FileGeocodeDiskStore(File directory, int maxEntries) {
+        this.directory = directory;
+        this.maxEntries = maxEntries;
+    }
+
+    @Override
+    public CachedAddress read(String key) {
+        File file = this.file(key);
+        if (!file.isFile()) {
+            return null;
+        }
+
+        try {
+            String content = new String(readFully(file), StandardCharsets.UTF_8);
+            int newline = content.indexOf('\n');
+            if (newline < 0) {
+                return null;
+            }
+            return new CachedAddress(Long.parseLong(content.substring(0, newline)), content.substring(newline + 1));
+        } catch (IOException | NumberFormatException e) {
+            // 损坏的文件直接丢弃
+            file.delete();
+            return null;
+        }
+    }
+
+    @Override
+    public synchronized void write(String key, CachedAddress address) {
+        if (!this.directory.isDirectory() && !this.directory.mkdirs()) {
+            return;
+        }
+
+        File file = this.file(key);
+        File temp = new File(this.directory, file.getName() + ".tmp");
+        try {
+            byte[] content = (address.getCreatedAt() + "\n" + address.getPayload()).getBytes(StandardCharsets.UTF_8);
+            try (OutputStream output = new FileOutputStream(temp)) {
+                output.write(content);
+            }
+            // 先写临时文件再重命名，读取时不会读到写了一半的内容
+            if (!temp.renameTo(file)) {
+                throw new IOException("rename failed: " + file);
+            }
+        } catch (IOException e) {
+            temp.delete();
+            return;
+        }
+
+        // 每写入上限的十分之一后检查一次，避免每次写入都列目录
+        if (++this.writesSinceTrim >= Math.max(1, this.maxEntries / 10)) {
+            this.writesSinceTrim = 0;
+            this.trim();
+        }
+    }
+
+    @Override
+    public void remove(String key) {
+        this.file(key).delete();
+    }
+
+    @Override
+    public synchronized void clear() {
+        File[] files = this.directory.listFiles((dir, name) -> name.endsWith(SUFFIX));
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            file.delete();
+        }
+    }
+
+    private void trim() {
+        File[] files = this.directory.listFiles((dir, name) -> name.endsWith(SUFFIX));
+        if (files == null || files.length <= this.maxEntries) {
+            return;
+        }
+
+        Arrays.sort(files, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+        for (int i = 0; i < files.length - this.maxEntries; i++) {
+            files[i].delete();
+        }
+    }
+
+    private static byte[] readFully(File file) throws IOException {
+        try (InputStream input = new FileInputStream(file)) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream((int) file.length());
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                output.write(buffer, 0, read);
+            }
+            return output.toByteArray();
+        }
+    }
+
+    private File file(String key) {
+        // 缓存键只包含 geohash 和半径，替换掉其余字符以防万一
+        return new File(this.directory, key.replaceAll("[^A-Za-z0-9._-]", "_") + SUFFIX);
+    }
+}
@@ -0,0 +1,18 @@
+package site.snewbie.plugins.amap.geocode;
+
+/**
+ * 逆地理编码缓存的持久化存储，应用重启后仍然可以命中。
+ * 实现需要是线程安全的。
+ */
+public interface GeocodeDiskStore {
+    /**
+     * @return 对应的缓存，不存在或读取失败时返回 null
+     */
+    CachedAddress read(String key);
+
+    void write(String key, CachedAddress address);
+
+    void remove(String key);
+
+    void clear();
+}
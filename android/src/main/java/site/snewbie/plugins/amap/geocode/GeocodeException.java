@@ -0,0 +1,28 @@
+package site.snewbie.plugins.amap.geocode;
+
+import lombok.Getter;
+
+/**
+ * 地理编码失败，携带高德搜索服务的错误码。
+ */
+@Getter
+public class GeocodeException extends Exception {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 非搜索服务返回的错误，例如网络或解析异常。
+     */
+    public static final int UNKNOWN = -1;
+
+    private final int code;
+
+    public GeocodeException(int code, String message) {
+        super(message);
+        this.code = code;
+    }
+
+    public GeocodeException(int code, String message, Throwable cause) {
+        super(message, cause);
+        this.code = code;
+    }
+}
@@ -0,0 +1,61 @@
+package site.snewbie.plugins.amap.geocode;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按固定间隔发放许可的限流器，不允许突发，多个线程同时申请时按申请顺序依次等待。
+ * 该类是线程安全的。
+ */
+public class RateLimiter {
+    private final long intervalNanos;
+    private final Ticker ticker;
+    /**
+     * 下一个许可可用的时间。
+     */
+    private long next;
+
+    public RateLimiter(double permitsPerSecond, Ticker ticker) {
+        if (!(permitsPerSecond > 0)) {
+            throw new IllegalArgumentException("permitsPerSecond must be greater than 0");
+        }
+
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+        this.ticker = ticker;
+        this.next = ticker.nanoTime();
+    }
+
+    public RateLimiter(double permitsPerSecond) {
+        this(permitsPerSecond, System::nanoTime);
+    }
+
+    /**
+     * 预约一个许可。
+     *
+     * @return 许可可用前需要等待的纳秒数
+     */
+    public synchronized long reserve() {
+        long now = this.ticker.nanoTime();
+        // nanoTime 可能为负数，只能比较差值
+        long wait = this.next - now;
+        if (wait < 0) {
+            wait = 0;
+            this.next = now;
+        }
+        this.next += this.intervalNanos;
+        return wait;
+    }
+
+    /**
+     * 阻塞直到获得一个许可。
+     */
+    public void acquire() throws InterruptedException {
+        long wait = this.reserve();
+        if (wait > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+    }
+
+    public interface Ticker {
+        long nanoTime();
+    }
+}
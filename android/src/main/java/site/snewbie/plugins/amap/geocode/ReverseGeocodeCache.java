@@ -0,0 +1,241 @@
+package site.snewbie.plugins.amap.geocode;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import lombok.Getter;
+
+/**
+ * 带缓存的逆地理编码。坐标按 geohash 量化后与查询半径一起作为缓存键，
+ * 内存中按 LRU 淘汰，可选写入磁盘；相同的键同时只会向下游发起一次查询，其余请求共享结果。
+ * 只缓存成功的结果。该类是线程安全的。
+ */
+public class ReverseGeocodeCache implements ReverseGeocoder {
+    public static final int DEFAULT_MAX_ENTRIES = 256;
+    public static final int DEFAULT_PRECISION = 8;
+    public static final long DEFAULT_TTL_MILLIS = 24 * 60 * 60 * 1000L;
+
+    private final ReverseGeocoder delegate;
+    private final int maxEntries;
+    private final int precision;
+    private final long ttlMillis;
+    private final GeocodeDiskStore diskStore;
+    private final Clock clock;
+
+    private final LinkedHashMap<String, CachedAddress> memory;
+    private final Map<String, List<Callback>> inFlight = new HashMap<>();
+
+    private long hits;
+    private long diskHits;
+    private long misses;
+    private long joined;
+    private long evictions;
+
+    /**
+     * @param maxEntries 内存中最多缓存的结果数量
+     * @param precision  geohash 精度，越大缓存粒度越细
+     * @param ttlMillis  缓存有效期，不大于 0 时永不过期
+     * @param diskStore  可选的磁盘存储，为 null 时只缓存在内存中
+     */
+    public ReverseGeocodeCache(ReverseGeocoder delegate, int maxEntries, int precision, long ttlMillis,
+                               GeocodeDiskStore diskStore, Clock clock) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be greater than 0");
+        }
+        if (precision < 1 || precision > GeoHash.MAX_PRECISION) {
+            throw new IllegalArgumentException("precision must be between 1 and " + GeoHash.MAX_PRECISION);
+        }
+
+        this.delegate = delegate;
+        this.maxEntries = maxEntries;
+        this.precision = precision;
+        this.ttlMillis = ttlMillis;
+        this.diskStore = diskStore;
+        this.clock = clock;
+        this.memory = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    public ReverseGeocodeCache(ReverseGeocoder delegate) {
+        this(delegate, DEFAULT_MAX_ENTRIES, DEFAULT_PRECISION, DEFAULT_TTL_MILLIS, null, System::currentTimeMillis);
+    }
+
+    @Override
+    public void reverseGeocode(double latitude, double longitude, float radius, Callback callback) {
+        String key = this.key(latitude, longitude, radius);
+
+        CachedAddress cached;
+        synchronized (this) {
+            cached = this.memory.get(key);
+            if (cached != null && cached.isExpired(this.clock.now(), this.ttlMillis)) {
+                this.memory.remove(key);
+                cached = null;
+            }
+
+            if (cached != null) {
+                this.hits++;
+            } else {
+                List<Callback> waiting = this.inFlight.get(key);
+                if (waiting != null) {
+                    // 相同的查询正在进行，共享结果
+                    waiting.add(callback);
+                    this.joined++;
+                    return;
+                }
+
+                waiting = new ArrayList<>(1);
+                waiting.add(callback);
+                this.inFlight.put(key, waiting);
+            }
+        }
+
+        if (cached != null) {
+            callback.onResult(SUCCESS, cached.getPayload());
+            return;
+        }
+
+        if (this.diskStore != null) {
+            CachedAddress stored = this.diskStore.read(key);
+            if (stored != null && !stored.isExpired(this.clock.now(), this.ttlMillis)) {
+                synchronized (this) {
+                    this.diskHits++;
+                }
+                this.complete(key, SUCCESS, stored.getPayload(), stored, false);
+                return;
+            }
+            if (stored != null) {
+                this.diskStore.remove(key);
+            }
+        }
+
+        synchronized (this) {
+            this.misses++;
+        }
+
+        try {
+            this.delegate.reverseGeocode(latitude, longitude, radius, new Callback() {
+                @Override
+                public void onResult(int code, String payload) {
+                    complete(key, code, payload, new CachedAddress(clock.now(), payload), true);
+                }
+
+                @Override
+                public void onError(Exception e) {
+                    fail(key, e);
+                }
+            });
+        } catch (Exception e) {
+            this.fail(key, e);
+        }
+    }
+
+    /**
+     * 缓存键：geohash 加上取整后的查询半径，不同半径的结果不能互相替代。
+     */
+    public String key(double latitude, double longitude, float radius) {
+        return GeoHash.encode(latitude, longitude, this.precision) + "_" + Math.round(radius);
+    }
+
+    public synchronized Stats getStats() {
+        return new Stats(this.hits, this.diskHits, this.misses, this.joined, this.evictions, this.memory.size(), this.inFlight.size());
+    }
+
+    public synchronized void resetStats() {
+        this.hits = 0;
+        this.diskHits = 0;
+        this.misses = 0;
+        this.joined = 0;
+        this.evictions = 0;
+    }
+
+    /**
+     * 清空内存和磁盘中的缓存，正在进行的查询不受影响。
+     */
+    public void clear() {
+        synchronized (this) {
+            this.memory.clear();
+        }
+        if (this.diskStore != null) {
+            this.diskStore.clear();
+        }
+    }
+
+    private void complete(String key, int code, String payload, CachedAddress address, boolean persist) {
+        boolean cacheable = code == SUCCESS && payload != null;
+
+        List<Callback> waiting;
+        synchronized (this) {
+            waiting = this.inFlight.remove(key);
+            if (cacheable) {
+                this.memory.put(key, address);
+                while (this.memory.size() > this.maxEntries) {
+                    String eldest = this.memory.keySet().iterator().next();
+                    this.memory.remove(eldest);
+                    this.evictions++;
+                }
+            }
+        }
+
+        if (cacheable && persist && this.diskStore != null) {
+            this.diskStore.write(key, address);
+        }
+
+        if (waiting != null) {
+            for (Callback callback : waiting) {
+                callback.onResult(code, payload);
+            }
+        }
+    }
+
+    private void fail(String key, Exception e) {
+        List<Callback> waiting;
+        synchronized (this) {
+            waiting = this.inFlight.remove(key);
+        }
+
+        if (waiting != null) {
+            for (Callback callback : waiting) {
+                callback.onError(e);
+            }
+        }
+    }
+
+    public interface Clock {
+        long now();
+    }
+
+    @Getter
+    public static class Stats {
+        /**
+         * 内存命中次数。
+         */
+        private final long hits;
+        /**
+         * 内存未命中、磁盘命中的次数。
+         */
+        private final long diskHits;
+        /**
+         * 实际向下游发起查询的次数。
+         */
+        private final long misses;
+        /**
+         * 共享进行中查询的次数。
+         */
+        private final long joined;
+        private final long evictions;
+        private final int size;
+        private final int inFlight;
+
+        public Stats(long hits, long diskHits, long misses, long joined, long evictions, int size, int inFlight) {
+            this.hits = hits;
+            this.diskHits = diskHits;
+            this.misses = misses;
+            this.joined = joined;
+            this.evictions = evictions;
+            this.size = size;
+            this.inFlight = inFlight;
+        }
+    }
+}
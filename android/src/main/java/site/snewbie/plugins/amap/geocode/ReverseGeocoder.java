@@ -0,0 +1,28 @@
+package site.snewbie.plugins.amap.geocode;
+
+/**
+ * 逆地理编码（坐标转地址）服务。
+ */
+public interface ReverseGeocoder {
+    /**
+     * 高德搜索服务成功的返回码。
+     */
+    int SUCCESS = 1000;
+
+    /**
+     * 查询指定坐标附近的地址，结果可能在任意线程中回调。
+     *
+     * @param radius 查询半径，单位：米
+     */
+    void reverseGeocode(double latitude, double longitude, float radius, Callback callback);
+
+    interface Callback {
+        /**
+         * @param code    返回码，{@link #SUCCESS} 表示成功
+         * @param payload JSON 格式的地址信息，失败时可能为 null
+         */
+        void onResult(int code, String payload);
+
+        void onError(Exception e);
+    }
+}
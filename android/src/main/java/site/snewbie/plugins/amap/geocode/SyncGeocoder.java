@@ -0,0 +1,22 @@
+package site.snewbie.plugins.amap.geocode;
+
+/**
+ * 同步的地理编码服务，在调用线程中阻塞直到返回结果，只应在后台线程中调用。
+ */
+public interface SyncGeocoder {
+    /**
+     * 地理编码（地址转坐标）。
+     *
+     * @param city 查询城市，可以是城市名、citycode 或 adcode，为 null 时全国范围查询
+     * @return JSON 数组格式的候选地址
+     */
+    String geocode(String address, String city) throws GeocodeException;
+
+    /**
+     * 逆地理编码（坐标转地址）。
+     *
+     * @param radius 查询半径，单位：米
+     * @return JSON 格式的地址信息
+     */
+    String reverseGeocode(double latitude, double longitude, float radius) throws GeocodeException;
+}
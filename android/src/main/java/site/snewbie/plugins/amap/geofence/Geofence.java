@@ -0,0 +1,205 @@
+package site.snewbie.plugins.amap.geofence;
+
+import lombok.Getter;
+
+/**
+ * 圆形或多边形地理围栏，创建后不可修改。
+ * <p>
+ * 多边形由一个外环和任意个内环（洞）组成，每个环是按 [lat0, lng0, lat1, lng1, ...] 排列的顶点，首尾不需要重复。
+ * 判断点是否在多边形内时把经纬度视为平面坐标，按奇偶规则计算，不支持跨越 180° 经线的多边形。
+ */
+public final class Geofence {
+    private static final double EARTH_RADIUS = 6_371_008.8;
+    /**
+     * 每纬度对应的距离，单位：米，与球面距离使用相同的地球半径，圆形围栏的外接矩形不会偏小。
+     */
+    static final double METERS_PER_DEGREE = Math.PI * EARTH_RADIUS / 180;
+
+    @Getter
+    private final String id;
+    private final double[][] rings;
+    private final double centerLatitude;
+    private final double centerLongitude;
+    private final double radius;
+    @Getter
+    private final double hysteresis;
+    @Getter
+    private final long dwellMillis;
+
+    @Getter
+    private final double minLatitude;
+    @Getter
+    private final double minLongitude;
+    @Getter
+    private final double maxLatitude;
+    @Getter
+    private final double maxLongitude;
+
+    private Geofence(String id, double[][] rings, double centerLatitude, double centerLongitude, double radius,
+                     double hysteresis, long dwellMillis) {
+        if (id == null || id.isEmpty()) {
+            throw new IllegalArgumentException("geofence id must not be empty");
+        }
+        if (!(hysteresis >= 0)) {
+            throw new IllegalArgumentException("hysteresis must not be negative");
+        }
+        if (dwellMillis < 0) {
+            throw new IllegalArgumentException("dwellMillis must not be negative");
+        }
+
+        this.id = id;
+        this.rings = rings;
+        this.centerLatitude = centerLatitude;
+        this.centerLongitude = centerLongitude;
+        this.radius = radius;
+        this.hysteresis = hysteresis;
+        this.dwellMillis = dwellMillis;
+
+        if (rings == null) {
+            double dLat = radius / METERS_PER_DEGREE;
+            double dLng = dLat / Math.max(Math.cos(Math.toRadians(Math.min(89, Math.abs(centerLatitude) + dLat))), 1e-6);
+            this.minLatitude = centerLatitude - dLat;
+            this.maxLatitude = centerLatitude + dLat;
+            this.minLongitude = centerLongitude - dLng;
+            this.maxLongitude = centerLongitude + dLng;
+        } else {
+            // 内环在外环之内，外环的范围就是整个多边形的范围
+            double[] outer = rings[0];
+            double minLat = Double.MAX_VALUE;
+            double minLng = Double.MAX_VALUE;
+            double maxLat = -Double.MAX_VALUE;
+            double maxLng = -Double.MAX_VALUE;
+            for (int i = 0; i < outer.length; i += 2) {
+                minLat = Math.min(minLat, outer[i]);
+                maxLat = Math.max(maxLat, outer[i]);
+                minLng = Math.min(minLng, outer[i + 1]);
+                maxLng = Math.max(maxLng, outer[i + 1]);
+            }
+            this.minLatitude = minLat;
+            this.maxLatitude = maxLat;
+            this.minLongitude = minLng;
+            this.maxLongitude = maxLng;
+        }
+    }
+
+    /**
+     * @param radius      半径，单位：米
+     * @param hysteresis  离开围栏时需要超出边界的距离，单位：米，用于抑制定位漂移造成的反复进出
+     * @param dwellMillis 进入后停留多久触发停留事件，为 0 时不触发
+     */
+    public static Geofence circle(String id, double latitude, double longitude, double radius, double hysteresis, long dwellMillis) {
+        checkCoordinate(latitude, longitude);
+        if (!(radius > 0)) {
+            throw new IllegalArgumentException("radius must be greater than 0");
+        }
+        return new Geofence(id, null, latitude, longitude, radius, hysteresis, dwellMillis);
+    }
+
+    /**
+     * @param rings 第一个为外环，其余为内环
+     */
+    public static Geofence polygon(String id, double[][] rings, double hysteresis, long dwellMillis) {
+        if (rings == null || rings.length == 0) {
+            throw new IllegalArgumentException("polygon must have at least one ring");
+        }
+        for (double[] ring : rings) {
+            if (ring == null || ring.length < 6 || ring.length % 2 != 0) {
+                throw new IllegalArgumentException("polygon ring must have at least 3 vertices");
+            }
+            for (int i = 0; i < ring.length; i += 2) {
+                checkCoordinate(ring[i], ring[i + 1]);
+            }
+        }
+        return new Geofence(id, rings.clone(), 0, 0, 0, hysteresis, dwellMillis);
+    }
+
+    private static void checkCoordinate(double latitude, double longitude) {
+        if (!(latitude >= -90 && latitude <= 90 && longitude >= -180 && longitude <= 180)) {
+            throw new IllegalArgumentException("invalid coordinate " + latitude + "," + longitude);
+        }
+    }
+
+    public boolean isCircle() {
+        return this.rings == null;
+    }
+
+    public boolean contains(double latitude, double longitude) {
+        if (this.rings == null) {
+            return distance(latitude, longitude, this.centerLatitude, this.centerLongitude) <= this.radius;
+        }
+
+        if (latitude < this.minLatitude || latitude > this.maxLatitude || longitude < this.minLongitude || longitude > this.maxLongitude) {
+            return false;
+        }
+
+        boolean inside = false;
+        for (double[] ring : this.rings) {
+            int n = ring.length;
+            for (int i = 0, j = n - 2; i < n; j = i, i += 2) {
+                double latI = ring[i];
+                double latJ = ring[j];
+                if ((latI > latitude) != (latJ > latitude)) {
+                    double lngI = ring[i + 1];
+                    double lngJ = ring[j + 1];
+                    if (longitude < (lngJ - lngI) * (latitude - latI) / (latJ - latI) + lngI) {
+                        inside = !inside;
+                    }
+                }
+            }
+        }
+        return inside;
+    }
+
+    /**
+     * 点到围栏边界的距离，单位：米，点在围栏内时为 0。
+     * 多边形按点所在纬度的等距投影计算，围栏范围不大时误差可以忽略。
+     */
+    public double distanceOutside(double latitude, double longitude) {
+        if (this.rings == null) {
+            return Math.max(0, distance(latitude, longitude, this.centerLatitude, this.centerLongitude) - this.radius);
+        }
+        if (this.contains(latitude, longitude)) {
+            return 0;
+        }
+
+        double scale = Math.cos(Math.toRadians(latitude));
+        double min = Double.MAX_VALUE;
+        for (double[] ring : this.rings) {
+            int n = ring.length;
+            for (int i = 0, j = n - 2; i < n; j = i, i += 2) {
+                double ax = (ring[j + 1] - longitude) * scale;
+                double ay = ring[j] - latitude;
+                double bx = (ring[i + 1] - longitude) * scale;
+                double by = ring[i] - latitude;
+                min = Math.min(min, segmentDistanceSquared(ax, ay, bx, by));
+            }
+        }
+        return Math.sqrt(min) * METERS_PER_DEGREE;
+    }
+
+    /**
+     * 原点到线段 ab 的距离的平方。
+     */
+    private static double segmentDistanceSquared(double ax, double ay, double bx, double by) {
+        double dx = bx - ax;
+        double dy = by - ay;
+        double lengthSquared = dx * dx + dy * dy;
+        double t = lengthSquared > 0 ? Math.max(0, Math.min(1, -(ax * dx + ay * dy) / lengthSquared)) : 0;
+        double x = ax + t * dx;
+        double y = ay + t * dy;
+        return x * x + y * y;
+    }
+
+    /**
+     * 球面距离，单位：米。
+     */
+    static double distance(double lat1, double lng1, double lat2, double lng2) {
+        double phi1 = Math.toRadians(lat1);
+        double phi2 = Math.toRadians(lat2);
+        double dPhi = phi2 - phi1;
+        double dLambda = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dPhi / 2) * Math.sin(dPhi / 2)
+                + Math.cos(phi1) * Math.cos(phi2) * Math.sin(dLambda / 2) * Math.sin(dLambda / 2);
+        return 2 * EARTH_RADIUS * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+}
@@ -0,0 +1,292 @@
+package site.snewbie.plugins.amap.geofence;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import lombok.Getter;
+
+/**
+ * 按定位结果计算地理围栏的进入、离开和停留，只返回状态变化。
+ * <p>
+ * 围栏的外接矩形按各自的 hysteresis 向外扩展后放入 {@link StrTree}，每次定位只精确判断矩形包含定位点的围栏。
+ * 进入围栏要求定位点在围栏内，离开围栏要求定位点超出边界 hysteresis 米，在边界附近漂移不会反复进出。
+ * 精度差于 maxAccuracy 的定位被忽略。围栏变化后可以调用 {@link #buildIndex()} 在后台线程中重新打包索引，
+ * 否则在下一次定位时打包。该类是线程安全的。
+ */
+public class GeofenceEngine {
+    public static final float DEFAULT_MAX_ACCURACY = 100;
+    public static final double DEFAULT_HYSTERESIS = 20;
+
+    private final float maxAccuracy;
+
+    private final Map<String, Geofence> fences = new LinkedHashMap<>();
+    /**
+     * 当前在内的围栏，按围栏 id 保存。
+     */
+    private final Map<String, Presence> inside = new HashMap<>();
+
+    private Geofence[] indexed = new Geofence[0];
+    private StrTree index = new StrTree(new double[0]);
+    private boolean dirty;
+    /**
+     * 围栏每次变化后加一，后台打包的索引只在期间围栏没有变化时使用。
+     */
+    private long version;
+    private long sequence;
+
+    private long fixes;
+    private long ignoredFixes;
+    private long candidates;
+    private long transitions;
+    private long indexBuilds;
+
+    /**
+     * @param maxAccuracy 定位精度的上限，单位：米，不大于 0 时不过滤
+     */
+    public GeofenceEngine(float maxAccuracy) {
+        this.maxAccuracy = maxAccuracy;
+    }
+
+    public GeofenceEngine() {
+        this(DEFAULT_MAX_ACCURACY);
+    }
+
+    /**
+     * 添加围栏，id 相同的围栏被替换。替换在内的围栏不会触发事件，下一次定位按新的形状判断是否离开。
+     */
+    public synchronized void add(Collection<Geofence> geofences) {
+        for (Geofence geofence : geofences) {
+            this.fences.put(geofence.getId(), geofence);
+            Presence presence = this.inside.get(geofence.getId());
+            if (presence != null) {
+                presence.fence = geofence;
+            }
+        }
+        this.invalidate();
+    }
+
+    /**
+     * 移除围栏，不触发离开事件。
+     *
+     * @return 实际移除的数量
+     */
+    public synchronized int remove(Collection<String> ids) {
+        int removed = 0;
+        for (String id : ids) {
+            if (this.fences.remove(id) != null) {
+                this.inside.remove(id);
+                removed++;
+            }
+        }
+        if (removed > 0) {
+            this.invalidate();
+        }
+        return removed;
+    }
+
+    public synchronized void clear() {
+        this.fences.clear();
+        this.inside.clear();
+        this.invalidate();
+    }
+
+    public synchronized int size() {
+        return this.fences.size();
+    }
+
+    /**
+     * 当前在内的围栏 id。
+     */
+    public synchronized List<String> getInside() {
+        return new ArrayList<>(this.inside.keySet());
+    }
+
+    /**
+     * 用一次定位结果更新围栏状态。
+     *
+     * @param accuracy 定位精度，单位：米
+     * @param time     定位时间，单位：毫秒，用于计算停留时长
+     * @return 本次定位产生的状态变化，同一次定位中离开事件排在进入和停留事件之前
+     */
+    public synchronized List<Transition> update(double latitude, double longitude, float accuracy, long time) {
+        if (this.maxAccuracy > 0 && !(accuracy <= this.maxAccuracy)) {
+            this.ignoredFixes++;
+            return Collections.emptyList();
+        }
+        if (this.dirty) {
+            Geofence[] indexed = this.fences.values().toArray(new Geofence[0]);
+            this.install(indexed, pack(indexed));
+        }
+
+        this.fixes++;
+        long stamp = ++this.sequence;
+        List<Transition> entered = new ArrayList<>(0);
+        this.candidates += this.index.query(longitude, latitude, i -> {
+            Geofence fence = this.indexed[i];
+            Presence presence = this.inside.get(fence.getId());
+            if (presence == null) {
+                if (fence.contains(latitude, longitude)) {
+                    presence = new Presence(fence, time);
+                    presence.stamp = stamp;
+                    this.inside.put(fence.getId(), presence);
+                    entered.add(new Transition(fence.getId(), Type.ENTER, latitude, longitude, time));
+                    this.checkDwell(presence, latitude, longitude, time, entered);
+                }
+            } else if (fence.distanceOutside(latitude, longitude) <= fence.getHysteresis()) {
+                presence.stamp = stamp;
+                this.checkDwell(presence, latitude, longitude, time, entered);
+            }
+        });
+
+        // 本次没有确认仍在内的围栏都已离开，包括定位点已不在扩展矩形内的围栏
+        List<Transition> result = new ArrayList<>(entered.size());
+        Iterator<Presence> iterator = this.inside.values().iterator();
+        while (iterator.hasNext()) {
+            Presence presence = iterator.next();
+            if (presence.stamp != stamp) {
+                iterator.remove();
+                result.add(new Transition(presence.fence.getId(), Type.EXIT, latitude, longitude, time));
+            }
+        }
+        result.addAll(entered);
+        this.transitions += result.size();
+        return result;
+    }
+
+    public synchronized Stats getStats() {
+        return new Stats(this.fences.size(), this.inside.size(), this.fixes, this.ignoredFixes, this.candidates, this.transitions, this.indexBuilds);
+    }
+
+    private void checkDwell(Presence presence, double latitude, double longitude, long time, List<Transition> out) {
+        long dwellMillis = presence.fence.getDwellMillis();
+        if (dwellMillis > 0 && !presence.dwelled && time - presence.enteredAt >= dwellMillis) {
+            presence.dwelled = true;
+            out.add(new Transition(presence.fence.getId(), Type.DWELL, latitude, longitude, time));
+        }
+    }
+
+    /**
+     * 围栏变化后重新打包索引。打包时不持有锁，期间的定位判断不会被阻塞。
+     */
+    public void buildIndex() {
+        Geofence[] indexed;
+        long version;
+        synchronized (this) {
+            if (!this.dirty) {
+                return;
+            }
+            indexed = this.fences.values().toArray(new Geofence[0]);
+            version = this.version;
+        }
+
+        StrTree index = pack(indexed);
+        synchronized (this) {
+            if (this.dirty && this.version == version) {
+                this.install(indexed, index);
+            }
+        }
+    }
+
+    private void invalidate() {
+        this.dirty = true;
+        this.version++;
+    }
+
+    private void install(Geofence[] indexed, StrTree index) {
+        this.indexed = indexed;
+        this.index = index;
+        this.dirty = false;
+        this.indexBuilds++;
+    }
+
+    private static StrTree pack(Geofence[] indexed) {
+        double[] boxes = new double[indexed.length * 4];
+        for (int i = 0; i < indexed.length; i++) {
+            Geofence fence = indexed[i];
+            double dLat = fence.getHysteresis() / Geofence.METERS_PER_DEGREE;
+            double maxAbsLatitude = Math.min(89, Math.max(Math.abs(fence.getMinLatitude()), Math.abs(fence.getMaxLatitude())) + dLat);
+            double dLng = dLat / Math.cos(Math.toRadians(maxAbsLatitude));
+            boxes[i * 4] = fence.getMinLongitude() - dLng;
+            boxes[i * 4 + 1] = fence.getMinLatitude() - dLat;
+            boxes[i * 4 + 2] = fence.getMaxLongitude() + dLng;
+            boxes[i * 4 + 3] = fence.getMaxLatitude() + dLat;
+        }
+        return new StrTree(boxes);
+    }
+
+    public enum Type {
+        ENTER,
+        EXIT,
+        /**
+         * 进入后持续停留了围栏的 dwellMillis，每次进入只触发一次。
+         */
+        DWELL
+    }
+
+    @Getter
+    public static class Transition {
+        private final String geofenceId;
+        private final Type type;
+        private final double latitude;
+        private final double longitude;
+        private final long time;
+
+        public Transition(String geofenceId, Type type, double latitude, double longitude, long time) {
+            this.geofenceId = geofenceId;
+            this.type = type;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.time = time;
+        }
+
+        @Override
+        public String toString() {
+            return geofenceId + ":" + type;
+        }
+    }
+
+    @Getter
+    public static class Stats {
+        private final int geofences;
+        private final int inside;
+        private final long fixes;
+        /**
+         * 精度不足被忽略的定位次数。
+         */
+        private final long ignoredFixes;
+        /**
+         * 索引查询返回、需要精确判断的围栏数量之和。
+         */
+        private final long candidates;
+        private final long transitions;
+        private final long indexBuilds;
+
+        public Stats(int geofences, int inside, long fixes, long ignoredFixes, long candidates, long transitions, long indexBuilds) {
+            this.geofences = geofences;
+            this.inside = inside;
+            this.fixes = fixes;
+            this.ignoredFixes = ignoredFixes;
+            this.candidates = candidates;
+            this.transitions = transitions;
+            this.indexBuilds = indexBuilds;
+        }
+    }
+
+    private static final class Presence {
+        private Geofence fence;
+        private final long enteredAt;
+        private boolean dwelled;
+        private long stamp;
+
+        private Presence(Geofence fence, long enteredAt) {
+            this.fence = fence;
+            this.enteredAt = enteredAt;
+        }
+    }
+}
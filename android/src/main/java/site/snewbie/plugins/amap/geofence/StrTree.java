@@ -0,0 +1,235 @@
+package site.snewbie.plugins.amap.geofence;
+
+import java.util.Arrays;
+
+/**
+ * 按 STR（Sort-Tile-Recursive）方式一次性打包的静态 R 树，用于查询包含某个点的矩形。
+ * <p>
+ * 每一层先按中心点的 x 坐标分成若干竖条，竖条内再按 y 坐标排序，连续的 nodeCapacity 个元素组成上一层的一个节点，
+ * 节点之间重叠很少。树创建后不能修改，数据变化时重新创建，数千个矩形的打包耗时在毫秒级。
+ * 节点以数组保存，查询时不分配对象。该类创建后是只读的，可以在多个线程中同时查询。
+ */
+public final class StrTree {
+    public static final int DEFAULT_NODE_CAPACITY = 16;
+
+    private final int nodeCapacity;
+    private final int size;
+    /**
+     * 叶子层按打包顺序排列的元素下标和矩形。
+     */
+    private final int[] items;
+    private final double[] itemBoxes;
+    /**
+     * 第 0 层节点的子元素是 items，第 k 层节点的子元素是第 k - 1 层节点；最后一层只有一个根节点。
+     */
+    private final double[][] nodeBoxes;
+    private final int[][] nodeStart;
+    private final int[][] nodeEnd;
+
+    /**
+     * @param boxes 按 [minX0, minY0, maxX0, maxY0, minX1, ...] 排列的矩形，查询结果为矩形的下标
+     */
+    public StrTree(double[] boxes, int nodeCapacity) {
+        if (nodeCapacity < 2) {
+            throw new IllegalArgumentException("nodeCapacity must be at least 2");
+        }
+        if (boxes.length % 4 != 0) {
+            throw new IllegalArgumentException("boxes length must be a multiple of 4");
+        }
+
+        this.nodeCapacity = nodeCapacity;
+        this.size = boxes.length / 4;
+
+        int[] order = new int[this.size];
+        for (int i = 0; i < this.size; i++) {
+            order[i] = i;
+        }
+        sortTiles(boxes, order, this.size);
+
+        this.items = order;
+        this.itemBoxes = new double[boxes.length];
+        for (int i = 0; i < this.size; i++) {
+            System.arraycopy(boxes, order[i] * 4, this.itemBoxes, i * 4, 4);
+        }
+
+        int levels = 0;
+        if (this.size > 0) {
+            int count = this.size;
+            do {
+                count = ceilDiv(count, nodeCapacity);
+                levels++;
+            } while (count > 1);
+        }
+        this.nodeBoxes = new double[levels][];
+        this.nodeStart = new int[levels][];
+        this.nodeEnd = new int[levels][];
+
+        double[] childBoxes = this.itemBoxes;
+        int childCount = this.size;
+        for (int level = 0; level < levels; level++) {
+            int count = ceilDiv(childCount, nodeCapacity);
+            double[] boxesOfLevel = new double[count * 4];
+            int[] start = new int[count];
+            int[] end = new int[count];
+            for (int node = 0; node < count; node++) {
+                start[node] = node * nodeCapacity;
+                end[node] = Math.min(childCount, start[node] + nodeCapacity);
+                union(childBoxes, start[node], end[node], boxesOfLevel, node);
+            }
+
+            if (level + 1 < levels) {
+                // 为上一层打包时重新排列本层节点，子元素的范围跟随节点移动
+                int[] nodeOrder = new int[count];
+                for (int i = 0; i < count; i++) {
+                    nodeOrder[i] = i;
+                }
+                sortTiles(boxesOfLevel, nodeOrder, count);
+                double[] sortedBoxes = new double[boxesOfLevel.length];
+                int[] sortedStart = new int[count];
+                int[] sortedEnd = new int[count];
+                for (int i = 0; i < count; i++) {
+                    System.arraycopy(boxesOfLevel, nodeOrder[i] * 4, sortedBoxes, i * 4, 4);
+                    sortedStart[i] = start[nodeOrder[i]];
+                    sortedEnd[i] = end[nodeOrder[i]];
+                }
+                boxesOfLevel = sortedBoxes;
+                start = sortedStart;
+                end = sortedEnd;
+            }
+
+            this.nodeBoxes[level] = boxesOfLevel;
+            this.nodeStart[level] = start;
+            this.nodeEnd[level] = end;
+            childBoxes = boxesOfLevel;
+            childCount = count;
+        }
+    }
+
+    public StrTree(double[] boxes) {
+        this(boxes, DEFAULT_NODE_CAPACITY);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 树的层数，不包含叶子元素。
+     */
+    public int getDepth() {
+        return this.nodeBoxes.length;
+    }
+
+    /**
+     * 遍历包含点 (x, y) 的矩形，边界上的点也算包含。
+     *
+     * @return 访问的矩形数量
+     */
+    public int query(double x, double y, Visitor visitor) {
+        if (this.size == 0) {
+            return 0;
+        }
+        int top = this.nodeBoxes.length - 1;
+        return this.visit(top, 0, x, y, visitor);
+    }
+
+    private int visit(int level, int node, double x, double y, Visitor visitor) {
+        if (!contains(this.nodeBoxes[level], node, x, y)) {
+            return 0;
+        }
+
+        int found = 0;
+        int start = this.nodeStart[level][node];
+        int end = this.nodeEnd[level][node];
+        if (level == 0) {
+            for (int i = start; i < end; i++) {
+                if (contains(this.itemBoxes, i, x, y)) {
+                    visitor.visit(this.items[i]);
+                    found++;
+                }
+            }
+        } else {
+            for (int child = start; child < end; child++) {
+                found += this.visit(level - 1, child, x, y, visitor);
+            }
+        }
+        return found;
+    }
+
+    private static boolean contains(double[] boxes, int index, double x, double y) {
+        int offset = index * 4;
+        return x >= boxes[offset] && y >= boxes[offset + 1] && x <= boxes[offset + 2] && y <= boxes[offset + 3];
+    }
+
+    private static void union(double[] boxes, int start, int end, double[] out, int index) {
+        double minX = Double.MAX_VALUE;
+        double minY = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE;
+        double maxY = -Double.MAX_VALUE;
+        for (int i = start; i < end; i++) {
+            int offset = i * 4;
+            minX = Math.min(minX, boxes[offset]);
+            minY = Math.min(minY, boxes[offset + 1]);
+            maxX = Math.max(maxX, boxes[offset + 2]);
+            maxY = Math.max(maxY, boxes[offset + 3]);
+        }
+        int offset = index * 4;
+        out[offset] = minX;
+        out[offset + 1] = minY;
+        out[offset + 2] = maxX;
+        out[offset + 3] = maxY;
+    }
+
+    /**
+     * 按 STR 的顺序排列 order：先按中心点 x 排序并切成竖条，竖条内按中心点 y 排序。
+     */
+    private void sortTiles(double[] boxes, int[] order, int count) {
+        if (count <= this.nodeCapacity) {
+            return;
+        }
+
+        long[] keys = new long[count];
+        sortByCenter(boxes, order, 0, count, 0, keys);
+
+        int leaves = ceilDiv(count, this.nodeCapacity);
+        int slices = (int) Math.ceil(Math.sqrt(leaves));
+        int sliceSize = slices * this.nodeCapacity;
+        for (int start = 0; start < count; start += sliceSize) {
+            sortByCenter(boxes, order, start, Math.min(count, start + sliceSize), 1, keys);
+        }
+    }
+
+    /**
+     * 按中心点坐标排序 order[start, end)。坐标转换为保序的 long 与下标一起排序，避免装箱。
+     */
+    private static void sortByCenter(double[] boxes, int[] order, int start, int end, int axis, long[] keys) {
+        int n = end - start;
+        double[] centers = new double[n];
+        for (int i = 0; i < n; i++) {
+            int offset = order[start + i] * 4;
+            centers[i] = (boxes[offset + axis] + boxes[offset + 2 + axis]) / 2;
+        }
+
+        // 中心点排名放在高位，原下标放在低 32 位
+        double[] sorted = centers.clone();
+        Arrays.sort(sorted);
+        for (int i = 0; i < n; i++) {
+            int rank = Arrays.binarySearch(sorted, centers[i]);
+            keys[i] = ((long) rank << 32) | i;
+        }
+        Arrays.sort(keys, 0, n);
+
+        int[] copy = Arrays.copyOfRange(order, start, end);
+        for (int i = 0; i < n; i++) {
+            order[start + i] = copy[(int) keys[i]];
+        }
+    }
+
+    private static int ceilDiv(int value, int divisor) {
+        return (value + divisor - 1) / divisor;
+    }
+
+    public interface Visitor {
+        void visit(int index);
+    }
+}
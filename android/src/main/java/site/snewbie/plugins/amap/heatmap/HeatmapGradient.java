@@ -0,0 +1,82 @@
+package site.snewbie.plugins.amap.heatmap;
+
+/**
+ * 热力图的渐变色。颜色按起始位置分段线性插值，预先计算为颜色表，渲染时按强度直接查表。
+ * 强度低于第一个起始位置时颜色逐渐透明，与 SDK 的 HeatmapTileProvider 一致。
+ */
+public class HeatmapGradient {
+    public static final HeatmapGradient DEFAULT = new HeatmapGradient(
+            new int[]{0xff66e100, 0xffff0000}, new float[]{0.2f, 1f});
+
+    private static final int COLOR_MAP_SIZE = 1000;
+
+    private final int[] colors;
+    private final float[] startPoints;
+    private final int[] colorMap;
+
+    /**
+     * @param colors      ARGB 颜色
+     * @param startPoints 每个颜色的起始位置，0 到 1 之间递增
+     */
+    public HeatmapGradient(int[] colors, float[] startPoints) {
+        if (colors.length == 0 || colors.length != startPoints.length) {
+            throw new IllegalArgumentException("colors and startPoints must have the same non-zero length");
+        }
+        for (int i = 0; i < startPoints.length; i++) {
+            if (startPoints[i] < 0 || startPoints[i] > 1 || (i > 0 && startPoints[i] <= startPoints[i - 1])) {
+                throw new IllegalArgumentException("startPoints must be increasing values between 0 and 1");
+            }
+        }
+
+        this.colors = colors.clone();
+        this.startPoints = startPoints.clone();
+        this.colorMap = new int[COLOR_MAP_SIZE];
+
+        for (int i = 0; i < COLOR_MAP_SIZE; i++) {
+            float position = i / (float) (COLOR_MAP_SIZE - 1);
+            this.colorMap[i] = this.colorAt(position);
+        }
+    }
+
+    public int[] getColors() {
+        return colors.clone();
+    }
+
+    public float[] getStartPoints() {
+        return startPoints.clone();
+    }
+
+    /**
+     * @param intensity 0 到 1 之间的强度
+     */
+    public int colorOf(double intensity) {
+        int index = (int) (intensity * (COLOR_MAP_SIZE - 1));
+        return this.colorMap[Math.max(0, Math.min(COLOR_MAP_SIZE - 1, index))];
+    }
+
+    private int colorAt(float position) {
+        if (position < this.startPoints[0]) {
+            // 从完全透明过渡到第一个颜色
+            int color = this.colors[0];
+            return interpolate(color & 0x00ffffff, color, position / this.startPoints[0]);
+        }
+
+        for (int i = 1; i < this.startPoints.length; i++) {
+            if (position < this.startPoints[i]) {
+                float ratio = (position - this.startPoints[i - 1]) / (this.startPoints[i] - this.startPoints[i - 1]);
+                return interpolate(this.colors[i - 1], this.colors[i], ratio);
+            }
+        }
+        return this.colors[this.colors.length - 1];
+    }
+
+    private static int interpolate(int from, int to, float ratio) {
+        int color = 0;
+        for (int shift = 0; shift < 32; shift += 8) {
+            int a = (from >>> shift) & 0xff;
+            int b = (to >>> shift) & 0xff;
+            color |= Math.round(a + (b - a) * ratio) << shift;
+        }
+        return color;
+    }
+}
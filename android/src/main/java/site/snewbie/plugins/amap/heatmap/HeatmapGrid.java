@@ -0,0 +1,252 @@
+package site.snewbie.plugins.amap.heatmap;
+
+import java.util.Arrays;
+
+import lombok.Getter;
+import site.snewbie.plugins.amap.cluster.ClusterPoints;
+
+/**
+ * 热力图的网格聚合结果。
+ * <p>
+ * 点按世界像素坐标落入边长为 cellSize 像素的网格，同一网格内的权重直接相加，渲染瓦片时只需要读取瓦片附近的网格，
+ * 与原始点的数量无关。最大缩放级别的网格在写入时更新，较低级别的网格在第一次使用时由其合并得到，
+ * 之后随权重变化增量更新，不需要重新聚合所有点。
+ * <p>
+ * 该类不是线程安全的，由 {@link HeatmapLayer} 加锁访问。
+ */
+public class HeatmapGrid {
+    @Getter
+    private final int cellSize;
+    @Getter
+    private final int maxZoom;
+    private final Level[] levels;
+
+    /**
+     * @param cellSize 网格边长，单位：像素，必须是 2 的幂
+     * @param maxZoom  聚合的最大缩放级别，更大的缩放级别使用该级别的网格渲染
+     */
+    public HeatmapGrid(int cellSize, int maxZoom) {
+        if (cellSize <= 0 || cellSize > 256 || Integer.bitCount(cellSize) != 1) {
+            throw new IllegalArgumentException("cellSize must be a power of 2 not greater than 256");
+        }
+        if (maxZoom < 0 || maxZoom + 8 - Integer.numberOfTrailingZeros(cellSize) > 30) {
+            throw new IllegalArgumentException("maxZoom is out of range");
+        }
+
+        this.cellSize = cellSize;
+        this.maxZoom = maxZoom;
+        this.levels = new Level[maxZoom + 1];
+        this.levels[maxZoom] = new Level(16);
+    }
+
+    /**
+     * 某个缩放级别每行（列）的网格数量。
+     */
+    public int cellsPerAxis(int zoom) {
+        return 1 << (zoom + 8 - Integer.numberOfTrailingZeros(this.cellSize));
+    }
+
+    /**
+     * 累加一个点的权重，权重为负数时表示减去之前写入的权重。
+     *
+     * @return 点所在的最大缩放级别的网格，经纬度无效时返回 -1
+     */
+    public long add(double latitude, double longitude, double weight) {
+        if (Double.isNaN(latitude) || Double.isNaN(longitude) || Double.isNaN(weight) || Double.isInfinite(weight)) {
+            return -1;
+        }
+
+        int cells = this.cellsPerAxis(this.maxZoom);
+        int cellX = (int) Math.min(cells - 1, Math.max(0, (long) (ClusterPoints.longitudeToX(longitude) * cells)));
+        int cellY = (int) Math.min(cells - 1, Math.max(0, (long) (ClusterPoints.latitudeToY(latitude) * cells)));
+        long key = key(cellX, cellY);
+
+        for (int zoom = this.maxZoom; zoom >= 0; zoom--) {
+            Level level = this.levels[zoom];
+            if (level != null) {
+                int shift = this.maxZoom - zoom;
+                level.add(key(cellX >> shift, cellY >> shift), weight);
+            }
+        }
+        return key;
+    }
+
+    /**
+     * 预先合并所有缩放级别的网格，避免第一次渲染低缩放级别的瓦片时在渲染线程中合并。
+     */
+    public void buildLevels() {
+        this.level(0);
+    }
+
+    public void clear() {
+        Arrays.fill(this.levels, null);
+        this.levels[this.maxZoom] = new Level(16);
+    }
+
+    /**
+     * 有权重的网格数量，包括权重被减为 0 的网格。
+     */
+    public int size() {
+        return this.levels[this.maxZoom].size;
+    }
+
+    /**
+     * 某个缩放级别的网格权重的最大值。权重减小后不会重新计算，只用于颜色映射。
+     */
+    public double getMaxWeight(int zoom) {
+        return this.level(zoom).max;
+    }
+
+    /**
+     * 已合并的缩放级别的网格权重最大值，尚未合并的缩放级别为 0，不会触发合并。
+     */
+    public double[] getMaxWeights() {
+        double[] max = new double[this.levels.length];
+        for (int zoom = 0; zoom < this.levels.length; zoom++) {
+            if (this.levels[zoom] != null) {
+                max[zoom] = this.levels[zoom].max;
+            }
+        }
+        return max;
+    }
+
+    /**
+     * 读取某个缩放级别中从 (cellX, cellY) 开始的 width * height 个网格的权重，超出地图范围的网格权重为 0。
+     *
+     * @param out 按行排列的权重，长度至少为 width * height
+     * @return 读取的网格中有正权重时返回 true
+     */
+    public boolean read(int zoom, int cellX, int cellY, int width, int height, double[] out) {
+        Level level = this.level(zoom);
+        int cells = this.cellsPerAxis(zoom);
+        boolean any = false;
+
+        Arrays.fill(out, 0, width * height, 0);
+        if (level.size == 0) {
+            return false;
+        }
+
+        for (int row = 0; row < height; row++) {
+            int y = cellY + row;
+            if (y < 0 || y >= cells) {
+                continue;
+            }
+            for (int column = 0; column < width; column++) {
+                int x = cellX + column;
+                if (x < 0 || x >= cells) {
+                    continue;
+                }
+                double weight = level.get(key(x, y));
+                if (weight > 0) {
+                    out[row * width + column] = weight;
+                    any = true;
+                }
+            }
+        }
+        return any;
+    }
+
+    private Level level(int zoom) {
+        if (zoom < 0 || zoom > this.maxZoom) {
+            throw new IllegalArgumentException("zoom is out of range");
+        }
+
+        Level level = this.levels[zoom];
+        if (level == null) {
+            // 由上一级合并，每次减少 3/4 左右的网格
+            Level finer = this.level(zoom + 1);
+            level = new Level(Math.max(16, finer.size / 2));
+            for (int i = 0; i < finer.keys.length; i++) {
+                long key = finer.keys[i];
+                if (key != Level.EMPTY) {
+                    level.add(key((int) (key >>> 32) >> 1, (int) key >> 1), finer.values[i]);
+                }
+            }
+            this.levels[zoom] = level;
+        }
+        return level;
+    }
+
+    static long key(int cellX, int cellY) {
+        return ((long) cellX << 32) | (cellY & 0xffffffffL);
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * 开放寻址的 long -> double 哈希表，避免为几十万个网格装箱。
+     */
+    private static final class Level {
+        private static final long EMPTY = Long.MIN_VALUE;
+
+        private long[] keys;
+        private double[] values;
+        private int size;
+        private double max;
+
+        private Level(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(expected * 2, 16) - 1) << 1;
+            this.keys = new long[capacity];
+            this.values = new double[capacity];
+            Arrays.fill(this.keys, EMPTY);
+        }
+
+        private double get(long key) {
+            int mask = this.keys.length - 1;
+            int slot = (int) mix(key) & mask;
+            while (this.keys[slot] != EMPTY) {
+                if (this.keys[slot] == key) {
+                    return this.values[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            return 0;
+        }
+
+        private void add(long key, double weight) {
+            if ((this.size + 1) * 2 > this.keys.length) {
+                this.grow();
+            }
+
+            int mask = this.keys.length - 1;
+            int slot = (int) mix(key) & mask;
+            while (this.keys[slot] != EMPTY && this.keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            if (this.keys[slot] == EMPTY) {
+                this.keys[slot] = key;
+                this.size++;
+            }
+
+            double value = this.values[slot] + weight;
+            this.values[slot] = value;
+            if (value > this.max) {
+                this.max = value;
+            }
+        }
+
+        private void grow() {
+            long[] oldKeys = this.keys;
+            double[] oldValues = this.values;
+            this.keys = new long[oldKeys.length * 2];
+            this.values = new double[oldKeys.length * 2];
+            Arrays.fill(this.keys, EMPTY);
+
+            int mask = this.keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY) {
+                    int slot = (int) mix(oldKeys[i]) & mask;
+                    while (this.keys[slot] != EMPTY) {
+                        slot = (slot + 1) & mask;
+                    }
+                    this.keys[slot] = oldKeys[i];
+                    this.values[slot] = oldValues[i];
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,387 @@
+package site.snewbie.plugins.amap.heatmap;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import lombok.Getter;
+import site.snewbie.plugins.amap.tile.TileKey;
+import site.snewbie.plugins.amap.tile.TileMemoryCache;
+
+/**
+ * 热力图图层：网格聚合、瓦片渲染和瓦片缓存。
+ * <p>
+ * 渲染瓦片时只读取瓦片及其周围一个半径范围内的网格，先在网格上做可分离的高斯模糊，再插值到像素并按渐变色查表。
+ * 渲染结果按缩放级别和行列号缓存，权重更新时只移除受影响的瓦片，样式变化时清空缓存。
+ * <p>
+ * 所有方法都是线程安全的：数据更新在地图的后台线程中执行，{@link #getTile} 由 SDK 在多个线程中同时调用。
+ * 读取网格时持有锁，模糊、着色和编码在锁外执行。
+ */
+public class HeatmapLayer {
+    public static final int TILE_SIZE = 256;
+    public static final int DEFAULT_CELL_SIZE = 4;
+    public static final int DEFAULT_MAX_ZOOM = 18;
+    public static final long DEFAULT_CACHE_BYTES = 8L * 1024 * 1024;
+    public static final int STRIDE = 3;
+
+    /**
+     * 一次更新的点数超过该值时直接清空缓存，逐个计算受影响的瓦片反而更慢。
+     */
+    private static final int MAX_INCREMENTAL_INVALIDATION = 4096;
+    private static final byte[] EMPTY_TILE = new byte[0];
+
+    private final HeatmapGrid grid;
+    private final Encoder encoder;
+    private final TileMemoryCache<byte[]> cache;
+    private final AtomicLong renderedTiles = new AtomicLong();
+    private final AtomicLong renderNanos = new AtomicLong();
+
+    private HeatmapStyle style;
+    /**
+     * 数据或样式每次变化时加 1，渲染期间发生变化的瓦片不写入缓存。
+     */
+    private long generation;
+
+    /**
+     * @param cacheBytes 已编码瓦片的缓存大小，单位：字节
+     */
+    public HeatmapLayer(int cellSize, int maxZoom, long cacheBytes, HeatmapStyle style, Encoder encoder) {
+        this.grid = new HeatmapGrid(cellSize, maxZoom);
+        this.cache = new TileMemoryCache<>(cacheBytes, tile -> tile.length);
+        this.style = style != null ? style : new HeatmapStyle();
+        this.encoder = encoder;
+    }
+
+    /**
+     * 替换所有点。
+     *
+     * @param values 按 [lat, lng, weight] 排列的点
+     */
+    public void setPoints(double[] values) {
+        checkStride(values);
+        synchronized (this.grid) {
+            this.grid.clear();
+            for (int i = 0; i + 2 < values.length; i += STRIDE) {
+                this.grid.add(values[i], values[i + 1], values[i + 2]);
+            }
+            this.grid.buildLevels();
+            this.generation++;
+        }
+        this.cache.clear();
+    }
+
+    /**
+     * 在已有的点上累加权重，权重为负数时减去之前写入的权重。只移除受影响的缓存瓦片；
+     * 未设置 maxIntensity 时颜色按缩放级别的最大权重映射，最大权重变化的缩放级别的瓦片全部移除。
+     *
+     * @param values 按 [lat, lng, weight] 排列的点
+     */
+    public void addWeights(double[] values) {
+        checkStride(values);
+        int count = values.length / STRIDE;
+        Set<Long> cells = count <= MAX_INCREMENTAL_INVALIDATION ? new HashSet<>() : null;
+        HeatmapStyle style;
+        double[] maxBefore;
+        double[] maxAfter;
+
+        synchronized (this.grid) {
+            maxBefore = this.grid.getMaxWeights();
+            for (int i = 0; i + 2 < values.length; i += STRIDE) {
+                long cell = this.grid.add(values[i], values[i + 1], values[i + 2]);
+                if (cells != null && cell >= 0) {
+                    cells.add(cell);
+                }
+            }
+            maxAfter = this.grid.getMaxWeights();
+            this.generation++;
+            style = this.style;
+        }
+
+        if (cells == null) {
+            this.cache.clear();
+            return;
+        }
+        if (style.getMaxIntensity() <= 0) {
+            this.invalidateRescaled(maxBefore, maxAfter);
+        }
+        this.invalidate(cells, style);
+    }
+
+    public void setStyle(HeatmapStyle style) {
+        synchronized (this.grid) {
+            this.style = style;
+            this.generation++;
+        }
+        this.cache.clear();
+    }
+
+    public HeatmapStyle getStyle() {
+        synchronized (this.grid) {
+            return this.style;
+        }
+    }
+
+    /**
+     * 渲染或从缓存读取瓦片。
+     *
+     * @return 编码后的瓦片，瓦片中没有热力时返回 null
+     */
+    public byte[] getTile(int x, int y, int zoom) throws Exception {
+        long key = TileKey.pack(zoom, x, y);
+        byte[] cached = this.cache.get(key);
+        if (cached != null) {
+            return cached.length > 0 ? cached : null;
+        }
+
+        long start = System.nanoTime();
+        int level = Math.min(zoom, this.grid.getMaxZoom());
+        double cellPx = this.grid.getCellSize() * Math.pow(2, zoom - level);
+        double originX = x * (TILE_SIZE / cellPx);
+        double originY = y * (TILE_SIZE / cellPx);
+
+        HeatmapStyle style;
+        long generation;
+        double max;
+        double[] weights;
+        int cellX;
+        int cellY;
+        int span;
+        boolean any;
+        synchronized (this.grid) {
+            style = this.style;
+            generation = this.generation;
+
+            int margin = margin(style, cellPx);
+            cellX = (int) Math.floor(originX) - margin;
+            cellY = (int) Math.floor(originY) - margin;
+            span = (int) Math.ceil(TILE_SIZE / cellPx) + 2 * margin + 1;
+            weights = new double[span * span];
+            any = this.grid.read(level, cellX, cellY, span, span, weights);
+            max = style.getMaxIntensity() > 0 ? style.getMaxIntensity() : this.grid.getMaxWeight(level);
+        }
+
+        byte[] tile = EMPTY_TILE;
+        if (any && max > 0) {
+            int[] pixels = render(weights, span, originX - cellX, originY - cellY, cellPx, style, max);
+            if (pixels != null) {
+                tile = this.encoder.encode(pixels, TILE_SIZE);
+            }
+        }
+
+        synchronized (this.grid) {
+            if (generation == this.generation) {
+                this.cache.put(key, tile);
+            }
+        }
+
+        this.renderedTiles.incrementAndGet();
+        this.renderNanos.addAndGet(System.nanoTime() - start);
+        return tile.length > 0 ? tile : null;
+    }
+
+    public void clearCache() {
+        this.cache.clear();
+    }
+
+    public Stats getStats() {
+        int cells;
+        synchronized (this.grid) {
+            cells = this.grid.size();
+        }
+        return new Stats(cells, this.renderedTiles.get(), this.renderNanos.get(), this.cache.getStats());
+    }
+
+    /**
+     * 移除最大权重发生变化的缩放级别的缓存瓦片，这些瓦片的颜色映射已经过时。
+     */
+    private void invalidateRescaled(double[] maxBefore, double[] maxAfter) {
+        Set<Integer> zooms = new HashSet<>();
+        for (long key : this.cache.keys()) {
+            zooms.add(TileKey.zoom(key));
+        }
+
+        int maxZoom = this.grid.getMaxZoom();
+        for (int zoom : zooms) {
+            int level = Math.min(zoom, maxZoom);
+            if (maxBefore[level] != maxAfter[level]) {
+                this.cache.removeZoom(zoom);
+            }
+        }
+    }
+
+    /**
+     * 移除读取过这些网格的缓存瓦片，范围与 {@link #getTile} 读取的网格范围一致。
+     */
+    private void invalidate(Set<Long> cells, HeatmapStyle style) {
+        Set<Integer> zooms = new HashSet<>();
+        for (long key : this.cache.keys()) {
+            zooms.add(TileKey.zoom(key));
+        }
+
+        int maxZoom = this.grid.getMaxZoom();
+        for (int zoom : zooms) {
+            int level = Math.min(zoom, maxZoom);
+            int shift = maxZoom - level;
+            double cellPx = this.grid.getCellSize() * Math.pow(2, zoom - level);
+            int margin = margin(style, cellPx) + 1;
+            long tiles = 1L << zoom;
+
+            for (long cell : cells) {
+                int cellX = (int) (cell >>> 32) >> shift;
+                int cellY = (int) cell >> shift;
+                int fromX = (int) Math.max(0, Math.floor((cellX - margin) * cellPx / TILE_SIZE));
+                int toX = (int) Math.min(tiles - 1, Math.floor((cellX + 1 + margin) * cellPx / TILE_SIZE));
+                int fromY = (int) Math.max(0, Math.floor((cellY - margin) * cellPx / TILE_SIZE));
+                int toY = (int) Math.min(tiles - 1, Math.floor((cellY + 1 + margin) * cellPx / TILE_SIZE));
+
+                for (int x = fromX; x <= toX; x++) {
+                    for (int y = fromY; y <= toY; y++) {
+                        this.cache.remove(TileKey.pack(zoom, x, y));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 模糊和插值需要的网格外边距，单位：网格。
+     */
+    private static int margin(HeatmapStyle style, double cellPx) {
+        return (int) Math.ceil(style.getRadius() / cellPx) + 1;
+    }
+
+    /**
+     * @param offsetX 瓦片左上角相对于 weights 左上角的位置，单位：网格
+     * @return 非预乘的 ARGB 像素，瓦片完全透明时返回 null
+     */
+    static int[] render(double[] weights, int span, double offsetX, double offsetY, double cellPx, HeatmapStyle style, double max) {
+        double[] intensities = blur(weights, span, style.getRadius() / 3.0 / cellPx);
+
+        // 每个像素中心对应的网格坐标，网格的值位于网格中心
+        int[] columns = new int[TILE_SIZE];
+        double[] columnRatios = new double[TILE_SIZE];
+        int[] rows = new int[TILE_SIZE];
+        double[] rowRatios = new double[TILE_SIZE];
+        for (int p = 0; p < TILE_SIZE; p++) {
+            double u = offsetX + (p + 0.5) / cellPx - 0.5;
+            columns[p] = (int) Math.floor(u);
+            columnRatios[p] = u - columns[p];
+
+            double v = offsetY + (p + 0.5) / cellPx - 0.5;
+            rows[p] = (int) Math.floor(v);
+            rowRatios[p] = v - rows[p];
+        }
+
+        HeatmapGradient gradient = style.getGradient();
+        double opacity = style.getOpacity();
+        double threshold = max / 1000;
+        int[] pixels = new int[TILE_SIZE * TILE_SIZE];
+        boolean any = false;
+
+        for (int py = 0; py < TILE_SIZE; py++) {
+            int top = rows[py] * span;
+            int bottom = top + span;
+            double fy = rowRatios[py];
+
+            for (int px = 0; px < TILE_SIZE; px++) {
+                int i = columns[px];
+                double fx = columnRatios[px];
+                double value = (intensities[top + i] * (1 - fx) + intensities[top + i + 1] * fx) * (1 - fy)
+                        + (intensities[bottom + i] * (1 - fx) + intensities[bottom + i + 1] * fx) * fy;
+                if (value < threshold) {
+                    continue;
+                }
+
+                int color = gradient.colorOf(Math.min(1, value / max));
+                int alpha = (int) Math.round((color >>> 24) * opacity);
+                if (alpha > 0) {
+                    pixels[py * TILE_SIZE + px] = (alpha << 24) | (color & 0x00ffffff);
+                    any = true;
+                }
+            }
+        }
+        return any ? pixels : null;
+    }
+
+    /**
+     * 可分离的高斯模糊，核的中心值为 1，孤立网格模糊后的峰值等于其权重。
+     *
+     * @param sigma 标准差，单位：网格
+     */
+    static double[] blur(double[] weights, int span, double sigma) {
+        int radius = (int) Math.ceil(3 * sigma);
+        if (sigma < 0.25 || radius == 0) {
+            return weights;
+        }
+
+        double[] kernel = new double[radius * 2 + 1];
+        for (int i = -radius; i <= radius; i++) {
+            kernel[i + radius] = Math.exp(-(i * i) / (2 * sigma * sigma));
+        }
+
+        double[] horizontal = new double[weights.length];
+        for (int row = 0; row < span; row++) {
+            int base = row * span;
+            for (int column = 0; column < span; column++) {
+                double weight = weights[base + column];
+                if (weight == 0) {
+                    continue;
+                }
+                int from = Math.max(0, column - radius);
+                int to = Math.min(span - 1, column + radius);
+                for (int c = from; c <= to; c++) {
+                    horizontal[base + c] += weight * kernel[c - column + radius];
+                }
+            }
+        }
+
+        double[] result = new double[weights.length];
+        for (int row = 0; row < span; row++) {
+            int from = Math.max(0, row - radius);
+            int to = Math.min(span - 1, row + radius);
+            for (int r = from; r <= to; r++) {
+                double factor = kernel[r - row + radius];
+                int source = row * span;
+                int target = r * span;
+                for (int column = 0; column < span; column++) {
+                    result[target + column] += horizontal[source + column] * factor;
+                }
+            }
+        }
+        return result;
+    }
+
+    private static void checkStride(double[] values) {
+        if (values.length % STRIDE != 0) {
+            throw new IllegalArgumentException("points length must be a multiple of " + STRIDE);
+        }
+    }
+
+    public interface Encoder {
+        /**
+         * 把 size * size 个非预乘的 ARGB 像素编码为瓦片图片。
+         */
+        byte[] encode(int[] pixels, int size) throws Exception;
+    }
+
+    @Getter
+    public static class Stats {
+        /**
+         * 最大缩放级别中有权重的网格数量。
+         */
+        private final int cells;
+        private final long renderedTiles;
+        /**
+         * 渲染和编码瓦片的总耗时，单位：纳秒。
+         */
+        private final long renderNanos;
+        private final TileMemoryCache.Stats cache;
+
+        public Stats(int cells, long renderedTiles, long renderNanos, TileMemoryCache.Stats cache) {
+            this.cells = cells;
+            this.renderedTiles = renderedTiles;
+            this.renderNanos = renderNanos;
+            this.cache = cache;
+        }
+    }
+}
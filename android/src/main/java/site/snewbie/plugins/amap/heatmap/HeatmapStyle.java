@@ -0,0 +1,40 @@
+package site.snewbie.plugins.amap.heatmap;
+
+import lombok.Getter;
+
+/**
+ * 热力图的渲染参数，创建后不再修改。
+ */
+@Getter
+public class HeatmapStyle {
+    public static final int DEFAULT_RADIUS = 12;
+    public static final double DEFAULT_OPACITY = 0.6;
+
+    private final int radius;
+    private final HeatmapGradient gradient;
+    private final double opacity;
+    private final double maxIntensity;
+
+    /**
+     * @param radius       每个点影响的半径，单位：像素
+     * @param opacity      不透明度，0 到 1
+     * @param maxIntensity 颜色最深时对应的权重，不大于 0 时使用当前缩放级别网格权重的最大值
+     */
+    public HeatmapStyle(int radius, HeatmapGradient gradient, double opacity, double maxIntensity) {
+        if (radius < 1 || radius > 64) {
+            throw new IllegalArgumentException("radius must be between 1 and 64");
+        }
+        if (opacity < 0 || opacity > 1) {
+            throw new IllegalArgumentException("opacity must be between 0 and 1");
+        }
+
+        this.radius = radius;
+        this.gradient = gradient != null ? gradient : HeatmapGradient.DEFAULT;
+        this.opacity = opacity;
+        this.maxIntensity = maxIntensity;
+    }
+
+    public HeatmapStyle() {
+        this(DEFAULT_RADIUS, HeatmapGradient.DEFAULT, DEFAULT_OPACITY, 0);
+    }
+}
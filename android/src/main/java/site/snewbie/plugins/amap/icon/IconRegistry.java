@@ -0,0 +1,281 @@
+package site.snewbie.plugins.amap.icon;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+import lombok.Getter;
+
+/**
+ * Marker 图标的缓存。解码后的图标按 {@link IconSpec#getKey()} 缓存在内存中，按占用的字节数 LRU 淘汰；
+ * 解码在传入的线程池中执行，相同的图标同时只解码一次，其余请求共享结果。只缓存解码成功的图标。
+ * 该类是线程安全的，回调在解码线程中执行，命中缓存时在调用线程中执行。
+ */
+public class IconRegistry<V> {
+    public static final long DEFAULT_MAX_BYTES = 16L * 1024 * 1024;
+
+    private final long maxBytes;
+    private final Sizer<V> sizer;
+    private final Decoder<V> decoder;
+    private final Executor executor;
+
+    private final LinkedHashMap<String, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, List<Callback<V>>> inFlight = new HashMap<>();
+    private long bytes;
+
+    private long hits;
+    private long misses;
+    private long joined;
+    private long failures;
+    private long evictions;
+
+    /**
+     * @param maxBytes 缓存的图标最多占用的字节数，超过时淘汰最久未使用的图标
+     */
+    public IconRegistry(long maxBytes, Sizer<V> sizer, Decoder<V> decoder, Executor executor) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("maxBytes must be greater than 0");
+        }
+
+        this.maxBytes = maxBytes;
+        this.sizer = sizer;
+        this.decoder = decoder;
+        this.executor = executor;
+    }
+
+    /**
+     * 只查询缓存，不会开始解码。
+     */
+    public synchronized V getIfPresent(IconSpec spec) {
+        Entry<V> entry = this.entries.get(spec.getKey());
+        return entry != null ? entry.value : null;
+    }
+
+    /**
+     * 获取图标，未缓存时在线程池中解码。
+     */
+    public void load(IconSpec spec, Callback<V> callback) {
+        String key = spec.getKey();
+
+        V cached = null;
+        synchronized (this) {
+            Entry<V> entry = this.entries.get(key);
+            if (entry != null) {
+                this.hits++;
+                cached = entry.value;
+            } else {
+                List<Callback<V>> waiting = this.inFlight.get(key);
+                if (waiting != null) {
+                    // 相同的图标正在解码，共享结果
+                    waiting.add(callback);
+                    this.joined++;
+                    return;
+                }
+
+                waiting = new ArrayList<>(1);
+                waiting.add(callback);
+                this.inFlight.put(key, waiting);
+                this.misses++;
+            }
+        }
+
+        if (cached != null) {
+            callback.onLoaded(spec, cached);
+            return;
+        }
+
+        try {
+            this.executor.execute(() -> this.decode(spec));
+        } catch (Exception e) {
+            // 线程池已关闭
+            this.complete(spec, null, e);
+        }
+    }
+
+    /**
+     * 获取多个图标，所有图标都加载完成或失败后回调一次，重复的图标只加载一次。
+     */
+    public void loadAll(Collection<IconSpec> specs, BatchCallback<V> callback) {
+        Set<IconSpec> unique = new LinkedHashSet<>(specs);
+        Map<IconSpec, V> loaded = new HashMap<>();
+        Map<IconSpec, Exception> failed = new HashMap<>();
+        if (unique.isEmpty()) {
+            callback.onComplete(loaded, failed);
+            return;
+        }
+
+        int[] remaining = {unique.size()};
+        Callback<V> each = new Callback<V>() {
+            @Override
+            public void onLoaded(IconSpec spec, V value) {
+                this.done(spec, value, null);
+            }
+
+            @Override
+            public void onError(IconSpec spec, Exception e) {
+                this.done(spec, null, e);
+            }
+
+            private void done(IconSpec spec, V value, Exception e) {
+                boolean last;
+                synchronized (remaining) {
+                    if (e == null) {
+                        loaded.put(spec, value);
+                    } else {
+                        failed.put(spec, e);
+                    }
+                    last = --remaining[0] == 0;
+                }
+                if (last) {
+                    callback.onComplete(loaded, failed);
+                }
+            }
+        };
+
+        for (IconSpec spec : unique) {
+            this.load(spec, each);
+        }
+    }
+
+    /**
+     * 清空缓存，正在进行的解码不受影响。
+     */
+    public synchronized void clear() {
+        this.entries.clear();
+        this.bytes = 0;
+    }
+
+    public synchronized Stats getStats() {
+        return new Stats(this.entries.size(), this.bytes, this.maxBytes, this.hits, this.misses, this.joined, this.failures, this.evictions);
+    }
+
+    private void decode(IconSpec spec) {
+        V value;
+        try {
+            value = this.decoder.decode(spec);
+            if (value == null) {
+                throw new IllegalStateException("unable to decode icon " + spec);
+            }
+        } catch (Exception e) {
+            this.complete(spec, null, e);
+            return;
+        } catch (OutOfMemoryError e) {
+            // 等待中的回调必须完成，否则依赖它的 Marker 操作会一直排队
+            this.complete(spec, null, new IllegalStateException("out of memory decoding icon " + spec, e));
+            return;
+        }
+        this.complete(spec, value, null);
+    }
+
+    private void complete(IconSpec spec, V value, Exception error) {
+        List<Callback<V>> waiting;
+        synchronized (this) {
+            waiting = this.inFlight.remove(spec.getKey());
+            if (value != null) {
+                this.put(spec.getKey(), value);
+            } else {
+                this.failures++;
+            }
+        }
+
+        if (waiting != null) {
+            for (Callback<V> callback : waiting) {
+                if (value != null) {
+                    callback.onLoaded(spec, value);
+                } else {
+                    callback.onError(spec, error);
+                }
+            }
+        }
+    }
+
+    private void put(String key, V value) {
+        long size = Math.max(0, this.sizer.sizeOf(value));
+        if (size > this.maxBytes) {
+            // 单个图标超过缓存上限时不缓存，只返回给本次请求
+            return;
+        }
+
+        Entry<V> previous = this.entries.put(key, new Entry<>(value, size));
+        if (previous != null) {
+            this.bytes -= previous.size;
+        }
+        this.bytes += size;
+
+        while (this.bytes > this.maxBytes) {
+            Map.Entry<String, Entry<V>> eldest = this.entries.entrySet().iterator().next();
+            this.entries.remove(eldest.getKey());
+            this.bytes -= eldest.getValue().size;
+            this.evictions++;
+        }
+    }
+
+    public interface Decoder<V> {
+        /**
+         * 在解码线程中执行，按图标描述的尺寸和缩放比例解码图片。
+         */
+        V decode(IconSpec spec) throws Exception;
+    }
+
+    public interface Sizer<V> {
+        long sizeOf(V value);
+    }
+
+    public interface Callback<V> {
+        void onLoaded(IconSpec spec, V value);
+
+        void onError(IconSpec spec, Exception e);
+    }
+
+    public interface BatchCallback<V> {
+        void onComplete(Map<IconSpec, V> loaded, Map<IconSpec, Exception> failed);
+    }
+
+    @Getter
+    public static class Stats {
+        private final int entries;
+        /**
+         * 缓存的图标占用的字节数。
+         */
+        private final long bytes;
+        private final long maxBytes;
+        private final long hits;
+        /**
+         * 实际解码的次数。
+         */
+        private final long misses;
+        /**
+         * 共享进行中解码的次数。
+         */
+        private final long joined;
+        private final long failures;
+        private final long evictions;
+
+        public Stats(int entries, long bytes, long maxBytes, long hits, long misses, long joined, long failures, long evictions) {
+            this.entries = entries;
+            this.bytes = bytes;
+            this.maxBytes = maxBytes;
+            this.hits = hits;
+            this.misses = misses;
+            this.joined = joined;
+            this.failures = failures;
+            this.evictions = evictions;
+        }
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long size;
+
+        private Entry(V value, long size) {
+            this.value = value;
+            this.size = size;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package site.snewbie.plugins.amap.icon;
+
+import lombok.Getter;
+
+/**
+ * Marker 图标的描述：图片来源、显示尺寸和屏幕缩放比例，相同描述的图标只解码一次。
+ * <p>
+ * 图片来源支持三种形式：{@code data:image/png;base64,...} 形式的 data URI，
+ * {@code file://} 开头或以 {@code /} 开头的绝对路径，以及其它视为 Web 资源目录中的相对路径。
+ */
+@Getter
+public final class IconSpec {
+    private static final String DATA_PREFIX = "data:";
+    private static final String BASE64_MARKER = ";base64,";
+    private static final String FILE_PREFIX = "file://";
+
+    private final String uri;
+    private final float width;
+    private final float height;
+    private final float scale;
+    /**
+     * 缓存键，同一张图片不同尺寸或缩放比例的图标分别缓存。
+     */
+    private final String key;
+
+    /**
+     * @param width  显示宽度，单位：CSS 像素，不大于 0 时按高度等比缩放，宽高都未设置时使用图片原始尺寸
+     * @param height 显示高度，单位：CSS 像素
+     * @param scale  CSS 像素与物理像素的比例
+     */
+    public IconSpec(String uri, float width, float height, float scale) {
+        if (uri == null || uri.isEmpty()) {
+            throw new IllegalArgumentException("icon uri must not be empty");
+        }
+        if (!(scale > 0)) {
+            throw new IllegalArgumentException("scale must be greater than 0");
+        }
+        if (uri.startsWith(DATA_PREFIX) && !uri.contains(BASE64_MARKER)) {
+            throw new IllegalArgumentException("only base64 data uri is supported");
+        }
+
+        this.uri = uri;
+        this.width = Math.max(0, width);
+        this.height = Math.max(0, height);
+        this.scale = scale;
+        this.key = uri + "|" + this.width + "x" + this.height + "@" + scale;
+    }
+
+    public Type getType() {
+        if (this.uri.startsWith(DATA_PREFIX)) {
+            return Type.DATA;
+        }
+        if (this.uri.startsWith(FILE_PREFIX) || this.uri.startsWith("/")) {
+            return Type.FILE;
+        }
+        return Type.ASSET;
+    }
+
+    /**
+     * data URI 中 base64 编码的图片数据。
+     */
+    public String getData() {
+        return this.uri.substring(this.uri.indexOf(BASE64_MARKER) + BASE64_MARKER.length());
+    }
+
+    /**
+     * 文件的绝对路径，或去掉开头斜杠的资源路径。
+     */
+    public String getPath() {
+        if (this.uri.startsWith(FILE_PREFIX)) {
+            return this.uri.substring(FILE_PREFIX.length());
+        }
+        if (this.getType() == Type.ASSET && this.uri.startsWith("./")) {
+            return this.uri.substring(2);
+        }
+        return this.uri;
+    }
+
+    /**
+     * 按显示尺寸和缩放比例计算解码后的像素尺寸，只设置了宽或高时按图片比例计算另一边。
+     *
+     * @return 宽和高，都至少为 1
+     */
+    public int[] targetSize(int naturalWidth, int naturalHeight) {
+        float w = this.width;
+        float h = this.height;
+        if (w <= 0 && h <= 0) {
+            w = naturalWidth;
+            h = naturalHeight;
+        } else if (w <= 0) {
+            w = naturalHeight > 0 ? h * naturalWidth / naturalHeight : h;
+        } else if (h <= 0) {
+            h = naturalWidth > 0 ? w * naturalHeight / naturalWidth : w;
+        }
+        return new int[]{Math.max(1, Math.round(w * this.scale)), Math.max(1, Math.round(h * this.scale))};
+    }
+
+    /**
+     * 解码时的采样率：不超过原始尺寸与目标尺寸比例的最大的 2 的幂，采样后再缩放到目标尺寸。
+     */
+    public static int sampleSize(int naturalWidth, int naturalHeight, int targetWidth, int targetHeight) {
+        int sample = 1;
+        while (naturalWidth / (sample * 2) >= targetWidth && naturalHeight / (sample * 2) >= targetHeight) {
+            sample *= 2;
+        }
+        return sample;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof IconSpec && this.key.equals(((IconSpec) o).key));
+    }
+
+    @Override
+    public int hashCode() {
+        return this.key.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return this.getType() == Type.DATA ? "data uri (" + this.uri.length() + " chars)" : this.uri;
+    }
+
+    public enum Type {
+        DATA,
+        FILE,
+        ASSET
+    }
+}
@@ -0,0 +1,40 @@
+package site.snewbie.plugins.amap.offline;
+
+/**
+ * 离线地图的下载器，按城市编码下载。{@link OfflineScheduler} 只通过该接口控制下载，
+ * 实际下载由 SDK 完成，测试中可以替换为假的实现。
+ */
+public interface OfflineDownloader {
+    /**
+     * 设置下载进度的回调，只调用一次。回调必须在调度器所在的线程中执行。
+     */
+    void setListener(Listener listener);
+
+    /**
+     * 开始或继续下载。
+     */
+    void download(String cityCode) throws Exception;
+
+    void pause(String cityCode);
+
+    /**
+     * 删除已下载或下载中的数据。
+     */
+    void remove(String cityCode);
+
+    /**
+     * 离线包的大小，单位：字节，未知时返回 0。
+     */
+    long getSize(String cityCode);
+
+    interface Listener {
+        /**
+         * @param progress 下载进度，0 到 100
+         */
+        void onProgress(String cityCode, int progress);
+
+        void onCompleted(String cityCode);
+
+        void onFailed(String cityCode, String message);
+    }
+}
@@ -0,0 +1,401 @@
+package site.snewbie.plugins.amap.offline;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import lombok.Getter;
+
+/**
+ * 离线地图的下载调度器。
+ * <p>
+ * 排队的任务按优先级从高到低开始下载，优先级相同时先加入的先下载，同时下载的任务数量不超过 maxConcurrent。
+ * 开始下载前检查剩余磁盘空间，空间不足的任务直接失败，不会重试；下载失败的任务按指数退避重试 maxRetries 次。
+ * 状态变化总是回调，进度回调按 progressInterval 节流。
+ * 该类不是线程安全的，所有方法以及下载器和定时器的回调都必须在同一个线程中执行。
+ */
+public class OfflineScheduler implements OfflineDownloader.Listener {
+    public static final int DEFAULT_MAX_CONCURRENT = 1;
+    public static final int DEFAULT_MAX_RETRIES = 3;
+    public static final long DEFAULT_RETRY_DELAY_MILLIS = 5_000;
+    public static final long MAX_RETRY_DELAY_MILLIS = 5 * 60_000;
+    public static final long DEFAULT_PROGRESS_INTERVAL_MILLIS = 1_000;
+    /**
+     * 下载完成后磁盘上至少保留的剩余空间，单位：字节。
+     */
+    public static final long DEFAULT_RESERVED_BYTES = 50L * 1024 * 1024;
+
+    public static final String ERROR_INSUFFICIENT_SPACE = "insufficient disk space";
+
+    private final OfflineDownloader downloader;
+    private final Timer timer;
+    private final Clock clock;
+    private final DiskSpace diskSpace;
+    private final Listener listener;
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+    private int maxConcurrent = DEFAULT_MAX_CONCURRENT;
+    private int maxRetries = DEFAULT_MAX_RETRIES;
+    private long retryDelayMillis = DEFAULT_RETRY_DELAY_MILLIS;
+    private long progressIntervalMillis = DEFAULT_PROGRESS_INTERVAL_MILLIS;
+    private long reservedBytes = DEFAULT_RESERVED_BYTES;
+
+    private int active;
+    private long sequence;
+
+    public OfflineScheduler(OfflineDownloader downloader, Timer timer, Clock clock, DiskSpace diskSpace, Listener listener) {
+        this.downloader = downloader;
+        this.timer = timer;
+        this.clock = clock;
+        this.diskSpace = diskSpace;
+        this.listener = listener;
+        downloader.setListener(this);
+    }
+
+    /**
+     * 修改调度参数，增大并发数时立即开始排队的任务。
+     *
+     * @param retryDelayMillis 第一次重试前的等待时间，之后每次翻倍，最长 {@link #MAX_RETRY_DELAY_MILLIS}
+     */
+    public void configure(int maxConcurrent, int maxRetries, long retryDelayMillis, long progressIntervalMillis, long reservedBytes) {
+        if (maxConcurrent <= 0) {
+            throw new IllegalArgumentException("maxConcurrent must be greater than 0");
+        }
+        if (maxRetries < 0 || retryDelayMillis < 0 || progressIntervalMillis < 0 || reservedBytes < 0) {
+            throw new IllegalArgumentException("options must not be negative");
+        }
+
+        this.maxConcurrent = maxConcurrent;
+        this.maxRetries = maxRetries;
+        this.retryDelayMillis = retryDelayMillis;
+        this.progressIntervalMillis = progressIntervalMillis;
+        this.reservedBytes = reservedBytes;
+        this.schedule();
+    }
+
+    /**
+     * 加入下载队列。任务已存在时更新优先级，已暂停或失败的任务重新排队，已完成的任务不变。
+     *
+     * @param priority 数值越大越先下载
+     */
+    public Task enqueue(String cityCode, int priority) {
+        Entry entry = this.entries.get(cityCode);
+        if (entry == null) {
+            entry = new Entry(cityCode, priority, this.sequence++);
+            this.entries.put(cityCode, entry);
+            this.notifyState(entry);
+        } else {
+            entry.priority = priority;
+            if (entry.state == State.PAUSED || entry.state == State.FAILED) {
+                entry.attempts = 0;
+                entry.error = null;
+                this.transition(entry, State.QUEUED);
+            }
+        }
+
+        this.schedule();
+        return entry.snapshot();
+    }
+
+    /**
+     * 暂停排队中、下载中或等待重试的任务。
+     *
+     * @return 任务不存在或无法暂停时返回 false
+     */
+    public boolean pause(String cityCode) {
+        Entry entry = this.entries.get(cityCode);
+        if (entry == null) {
+            return false;
+        }
+
+        switch (entry.state) {
+            case DOWNLOADING:
+                this.downloader.pause(cityCode);
+                this.active--;
+                break;
+            case RETRY_WAIT:
+                entry.cancelRetry();
+                break;
+            case QUEUED:
+                break;
+            default:
+                return false;
+        }
+
+        this.transition(entry, State.PAUSED);
+        this.schedule();
+        return true;
+    }
+
+    /**
+     * 继续已暂停或失败的任务，失败的任务重新计算重试次数。
+     *
+     * @return 任务不存在或不需要继续时返回 false
+     */
+    public boolean resume(String cityCode) {
+        Entry entry = this.entries.get(cityCode);
+        if (entry == null || (entry.state != State.PAUSED && entry.state != State.FAILED)) {
+            return false;
+        }
+
+        if (entry.state == State.FAILED) {
+            entry.attempts = 0;
+            entry.error = null;
+        }
+        this.transition(entry, State.QUEUED);
+        this.schedule();
+        return true;
+    }
+
+    /**
+     * 移除任务并删除已下载的数据，不在队列中的城市也会删除数据。
+     *
+     * @return 任务存在时返回 true
+     */
+    public boolean remove(String cityCode) {
+        Entry entry = this.entries.remove(cityCode);
+        if (entry != null) {
+            if (entry.state == State.DOWNLOADING) {
+                this.active--;
+            }
+            entry.cancelRetry();
+        }
+
+        this.downloader.remove(cityCode);
+        if (entry != null) {
+            this.transition(entry, State.REMOVED);
+        }
+
+        this.schedule();
+        return entry != null;
+    }
+
+    /**
+     * 按加入顺序返回所有任务。
+     */
+    public List<Task> getTasks() {
+        List<Task> tasks = new ArrayList<>(this.entries.size());
+        for (Entry entry : this.entries.values()) {
+            tasks.add(entry.snapshot());
+        }
+        return tasks;
+    }
+
+    public Task getTask(String cityCode) {
+        Entry entry = this.entries.get(cityCode);
+        return entry != null ? entry.snapshot() : null;
+    }
+
+    @Override
+    public void onProgress(String cityCode, int progress) {
+        Entry entry = this.entries.get(cityCode);
+        if (entry == null || entry.state != State.DOWNLOADING) {
+            return;
+        }
+
+        entry.progress = Math.max(0, Math.min(100, progress));
+        long now = this.clock.now();
+        if (now - entry.lastProgressAt >= this.progressIntervalMillis) {
+            entry.lastProgressAt = now;
+            this.listener.onProgress(entry.snapshot());
+        }
+    }
+
+    @Override
+    public void onCompleted(String cityCode) {
+        Entry entry = this.entries.get(cityCode);
+        if (entry == null || entry.state != State.DOWNLOADING) {
+            return;
+        }
+
+        this.active--;
+        entry.progress = 100;
+        entry.error = null;
+        this.transition(entry, State.COMPLETED);
+        this.schedule();
+    }
+
+    @Override
+    public void onFailed(String cityCode, String message) {
+        Entry entry = this.entries.get(cityCode);
+        if (entry == null || entry.state != State.DOWNLOADING) {
+            return;
+        }
+
+        this.active--;
+        this.retryOrFail(entry, message);
+        this.schedule();
+    }
+
+    private void retryOrFail(Entry entry, String message) {
+        entry.error = message;
+        entry.attempts++;
+        if (entry.attempts > this.maxRetries) {
+            this.transition(entry, State.FAILED);
+            return;
+        }
+
+        long delay = Math.min(MAX_RETRY_DELAY_MILLIS, this.retryDelayMillis << Math.min(entry.attempts - 1, 20));
+        this.transition(entry, State.RETRY_WAIT);
+        entry.retry = this.timer.schedule(() -> {
+            entry.retry = null;
+            if (entry.state == State.RETRY_WAIT && this.entries.get(entry.cityCode) == entry) {
+                this.transition(entry, State.QUEUED);
+                this.schedule();
+            }
+        }, delay);
+    }
+
+    private void schedule() {
+        while (this.active < this.maxConcurrent) {
+            Entry next = null;
+            for (Entry entry : this.entries.values()) {
+                if (entry.state == State.QUEUED && (next == null || entry.priority > next.priority
+                        || (entry.priority == next.priority && entry.sequence < next.sequence))) {
+                    next = entry;
+                }
+            }
+            if (next == null) {
+                return;
+            }
+
+            this.start(next);
+        }
+    }
+
+    private void start(Entry entry) {
+        long required = this.remainingBytes(entry) + this.reservedBytes;
+        for (Entry other : this.entries.values()) {
+            if (other.state == State.DOWNLOADING) {
+                required += this.remainingBytes(other);
+            }
+        }
+        if (this.diskSpace.availableBytes() < required) {
+            entry.error = ERROR_INSUFFICIENT_SPACE;
+            this.transition(entry, State.FAILED);
+            return;
+        }
+
+        this.active++;
+        entry.lastProgressAt = Long.MIN_VALUE / 2;
+        this.transition(entry, State.DOWNLOADING);
+        try {
+            this.downloader.download(entry.cityCode);
+        } catch (Exception e) {
+            this.active--;
+            this.retryOrFail(entry, e.getMessage());
+        }
+    }
+
+    private long remainingBytes(Entry entry) {
+        return this.downloader.getSize(entry.cityCode) * (100 - entry.progress) / 100;
+    }
+
+    private void transition(Entry entry, State state) {
+        entry.state = state;
+        this.notifyState(entry);
+    }
+
+    private void notifyState(Entry entry) {
+        this.listener.onStateChanged(entry.snapshot());
+    }
+
+    public enum State {
+        QUEUED,
+        DOWNLOADING,
+        PAUSED,
+        /**
+         * 下载失败，等待重试。
+         */
+        RETRY_WAIT,
+        COMPLETED,
+        /**
+         * 重试次数用尽或磁盘空间不足，需要手动继续。
+         */
+        FAILED,
+        REMOVED
+    }
+
+    public interface Listener {
+        void onStateChanged(Task task);
+
+        void onProgress(Task task);
+    }
+
+    public interface Timer {
+        Cancellable schedule(Runnable task, long delayMillis);
+    }
+
+    public interface Cancellable {
+        void cancel();
+    }
+
+    public interface Clock {
+        long now();
+    }
+
+    public interface DiskSpace {
+        /**
+         * 离线地图所在磁盘的剩余空间，单位：字节。
+         */
+        long availableBytes();
+    }
+
+    @Getter
+    public static class Task {
+        private final String cityCode;
+        private final int priority;
+        private final State state;
+        /**
+         * 下载进度，0 到 100。
+         */
+        private final int progress;
+        /**
+         * 已失败的次数。
+         */
+        private final int attempts;
+        /**
+         * 最后一次失败的原因。
+         */
+        private final String error;
+
+        public Task(String cityCode, int priority, State state, int progress, int attempts, String error) {
+            this.cityCode = cityCode;
+            this.priority = priority;
+            this.state = state;
+            this.progress = progress;
+            this.attempts = attempts;
+            this.error = error;
+        }
+    }
+
+    private static final class Entry {
+        private final String cityCode;
+        private final long sequence;
+        private int priority;
+        private State state = State.QUEUED;
+        private int progress;
+        private int attempts;
+        private String error;
+        private long lastProgressAt;
+        private Cancellable retry;
+
+        private Entry(String cityCode, int priority, long sequence) {
+            this.cityCode = cityCode;
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+
+        private void cancelRetry() {
+            if (this.retry != null) {
+                this.retry.cancel();
+                this.retry = null;
+            }
+        }
+
+        private Task snapshot() {
+            return new Task(this.cityCode, this.priority, this.state, this.progress, this.attempts, this.error);
+        }
+    }
+}
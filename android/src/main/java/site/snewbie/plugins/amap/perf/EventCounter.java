@@ -0,0 +1,89 @@
+package site.snewbie.plugins.amap.perf;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import lombok.Getter;
+
+/**
+ * 单个事件的计数。payload 字节数按固定间隔抽样测量，再按发送次数估算总量，避免每次发送都额外序列化一次。
+ */
+public class EventCounter {
+    /**
+     * 每发送多少次测量一次 payload 的大小。
+     */
+    public static final int SIZE_SAMPLE_INTERVAL = 16;
+
+    private final LongAdder received = new LongAdder();
+    private final LongAdder emitted = new LongAdder();
+    private final LongAdder sampledBytes = new LongAdder();
+    private final LongAdder samples = new LongAdder();
+    /**
+     * 只在发送事件的线程中访问。
+     */
+    private int untilSample;
+
+    /**
+     * 原生端产生了一次有订阅的事件，无论最终是否发送。
+     */
+    public void onReceived() {
+        this.received.increment();
+    }
+
+    /**
+     * 事件被发送到 JS 端。同一个事件的发送必须在同一个线程中进行。
+     *
+     * @return 为 true 时调用方应测量本次 payload 的大小并调用 {@link #recordSize}
+     */
+    public boolean onEmitted() {
+        this.emitted.increment();
+        if (this.untilSample > 0) {
+            this.untilSample--;
+            return false;
+        }
+
+        this.untilSample = SIZE_SAMPLE_INTERVAL - 1;
+        return true;
+    }
+
+    public void recordSize(int bytes) {
+        this.sampledBytes.add(bytes);
+        this.samples.increment();
+    }
+
+    public Snapshot snapshot() {
+        long received = this.received.sum();
+        long emitted = this.emitted.sum();
+        long samples = this.samples.sum();
+        long estimatedBytes = samples == 0 ? 0 : Math.round((double) this.sampledBytes.sum() / samples * emitted);
+        // 计数不是原子快照，合并发送的事件可能在快照期间刚好送出
+        return new Snapshot(received, emitted, Math.max(0, received - emitted), estimatedBytes);
+    }
+
+    public void reset() {
+        this.received.reset();
+        this.emitted.reset();
+        this.sampledBytes.reset();
+        this.samples.reset();
+    }
+
+    @Getter
+    public static class Snapshot {
+        private final long received;
+        private final long emitted;
+        /**
+         * 被发送策略丢弃或合并掉的次数。
+         */
+        private final long dropped;
+        /**
+         * 按抽样估算的 payload 字节数之和。
+         */
+        private final long bytes;
+
+        public Snapshot(long received, long emitted, long dropped, long bytes) {
+            this.received = received;
+            this.emitted = emitted;
+            this.dropped = dropped;
+            this.bytes = bytes;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package site.snewbie.plugins.amap.perf;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import lombok.Getter;
+
+/**
+ * 记录耗时分布。按 2 的幂微秒分桶，分位数取所在桶的上界，精度在两倍以内，足够区分正常和卡顿。
+ * 所有计数都是分段累加的，多个线程同时记录时不会争用同一个变量。
+ */
+public class LatencyRecorder {
+    /**
+     * 第 i 个桶记录 [2^(i-1), 2^i) 微秒的耗时，最后一个桶记录所有更长的耗时。
+     */
+    private static final int BUCKETS = 24;
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+
+    public LatencyRecorder() {
+        for (int i = 0; i < BUCKETS; i++) {
+            this.buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+
+        this.count.increment();
+        this.totalNanos.add(nanos);
+        this.maxNanos.accumulate(nanos);
+        this.buckets[bucketOf(nanos)].increment();
+    }
+
+    /**
+     * 记录从 startNanos（{@link System#nanoTime()}）到现在的耗时。
+     */
+    public void recordSince(long startNanos) {
+        this.record(System.nanoTime() - startNanos);
+    }
+
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = this.buckets[i].sum();
+            total += counts[i];
+        }
+
+        long max = this.maxNanos.get();
+        return new Snapshot(this.count.sum(), this.totalNanos.sum(), max,
+                percentile(counts, total, 0.5, max), percentile(counts, total, 0.95, max), percentile(counts, total, 0.99, max));
+    }
+
+    public void reset() {
+        this.count.reset();
+        this.totalNanos.reset();
+        this.maxNanos.reset();
+        for (LongAdder bucket : this.buckets) {
+            bucket.reset();
+        }
+    }
+
+    static int bucketOf(long nanos) {
+        long micros = nanos / 1000;
+        int bucket = 64 - Long.numberOfLeadingZeros(micros);
+        return Math.min(bucket, BUCKETS - 1);
+    }
+
+    /**
+     * 桶的上界，单位：纳秒。
+     */
+    static long upperBoundOf(int bucket) {
+        return (1L << bucket) * 1000;
+    }
+
+    private static long percentile(long[] counts, long total, double quantile, long max) {
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank = (long) Math.ceil(total * quantile);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return i == counts.length - 1 ? max : Math.min(upperBoundOf(i), max);
+            }
+        }
+        return max;
+    }
+
+    @Getter
+    public static class Snapshot {
+        private final long count;
+        private final long totalNanos;
+        private final long maxNanos;
+        /**
+         * 中位数所在桶的上界，不超过最大值。
+         */
+        private final long p50Nanos;
+        private final long p95Nanos;
+        private final long p99Nanos;
+
+        public Snapshot(long count, long totalNanos, long maxNanos, long p50Nanos, long p95Nanos, long p99Nanos) {
+            this.count = count;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+            this.p50Nanos = p50Nanos;
+            this.p95Nanos = p95Nanos;
+            this.p99Nanos = p99Nanos;
+        }
+
+        public long getMeanNanos() {
+            return count == 0 ? 0 : totalNanos / count;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package site.snewbie.plugins.amap.perf;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 一组按名称区分的事件计数和耗时分布，常驻开启。已存在的名称查找不加锁，计数更新只是分段累加。
+ */
+public class PerformanceStats {
+    private final Map<String, EventCounter> events = new ConcurrentHashMap<>();
+    private final Map<String, LatencyRecorder> latencies = new ConcurrentHashMap<>();
+
+    public EventCounter event(String name) {
+        EventCounter counter = this.events.get(name);
+        return counter != null ? counter : this.events.computeIfAbsent(name, key -> new EventCounter());
+    }
+
+    public LatencyRecorder latency(String name) {
+        LatencyRecorder recorder = this.latencies.get(name);
+        return recorder != null ? recorder : this.latencies.computeIfAbsent(name, key -> new LatencyRecorder());
+    }
+
+    /**
+     * @return 按名称排序的事件计数快照
+     */
+    public Map<String, EventCounter.Snapshot> getEvents() {
+        Map<String, EventCounter.Snapshot> snapshots = new TreeMap<>();
+        for (Map.Entry<String, EventCounter> entry : this.events.entrySet()) {
+            snapshots.put(entry.getKey(), entry.getValue().snapshot());
+        }
+        return snapshots;
+    }
+
+    /**
+     * @return 按名称排序的耗时分布快照
+     */
+    public Map<String, LatencyRecorder.Snapshot> getLatencies() {
+        Map<String, LatencyRecorder.Snapshot> snapshots = new TreeMap<>();
+        for (Map.Entry<String, LatencyRecorder> entry : this.latencies.entrySet()) {
+            snapshots.put(entry.getKey(), entry.getValue().snapshot());
+        }
+        return snapshots;
+    }
+
+    /**
+     * 清零所有计数，已创建的计数对象继续使用，持有它们的调用方不受影响。
+     */
+    public void reset() {
+        for (EventCounter counter : this.events.values()) {
+            counter.reset();
+        }
+        for (LatencyRecorder recorder : this.latencies.values()) {
+            recorder.reset();
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package site.snewbie.plugins.amap.pool;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import lombok.Getter;
+
+/**
+ * 按数量和估算内存限制容量的对象池。最近放回的对象最先取出，超出限制时淘汰最早放回的对象。
+ * 被拒绝或淘汰的对象交给 {@link Disposer} 释放。该类是线程安全的，释放回调在池的锁内执行。
+ */
+public class BoundedPool<T> {
+    private final Deque<Entry<T>> idle = new ArrayDeque<>();
+    private final Disposer<T> disposer;
+    private int maxSize;
+    private long maxBytes;
+    private long bytes;
+
+    private long hits;
+    private long misses;
+    private long recycled;
+    private long prewarmed;
+    private long evictions;
+
+    /**
+     * @param maxSize  池中最多保留的对象数量，为 0 时不保留任何对象
+     * @param maxBytes 池中对象估算内存之和的上限，单位：字节
+     */
+    public BoundedPool(int maxSize, long maxBytes, Disposer<T> disposer) {
+        this.disposer = disposer;
+        this.resize(maxSize, maxBytes);
+    }
+
+    /**
+     * 取出一个对象，池为空时返回 null，调用方需要自行创建。
+     */
+    public synchronized T acquire() {
+        Entry<T> entry = this.idle.pollLast();
+        if (entry == null) {
+            this.misses++;
+            return null;
+        }
+
+        this.bytes -= entry.cost;
+        this.hits++;
+        return entry.item;
+    }
+
+    /**
+     * 放回使用过的对象。
+     *
+     * @param cost 对象的估算内存，单位：字节
+     * @return 对象被放入池中时返回 true，否则已被释放
+     */
+    public synchronized boolean release(T item, long cost) {
+        if (!this.offer(item, cost)) {
+            return false;
+        }
+
+        this.recycled++;
+        return true;
+    }
+
+    /**
+     * 放入预先创建的对象。
+     *
+     * @return 对象被放入池中时返回 true，否则已被释放
+     */
+    public synchronized boolean prewarm(T item, long cost) {
+        if (!this.offer(item, cost)) {
+            return false;
+        }
+
+        this.prewarmed++;
+        return true;
+    }
+
+    /**
+     * 修改容量限制，超出新限制的对象会被淘汰。
+     */
+    public synchronized void resize(int maxSize, long maxBytes) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("maxSize must not be negative");
+        }
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("maxBytes must not be negative");
+        }
+
+        this.maxSize = maxSize;
+        this.maxBytes = maxBytes;
+        this.trimTo(maxSize, maxBytes);
+    }
+
+    public synchronized void clear() {
+        this.trimTo(0, 0);
+    }
+
+    /**
+     * 距离容量上限还可以放入的对象数量，用于决定是否继续预热。
+     */
+    public synchronized int getDeficit() {
+        return Math.max(0, this.maxSize - this.idle.size());
+    }
+
+    /**
+     * 估算内存为 cost 的对象放回时是否会被接受，不会被接受的对象不需要为复用做准备。
+     */
+    public synchronized boolean accepts(long cost) {
+        return this.maxSize > 0 && cost <= this.maxBytes;
+    }
+
+    /**
+     * 放入一个估算内存为 cost 的对象后是否仍在内存限制内。
+     */
+    public synchronized boolean fits(long cost) {
+        return cost <= this.maxBytes - this.bytes;
+    }
+
+    public synchronized Stats getStats() {
+        return new Stats(this.hits, this.misses, this.recycled, this.prewarmed, this.evictions, this.idle.size(), this.bytes);
+    }
+
+    public synchronized void resetStats() {
+        this.hits = 0;
+        this.misses = 0;
+        this.recycled = 0;
+        this.prewarmed = 0;
+        this.evictions = 0;
+    }
+
+    private boolean offer(T item, long cost) {
+        if (!this.accepts(cost)) {
+            this.disposer.dispose(item);
+            return false;
+        }
+
+        this.idle.addLast(new Entry<>(item, cost));
+        this.bytes += cost;
+        this.trimTo(this.maxSize, this.maxBytes);
+        return true;
+    }
+
+    private void trimTo(int size, long limit) {
+        while (!this.idle.isEmpty() && (this.idle.size() > size || this.bytes > limit)) {
+            Entry<T> eldest = this.idle.pollFirst();
+            this.bytes -= eldest.cost;
+            this.evictions++;
+            this.disposer.dispose(eldest.item);
+        }
+    }
+
+    public interface Disposer<T> {
+        void dispose(T item);
+    }
+
+    @Getter
+    public static class Stats {
+        /**
+         * 从池中取到对象的次数。
+         */
+        private final long hits;
+        /**
+         * 池为空、需要调用方创建对象的次数。
+         */
+        private final long misses;
+        /**
+         * 使用过的对象被放回池中的次数。
+         */
+        private final long recycled;
+        private final long prewarmed;
+        private final long evictions;
+        private final int size;
+        /**
+         * 池中对象的估算内存之和，单位：字节。
+         */
+        private final long bytes;
+
+        public Stats(long hits, long misses, long recycled, long prewarmed, long evictions, int size, long bytes) {
+            this.hits = hits;
+            this.misses = misses;
+            this.recycled = recycled;
+            this.prewarmed = prewarmed;
+            this.evictions = evictions;
+            this.size = size;
+            this.bytes = bytes;
+        }
+    }
+
+    private static final class Entry<T> {
+        private final T item;
+        private final long cost;
+
+        private Entry(T item, long cost) {
+            this.item = item;
+            this.cost = cost;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package site.snewbie.plugins.amap.simplify;
+
+import java.util.Arrays;
+
+import site.snewbie.plugins.amap.cluster.ClusterPoints;
+
+/**
+ * 道格拉斯-普克（Douglas–Peucker）折线简化。
+ * 一次计算出每个顶点的重要度，之后任意容差下的简化结果都只需要按重要度筛选，
+ * 与直接以该容差执行道格拉斯-普克算法的结果一致。
+ */
+public final class PolylineSimplifier {
+
+    private PolylineSimplifier() {
+    }
+
+    /**
+     * 计算每个顶点的重要度：容差小于该值时顶点会被保留，首尾顶点始终保留。
+     * 距离以墨卡托投影下 0 级世界坐标计算，整个世界的宽度为 1。
+     *
+     * @param coordinates 经纬度交替排列的坐标
+     */
+    public static double[] significance(double[] coordinates) {
+        int size = coordinates.length / 2;
+        double[] xs = new double[size];
+        double[] ys = new double[size];
+        for (int i = 0; i < size; i++) {
+            ys[i] = ClusterPoints.latitudeToY(coordinates[i * 2]);
+            xs[i] = ClusterPoints.longitudeToX(coordinates[i * 2 + 1]);
+        }
+        return significance(xs, ys);
+    }
+
+    public static double[] significance(double[] xs, double[] ys) {
+        int size = xs.length;
+        double[] significance = new double[size];
+        if (size == 0) {
+            return significance;
+        }
+
+        significance[0] = Double.POSITIVE_INFINITY;
+        significance[size - 1] = Double.POSITIVE_INFINITY;
+
+        // 显式栈代替递归，5 万级的点不会栈溢出；每个区间占 2 个元素
+        int[] stack = new int[64];
+        double[] limits = new double[32];
+        int top = 0;
+        stack[top * 2] = 0;
+        stack[top * 2 + 1] = size - 1;
+        limits[top] = Double.POSITIVE_INFINITY;
+        top++;
+
+        while (top > 0) {
+            top--;
+            int start = stack[top * 2];
+            int end = stack[top * 2 + 1];
+            double limit = limits[top];
+            if (end - start < 2) {
+                continue;
+            }
+
+            int farthest = -1;
+            double maxDistance = -1;
+            for (int i = start + 1; i < end; i++) {
+                double distance = segmentDistanceSquared(xs[i], ys[i], xs[start], ys[start], xs[end], ys[end]);
+                if (distance > maxDistance) {
+                    maxDistance = distance;
+                    farthest = i;
+                }
+            }
+
+            // 子区间的顶点只有在父顶点保留时才可能保留，因此重要度不超过父顶点
+            double value = Math.min(Math.sqrt(maxDistance), limit);
+            significance[farthest] = value;
+
+            if (top + 2 > limits.length) {
+                stack = Arrays.copyOf(stack, stack.length * 2);
+                limits = Arrays.copyOf(limits, limits.length * 2);
+            }
+            stack[top * 2] = start;
+            stack[top * 2 + 1] = farthest;
+            limits[top] = value;
+            top++;
+            stack[top * 2] = farthest;
+            stack[top * 2 + 1] = end;
+            limits[top] = value;
+            top++;
+        }
+
+        return significance;
+    }
+
+    private static double segmentDistanceSquared(double px, double py, double ax, double ay, double bx, double by) {
+        double dx = bx - ax;
+        double dy = by - ay;
+        double lengthSquared = dx * dx + dy * dy;
+        double t = lengthSquared == 0 ? 0 : ((px - ax) * dx + (py - ay) * dy) / lengthSquared;
+        t = Math.max(0, Math.min(1, t));
+
+        double ex = px - (ax + t * dx);
+        double ey = py - (ay + t * dy);
+        return ex * ex + ey * ey;
+    }
+}
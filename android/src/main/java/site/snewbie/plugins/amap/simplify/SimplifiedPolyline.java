@@ -0,0 +1,75 @@
+package site.snewbie.plugins.amap.simplify;
+
+/**
+ * 预先计算好各缩放级别简化结果的折线，创建后不可变，可以在任意线程中读取。
+ * 每个缩放级别保存保留顶点的下标，顶点数相同的相邻级别共用同一个数组。
+ */
+public class SimplifiedPolyline {
+    public static final int MIN_ZOOM = 3;
+    public static final int MAX_ZOOM = 20;
+
+    private final double[] coordinates;
+    private final int[][] levels = new int[MAX_ZOOM - MIN_ZOOM + 1][];
+
+    /**
+     * @param coordinates 经纬度交替排列的坐标
+     * @param tolerance   简化容差，单位：像素，小于该距离的偏移在屏幕上无法分辨
+     */
+    public SimplifiedPolyline(double[] coordinates, double tolerance) {
+        if (coordinates.length % 2 != 0) {
+            throw new IllegalArgumentException("coordinates length must be even");
+        }
+
+        this.coordinates = coordinates;
+        double[] significance = PolylineSimplifier.significance(coordinates);
+
+        int[] previous = null;
+        for (int zoom = MIN_ZOOM; zoom <= MAX_ZOOM; zoom++) {
+            // 容差换算为 0 级世界坐标，整个世界在该缩放级别下宽 256 * 2^zoom 像素
+            double worldTolerance = tolerance / (256.0 * Math.pow(2, zoom));
+
+            int count = 0;
+            for (double value : significance) {
+                if (value > worldTolerance) {
+                    count++;
+                }
+            }
+
+            if (previous != null && previous.length == count) {
+                this.levels[zoom - MIN_ZOOM] = previous;
+                continue;
+            }
+
+            int[] level = new int[count];
+            int index = 0;
+            for (int i = 0; i < significance.length; i++) {
+                if (significance[i] > worldTolerance) {
+                    level[index++] = i;
+                }
+            }
+            this.levels[zoom - MIN_ZOOM] = level;
+            previous = level;
+        }
+    }
+
+    /**
+     * 返回该缩放级别下保留顶点的下标。相邻级别结果相同时返回同一个数组，可以用 == 判断是否需要切换。
+     */
+    public int[] getLevel(float zoom) {
+        int band = (int) Math.floor(zoom);
+        band = Math.max(MIN_ZOOM, Math.min(MAX_ZOOM, band));
+        return this.levels[band - MIN_ZOOM];
+    }
+
+    public double getLatitude(int index) {
+        return this.coordinates[index * 2];
+    }
+
+    public double getLongitude(int index) {
+        return this.coordinates[index * 2 + 1];
+    }
+
+    public int size() {
+        return this.coordinates.length / 2;
+    }
+}
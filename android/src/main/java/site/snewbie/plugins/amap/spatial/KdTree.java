@@ -0,0 +1,287 @@
+package site.snewbie.plugins.amap.spatial;
+
+/**
+ * 三维点的静态 KD 树，节点隐含在排序后的数组中。
+ * <p>
+ * 创建时递归地按 x、y、z 轮流选取中位数划分，区间不超过 nodeSize 个点时不再划分，查询时逐个比较。
+ * 树不保存节点对象，查询不分配对象。树创建后不能修改，数据变化时重新创建，十万个点的创建耗时在数十毫秒。
+ * 该类创建后是只读的，可以在多个线程中同时查询。
+ */
+public final class KdTree {
+    public static final int DEFAULT_NODE_SIZE = 16;
+
+    private final int nodeSize;
+    private final int size;
+    /**
+     * 按树的顺序排列的元素下标和坐标。
+     */
+    private final int[] items;
+    private final double[] coords;
+
+    /**
+     * @param coords 按 [x0, y0, z0, x1, ...] 排列的坐标，查询结果为点的下标
+     */
+    public KdTree(double[] coords, int nodeSize) {
+        if (nodeSize < 1) {
+            throw new IllegalArgumentException("nodeSize must be at least 1");
+        }
+        if (coords.length % 3 != 0) {
+            throw new IllegalArgumentException("coords length must be a multiple of 3");
+        }
+
+        this.nodeSize = nodeSize;
+        this.size = coords.length / 3;
+        this.items = new int[this.size];
+        for (int i = 0; i < this.size; i++) {
+            this.items[i] = i;
+        }
+        this.coords = coords.clone();
+        this.sort(0, this.size - 1, 0);
+    }
+
+    public KdTree(double[] coords) {
+        this(coords, DEFAULT_NODE_SIZE);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 遍历在长方体内的点，边界上的点也算在内。
+     *
+     * @return 访问的点数量
+     */
+    public int range(double minX, double minY, double minZ, double maxX, double maxY, double maxZ, Visitor visitor) {
+        if (this.size == 0) {
+            return 0;
+        }
+
+        double[] min = {minX, minY, minZ};
+        double[] max = {maxX, maxY, maxZ};
+        return this.range(0, this.size - 1, 0, min, max, visitor);
+    }
+
+    private int range(int left, int right, int axis, double[] min, double[] max, Visitor visitor) {
+        if (right - left <= this.nodeSize) {
+            int found = 0;
+            for (int i = left; i <= right; i++) {
+                if (this.inBox(i, min, max)) {
+                    visitor.visit(this.items[i]);
+                    found++;
+                }
+            }
+            return found;
+        }
+
+        int middle = (left + right) >>> 1;
+        double value = this.coords[middle * 3 + axis];
+        int found = 0;
+        if (this.inBox(middle, min, max)) {
+            visitor.visit(this.items[middle]);
+            found++;
+        }
+
+        int next = (axis + 1) % 3;
+        if (min[axis] <= value) {
+            found += this.range(left, middle - 1, next, min, max, visitor);
+        }
+        if (max[axis] >= value) {
+            found += this.range(middle + 1, right, next, min, max, visitor);
+        }
+        return found;
+    }
+
+    /**
+     * 遍历与 (x, y, z) 的距离不超过 radius 的点。
+     *
+     * @return 访问的点数量
+     */
+    public int within(double x, double y, double z, double radius, Visitor visitor) {
+        if (this.size == 0) {
+            return 0;
+        }
+
+        return this.within(0, this.size - 1, 0, new double[]{x, y, z}, radius, radius * radius, visitor);
+    }
+
+    private int within(int left, int right, int axis, double[] point, double radius, double radius2, Visitor visitor) {
+        if (right - left <= this.nodeSize) {
+            int found = 0;
+            for (int i = left; i <= right; i++) {
+                if (this.distance2(i, point) <= radius2) {
+                    visitor.visit(this.items[i]);
+                    found++;
+                }
+            }
+            return found;
+        }
+
+        int middle = (left + right) >>> 1;
+        double value = this.coords[middle * 3 + axis];
+        int found = 0;
+        if (this.distance2(middle, point) <= radius2) {
+            visitor.visit(this.items[middle]);
+            found++;
+        }
+
+        int next = (axis + 1) % 3;
+        if (point[axis] - radius <= value) {
+            found += this.within(left, middle - 1, next, point, radius, radius2, visitor);
+        }
+        if (point[axis] + radius >= value) {
+            found += this.within(middle + 1, right, next, point, radius, radius2, visitor);
+        }
+        return found;
+    }
+
+    /**
+     * 把离 (x, y, z) 最近的点交给 neighbors，先查找点所在的一侧，另一侧只在可能更近时查找。
+     *
+     * @param filter 可选，返回 false 的点被跳过
+     */
+    public void nearest(double x, double y, double z, Neighbors neighbors, Filter filter) {
+        if (this.size == 0) {
+            return;
+        }
+
+        this.nearest(0, this.size - 1, 0, new double[]{x, y, z}, neighbors, filter);
+    }
+
+    private void nearest(int left, int right, int axis, double[] point, Neighbors neighbors, Filter filter) {
+        if (right - left <= this.nodeSize) {
+            for (int i = left; i <= right; i++) {
+                this.offer(i, point, neighbors, filter);
+            }
+            return;
+        }
+
+        int middle = (left + right) >>> 1;
+        this.offer(middle, point, neighbors, filter);
+
+        int next = (axis + 1) % 3;
+        double delta = point[axis] - this.coords[middle * 3 + axis];
+        if (delta <= 0) {
+            this.nearest(left, middle - 1, next, point, neighbors, filter);
+            if (delta * delta <= neighbors.bound()) {
+                this.nearest(middle + 1, right, next, point, neighbors, filter);
+            }
+        } else {
+            this.nearest(middle + 1, right, next, point, neighbors, filter);
+            if (delta * delta <= neighbors.bound()) {
+                this.nearest(left, middle - 1, next, point, neighbors, filter);
+            }
+        }
+    }
+
+    private void offer(int index, double[] point, Neighbors neighbors, Filter filter) {
+        double distance2 = this.distance2(index, point);
+        if (distance2 <= neighbors.bound() && (filter == null || filter.accept(this.items[index]))) {
+            neighbors.offer(this.items[index], distance2);
+        }
+    }
+
+    private boolean inBox(int index, double[] min, double[] max) {
+        int offset = index * 3;
+        for (int axis = 0; axis < 3; axis++) {
+            double value = this.coords[offset + axis];
+            if (value < min[axis] || value > max[axis]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private double distance2(int index, double[] point) {
+        int offset = index * 3;
+        double dx = this.coords[offset] - point[0];
+        double dy = this.coords[offset + 1] - point[1];
+        double dz = this.coords[offset + 2] - point[2];
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    /**
+     * 把 [left, right] 按 axis 坐标划分，中位数放在中间，两侧递归按下一个坐标划分。
+     */
+    private void sort(int left, int right, int axis) {
+        if (right - left <= this.nodeSize) {
+            return;
+        }
+
+        int middle = (left + right) >>> 1;
+        this.select(middle, left, right, axis);
+        int next = (axis + 1) % 3;
+        this.sort(left, middle - 1, next);
+        this.sort(middle + 1, right, next);
+    }
+
+    /**
+     * 快速选择，使第 k 个元素就位，左侧不大于它，右侧不小于它。
+     */
+    private void select(int k, int left, int right, int axis) {
+        while (right > left) {
+            // 取三个数的中位数作为基准，已排序的输入也不会退化
+            int middle = (left + right) >>> 1;
+            if (this.value(middle, axis) < this.value(left, axis)) {
+                this.swap(middle, left);
+            }
+            if (this.value(right, axis) < this.value(left, axis)) {
+                this.swap(right, left);
+            }
+            if (this.value(right, axis) < this.value(middle, axis)) {
+                this.swap(right, middle);
+            }
+            double pivot = this.value(middle, axis);
+
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (this.value(i, axis) < pivot) {
+                    i++;
+                }
+                while (this.value(j, axis) > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    this.swap(i, j);
+                    i++;
+                    j--;
+                }
+            }
+
+            if (k <= j) {
+                right = j;
+            } else if (k >= i) {
+                left = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private double value(int index, int axis) {
+        return this.coords[index * 3 + axis];
+    }
+
+    private void swap(int i, int j) {
+        int item = this.items[i];
+        this.items[i] = this.items[j];
+        this.items[j] = item;
+
+        int a = i * 3;
+        int b = j * 3;
+        for (int axis = 0; axis < 3; axis++) {
+            double value = this.coords[a + axis];
+            this.coords[a + axis] = this.coords[b + axis];
+            this.coords[b + axis] = value;
+        }
+    }
+
+    public interface Visitor {
+        void visit(int index);
+    }
+
+    public interface Filter {
+        boolean accept(int index);
+    }
+}
@@ -0,0 +1,117 @@
+package site.snewbie.plugins.amap.spatial;
+
+import java.util.Arrays;
+
+/**
+ * 保留距离最小的 k 个元素，用大顶堆实现，堆顶是已保留元素中最远的一个。
+ * 距离使用平方，避免开方。
+ */
+public final class Neighbors {
+    private final int capacity;
+    private final double maxDistance2;
+    private final int[] items;
+    private final double[] distances2;
+    private int size;
+
+    /**
+     * @param maxDistance2 距离平方的上限，超过的元素不保留
+     */
+    public Neighbors(int capacity, double maxDistance2) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be greater than 0");
+        }
+
+        this.capacity = capacity;
+        this.maxDistance2 = maxDistance2;
+        this.items = new int[capacity];
+        this.distances2 = new double[capacity];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 新元素的距离平方不超过该值时才可能被保留。
+     */
+    public double bound() {
+        return this.size < this.capacity ? this.maxDistance2 : this.distances2[0];
+    }
+
+    public void offer(int item, double distance2) {
+        if (distance2 > this.maxDistance2) {
+            return;
+        }
+
+        if (this.size < this.capacity) {
+            int i = this.size++;
+            this.items[i] = item;
+            this.distances2[i] = distance2;
+            this.siftUp(i);
+        } else if (distance2 < this.distances2[0]) {
+            this.items[0] = item;
+            this.distances2[0] = distance2;
+            this.siftDown(0);
+        }
+    }
+
+    /**
+     * 按距离从近到远排列的元素。
+     */
+    public int[] sorted() {
+        long[] keys = new long[this.size];
+        double[] sorted = Arrays.copyOf(this.distances2, this.size);
+        Arrays.sort(sorted);
+        // 距离排名放在高位，堆中的位置放在低 32 位，距离相同时按位置排序
+        for (int i = 0; i < this.size; i++) {
+            int rank = Arrays.binarySearch(sorted, this.distances2[i]);
+            keys[i] = ((long) rank << 32) | i;
+        }
+        Arrays.sort(keys);
+
+        int[] result = new int[this.size];
+        for (int i = 0; i < this.size; i++) {
+            result[i] = this.items[(int) keys[i]];
+        }
+        return result;
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (this.distances2[parent] >= this.distances2[i]) {
+                return;
+            }
+            this.swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int largest = i;
+            int left = i * 2 + 1;
+            int right = left + 1;
+            if (left < this.size && this.distances2[left] > this.distances2[largest]) {
+                largest = left;
+            }
+            if (right < this.size && this.distances2[right] > this.distances2[largest]) {
+                largest = right;
+            }
+            if (largest == i) {
+                return;
+            }
+            this.swap(i, largest);
+            i = largest;
+        }
+    }
+
+    private void swap(int i, int j) {
+        int item = this.items[i];
+        this.items[i] = this.items[j];
+        this.items[j] = item;
+        double distance2 = this.distances2[i];
+        this.distances2[i] = this.distances2[j];
+        this.distances2[j] = distance2;
+    }
+}
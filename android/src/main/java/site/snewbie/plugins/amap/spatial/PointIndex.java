@@ -0,0 +1,513 @@
+package site.snewbie.plugins.amap.spatial;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import lombok.Getter;
+
+/**
+ * 以 id 为键的经纬度点的空间索引，支持矩形范围、半径范围和最近 k 个点的查询。
+ * <p>
+ * 经纬度转换为单位球面上的三维坐标后放入 {@link KdTree}，球面距离与三维直线距离单调对应，
+ * 半径和最近点查询的结果是精确的，也不需要处理经度 ±180° 处的断开。
+ * 添加、移动和移除只修改数组，不修改树：变化的点记录在一个小的待索引集合中，查询时与树一起逐个比较，
+ * 树中已经失效的点被跳过。待索引的点超过总数的 1/8 或失效的点超过总数的 1/4 后，下一次查询时在锁外重新创建树，
+ * 修改点的线程不会被长时间阻塞。
+ * 该类是线程安全的。
+ */
+public class PointIndex {
+    public static final double EARTH_RADIUS = 6371008.8;
+    /**
+     * 待索引或失效的点不超过该数量时不重新创建树。
+     */
+    public static final int MIN_REBUILD_CHANGES = 64;
+
+    private final Map<String, Integer> slots = new HashMap<>();
+
+    private String[] ids = new String[16];
+    private double[] latitudes = new double[16];
+    private double[] longitudes = new double[16];
+    private double[] coords = new double[16 * 3];
+    /**
+     * 点每次变化或移除后加一，用于判断后台创建的树是否还对应点的当前位置。
+     */
+    private int[] stamps = new int[16];
+    /**
+     * 点在当前的树中并且位置没有变化。
+     */
+    private boolean[] indexed = new boolean[16];
+    /**
+     * 点在 pending 中的位置，不在时为 -1。
+     */
+    private int[] pendingAt = new int[16];
+    private int[] pending = new int[16];
+    private int pendingSize;
+    private int[] free = new int[16];
+    private int freeSize;
+    private int capacity;
+
+    private KdTree tree;
+    private int[] treeSlots = new int[0];
+    /**
+     * 树中已经失效的点的数量。
+     */
+    private int stale;
+    private long generation;
+    private long installedGeneration;
+
+    private long queries;
+    private long rebuilds;
+
+    public PointIndex() {
+        Arrays.fill(this.pendingAt, -1);
+    }
+
+    /**
+     * 添加点，id 已存在时移动到新位置。
+     */
+    public synchronized void put(String id, double latitude, double longitude) {
+        Integer existing = this.slots.get(id);
+        int slot;
+        if (existing != null) {
+            slot = existing;
+            if (this.latitudes[slot] == latitude && this.longitudes[slot] == longitude) {
+                return;
+            }
+            this.invalidate(slot);
+        } else {
+            slot = this.allocate();
+            this.slots.put(id, slot);
+            this.ids[slot] = id;
+        }
+
+        this.stamps[slot]++;
+        this.latitudes[slot] = latitude;
+        this.longitudes[slot] = longitude;
+        toVector(latitude, longitude, this.coords, slot * 3);
+        this.addPending(slot);
+    }
+
+    /**
+     * @return id 存在时返回 true
+     */
+    public synchronized boolean remove(String id) {
+        Integer slot = this.slots.remove(id);
+        if (slot == null) {
+            return false;
+        }
+
+        this.invalidate(slot);
+        this.removePending(slot);
+        this.stamps[slot]++;
+        this.ids[slot] = null;
+        this.free[this.freeSize++] = slot;
+        return true;
+    }
+
+    public synchronized void clear() {
+        this.slots.clear();
+        Arrays.fill(this.ids, null);
+        Arrays.fill(this.indexed, false);
+        Arrays.fill(this.pendingAt, -1);
+        this.pendingSize = 0;
+        this.freeSize = 0;
+        this.capacity = 0;
+        this.tree = null;
+        this.treeSlots = new int[0];
+        this.stale = 0;
+        // 丢弃正在后台创建的树
+        this.installedGeneration = ++this.generation;
+    }
+
+    public synchronized int size() {
+        return this.slots.size();
+    }
+
+    public synchronized boolean contains(String id) {
+        return this.slots.containsKey(id);
+    }
+
+    /**
+     * 查询矩形范围内的点，边界上的点也算在内。west 大于 east 时表示跨越经度 180° 的范围。
+     *
+     * @param limit 最多返回的 id 数量，不大于 0 时不限制，{@link Result#getTotal()} 总是范围内的点的总数
+     */
+    public Result queryInBounds(double south, double west, double north, double east, int limit) {
+        if (south > north) {
+            throw new IllegalArgumentException("south must not be greater than north");
+        }
+
+        this.rebuildIfNeeded();
+        synchronized (this) {
+            this.queries++;
+            double span = west <= east ? east - west : east + 360 - west;
+            boolean allLongitudes = span >= 360;
+            double[] box = boundingBox(south, west, north, Math.min(span, 360));
+
+            Collector collector = new Collector(limit) {
+                @Override
+                boolean accept(int slot) {
+                    double latitude = latitudes[slot];
+                    double longitude = longitudes[slot];
+                    if (latitude < south || latitude > north) {
+                        return false;
+                    }
+                    if (allLongitudes) {
+                        return true;
+                    }
+                    return west <= east ? longitude >= west && longitude <= east : longitude >= west || longitude <= east;
+                }
+            };
+            if (this.tree != null) {
+                this.tree.range(box[0], box[1], box[2], box[3], box[4], box[5], collector);
+            }
+            for (int i = 0; i < this.pendingSize; i++) {
+                collector.visitSlot(this.pending[i]);
+            }
+            return collector.toResult();
+        }
+    }
+
+    /**
+     * 查询与中心点的球面距离不超过 radius 米的点，结果不保证按距离排序。
+     *
+     * @param limit 最多返回的 id 数量，不大于 0 时不限制
+     */
+    public Result queryWithinRadius(double latitude, double longitude, double radius, int limit) {
+        if (radius < 0) {
+            throw new IllegalArgumentException("radius must not be negative");
+        }
+
+        this.rebuildIfNeeded();
+        synchronized (this) {
+            this.queries++;
+            double[] center = new double[3];
+            toVector(latitude, longitude, center, 0);
+            double chord = chord(radius);
+            double chord2 = chord * chord;
+
+            Collector collector = new Collector(limit) {
+                @Override
+                boolean accept(int slot) {
+                    return distance2(coords, slot * 3, center) <= chord2;
+                }
+            };
+            if (this.tree != null) {
+                this.tree.within(center[0], center[1], center[2], chord, collector);
+            }
+            for (int i = 0; i < this.pendingSize; i++) {
+                collector.visitSlot(this.pending[i]);
+            }
+            return collector.toResult();
+        }
+    }
+
+    /**
+     * 查询离中心点最近的 k 个点，按距离从近到远排列。
+     *
+     * @param maxDistance 球面距离的上限，单位：米，不大于 0 时不限制
+     */
+    public Result queryNearest(double latitude, double longitude, int k, double maxDistance) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("k must be greater than 0");
+        }
+
+        this.rebuildIfNeeded();
+        synchronized (this) {
+            this.queries++;
+            double[] center = new double[3];
+            toVector(latitude, longitude, center, 0);
+            double chord = chord(maxDistance);
+            Neighbors neighbors = new Neighbors(Math.min(k, Math.max(1, this.slots.size())),
+                    maxDistance > 0 ? chord * chord : Double.POSITIVE_INFINITY);
+
+            if (this.tree != null) {
+                int[] treeSlots = this.treeSlots;
+                this.tree.nearest(center[0], center[1], center[2], neighbors, index -> this.indexed[treeSlots[index]]);
+            }
+            // 待索引的点用负数区分，-1 对应 pending[0]
+            for (int i = 0; i < this.pendingSize; i++) {
+                neighbors.offer(-1 - i, distance2(this.coords, this.pending[i] * 3, center));
+            }
+
+            int[] nearest = neighbors.sorted();
+            List<String> ids = new ArrayList<>(nearest.length);
+            for (int index : nearest) {
+                int slot = index >= 0 ? this.treeSlots[index] : this.pending[-1 - index];
+                ids.add(this.ids[slot]);
+            }
+            return new Result(ids, ids.size());
+        }
+    }
+
+    public synchronized Stats getStats() {
+        return new Stats(this.slots.size(), this.pendingSize, this.stale, this.queries, this.rebuilds);
+    }
+
+    /**
+     * 变化的点较多时重新创建树。复制坐标在锁内完成，创建树在锁外完成，
+     * 期间继续变化的点在安装新树时重新放入待索引集合。
+     */
+    private void rebuildIfNeeded() {
+        int[] slots;
+        int[] stamps;
+        double[] coords;
+        long generation;
+        synchronized (this) {
+            int size = this.slots.size();
+            // 待索引的点每次查询都要逐个比较，失效的点只在树中被跳过，代价较小
+            boolean pendingFull = this.pendingSize > Math.max(MIN_REBUILD_CHANGES, size / 8);
+            boolean staleFull = this.stale > Math.max(MIN_REBUILD_CHANGES, size / 4);
+            if (!pendingFull && !staleFull) {
+                return;
+            }
+
+            slots = new int[size];
+            stamps = new int[size];
+            coords = new double[size * 3];
+            int count = 0;
+            for (int slot : this.slots.values()) {
+                slots[count] = slot;
+                stamps[count] = this.stamps[slot];
+                System.arraycopy(this.coords, slot * 3, coords, count * 3, 3);
+                count++;
+            }
+            generation = ++this.generation;
+        }
+
+        KdTree tree = new KdTree(coords);
+
+        synchronized (this) {
+            if (generation > this.installedGeneration) {
+                this.install(tree, slots, stamps, generation);
+            }
+        }
+    }
+
+    private void install(KdTree tree, int[] slots, int[] stamps, long generation) {
+        this.tree = tree;
+        this.treeSlots = slots;
+        this.installedGeneration = generation;
+        this.rebuilds++;
+
+        // 复制之后变化或移除的点在树中的位置已经失效
+        Arrays.fill(this.indexed, false);
+        int valid = 0;
+        for (int i = 0; i < slots.length; i++) {
+            if (this.stamps[slots[i]] == stamps[i]) {
+                this.indexed[slots[i]] = true;
+                valid++;
+            }
+        }
+        this.stale = slots.length - valid;
+
+        Arrays.fill(this.pendingAt, -1);
+        this.pendingSize = 0;
+        for (int slot : this.slots.values()) {
+            if (!this.indexed[slot]) {
+                this.addPending(slot);
+            }
+        }
+    }
+
+    private int allocate() {
+        if (this.freeSize > 0) {
+            return this.free[--this.freeSize];
+        }
+
+        if (this.capacity == this.ids.length) {
+            int length = this.ids.length * 2;
+            this.ids = Arrays.copyOf(this.ids, length);
+            this.latitudes = Arrays.copyOf(this.latitudes, length);
+            this.longitudes = Arrays.copyOf(this.longitudes, length);
+            this.coords = Arrays.copyOf(this.coords, length * 3);
+            this.stamps = Arrays.copyOf(this.stamps, length);
+            this.indexed = Arrays.copyOf(this.indexed, length);
+            int old = this.pendingAt.length;
+            this.pendingAt = Arrays.copyOf(this.pendingAt, length);
+            Arrays.fill(this.pendingAt, old, length, -1);
+            this.pending = Arrays.copyOf(this.pending, length);
+            this.free = Arrays.copyOf(this.free, length);
+        }
+        return this.capacity++;
+    }
+
+    private void invalidate(int slot) {
+        if (this.indexed[slot]) {
+            this.indexed[slot] = false;
+            this.stale++;
+        }
+    }
+
+    private void addPending(int slot) {
+        if (this.pendingAt[slot] < 0) {
+            this.pendingAt[slot] = this.pendingSize;
+            this.pending[this.pendingSize++] = slot;
+        }
+    }
+
+    private void removePending(int slot) {
+        int at = this.pendingAt[slot];
+        if (at < 0) {
+            return;
+        }
+
+        // 用最后一个元素填补空位
+        int last = this.pending[--this.pendingSize];
+        this.pending[at] = last;
+        this.pendingAt[last] = at;
+        this.pendingAt[slot] = -1;
+    }
+
+    /**
+     * 经纬度转换为单位球面上的三维坐标。
+     */
+    static void toVector(double latitude, double longitude, double[] out, int offset) {
+        double phi = Math.toRadians(latitude);
+        double lambda = Math.toRadians(longitude);
+        double cos = Math.cos(phi);
+        out[offset] = cos * Math.cos(lambda);
+        out[offset + 1] = cos * Math.sin(lambda);
+        out[offset + 2] = Math.sin(phi);
+    }
+
+    /**
+     * 球面距离对应的单位球弦长。
+     */
+    static double chord(double distance) {
+        double angle = Math.min(distance / EARTH_RADIUS, Math.PI);
+        return 2 * Math.sin(angle / 2);
+    }
+
+    /**
+     * 经纬度矩形在单位球面上的三维外接长方体，按 [minX, minY, minZ, maxX, maxY, maxZ] 排列。
+     *
+     * @param span 经度跨度，从 west 向东计算，0 到 360
+     */
+    static double[] boundingBox(double south, double west, double north, double span) {
+        double cosSouth = Math.cos(Math.toRadians(south));
+        double cosNorth = Math.cos(Math.toRadians(north));
+        double minCos = Math.min(cosSouth, cosNorth);
+        double maxCos = south <= 0 && north >= 0 ? 1 : Math.max(cosSouth, cosNorth);
+
+        // 经度范围内 cos 和 sin 的极值在两端或 90° 的整数倍处
+        double start = Math.toRadians(west);
+        double end = Math.toRadians(west + span);
+        double minCosLambda = Math.min(Math.cos(start), Math.cos(end));
+        double maxCosLambda = Math.max(Math.cos(start), Math.cos(end));
+        double minSinLambda = Math.min(Math.sin(start), Math.sin(end));
+        double maxSinLambda = Math.max(Math.sin(start), Math.sin(end));
+        for (int quarter = (int) Math.ceil(west / 90); quarter * 90 <= west + span; quarter++) {
+            switch (((quarter % 4) + 4) % 4) {
+                case 0:
+                    maxCosLambda = 1;
+                    break;
+                case 1:
+                    maxSinLambda = 1;
+                    break;
+                case 2:
+                    minCosLambda = -1;
+                    break;
+                default:
+                    minSinLambda = -1;
+                    break;
+            }
+        }
+
+        // cos(φ) 不小于 0，乘积的极值由 cos(λ)、sin(λ) 的符号决定
+        double epsilon = 1e-12;
+        return new double[]{
+                (minCosLambda < 0 ? maxCos : minCos) * minCosLambda - epsilon,
+                (minSinLambda < 0 ? maxCos : minCos) * minSinLambda - epsilon,
+                Math.sin(Math.toRadians(south)) - epsilon,
+                (maxCosLambda > 0 ? maxCos : minCos) * maxCosLambda + epsilon,
+                (maxSinLambda > 0 ? maxCos : minCos) * maxSinLambda + epsilon,
+                Math.sin(Math.toRadians(north)) + epsilon,
+        };
+    }
+
+    private static double distance2(double[] coords, int offset, double[] point) {
+        double dx = coords[offset] - point[0];
+        double dy = coords[offset + 1] - point[1];
+        double dz = coords[offset + 2] - point[2];
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    /**
+     * 收集通过精确判断的点，树中已经失效的点被跳过。
+     */
+    private abstract class Collector implements KdTree.Visitor {
+        private final int limit;
+        private final List<String> ids = new ArrayList<>();
+        private int total;
+
+        private Collector(int limit) {
+            this.limit = limit;
+        }
+
+        abstract boolean accept(int slot);
+
+        @Override
+        public void visit(int index) {
+            int slot = treeSlots[index];
+            if (indexed[slot]) {
+                this.visitSlot(slot);
+            }
+        }
+
+        void visitSlot(int slot) {
+            if (!this.accept(slot)) {
+                return;
+            }
+
+            this.total++;
+            if (this.limit <= 0 || this.ids.size() < this.limit) {
+                this.ids.add(PointIndex.this.ids[slot]);
+            }
+        }
+
+        Result toResult() {
+            return new Result(this.ids, this.total);
+        }
+    }
+
+    @Getter
+    public static class Result {
+        private final List<String> ids;
+        /**
+         * 符合条件的点的总数，可能大于返回的 id 数量。
+         */
+        private final int total;
+
+        public Result(List<String> ids, int total) {
+            this.ids = ids;
+            this.total = total;
+        }
+    }
+
+    @Getter
+    public static class Stats {
+        private final int size;
+        /**
+         * 不在树中、查询时逐个比较的点的数量。
+         */
+        private final int pending;
+        /**
+         * 树中已经失效的点的数量。
+         */
+        private final int stale;
+        private final long queries;
+        private final long rebuilds;
+
+        public Stats(int size, int pending, int stale, long queries, long rebuilds) {
+            this.size = size;
+            this.pending = pending;
+            this.stale = stale;
+            this.queries = queries;
+            this.rebuilds = rebuilds;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package site.snewbie.plugins.amap.tile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 本地目录中按 {z}/{x}/{y}.png 等规则存放的瓦片。
+ */
+public class DirectoryTileSource implements TileSource {
+    public static final String DEFAULT_TEMPLATE = "{z}/{x}/{y}.png";
+
+    private final File directory;
+    private final String template;
+
+    /**
+     * @param template 瓦片文件相对于目录的路径，支持 {x}、{y}、{z} 和 TMS 编号的 {-y}
+     */
+    public DirectoryTileSource(File directory, String template) {
+        this.directory = directory;
+        this.template = template != null ? template : DEFAULT_TEMPLATE;
+    }
+
+    @Override
+    public byte[] read(int x, int y, int zoom) throws IOException {
+        File file = new File(this.directory, UrlTileSource.expand(this.template, x, y, zoom));
+        if (!file.isFile()) {
+            return null;
+        }
+
+        try (InputStream input = new FileInputStream(file)) {
+            return readFully(input, (int) file.length());
+        }
+    }
+
+    static byte[] readFully(InputStream input, int expected) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream(Math.max(expected, 1024));
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = input.read(buffer)) != -1) {
+            output.write(buffer, 0, read);
+        }
+        return output.toByteArray();
+    }
+}
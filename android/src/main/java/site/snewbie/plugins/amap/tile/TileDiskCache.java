@@ -0,0 +1,207 @@
+package site.snewbie.plugins.amap.tile;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import lombok.Getter;
+
+/**
+ * 每个瓦片一个文件的磁盘缓存，总大小超过上限时删除最久未访问的瓦片。
+ * <p>
+ * 访问顺序只记录在内存中，第一次使用时按文件修改时间恢复，命中时不修改文件，避免每次读取都产生一次磁盘写入。
+ * 文件先写入临时文件再重命名，读取时不会读到写了一半的内容。该类是线程安全的，文件读写在锁外执行。
+ */
+public class TileDiskCache {
+    private static final String SUFFIX = ".tile";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final File directory;
+    private final long maxBytes;
+    /**
+     * 瓦片的键到文件大小，按访问顺序排列。
+     */
+    private final LinkedHashMap<Long, Long> index = new LinkedHashMap<>(64, 0.75f, true);
+
+    private boolean loaded;
+    private long bytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long tempSequence;
+
+    /**
+     * @param maxBytes 缓存的最大字节数
+     */
+    public TileDiskCache(File directory, long maxBytes) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("maxBytes must be greater than 0");
+        }
+
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * @return 缓存的瓦片，不存在或读取失败时返回 null
+     */
+    public byte[] get(long key) {
+        synchronized (this) {
+            this.load();
+            if (this.index.get(key) == null) {
+                this.misses++;
+                return null;
+            }
+        }
+
+        File file = this.file(key);
+        try (InputStream input = new FileInputStream(file)) {
+            byte[] data = DirectoryTileSource.readFully(input, (int) file.length());
+            synchronized (this) {
+                this.hits++;
+            }
+            return data;
+        } catch (IOException e) {
+            // 文件被外部删除或损坏
+            synchronized (this) {
+                this.forget(key);
+                this.misses++;
+            }
+            file.delete();
+            return null;
+        }
+    }
+
+    public void put(long key, byte[] data) {
+        if (data.length > this.maxBytes) {
+            return;
+        }
+
+        File temp;
+        synchronized (this) {
+            this.load();
+            if (!this.directory.isDirectory() && !this.directory.mkdirs()) {
+                return;
+            }
+            temp = new File(this.directory, key + "-" + (this.tempSequence++) + TEMP_SUFFIX);
+        }
+
+        File file = this.file(key);
+        try {
+            try (OutputStream output = new FileOutputStream(temp)) {
+                output.write(data);
+            }
+
+            synchronized (this) {
+                if (!temp.renameTo(file)) {
+                    throw new IOException("rename failed: " + file);
+                }
+                this.forget(key);
+                this.index.put(key, (long) data.length);
+                this.bytes += data.length;
+                this.trim();
+            }
+        } catch (IOException e) {
+            temp.delete();
+        }
+    }
+
+    public synchronized void clear() {
+        File[] files = this.directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        this.index.clear();
+        this.bytes = 0;
+        this.loaded = true;
+    }
+
+    public synchronized Stats getStats() {
+        this.load();
+        return new Stats(this.index.size(), this.bytes, this.maxBytes, this.hits, this.misses, this.evictions);
+    }
+
+    private void load() {
+        if (this.loaded) {
+            return;
+        }
+        this.loaded = true;
+
+        File[] files = this.directory.listFiles();
+        if (files == null) {
+            return;
+        }
+
+        Arrays.sort(files, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+        for (File file : files) {
+            String name = file.getName();
+            if (name.endsWith(TEMP_SUFFIX)) {
+                // 上次写入中断留下的临时文件
+                file.delete();
+                continue;
+            }
+            if (!name.endsWith(SUFFIX)) {
+                continue;
+            }
+
+            try {
+                long key = Long.parseLong(name.substring(0, name.length() - SUFFIX.length()), 16);
+                this.index.put(key, file.length());
+                this.bytes += file.length();
+            } catch (NumberFormatException e) {
+                file.delete();
+            }
+        }
+        this.trim();
+    }
+
+    private void forget(long key) {
+        Long size = this.index.remove(key);
+        if (size != null) {
+            this.bytes -= size;
+        }
+    }
+
+    private void trim() {
+        Iterator<Map.Entry<Long, Long>> iterator = this.index.entrySet().iterator();
+        while (this.bytes > this.maxBytes && iterator.hasNext()) {
+            Map.Entry<Long, Long> eldest = iterator.next();
+            this.file(eldest.getKey()).delete();
+            this.bytes -= eldest.getValue();
+            iterator.remove();
+            this.evictions++;
+        }
+    }
+
+    private File file(long key) {
+        return new File(this.directory, Long.toHexString(key) + SUFFIX);
+    }
+
+    @Getter
+    public static class Stats {
+        private final int entries;
+        private final long bytes;
+        private final long maxBytes;
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+
+        public Stats(int entries, long bytes, long maxBytes, long hits, long misses, long evictions) {
+            this.entries = entries;
+            this.bytes = bytes;
+            this.maxBytes = maxBytes;
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+        }
+    }
+}
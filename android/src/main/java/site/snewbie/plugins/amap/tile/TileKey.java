@@ -0,0 +1,32 @@
+package site.snewbie.plugins.amap.tile;
+
+/**
+ * 把瓦片的缩放级别和行列号打包为一个 long，作为缓存的键，避免为每个瓦片创建对象。
+ * 缩放级别占高 6 位，x、y 各占 29 位，支持到 29 级。
+ */
+public final class TileKey {
+    public static final int MAX_ZOOM = 29;
+
+    private TileKey() {
+    }
+
+    public static long pack(int zoom, int x, int y) {
+        if (zoom < 0 || zoom > MAX_ZOOM) {
+            throw new IllegalArgumentException("zoom must be between 0 and " + MAX_ZOOM);
+        }
+
+        return ((long) zoom << 58) | (((long) x & 0x1fffffffL) << 29) | ((long) y & 0x1fffffffL);
+    }
+
+    public static int zoom(long key) {
+        return (int) (key >>> 58);
+    }
+
+    public static int x(long key) {
+        return (int) ((key >>> 29) & 0x1fffffffL);
+    }
+
+    public static int y(long key) {
+        return (int) (key & 0x1fffffffL);
+    }
+}
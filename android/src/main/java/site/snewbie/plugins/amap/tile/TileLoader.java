@@ -0,0 +1,233 @@
+package site.snewbie.plugins.amap.tile;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import lombok.Getter;
+import site.snewbie.plugins.amap.cluster.ClusterPoints;
+
+/**
+ * 两级缓存的瓦片加载器：内存 LRU、可选的磁盘缓存，最后才从数据源读取。
+ * <p>
+ * 同一个瓦片同时只会从数据源读取一次，其余请求等待并共享结果，SDK 的多个瓦片线程和预取任务不会重复下载。
+ * 不存在的瓦片在内存中缓存为空数组，不写入磁盘；读取失败的结果不缓存，下次请求时重试。
+ * 相机停止移动后可以预取可见范围周围的瓦片，新的预取会跳过上一次还没开始执行的预取任务。
+ * 该类是线程安全的。
+ */
+public class TileLoader {
+    public static final long DEFAULT_MEMORY_CACHE_BYTES = 16L * 1024 * 1024;
+
+    private static final byte[] MISSING = new byte[0];
+
+    private final TileSource source;
+    private final TileMemoryCache<byte[]> memory;
+    private final TileDiskCache disk;
+    private final Executor prefetchExecutor;
+    private final int minZoom;
+    private final int maxZoom;
+    private final ConcurrentHashMap<Long, FutureTask<byte[]>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicInteger prefetchGeneration = new AtomicInteger();
+
+    private final AtomicLong sourceReads = new AtomicLong();
+    private final AtomicLong joined = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong prefetched = new AtomicLong();
+
+    /**
+     * @param disk             可选的磁盘缓存，为 null 时只缓存在内存中
+     * @param prefetchExecutor 执行预取的线程池，为 null 时不预取
+     * @param minZoom          小于该缩放级别时不加载瓦片
+     * @param maxZoom          大于该缩放级别时不加载瓦片
+     */
+    public TileLoader(TileSource source, long memoryCacheBytes, TileDiskCache disk, Executor prefetchExecutor, int minZoom, int maxZoom) {
+        if (minZoom < 0 || maxZoom > TileKey.MAX_ZOOM || minZoom > maxZoom) {
+            throw new IllegalArgumentException("zoom range is invalid");
+        }
+
+        this.source = source;
+        this.memory = new TileMemoryCache<>(memoryCacheBytes, tile -> tile.length);
+        this.disk = disk;
+        this.prefetchExecutor = prefetchExecutor;
+        this.minZoom = minZoom;
+        this.maxZoom = maxZoom;
+    }
+
+    /**
+     * 加载瓦片，在调用线程中阻塞直到读取完成。
+     *
+     * @return 编码后的瓦片，瓦片不存在或不在缩放范围内时返回 null
+     */
+    public byte[] load(int x, int y, int zoom) throws IOException {
+        if (zoom < this.minZoom || zoom > this.maxZoom || x < 0 || y < 0 || x >= (1L << zoom) || y >= (1L << zoom)) {
+            return null;
+        }
+
+        long key = TileKey.pack(zoom, x, y);
+        byte[] cached = this.memory.get(key);
+        if (cached != null) {
+            return cached.length > 0 ? cached : null;
+        }
+
+        FutureTask<byte[]> task = new FutureTask<>(() -> this.fetch(key, x, y, zoom));
+        FutureTask<byte[]> running = this.inFlight.putIfAbsent(key, task);
+        if (running != null) {
+            // 相同的瓦片正在加载，共享结果
+            this.joined.incrementAndGet();
+            task = running;
+        } else {
+            try {
+                task.run();
+            } finally {
+                this.inFlight.remove(key, task);
+            }
+        }
+
+        try {
+            byte[] data = task.get();
+            return data.length > 0 ? data : null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted while loading tile", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+        }
+    }
+
+    /**
+     * 预取经纬度范围内以及周围 ring 圈的瓦片。已经缓存在内存中的瓦片会被跳过。
+     *
+     * @param zoom 取整后的缩放级别
+     * @param ring 可见范围外额外预取的圈数，为 0 时只预取可见范围
+     * @return 提交的预取任务数量
+     */
+    public int prefetch(int zoom, double south, double west, double north, double east, int ring) {
+        if (this.prefetchExecutor == null || zoom < this.minZoom || zoom > this.maxZoom) {
+            return 0;
+        }
+
+        long tiles = 1L << zoom;
+        int fromX = (int) Math.max(0, tileIndex(ClusterPoints.longitudeToX(west), tiles) - ring);
+        int toX = (int) Math.min(tiles - 1, tileIndex(ClusterPoints.longitudeToX(east), tiles) + ring);
+        int fromY = (int) Math.max(0, tileIndex(ClusterPoints.latitudeToY(north), tiles) - ring);
+        int toY = (int) Math.min(tiles - 1, tileIndex(ClusterPoints.latitudeToY(south), tiles) + ring);
+
+        int generation = this.prefetchGeneration.incrementAndGet();
+        int submitted = 0;
+        for (int x = fromX; x <= toX; x++) {
+            for (int y = fromY; y <= toY; y++) {
+                long key = TileKey.pack(zoom, x, y);
+                if (this.memory.contains(key)) {
+                    continue;
+                }
+
+                int tileX = x;
+                int tileY = y;
+                try {
+                    this.prefetchExecutor.execute(() -> {
+                        // 相机已经移动到其他位置，跳过还没开始的旧任务
+                        if (this.prefetchGeneration.get() != generation) {
+                            return;
+                        }
+                        try {
+                            this.load(tileX, tileY, zoom);
+                            this.prefetched.incrementAndGet();
+                        } catch (IOException ignored) {
+                            // 失败已计入统计，可见时由 SDK 重新请求
+                        }
+                    });
+                    submitted++;
+                } catch (RejectedExecutionException e) {
+                    return submitted;
+                }
+            }
+        }
+        return submitted;
+    }
+
+    /**
+     * 清空内存和磁盘缓存，正在进行的加载不受影响。
+     */
+    public void clear() {
+        this.memory.clear();
+        if (this.disk != null) {
+            this.disk.clear();
+        }
+    }
+
+    /**
+     * 取消还没开始的预取任务，并关闭数据源。
+     */
+    public void close() {
+        this.prefetchGeneration.incrementAndGet();
+        this.source.close();
+    }
+
+    public Stats getStats() {
+        return new Stats(this.memory.getStats(), this.disk != null ? this.disk.getStats() : null,
+                this.sourceReads.get(), this.joined.get(), this.failures.get(), this.prefetched.get());
+    }
+
+    private byte[] fetch(long key, int x, int y, int zoom) throws IOException {
+        byte[] data = this.disk != null ? this.disk.get(key) : null;
+        if (data == null) {
+            this.sourceReads.incrementAndGet();
+            try {
+                data = this.source.read(x, y, zoom);
+            } catch (IOException | RuntimeException e) {
+                this.failures.incrementAndGet();
+                throw e;
+            }
+
+            if (data == null) {
+                data = MISSING;
+            } else if (this.disk != null && data.length > 0) {
+                this.disk.put(key, data);
+            }
+        }
+
+        this.memory.put(key, data);
+        return data;
+    }
+
+    private static long tileIndex(double normalized, long tiles) {
+        return Math.min(tiles - 1, Math.max(0, (long) Math.floor(normalized * tiles)));
+    }
+
+    @Getter
+    public static class Stats {
+        private final TileMemoryCache.Stats memory;
+        /**
+         * 没有磁盘缓存时为 null。
+         */
+        private final TileDiskCache.Stats disk;
+        /**
+         * 从数据源读取的次数。
+         */
+        private final long sourceReads;
+        /**
+         * 等待相同瓦片的加载结果、没有重复读取的次数。
+         */
+        private final long joined;
+        private final long failures;
+        /**
+         * 预取完成的瓦片数量。
+         */
+        private final long prefetched;
+
+        public Stats(TileMemoryCache.Stats memory, TileDiskCache.Stats disk, long sourceReads, long joined, long failures, long prefetched) {
+            this.memory = memory;
+            this.disk = disk;
+            this.sourceReads = sourceReads;
+            this.joined = joined;
+            this.failures = failures;
+            this.prefetched = prefetched;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package site.snewbie.plugins.amap.tile;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import lombok.Getter;
+
+/**
+ * 按字节数限制容量的瓦片内存缓存，超出容量时淘汰最久未访问的瓦片。
+ * 瓦片的大小差别很大（空白瓦片只有几十字节，复杂瓦片有几十 KB），按条数限制无法控制内存占用。
+ * 所有方法都是线程安全的，SDK 会在多个线程中同时请求瓦片。
+ *
+ * @param <V> 瓦片数据的类型
+ */
+public class TileMemoryCache<V> {
+    private final long maxBytes;
+    private final Sizer<V> sizer;
+    private final LinkedHashMap<Long, V> entries = new LinkedHashMap<>(64, 0.75f, true);
+
+    private long bytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * @param maxBytes 缓存的最大字节数，为 0 时不缓存
+     */
+    public TileMemoryCache(long maxBytes, Sizer<V> sizer) {
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("maxBytes must not be negative");
+        }
+
+        this.maxBytes = maxBytes;
+        this.sizer = sizer;
+    }
+
+    public synchronized V get(long key) {
+        V value = this.entries.get(key);
+        if (value != null) {
+            this.hits++;
+        } else {
+            this.misses++;
+        }
+        return value;
+    }
+
+    /**
+     * 是否缓存了该瓦片，不改变访问顺序，也不计入命中统计。
+     */
+    public synchronized boolean contains(long key) {
+        return this.entries.containsKey(key);
+    }
+
+    /**
+     * 写入瓦片。单个瓦片超过缓存容量时不缓存。
+     */
+    public synchronized void put(long key, V value) {
+        long size = this.sizer.sizeOf(value);
+        V previous = this.entries.remove(key);
+        if (previous != null) {
+            this.bytes -= this.sizer.sizeOf(previous);
+        }
+        if (size > this.maxBytes) {
+            return;
+        }
+
+        this.entries.put(key, value);
+        this.bytes += size;
+        this.trim();
+    }
+
+    public synchronized V remove(long key) {
+        V value = this.entries.remove(key);
+        if (value != null) {
+            this.bytes -= this.sizer.sizeOf(value);
+        }
+        return value;
+    }
+
+    /**
+     * 移除指定缩放级别的所有瓦片。
+     *
+     * @return 移除的瓦片数量
+     */
+    public synchronized int removeZoom(int zoom) {
+        int removed = 0;
+        Iterator<Map.Entry<Long, V>> iterator = this.entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Long, V> entry = iterator.next();
+            if (TileKey.zoom(entry.getKey()) == zoom) {
+                this.bytes -= this.sizer.sizeOf(entry.getValue());
+                iterator.remove();
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    public synchronized void clear() {
+        this.entries.clear();
+        this.bytes = 0;
+    }
+
+    /**
+     * 当前缓存的所有键，按最久未访问到最近访问排序。
+     */
+    public synchronized List<Long> keys() {
+        return new ArrayList<>(this.entries.keySet());
+    }
+
+    public synchronized int size() {
+        return this.entries.size();
+    }
+
+    public synchronized Stats getStats() {
+        return new Stats(this.entries.size(), this.bytes, this.maxBytes, this.hits, this.misses, this.evictions);
+    }
+
+    private void trim() {
+        Iterator<Map.Entry<Long, V>> iterator = this.entries.entrySet().iterator();
+        while (this.bytes > this.maxBytes && iterator.hasNext()) {
+            Map.Entry<Long, V> eldest = iterator.next();
+            this.bytes -= this.sizer.sizeOf(eldest.getValue());
+            iterator.remove();
+            this.evictions++;
+        }
+    }
+
+    public interface Sizer<V> {
+        /**
+         * 瓦片占用的字节数。
+         */
+        long sizeOf(V value);
+    }
+
+    @Getter
+    public static class Stats {
+        private final int entries;
+        private final long bytes;
+        private final long maxBytes;
+        private final long hits;
+        private final long misses;
+        /**
+         * 因超出容量被淘汰的瓦片数量，不包括主动移除的瓦片。
+         */
+        private final long evictions;
+
+        public Stats(int entries, long bytes, long maxBytes, long hits, long misses, long evictions) {
+            this.entries = entries;
+            this.bytes = bytes;
+            this.maxBytes = maxBytes;
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+        }
+    }
+}
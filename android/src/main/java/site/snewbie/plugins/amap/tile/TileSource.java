@@ -0,0 +1,22 @@
+package site.snewbie.plugins.amap.tile;
+
+import java.io.IOException;
+
+/**
+ * 瓦片数据来源，例如本地目录、MBTiles 文件或网络地址。实现需要是线程安全的，{@link TileLoader} 会在多个线程中同时读取。
+ */
+public interface TileSource {
+    /**
+     * 读取 XYZ 编号（左上角为原点）的瓦片。
+     *
+     * @return 编码后的瓦片图片，瓦片不存在时返回 null
+     * @throws IOException 读取失败，失败的结果不会被缓存
+     */
+    byte[] read(int x, int y, int zoom) throws IOException;
+
+    /**
+     * 释放数据源占用的资源，之后不再调用 {@link #read}。
+     */
+    default void close() {
+    }
+}
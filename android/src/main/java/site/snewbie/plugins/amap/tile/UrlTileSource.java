@@ -0,0 +1,68 @@
+package site.snewbie.plugins.amap.tile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * 按 URL 模板下载的瓦片，例如 https://example.com/tiles/{z}/{x}/{y}.png。
+ * 服务器返回 404 或 204 时视为瓦片不存在，其余非 2xx 状态视为读取失败。
+ */
+public class UrlTileSource implements TileSource {
+    public static final int DEFAULT_TIMEOUT_MILLIS = 10_000;
+
+    private final String template;
+    private final int timeoutMillis;
+    private final Map<String, String> headers;
+
+    /**
+     * @param template URL 模板，支持 {x}、{y}、{z} 和 TMS 编号的 {-y}
+     * @param headers  可选的请求头，例如鉴权信息
+     */
+    public UrlTileSource(String template, int timeoutMillis, Map<String, String> headers) {
+        if (template == null || !template.contains("{x}") || !template.contains("{z}") || !(template.contains("{y}") || template.contains("{-y}"))) {
+            throw new IllegalArgumentException("url template must contain {x}, {y} and {z}");
+        }
+
+        this.template = template;
+        this.timeoutMillis = timeoutMillis;
+        this.headers = headers != null ? headers : Collections.emptyMap();
+    }
+
+    @Override
+    public byte[] read(int x, int y, int zoom) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(expand(this.template, x, y, zoom)).openConnection();
+        try {
+            connection.setConnectTimeout(this.timeoutMillis);
+            connection.setReadTimeout(this.timeoutMillis);
+            for (Map.Entry<String, String> header : this.headers.entrySet()) {
+                connection.setRequestProperty(header.getKey(), header.getValue());
+            }
+
+            int status = connection.getResponseCode();
+            if (status == HttpURLConnection.HTTP_NOT_FOUND || status == HttpURLConnection.HTTP_NO_CONTENT) {
+                return null;
+            }
+            if (status < 200 || status >= 300) {
+                throw new IOException("tile request failed with status " + status);
+            }
+
+            try (InputStream input = connection.getInputStream()) {
+                return DirectoryTileSource.readFully(input, connection.getContentLength());
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    static String expand(String template, int x, int y, int zoom) {
+        return template
+                .replace("{x}", String.valueOf(x))
+                .replace("{-y}", String.valueOf((1 << zoom) - 1 - y))
+                .replace("{y}", String.valueOf(y))
+                .replace("{z}", String.valueOf(zoom));
+    }
+}
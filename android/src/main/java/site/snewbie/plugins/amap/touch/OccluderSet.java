@@ -0,0 +1,103 @@
+package site.snewbie.plugins.amap.touch;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 覆盖在地图上方的 DOM 元素的像素区域。落在这些区域内的触摸事件交给 WebView，其余交给地图，
+ * 原生端可以在手势开始时直接判定焦点，不需要询问 JS 端。
+ * 区域以批量增量的方式更新，每批更新后发布一次不可变快照，因此 {@link #contains(float, float)} 不加锁、不分配内存。
+ */
+public class OccluderSet {
+    private final Map<String, int[]> rects = new LinkedHashMap<>();
+
+    private volatile int[] snapshot = new int[0];
+
+    /**
+     * 批量更新区域。
+     *
+     * @param clear   为 true 时先移除所有区域
+     * @param upserts 新增或修改的区域，值为 [left, top, right, bottom]，单位：像素
+     * @param removed 移除的区域 id，不存在的 id 会被忽略
+     * @return 本次更新后的区域数量
+     */
+    public synchronized int apply(boolean clear, Map<String, int[]> upserts, Collection<String> removed) {
+        boolean changed = false;
+        if (clear && !this.rects.isEmpty()) {
+            this.rects.clear();
+            changed = true;
+        }
+
+        if (removed != null) {
+            for (String id : removed) {
+                changed |= this.rects.remove(id) != null;
+            }
+        }
+
+        if (upserts != null) {
+            for (Map.Entry<String, int[]> entry : upserts.entrySet()) {
+                int[] rect = entry.getValue();
+                if (rect.length != 4) {
+                    throw new IllegalArgumentException("occluder rect must have 4 values");
+                }
+                this.rects.put(entry.getKey(), rect.clone());
+                changed = true;
+            }
+        }
+
+        if (changed) {
+            this.publish();
+        }
+        return this.rects.size();
+    }
+
+    public synchronized void clear() {
+        this.apply(true, null, null);
+    }
+
+    /**
+     * 该像素坐标是否被任意区域覆盖。
+     */
+    public boolean contains(float x, float y) {
+        int[] bounds = this.snapshot;
+        // 与 Rect.contains 一致：包含左上边界，不包含右下边界
+        int ix = (int) x;
+        int iy = (int) y;
+        for (int offset = 0; offset < bounds.length; offset += 4) {
+            if (ix >= bounds[offset] && ix < bounds[offset + 2] && iy >= bounds[offset + 1] && iy < bounds[offset + 3]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 当前非空的区域数量。
+     */
+    public int size() {
+        return this.snapshot.length / 4;
+    }
+
+    /**
+     * 只保留非空的区域。
+     */
+    private void publish() {
+        int count = 0;
+        for (int[] rect : this.rects.values()) {
+            if (rect[2] > rect[0] && rect[3] > rect[1]) {
+                count++;
+            }
+        }
+
+        int[] bounds = new int[count * 4];
+        int offset = 0;
+        for (int[] rect : this.rects.values()) {
+            if (rect[2] > rect[0] && rect[3] > rect[1]) {
+                System.arraycopy(rect, 0, bounds, offset, 4);
+                offset += 4;
+            }
+        }
+        this.snapshot = bounds;
+    }
+}
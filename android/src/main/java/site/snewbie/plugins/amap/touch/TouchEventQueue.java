@@ -0,0 +1,164 @@
+package site.snewbie.plugins.amap.touch;
+
+/**
+ * 定长环形队列，缓存等待 JS 端判定焦点期间的触摸事件。
+ * 队列持有入队事件的所有权，事件被重放、合并或淘汰后都会交给 {@link Adapter#recycle(Object)} 回收。
+ * 连续的可合并事件（例如 ACTION_MOVE）只保留最后一个，队列满时优先淘汰最早的可合并事件。
+ * 该类不是线程安全的，应始终在 UI 线程中使用。
+ *
+ * @param <E> 事件类型
+ */
+public class TouchEventQueue<E> {
+    private final Object[] events;
+    private final Adapter<E> adapter;
+
+    private int head;
+    private int size;
+    private int dropped;
+
+    public TouchEventQueue(int capacity, Adapter<E> adapter) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be greater than 0");
+        }
+
+        this.events = new Object[capacity];
+        this.adapter = adapter;
+    }
+
+    /**
+     * 入队，返回因合并或队列已满而被丢弃的事件数量。
+     */
+    public int offer(E event) {
+        if (this.size > 0) {
+            int tail = this.index(this.size - 1);
+            E last = this.get(tail);
+            if (this.adapter.canMerge(last, event)) {
+                this.adapter.recycle(last);
+                this.events[tail] = event;
+                this.dropped++;
+                return 1;
+            }
+        }
+
+        int evicted = 0;
+        if (this.size == this.events.length) {
+            this.evict();
+            evicted = 1;
+        }
+
+        this.events[this.index(this.size)] = event;
+        this.size++;
+        return evicted;
+    }
+
+    /**
+     * 按入队顺序取出一个事件，调用方负责回收，队列为空时返回 null。
+     */
+    public E poll() {
+        if (this.size == 0) {
+            return null;
+        }
+
+        E event = this.get(this.head);
+        this.events[this.head] = null;
+        this.head = (this.head + 1) % this.events.length;
+        this.size--;
+        return event;
+    }
+
+    /**
+     * 按入队顺序重放并回收全部事件。
+     *
+     * @return 重放的事件数量
+     */
+    public int drain(Consumer<E> consumer) {
+        int replayed = 0;
+        E event;
+        while ((event = this.poll()) != null) {
+            try {
+                consumer.accept(event);
+            } finally {
+                this.adapter.recycle(event);
+            }
+            replayed++;
+        }
+        return replayed;
+    }
+
+    /**
+     * 回收并清空全部事件，丢弃计数同时清零。
+     */
+    public void clear() {
+        E event;
+        while ((event = this.poll()) != null) {
+            this.adapter.recycle(event);
+        }
+        this.dropped = 0;
+    }
+
+    /**
+     * 返回上一次调用以来被合并或淘汰的事件数量，并清零。
+     */
+    public int takeDropped() {
+        int dropped = this.dropped;
+        this.dropped = 0;
+        return dropped;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public int capacity() {
+        return this.events.length;
+    }
+
+    /**
+     * 淘汰最早的可合并事件，保留手势的起止事件；没有可合并事件时淘汰队首。
+     */
+    private void evict() {
+        int victim = 0;
+        for (int i = 0; i < this.size; i++) {
+            if (this.adapter.isMergeable(this.get(this.index(i)))) {
+                victim = i;
+                break;
+            }
+        }
+
+        this.adapter.recycle(this.get(this.index(victim)));
+        // 把淘汰位置之后的事件前移，保持顺序
+        for (int i = victim; i < this.size - 1; i++) {
+            this.events[this.index(i)] = this.events[this.index(i + 1)];
+        }
+        this.events[this.index(this.size - 1)] = null;
+        this.size--;
+        this.dropped++;
+    }
+
+    private int index(int offset) {
+        return (this.head + offset) % this.events.length;
+    }
+
+    @SuppressWarnings("unchecked")
+    private E get(int index) {
+        return (E) this.events[index];
+    }
+
+    public interface Adapter<E> {
+        /**
+         * 事件是否可以被后续同类事件替代，例如 ACTION_MOVE。
+         */
+        boolean isMergeable(E event);
+
+        /**
+         * previous 是否可以被 next 替代。
+         */
+        boolean canMerge(E previous, E next);
+
+        void recycle(E event);
+    }
+
+    public interface Consumer<E> {
+        void accept(E event);
+    }
+}
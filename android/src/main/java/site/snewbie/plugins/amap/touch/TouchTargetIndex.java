@@ -0,0 +1,163 @@
+package site.snewbie.plugins.amap.touch;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 地图在 WebView 中的像素区域索引，用于触摸事件的命中测试。
+ * 区域只在地图位置、显示状态或触摸开关变化时更新，并以不可变快照的形式发布，
+ * 因此 {@link #hitTest(float, float)} 不加锁、不分配内存。
+ * 多个地图重叠时，后注册的地图位于上层，优先命中。
+ *
+ * @param <T> 命中后返回的对象类型
+ */
+public class TouchTargetIndex<T> {
+    private final List<Entry<T>> entries = new ArrayList<>();
+
+    private volatile Snapshot snapshot = new Snapshot(new Object[0], new int[0]);
+
+    /**
+     * 注册地图，已存在的 key 会被移到最上层。新注册的地图区域为空且不接收触摸事件。
+     */
+    public synchronized void register(String key, T target) {
+        this.removeEntry(key);
+        this.entries.add(new Entry<>(key, target));
+        this.publish();
+    }
+
+    /**
+     * 注销地图，只有 key 对应的仍是同一个对象时才会移除，避免误删同 id 新建的地图。
+     */
+    public synchronized void unregister(String key, T target) {
+        if (this.entries.removeIf(entry -> entry.key.equals(key) && entry.target == target)) {
+            this.publish();
+        }
+    }
+
+    /**
+     * 更新地图的像素区域，宽或高为 0 时表示地图已隐藏。
+     */
+    public synchronized void setBounds(String key, int left, int top, int right, int bottom) {
+        Entry<T> entry = this.find(key);
+        if (entry == null) {
+            return;
+        }
+
+        if (entry.left == left && entry.top == top && entry.right == right && entry.bottom == bottom) {
+            return;
+        }
+
+        entry.left = left;
+        entry.top = top;
+        entry.right = right;
+        entry.bottom = bottom;
+        this.publish();
+    }
+
+    public synchronized void setTouchEnabled(String key, boolean enabled) {
+        Entry<T> entry = this.find(key);
+        if (entry == null || entry.touchEnabled == enabled) {
+            return;
+        }
+
+        entry.touchEnabled = enabled;
+        this.publish();
+    }
+
+    public synchronized void clear() {
+        this.entries.clear();
+        this.publish();
+    }
+
+    /**
+     * 返回包含该像素坐标的最上层地图，没有命中时返回 null。
+     */
+    @SuppressWarnings("unchecked")
+    public T hitTest(float x, float y) {
+        Snapshot snapshot = this.snapshot;
+        int[] bounds = snapshot.bounds;
+        // 与 Rect.contains 一致：包含左上边界，不包含右下边界
+        int ix = (int) x;
+        int iy = (int) y;
+        for (int i = snapshot.targets.length - 1; i >= 0; i--) {
+            int offset = i << 2;
+            if (ix >= bounds[offset] && ix < bounds[offset + 2] && iy >= bounds[offset + 1] && iy < bounds[offset + 3]) {
+                return (T) snapshot.targets[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 当前可命中的地图数量。
+     */
+    public int size() {
+        return this.snapshot.targets.length;
+    }
+
+    private Entry<T> find(String key) {
+        for (Entry<T> entry : this.entries) {
+            if (entry.key.equals(key)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    private boolean removeEntry(String key) {
+        return this.entries.removeIf(entry -> entry.key.equals(key));
+    }
+
+    /**
+     * 只保留可命中的区域，entries 按注册顺序排列，越靠后越上层。
+     */
+    private void publish() {
+        List<Entry<T>> active = new ArrayList<>(this.entries.size());
+        for (Entry<T> entry : this.entries) {
+            if (entry.touchEnabled && entry.right > entry.left && entry.bottom > entry.top) {
+                active.add(entry);
+            }
+        }
+
+        Object[] targets = new Object[active.size()];
+        int[] bounds = new int[active.size() * 4];
+        for (int i = 0; i < active.size(); i++) {
+            Entry<T> entry = active.get(i);
+            targets[i] = entry.target;
+            bounds[i * 4] = entry.left;
+            bounds[i * 4 + 1] = entry.top;
+            bounds[i * 4 + 2] = entry.right;
+            bounds[i * 4 + 3] = entry.bottom;
+        }
+
+        this.snapshot = new Snapshot(targets, bounds);
+    }
+
+    private static final class Entry<T> {
+        private final String key;
+        private final T target;
+        private boolean touchEnabled;
+        private int left;
+        private int top;
+        private int right;
+        private int bottom;
+
+        private Entry(String key, T target) {
+            this.key = key;
+            this.target = target;
+        }
+    }
+
+    private static final class Snapshot {
+        private final Object[] targets;
+        /**
+         * 每个地图占 4 个元素：left, top, right, bottom。
+         */
+        private final int[] bounds;
+
+        private Snapshot(Object[] targets, int[] bounds) {
+            this.targets = targets;
+            this.bounds = bounds;
+        }
+    }
+}
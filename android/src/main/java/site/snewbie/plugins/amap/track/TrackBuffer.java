@@ -0,0 +1,127 @@
+package site.snewbie.plugins.amap.track;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Getter;
+
+/**
+ * 定位结果的批量缓冲区。缓冲的结果达到 batchSize，或最早的结果已等待 maxDelay 时应当发送一批；
+ * 超出容量时丢弃最早的结果，保证长时间无法发送（例如 WebView 被系统挂起）时内存有上限。
+ * 该类是线程安全的。
+ */
+public class TrackBuffer {
+    private final int batchSize;
+    private final long maxDelayMillis;
+    private final int capacity;
+    private final ArrayDeque<TrackPoint> points = new ArrayDeque<>();
+    /**
+     * 缓冲区中最早的结果加入的时间，缓冲区为空时无意义。
+     */
+    private long oldestAddedAt;
+
+    private long added;
+    private long delivered;
+    private long batches;
+    private long overflowed;
+
+    /**
+     * @param batchSize      每批最多发送的结果数量
+     * @param maxDelayMillis 结果在缓冲区中的最长等待时间，单位：毫秒，为 0 时每个结果都立即发送
+     * @param capacity       缓冲区容量，不小于 batchSize
+     */
+    public TrackBuffer(int batchSize, long maxDelayMillis, int capacity) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be greater than 0");
+        }
+        if (maxDelayMillis < 0) {
+            throw new IllegalArgumentException("maxDelay must not be negative");
+        }
+        if (capacity < batchSize) {
+            throw new IllegalArgumentException("capacity must not be less than batchSize");
+        }
+
+        this.batchSize = batchSize;
+        this.maxDelayMillis = maxDelayMillis;
+        this.capacity = capacity;
+    }
+
+    /**
+     * @param now 当前时间，单位：毫秒，只用于计算等待时间，与定位时间无关
+     * @return 应当立即发送一批时返回 true
+     */
+    public synchronized boolean add(TrackPoint point, long now) {
+        if (this.points.isEmpty()) {
+            this.oldestAddedAt = now;
+        }
+        if (this.points.size() == this.capacity) {
+            this.points.pollFirst();
+            this.overflowed++;
+        }
+
+        this.points.addLast(point);
+        this.added++;
+        return this.points.size() >= this.batchSize || now - this.oldestAddedAt >= this.maxDelayMillis;
+    }
+
+    /**
+     * 距离最早的结果等待超时还有多少毫秒，缓冲区为空时返回 -1。
+     */
+    public synchronized long millisUntilDue(long now) {
+        if (this.points.isEmpty()) {
+            return -1;
+        }
+        return Math.max(0, this.oldestAddedAt + this.maxDelayMillis - now);
+    }
+
+    /**
+     * 按加入顺序取出最多 batchSize 个结果，缓冲区为空时返回空列表。剩余的结果从现在开始重新计时。
+     */
+    public synchronized List<TrackPoint> poll(long now) {
+        int count = Math.min(this.batchSize, this.points.size());
+        List<TrackPoint> batch = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            batch.add(this.points.pollFirst());
+        }
+
+        if (count > 0) {
+            this.delivered += count;
+            this.batches++;
+            this.oldestAddedAt = now;
+        }
+        return batch;
+    }
+
+    public synchronized int size() {
+        return this.points.size();
+    }
+
+    public synchronized void clear() {
+        this.points.clear();
+    }
+
+    public synchronized Stats getStats() {
+        return new Stats(this.added, this.delivered, this.batches, this.overflowed, this.points.size());
+    }
+
+    @Getter
+    public static class Stats {
+        private final long added;
+        private final long delivered;
+        private final long batches;
+        /**
+         * 缓冲区已满时被丢弃的最早结果的数量。
+         */
+        private final long overflowed;
+        private final int buffered;
+
+        public Stats(long added, long delivered, long batches, long overflowed, int buffered) {
+            this.added = added;
+            this.delivered = delivered;
+            this.batches = batches;
+            this.overflowed = overflowed;
+            this.buffered = buffered;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package site.snewbie.plugins.amap.track;
+
+import lombok.Getter;
+
+/**
+ * 定位结果过滤器，按以下顺序丢弃定位结果：
+ * <ol>
+ *     <li>坐标无效或精度差于 maxAccuracy</li>
+ *     <li>与上一个接受的结果时间相同或更早，即 SDK 重复回调的缓存结果</li>
+ *     <li>距上一个接受的结果不足 minInterval</li>
+ *     <li>距上一个接受的结果不足 minDistance</li>
+ * </ol>
+ * 只有被接受的结果会成为下一次比较的基准，因此缓慢移动时距离会累积，不会一直被丢弃。
+ * 该类不是线程安全的。
+ */
+public class TrackFilter {
+    private static final double EARTH_RADIUS = 6378137;
+
+    private final double minDistanceMeters;
+    private final long minIntervalMillis;
+    private final float maxAccuracyMeters;
+
+    private TrackPoint last;
+
+    private long accepted;
+    private long inaccurate;
+    private long duplicates;
+    private long tooSoon;
+    private long tooClose;
+
+    /**
+     * @param minDistanceMeters 相邻两个结果的最小距离，单位：米，为 0 时不限制
+     * @param minIntervalMillis 相邻两个结果的最小时间间隔，单位：毫秒，为 0 时不限制
+     * @param maxAccuracyMeters 允许的最差精度，单位：米，不大于 0 时不限制
+     */
+    public TrackFilter(double minDistanceMeters, long minIntervalMillis, float maxAccuracyMeters) {
+        if (minDistanceMeters < 0) {
+            throw new IllegalArgumentException("minDistance must not be negative");
+        }
+        if (minIntervalMillis < 0) {
+            throw new IllegalArgumentException("minInterval must not be negative");
+        }
+
+        this.minDistanceMeters = minDistanceMeters;
+        this.minIntervalMillis = minIntervalMillis;
+        this.maxAccuracyMeters = maxAccuracyMeters;
+    }
+
+    /**
+     * @return 结果被接受时返回 true
+     */
+    public boolean accept(TrackPoint point) {
+        if (!isValid(point) || (this.maxAccuracyMeters > 0 && point.getAccuracy() > this.maxAccuracyMeters)) {
+            this.inaccurate++;
+            return false;
+        }
+
+        TrackPoint previous = this.last;
+        if (previous != null) {
+            long elapsed = point.getTime() - previous.getTime();
+            if (elapsed <= 0) {
+                this.duplicates++;
+                return false;
+            }
+            if (elapsed < this.minIntervalMillis) {
+                this.tooSoon++;
+                return false;
+            }
+            if (this.minDistanceMeters > 0 && distanceMeters(previous, point) < this.minDistanceMeters) {
+                this.tooClose++;
+                return false;
+            }
+        }
+
+        this.last = point;
+        this.accepted++;
+        return true;
+    }
+
+    /**
+     * 清除比较基准，重新开始跟踪时调用。
+     */
+    public void reset() {
+        this.last = null;
+    }
+
+    public Stats getStats() {
+        return new Stats(this.accepted, this.inaccurate, this.duplicates, this.tooSoon, this.tooClose);
+    }
+
+    /**
+     * 两点之间的球面距离，单位：米。
+     */
+    public static double distanceMeters(TrackPoint a, TrackPoint b) {
+        double lat1 = Math.toRadians(a.getLatitude());
+        double lat2 = Math.toRadians(b.getLatitude());
+        double dLat = lat2 - lat1;
+        double dLng = Math.toRadians(b.getLongitude() - a.getLongitude());
+
+        double h = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(lat1) * Math.cos(lat2) * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS * Math.asin(Math.min(1, Math.sqrt(h)));
+    }
+
+    private static boolean isValid(TrackPoint point) {
+        double latitude = point.getLatitude();
+        double longitude = point.getLongitude();
+        // SDK 定位失败时可能返回 0,0
+        return latitude >= -90 && latitude <= 90 && longitude >= -180 && longitude <= 180
+                && !(latitude == 0 && longitude == 0)
+                && !Float.isNaN(point.getAccuracy());
+    }
+
+    @Getter
+    public static class Stats {
+        private final long accepted;
+        /**
+         * 因坐标无效或精度不足被丢弃的数量。
+         */
+        private final long inaccurate;
+        private final long duplicates;
+        private final long tooSoon;
+        private final long tooClose;
+
+        public Stats(long accepted, long inaccurate, long duplicates, long tooSoon, long tooClose) {
+            this.accepted = accepted;
+            this.inaccurate = inaccurate;
+            this.duplicates = duplicates;
+            this.tooSoon = tooSoon;
+            this.tooClose = tooClose;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package site.snewbie.plugins.amap.track;
+
+import lombok.Getter;
+
+/**
+ * 一次定位结果。
+ */
+@Getter
+public class TrackPoint {
+    private final double latitude;
+    private final double longitude;
+    private final float accuracy;
+    private final double altitude;
+    private final float bearing;
+    private final float speed;
+    private final long time;
+
+    /**
+     * @param accuracy 定位精度，单位：米
+     * @param speed    速度，单位：米/秒
+     * @param time     定位时间，单位：毫秒
+     */
+    public TrackPoint(double latitude, double longitude, float accuracy, double altitude, float bearing, float speed, long time) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.accuracy = accuracy;
+        this.altitude = altitude;
+        this.bearing = bearing;
+        this.speed = speed;
+        this.time = time;
+    }
+}
@@ -0,0 +1,460 @@
+package site.snewbie.plugins.amap.track;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import lombok.Getter;
+
+/**
+ * 只追加的轨迹存储，一个目录保存一条轨迹。
+ * <p>
+ * 定位结果按时间顺序写入定长记录，每个分段文件最多保存 segmentRecords 条，写满后新建分段。
+ * 定长记录可以按下标直接定位，查询时以内存映射的方式读取：先用每个分段的稀疏时间索引和二分查找确定时间范围，
+ * 降采样时只读取被选中的记录，因此耗时只与返回的点数有关，与范围内的总点数无关。
+ * <p>
+ * 记录格式（小端，{@value #RECORD_SIZE} 字节）：时间（毫秒，long）、纬度和经度（乘以 1e7 的 int）、
+ * 精度、海拔、方向、速度（float）。该类是线程安全的。
+ */
+public class TrackStore implements Closeable {
+    public static final int RECORD_SIZE = 32;
+    public static final int DEFAULT_SEGMENT_RECORDS = 1 << 18;
+    /**
+     * 查询结果中每个点包含的数值个数：纬度、经度、精度、海拔、方向、速度、时间。
+     */
+    public static final int STRIDE = 7;
+
+    /**
+     * 稀疏时间索引的间隔，每隔多少条记录保存一次时间。
+     */
+    static final int INDEX_INTERVAL = 256;
+    private static final double E7 = 1e7;
+    private static final String SUFFIX = ".trk";
+
+    private final File directory;
+    private final int segmentRecords;
+    private final List<Segment> segments = new ArrayList<>();
+    private final ByteBuffer writeBuffer;
+    private boolean closed;
+
+    /**
+     * 打开目录中已有的轨迹，目录不存在时创建。
+     *
+     * @param segmentRecords 每个分段文件最多保存的记录数
+     */
+    public TrackStore(File directory, int segmentRecords) throws IOException {
+        if (segmentRecords <= 0) {
+            throw new IllegalArgumentException("segmentRecords must be greater than 0");
+        }
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("cannot create " + directory);
+        }
+
+        this.directory = directory;
+        this.segmentRecords = segmentRecords;
+        this.writeBuffer = ByteBuffer.allocate(INDEX_INTERVAL * RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(SUFFIX));
+        if (files != null) {
+            // 文件名是补零的序号，按名称排序即按写入顺序排序
+            Arrays.sort(files);
+            for (File file : files) {
+                Segment segment = new Segment(file, sequenceOf(file));
+                if (segment.count == 0 && file != files[files.length - 1]) {
+                    segment.delete();
+                } else {
+                    this.segments.add(segment);
+                }
+            }
+        }
+    }
+
+    public TrackStore(File directory) throws IOException {
+        this(directory, DEFAULT_SEGMENT_RECORDS);
+    }
+
+    /**
+     * 追加定位结果，早于已保存的最后一个结果的定位会被丢弃，保证记录按时间排序。
+     *
+     * @return 实际写入的数量
+     */
+    public synchronized int append(List<TrackPoint> points) throws IOException {
+        this.ensureOpen();
+
+        long lastTime = this.getLastTime();
+        int appended = 0;
+        for (TrackPoint point : points) {
+            if (point.getTime() < lastTime) {
+                continue;
+            }
+
+            Segment active = this.activeSegment();
+            if (active.count + this.writeBuffer.position() / RECORD_SIZE == this.segmentRecords
+                    || !this.writeBuffer.hasRemaining()) {
+                this.flushWrites(active);
+                active = this.activeSegment();
+            }
+
+            this.writeBuffer.putLong(point.getTime());
+            this.writeBuffer.putInt((int) Math.round(point.getLatitude() * E7));
+            this.writeBuffer.putInt((int) Math.round(point.getLongitude() * E7));
+            this.writeBuffer.putFloat(point.getAccuracy());
+            this.writeBuffer.putFloat((float) point.getAltitude());
+            this.writeBuffer.putFloat(point.getBearing());
+            this.writeBuffer.putFloat(point.getSpeed());
+            lastTime = point.getTime();
+            appended++;
+        }
+
+        this.flushWrites(this.activeSegment());
+        return appended;
+    }
+
+    /**
+     * 查询时间范围 [from, to] 内的定位结果。
+     *
+     * @param maxPoints 最多返回的点数，范围内的点更多时按下标均匀抽样，始终包含第一个和最后一个点；不大于 0 时不限制
+     */
+    public synchronized Result query(long from, long to, int maxPoints) throws IOException {
+        this.ensureOpen();
+
+        // 每个分段在范围内的下标区间 [start, end)
+        List<Segment> matched = new ArrayList<>();
+        List<int[]> ranges = new ArrayList<>();
+        long total = 0;
+        for (Segment segment : this.segments) {
+            if (segment.count == 0 || segment.lastTime < from || segment.firstTime > to) {
+                continue;
+            }
+
+            int start = segment.lowerBound(from);
+            int end = segment.upperBound(to);
+            if (start < end) {
+                matched.add(segment);
+                ranges.add(new int[]{start, end});
+                total += end - start;
+            }
+        }
+
+        int count = maxPoints > 0 && total > maxPoints ? maxPoints : (int) total;
+        double[] values = new double[count * STRIDE];
+        if (count == 0) {
+            return new Result(total, values, 0);
+        }
+
+        int segmentIndex = 0;
+        // 当前分段之前的分段在范围内的记录数之和
+        long skipped = 0;
+        for (int i = 0; i < count; i++) {
+            long global = count == total ? i : (count == 1 ? 0 : Math.round(i * (double) (total - 1) / (count - 1)));
+            int[] range = ranges.get(segmentIndex);
+            while (global - skipped >= range[1] - range[0]) {
+                skipped += range[1] - range[0];
+                segmentIndex++;
+                range = ranges.get(segmentIndex);
+            }
+            matched.get(segmentIndex).read(range[0] + (int) (global - skipped), values, i * STRIDE);
+        }
+        return new Result(total, values, count);
+    }
+
+    /**
+     * 删除所有记录都早于 time 的分段，正在写入的分段不会被删除。
+     *
+     * @return 删除的记录数
+     */
+    public synchronized long deleteBefore(long time) throws IOException {
+        this.ensureOpen();
+
+        long deleted = 0;
+        while (this.segments.size() > 1 && this.segments.get(0).lastTime < time) {
+            Segment segment = this.segments.remove(0);
+            deleted += segment.count;
+            segment.delete();
+        }
+        return deleted;
+    }
+
+    /**
+     * 删除整条轨迹，之后不能再使用该对象。
+     *
+     * @return 删除的记录数
+     */
+    public synchronized long deleteAll() throws IOException {
+        long deleted = this.size();
+        this.close();
+        File[] files = this.directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                //noinspection ResultOfMethodCallIgnored
+                file.delete();
+            }
+        }
+        //noinspection ResultOfMethodCallIgnored
+        this.directory.delete();
+        return deleted;
+    }
+
+    public synchronized long size() {
+        long size = 0;
+        for (Segment segment : this.segments) {
+            size += segment.count;
+        }
+        return size;
+    }
+
+    /**
+     * 最后一个结果的定位时间，没有记录时返回 Long.MIN_VALUE。
+     */
+    public synchronized long getLastTime() {
+        for (int i = this.segments.size() - 1; i >= 0; i--) {
+            Segment segment = this.segments.get(i);
+            if (segment.count > 0) {
+                return segment.lastTime;
+            }
+        }
+        return Long.MIN_VALUE;
+    }
+
+    public synchronized int getSegmentCount() {
+        return this.segments.size();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (this.closed) {
+            return;
+        }
+
+        this.closed = true;
+        for (Segment segment : this.segments) {
+            segment.close();
+        }
+        this.segments.clear();
+    }
+
+    private void ensureOpen() throws IOException {
+        if (this.closed) {
+            throw new IOException("track store is closed");
+        }
+    }
+
+    private Segment activeSegment() throws IOException {
+        Segment last = this.segments.isEmpty() ? null : this.segments.get(this.segments.size() - 1);
+        if (last != null && last.count < this.segmentRecords) {
+            return last;
+        }
+
+        long sequence = last != null ? last.sequence + 1 : 0;
+        Segment segment = new Segment(new File(this.directory, String.format(Locale.ROOT, "%016d%s", sequence, SUFFIX)), sequence);
+        this.segments.add(segment);
+        return segment;
+    }
+
+    private void flushWrites(Segment segment) throws IOException {
+        this.writeBuffer.flip();
+        if (this.writeBuffer.hasRemaining()) {
+            segment.append(this.writeBuffer);
+        }
+        this.writeBuffer.clear();
+    }
+
+    private static long sequenceOf(File file) throws IOException {
+        String name = file.getName();
+        try {
+            return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            throw new IOException("invalid segment file " + file, e);
+        }
+    }
+
+    /**
+     * 一个分段文件。记录数只在写入完成后增加，未写完整的记录在重新打开时截断。
+     */
+    private static final class Segment {
+        private final File file;
+        private final long sequence;
+        private final RandomAccessFile raf;
+        private final FileChannel channel;
+        private int count;
+        private long firstTime;
+        private long lastTime;
+        /**
+         * 第 i 个元素是第 i * INDEX_INTERVAL 条记录的时间。
+         */
+        private long[] index = new long[16];
+        private ByteBuffer map;
+        private int mappedCount;
+
+        private Segment(File file, long sequence) throws IOException {
+            this.file = file;
+            this.sequence = sequence;
+            this.raf = new RandomAccessFile(file, "rw");
+            this.channel = this.raf.getChannel();
+
+            long length = this.channel.size();
+            if (length % RECORD_SIZE != 0) {
+                // 写入中断留下的不完整记录
+                length -= length % RECORD_SIZE;
+                this.channel.truncate(length);
+            }
+
+            this.count = (int) (length / RECORD_SIZE);
+            if (this.count > 0) {
+                this.firstTime = this.time(0);
+                this.lastTime = this.time(this.count - 1);
+                this.indexRecords(0, this.count);
+            }
+        }
+
+        private void append(ByteBuffer records) throws IOException {
+            int added = records.remaining() / RECORD_SIZE;
+            long position = (long) this.count * RECORD_SIZE;
+            while (records.hasRemaining()) {
+                position += this.channel.write(records, position);
+            }
+
+            if (this.count == 0) {
+                this.firstTime = records.getLong(0);
+            }
+            this.lastTime = records.getLong((added - 1) * RECORD_SIZE);
+
+            int start = this.count;
+            this.count += added;
+            // 索引从缓冲区读取时间，不需要映射刚写入的数据
+            for (int i = firstIndexed(start); i < this.count; i += INDEX_INTERVAL) {
+                this.putIndex(i / INDEX_INTERVAL, records.getLong((i - start) * RECORD_SIZE));
+            }
+        }
+
+        /**
+         * 第一个时间不早于 time 的记录下标，不存在时返回 count。
+         */
+        private int lowerBound(long time) throws IOException {
+            return this.search(time, false);
+        }
+
+        /**
+         * 第一个时间晚于 time 的记录下标，不存在时返回 count。
+         */
+        private int upperBound(long time) throws IOException {
+            return this.search(time, true);
+        }
+
+        private int search(long time, boolean inclusive) throws IOException {
+            // 先在稀疏索引中确定所在的块，再在块内二分查找，只访问一个块的页面
+            int blocks = (this.count + INDEX_INTERVAL - 1) / INDEX_INTERVAL;
+            int low = 0;
+            int high = blocks;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (inclusive ? this.index[mid] <= time : this.index[mid] < time) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+
+            int start = Math.max(0, (low - 1) * INDEX_INTERVAL);
+            int end = Math.min(this.count, low * INDEX_INTERVAL);
+            while (start < end) {
+                int mid = (start + end) >>> 1;
+                long value = this.time(mid);
+                if (inclusive ? value <= time : value < time) {
+                    start = mid + 1;
+                } else {
+                    end = mid;
+                }
+            }
+            return start;
+        }
+
+        private long time(int i) throws IOException {
+            return this.map().getLong(i * RECORD_SIZE);
+        }
+
+        private void read(int i, double[] out, int offset) throws IOException {
+            ByteBuffer map = this.map();
+            int position = i * RECORD_SIZE;
+            out[offset] = map.getInt(position + 8) / E7;
+            out[offset + 1] = map.getInt(position + 12) / E7;
+            out[offset + 2] = map.getFloat(position + 16);
+            out[offset + 3] = map.getFloat(position + 20);
+            out[offset + 4] = map.getFloat(position + 24);
+            out[offset + 5] = map.getFloat(position + 28);
+            out[offset + 6] = map.getLong(position);
+        }
+
+        /**
+         * 映射全部已写入的记录，写入新记录后重新映射。
+         */
+        private ByteBuffer map() throws IOException {
+            if (this.map == null || this.mappedCount != this.count) {
+                this.map = this.channel.map(FileChannel.MapMode.READ_ONLY, 0, (long) this.count * RECORD_SIZE)
+                        .order(ByteOrder.LITTLE_ENDIAN);
+                this.mappedCount = this.count;
+            }
+            return this.map;
+        }
+
+        private void indexRecords(int start, int end) throws IOException {
+            for (int i = firstIndexed(start); i < end; i += INDEX_INTERVAL) {
+                this.putIndex(i / INDEX_INTERVAL, this.time(i));
+            }
+        }
+
+        private void putIndex(int slot, long time) {
+            if (slot >= this.index.length) {
+                this.index = Arrays.copyOf(this.index, Math.max(slot + 1, this.index.length * 2));
+            }
+            this.index[slot] = time;
+        }
+
+        private void close() throws IOException {
+            this.map = null;
+            this.channel.close();
+            this.raf.close();
+        }
+
+        private void delete() throws IOException {
+            this.close();
+            if (!this.file.delete()) {
+                throw new IOException("cannot delete " + this.file);
+            }
+        }
+
+        private static int firstIndexed(int start) {
+            return (start + INDEX_INTERVAL - 1) / INDEX_INTERVAL * INDEX_INTERVAL;
+        }
+    }
+
+    @Getter
+    public static class Result {
+        /**
+         * 时间范围内的总点数，降采样前。
+         */
+        private final long total;
+        /**
+         * 按 {@link #STRIDE} 排列的点：纬度、经度、精度、海拔、方向、速度、时间。
+         */
+        private final double[] values;
+        /**
+         * 返回的点数。
+         */
+        private final int count;
+
+        public Result(long total, double[] values, int count) {
+            this.total = total;
+            this.values = values;
+            this.count = count;
+        }
+    }
+}
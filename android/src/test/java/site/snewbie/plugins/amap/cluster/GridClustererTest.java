@@ -0,0 +1,190 @@
+package site.snewbie.plugins.amap.cluster;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+public class GridClustererTest {
+
+    @Test
+    public void nearbyPointsAreClustered() {
+        ClusterPoints points = points(
+                new String[]{"a", "b", "c"},
+                new double[]{39.9000, 39.9001, 31.2000},
+                new double[]{116.4000, 116.4001, 121.5000}
+        );
+
+        List<Cluster> clusters = new GridClusterer(60, 2, 18).cluster(points, 10);
+
+        assertEquals(2, clusters.size());
+        int total = 0;
+        for (Cluster cluster : clusters) {
+            total += cluster.size();
+            if (cluster.isSingle()) {
+                assertEquals("c", cluster.getMemberIds()[0]);
+            } else {
+                assertEquals(39.90005, cluster.getLatitude(), 1e-9);
+            }
+        }
+        assertEquals(3, total);
+    }
+
+    @Test
+    public void pointsAreNotClusteredAboveMaxZoom() {
+        ClusterPoints points = points(
+                new String[]{"a", "b"},
+                new double[]{39.9000, 39.9001},
+                new double[]{116.4000, 116.4001}
+        );
+
+        List<Cluster> clusters = new GridClusterer(60, 2, 15).cluster(points, 16);
+
+        assertEquals(2, clusters.size());
+        assertTrue(clusters.get(0).isSingle());
+        assertTrue(clusters.get(1).isSingle());
+    }
+
+    @Test
+    public void cellsBelowMinClusterSizeStaySingle() {
+        ClusterPoints points = points(
+                new String[]{"a", "b"},
+                new double[]{39.9000, 39.9001},
+                new double[]{116.4000, 116.4001}
+        );
+
+        List<Cluster> clusters = new GridClusterer(60, 3, 18).cluster(points, 10);
+
+        assertEquals(2, clusters.size());
+        assertEquals(GridClusterer.singleFingerprint("a"), clusters.get(0).getFingerprint());
+    }
+
+    @Test
+    public void fingerprintIgnoresMemberOrder() {
+        ClusterPoints forward = points(
+                new String[]{"a", "b"},
+                new double[]{39.9000, 39.9001},
+                new double[]{116.4000, 116.4001}
+        );
+        ClusterPoints backward = points(
+                new String[]{"b", "a"},
+                new double[]{39.9001, 39.9000},
+                new double[]{116.4001, 116.4000}
+        );
+
+        GridClusterer clusterer = new GridClusterer(60, 2, 18);
+        long expected = clusterer.cluster(forward, 10).get(0).getFingerprint();
+
+        assertEquals(expected, clusterer.cluster(backward, 10).get(0).getFingerprint());
+    }
+
+    @Test
+    public void panWithinPaddingProducesEmptyDiff() {
+        ClusterEngine engine = new ClusterEngine(new GridClusterer(60, 2, 18));
+        engine.setPoints(randomPoints(10_000, 1));
+
+        ClusterDiff first = engine.update(12, 39.80, 116.30, 40.00, 116.50);
+        assertTrue(first.getAdded().size() > 0);
+
+        ClusterDiff pan = engine.update(12, 39.81, 116.31, 40.01, 116.51);
+        assertTrue(pan.getRemoved().size() + pan.getAdded().size() < first.getAdded().size());
+
+        ClusterDiff same = engine.update(12, 39.81, 116.31, 40.01, 116.51);
+        assertTrue(same.isEmpty());
+    }
+
+    @Test
+    public void zoomChangeOnlyTouchesChangedClusters() {
+        ClusterEngine engine = new ClusterEngine(new GridClusterer(60, 2, 18));
+        engine.setPoints(randomPoints(10_000, 2));
+
+        engine.update(10, 39.0, 115.5, 41.0, 117.5);
+        int before = engine.getDisplayedCount();
+
+        ClusterDiff zoomIn = engine.update(11, 39.5, 116.0, 40.5, 117.0);
+        assertEquals(engine.getDisplayedCount(), before - zoomIn.getRemoved().size() + zoomIn.getAdded().size());
+
+        Set<Long> removed = new HashSet<>();
+        for (Cluster cluster : zoomIn.getRemoved()) {
+            removed.add(cluster.getFingerprint());
+        }
+        for (Cluster cluster : zoomIn.getAdded()) {
+            assertTrue(!removed.contains(cluster.getFingerprint()));
+        }
+    }
+
+    @Test
+    public void forgottenClusterIsAddedAgain() {
+        ClusterEngine engine = new ClusterEngine(new GridClusterer(60, 2, 18));
+        engine.setPoints(points(new String[]{"a"}, new double[]{39.9}, new double[]{116.4}));
+
+        assertEquals(1, engine.update(12, 39.8, 116.3, 40.0, 116.5).getAdded().size());
+
+        engine.forget(GridClusterer.singleFingerprint("a"));
+
+        assertEquals(1, engine.update(12, 39.8, 116.3, 40.0, 116.5).getAdded().size());
+    }
+
+    @Test
+    public void movedClusterChangesFingerprint() {
+        GridClusterer clusterer = new GridClusterer(60, 2, 18);
+        long before = clusterer.cluster(points(
+                new String[]{"a", "b"},
+                new double[]{39.9000, 39.9001},
+                new double[]{116.4000, 116.4001}
+        ), 10).get(0).getFingerprint();
+        long after = clusterer.cluster(points(
+                new String[]{"a", "b"},
+                new double[]{39.9000, 39.9002},
+                new double[]{116.4000, 116.4001}
+        ), 10).get(0).getFingerprint();
+
+        assertNotEquals(before, after);
+    }
+
+    /**
+     * 10 万个点在各缩放级别下都不丢失成员，相机范围不变时不产生差异。
+     */
+    @Test
+    public void hundredThousandPointsKeepAllMembers() {
+        int size = 100_000;
+        ClusterPoints points = randomPoints(size, 42);
+        GridClusterer clusterer = new GridClusterer(60, 2, 18);
+
+        for (int zoom = 4; zoom <= 18; zoom += 2) {
+            int total = 0;
+            for (Cluster cluster : clusterer.cluster(points, zoom)) {
+                total += cluster.size();
+            }
+            assertEquals(size, total);
+        }
+
+        ClusterEngine engine = new ClusterEngine(clusterer);
+        engine.setPoints(points);
+        engine.update(12, 39.8, 116.3, 40.0, 116.5);
+        assertTrue(engine.update(12, 39.8, 116.3, 40.0, 116.5).isEmpty());
+    }
+
+    private static ClusterPoints points(String[] ids, double[] latitudes, double[] longitudes) {
+        return new ClusterPoints(ids, latitudes, longitudes);
+    }
+
+    private static ClusterPoints randomPoints(int size, long seed) {
+        Random random = new Random(seed);
+        String[] ids = new String[size];
+        double[] latitudes = new double[size];
+        double[] longitudes = new double[size];
+        for (int i = 0; i < size; i++) {
+            ids[i] = "p" + i;
+            latitudes[i] = 39.0 + random.nextDouble() * 2;
+            longitudes[i] = 115.5 + random.nextDouble() * 2;
+        }
+        return new ClusterPoints(ids, latitudes, longitudes);
+    }
+}
@@ -0,0 +1,74 @@
+package site.snewbie.plugins.amap.event;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class PayloadEncoderRegistryTest {
+
+    @Test
+    public void exactTypeWinsOverSuperclass() {
+        PayloadEncoderRegistry<String> registry = new PayloadEncoderRegistry<String>()
+                .register(Number.class, (data, compact) -> "number")
+                .register(Integer.class, (data, compact) -> "integer:" + data);
+
+        assertEquals("integer:1", registry.encode(1, false));
+        assertEquals("number", registry.encode(1L, false));
+    }
+
+    @Test
+    public void interfacesAreResolvedWhenNoClassMatches() {
+        PayloadEncoderRegistry<String> registry = new PayloadEncoderRegistry<String>()
+                .register(CharSequence.class, (data, compact) -> "text")
+                .register(List.class, (data, compact) -> "list:" + data.size());
+
+        assertEquals("text", registry.encode(new StringBuilder("a"), false));
+        assertEquals("list:2", registry.encode(new ArrayList<>(List.of(1, 2)), false));
+        assertEquals("list:0", registry.encode(Collections.emptyList(), false));
+    }
+
+    @Test
+    public void unsupportedTypesEncodeToNull() {
+        PayloadEncoderRegistry<String> registry = new PayloadEncoderRegistry<String>()
+                .register(String.class, (data, compact) -> data);
+
+        assertNull(registry.encode(1, false));
+        assertNull(registry.encode(null, false));
+        assertFalse(registry.supports(Integer.class));
+
+        // 之后注册的类型不受缓存影响
+        registry.register(Integer.class, (data, compact) -> "integer");
+        assertTrue(registry.supports(Integer.class));
+        assertEquals("integer", registry.encode(1, false));
+    }
+
+    @Test
+    public void encodersReuseTheirPayload() {
+        StringBuilder builder = new StringBuilder();
+        PayloadEncoderRegistry<StringBuilder> registry = new PayloadEncoderRegistry<StringBuilder>()
+                .register(double[].class, (data, compact) -> {
+                    builder.setLength(0);
+                    if (compact) {
+                        builder.append('[').append(data[0]).append(',').append(data[1]).append(']');
+                    } else {
+                        builder.append("{\"latitude\":").append(data[0]).append(",\"longitude\":").append(data[1]).append('}');
+                    }
+                    return builder;
+                });
+
+        StringBuilder first = registry.encode(new double[]{39.9, 116.4}, true);
+        assertEquals("[39.9,116.4]", first.toString());
+
+        StringBuilder second = registry.encode(new double[]{31.2, 121.5}, false);
+        assertSame(first, second);
+        assertEquals("{\"latitude\":31.2,\"longitude\":121.5}", second.toString());
+    }
+}
@@ -0,0 +1,231 @@
+package site.snewbie.plugins.amap.geocode;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class BatchGeocoderTest {
+
+    @Test
+    public void rateLimiterSpacesPermitsWithoutBurst() {
+        long[] now = {-5_000};
+        RateLimiter limiter = new RateLimiter(4, () -> now[0]);
+
+        assertEquals(0, limiter.reserve());
+        assertEquals(250_000_000L, limiter.reserve());
+        assertEquals(500_000_000L, limiter.reserve());
+
+        // 空闲一段时间后不会累积许可
+        now[0] += 10_000_000_000L;
+        assertEquals(0, limiter.reserve());
+        assertEquals(250_000_000L, limiter.reserve());
+    }
+
+    @Test
+    public void resultsStreamInChunksAndCoverEveryQuery() throws InterruptedException {
+        FakeGeocoder geocoder = new FakeGeocoder();
+        BatchGeocoder batchGeocoder = new BatchGeocoder(geocoder, 3, new RateLimiter(1_000_000));
+        Recorder recorder = new Recorder();
+
+        List<BatchGeocoder.Query> queries = new ArrayList<>();
+        for (int i = 0; i < 45; i++) {
+            String address = i == 7 ? "fail" : "address-" + i;
+            queries.add(g -> g.geocode(address, null));
+        }
+        batchGeocoder.submit("batch-1", queries, 10, recorder);
+        assertTrue(recorder.done.await(5, TimeUnit.SECONDS));
+
+        Set<Integer> indexes = new HashSet<>();
+        int lastCompleted = 0;
+        for (int i = 0; i < recorder.chunks.size(); i++) {
+            List<BatchGeocoder.Result> chunk = recorder.chunks.get(i);
+            assertTrue(chunk.size() <= 10);
+            assertTrue(recorder.completed.get(i) > lastCompleted);
+            lastCompleted = recorder.completed.get(i);
+            for (BatchGeocoder.Result result : chunk) {
+                assertTrue(indexes.add(result.getIndex()));
+            }
+        }
+        assertEquals(45, indexes.size());
+        assertEquals(45, lastCompleted);
+        assertEquals(5, recorder.chunks.size());
+        assertEquals("44/1/0", recorder.summary);
+        assertTrue(geocoder.maxConcurrent.get() <= 3);
+
+        BatchGeocoder.Result failed = null;
+        for (List<BatchGeocoder.Result> chunk : recorder.chunks) {
+            for (BatchGeocoder.Result result : chunk) {
+                if (result.getIndex() == 7) {
+                    failed = result;
+                }
+            }
+        }
+        assertEquals(1806, failed.getCode());
+        assertNull(failed.getPayload());
+        batchGeocoder.shutdown();
+    }
+
+    @Test
+    public void cancelSkipsQueuedQueries() throws InterruptedException {
+        FakeGeocoder geocoder = new FakeGeocoder();
+        geocoder.gate = new CountDownLatch(1);
+        BatchGeocoder batchGeocoder = new BatchGeocoder(geocoder, 1, new RateLimiter(1_000_000));
+        Recorder recorder = new Recorder();
+
+        List<BatchGeocoder.Query> queries = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            queries.add(g -> g.reverseGeocode(39.9, 116.4, 1000));
+        }
+        batchGeocoder.submit("batch-2", queries, 5, recorder);
+        assertTrue(batchGeocoder.cancel("batch-2"));
+        geocoder.gate.countDown();
+
+        assertTrue(recorder.done.await(5, TimeUnit.SECONDS));
+        // 取消前第一个查询可能已经开始
+        assertTrue(geocoder.calls.get() <= 1);
+        assertEquals(geocoder.calls.get() + "/0/" + (20 - geocoder.calls.get()), recorder.summary);
+        assertFalse(batchGeocoder.cancel("batch-2"));
+        batchGeocoder.shutdown();
+    }
+
+    @Test
+    public void configureKeepsSubmittedBatchesCancellable() throws InterruptedException {
+        FakeGeocoder geocoder = new FakeGeocoder();
+        geocoder.gate = new CountDownLatch(1);
+        BatchGeocoder batchGeocoder = new BatchGeocoder(geocoder, 1, new RateLimiter(1_000_000));
+        Recorder recorder = new Recorder();
+
+        List<BatchGeocoder.Query> queries = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            queries.add(g -> g.reverseGeocode(39.9, 116.4, 1000));
+        }
+        batchGeocoder.submit("batch-3", queries, 5, recorder);
+        batchGeocoder.configure(2, new RateLimiter(1_000_000));
+        assertTrue(batchGeocoder.cancel("batch-3"));
+        geocoder.gate.countDown();
+
+        assertTrue(recorder.done.await(5, TimeUnit.SECONDS));
+        // 新增的工作线程可能在取消前开始一个查询
+        assertTrue(geocoder.calls.get() <= 2);
+        assertEquals(geocoder.calls.get() + "/0/" + (20 - geocoder.calls.get()), recorder.summary);
+        batchGeocoder.shutdown();
+    }
+
+    @Test
+    public void configureChangesConcurrency() throws InterruptedException {
+        FakeGeocoder geocoder = new FakeGeocoder();
+        BatchGeocoder batchGeocoder = new BatchGeocoder(geocoder, 4, new RateLimiter(1_000_000));
+        batchGeocoder.configure(1, new RateLimiter(1_000_000));
+        Recorder recorder = new Recorder();
+
+        List<BatchGeocoder.Query> queries = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            queries.add(g -> g.geocode("address", null));
+        }
+        batchGeocoder.submit("batch-4", queries, 5, recorder);
+
+        assertTrue(recorder.done.await(5, TimeUnit.SECONDS));
+        assertEquals("20/0/0", recorder.summary);
+        assertEquals(1, geocoder.maxConcurrent.get());
+        batchGeocoder.shutdown();
+    }
+
+    @Test
+    public void emptyBatchCompletesImmediately() {
+        BatchGeocoder batchGeocoder = new BatchGeocoder(new FakeGeocoder(), 1, new RateLimiter(1));
+        Recorder recorder = new Recorder();
+
+        batchGeocoder.submit("empty", Collections.emptyList(), 10, recorder);
+
+        assertEquals(0, recorder.done.getCount());
+        assertTrue(recorder.chunks.isEmpty());
+        batchGeocoder.shutdown();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void duplicateBatchIdIsRejected() {
+        FakeGeocoder geocoder = new FakeGeocoder();
+        geocoder.gate = new CountDownLatch(1);
+        BatchGeocoder batchGeocoder = new BatchGeocoder(geocoder, 1, new RateLimiter(1_000_000));
+        try {
+            List<BatchGeocoder.Query> queries = Collections.singletonList(g -> g.geocode("a", null));
+            batchGeocoder.submit("same", queries, 10, new Recorder());
+            batchGeocoder.submit("same", queries, 10, new Recorder());
+        } finally {
+            geocoder.gate.countDown();
+            batchGeocoder.shutdown();
+        }
+    }
+
+    private static final class FakeGeocoder implements SyncGeocoder {
+        private final AtomicInteger calls = new AtomicInteger();
+        private final AtomicInteger concurrent = new AtomicInteger();
+        private final AtomicInteger maxConcurrent = new AtomicInteger();
+        private volatile CountDownLatch gate;
+
+        @Override
+        public String geocode(String address, String city) throws GeocodeException {
+            this.enter();
+            try {
+                if ("fail".equals(address)) {
+                    throw new GeocodeException(1806, "network error");
+                }
+                return "[{\"formatAddress\":\"" + address + "\"}]";
+            } finally {
+                this.concurrent.decrementAndGet();
+            }
+        }
+
+        @Override
+        public String reverseGeocode(double latitude, double longitude, float radius) {
+            this.enter();
+            this.concurrent.decrementAndGet();
+            return "{}";
+        }
+
+        private void enter() {
+            this.calls.incrementAndGet();
+            int current = this.concurrent.incrementAndGet();
+            this.maxConcurrent.accumulateAndGet(current, Math::max);
+            CountDownLatch latch = this.gate;
+            if (latch != null) {
+                try {
+                    latch.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    private static final class Recorder implements BatchGeocoder.Listener {
+        private final List<List<BatchGeocoder.Result>> chunks = Collections.synchronizedList(new ArrayList<>());
+        private final List<Integer> completed = Collections.synchronizedList(new ArrayList<>());
+        private final CountDownLatch done = new CountDownLatch(1);
+        private volatile String summary;
+
+        @Override
+        public void onProgress(String batchId, List<BatchGeocoder.Result> results, int completed, int total) {
+            this.chunks.add(results);
+            this.completed.add(completed);
+        }
+
+        @Override
+        public void onComplete(String batchId, int succeeded, int failed, int cancelled) {
+            this.summary = succeeded + "/" + failed + "/" + cancelled;
+            this.done.countDown();
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package site.snewbie.plugins.amap.geocode;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ReverseGeocodeCacheTest {
+    private FakeGeocoder geocoder;
+    private long now;
+    private File directory;
+
+    @Before
+    public void setUp() {
+        this.geocoder = new FakeGeocoder();
+        this.now = 1_000_000L;
+        this.directory = new File(System.getProperty("java.io.tmpdir"), "geocode-cache-test-" + System.nanoTime());
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = this.directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        this.directory.delete();
+    }
+
+    @Test
+    public void geohashMatchesKnownValue() {
+        // 参考值来自 geohash.org
+        assertEquals("ezs42", GeoHash.encode(42.6, -5.6, 5));
+        assertEquals("wx4g0", GeoHash.encode(39.9087, 116.3975, 5));
+    }
+
+    @Test
+    public void nearbyCoordinatesShareOneQuery() {
+        ReverseGeocodeCache cache = this.cache(16, 7, 0, null);
+
+        Recorder first = new Recorder();
+        cache.reverseGeocode(39.90870, 116.39750, 1000, first);
+        this.geocoder.respond(0, ReverseGeocoder.SUCCESS, "{\"city\":\"北京\"}");
+
+        Recorder second = new Recorder();
+        cache.reverseGeocode(39.90871, 116.39751, 1000, second);
+
+        assertEquals(1, this.geocoder.pending.size());
+        assertEquals("{\"city\":\"北京\"}", second.payloads.get(0));
+        assertEquals(1, cache.getStats().getHits());
+        assertEquals(1, cache.getStats().getMisses());
+    }
+
+    @Test
+    public void differentRadiusIsADifferentKey() {
+        ReverseGeocodeCache cache = this.cache(16, 7, 0, null);
+
+        assertNotEquals(cache.key(39.9, 116.4, 1000), cache.key(39.9, 116.4, 200));
+    }
+
+    @Test
+    public void concurrentIdenticalRequestsAreDeduplicated() {
+        ReverseGeocodeCache cache = this.cache(16, 8, 0, null);
+
+        Recorder a = new Recorder();
+        Recorder b = new Recorder();
+        Recorder c = new Recorder();
+        cache.reverseGeocode(39.9, 116.4, 1000, a);
+        cache.reverseGeocode(39.9, 116.4, 1000, b);
+        cache.reverseGeocode(39.9, 116.4, 1000, c);
+
+        assertEquals(1, this.geocoder.pending.size());
+        assertEquals(2, cache.getStats().getJoined());
+        assertEquals(1, cache.getStats().getInFlight());
+
+        this.geocoder.respond(0, ReverseGeocoder.SUCCESS, "x");
+
+        assertEquals("x", a.payloads.get(0));
+        assertEquals("x", b.payloads.get(0));
+        assertEquals("x", c.payloads.get(0));
+        assertEquals(0, cache.getStats().getInFlight());
+    }
+
+    @Test
+    public void failuresAreSharedButNotCached() {
+        ReverseGeocodeCache cache = this.cache(16, 8, 0, null);
+
+        Recorder a = new Recorder();
+        Recorder b = new Recorder();
+        cache.reverseGeocode(39.9, 116.4, 1000, a);
+        cache.reverseGeocode(39.9, 116.4, 1000, b);
+        this.geocoder.respond(0, 1802, null);
+
+        assertEquals(Integer.valueOf(1802), a.codes.get(0));
+        assertEquals(Integer.valueOf(1802), b.codes.get(0));
+
+        cache.reverseGeocode(39.9, 116.4, 1000, new Recorder());
+        assertEquals(2, this.geocoder.pending.size());
+
+        Recorder error = new Recorder();
+        cache.reverseGeocode(31.2, 121.5, 1000, error);
+        this.geocoder.fail(2, new RuntimeException("network"));
+        assertEquals("network", error.errors.get(0).getMessage());
+        assertEquals(1, cache.getStats().getInFlight());
+    }
+
+    @Test
+    public void expiredEntriesAreQueriedAgain() {
+        ReverseGeocodeCache cache = this.cache(16, 8, 60_000, null);
+
+        cache.reverseGeocode(39.9, 116.4, 1000, new Recorder());
+        this.geocoder.respond(0, ReverseGeocoder.SUCCESS, "old");
+
+        this.now += 59_999;
+        Recorder fresh = new Recorder();
+        cache.reverseGeocode(39.9, 116.4, 1000, fresh);
+        assertEquals("old", fresh.payloads.get(0));
+
+        this.now += 1;
+        Recorder expired = new Recorder();
+        cache.reverseGeocode(39.9, 116.4, 1000, expired);
+        assertTrue(expired.payloads.isEmpty());
+        assertEquals(2, this.geocoder.pending.size());
+    }
+
+    @Test
+    public void leastRecentlyUsedEntryIsEvicted() {
+        ReverseGeocodeCache cache = this.cache(2, 8, 0, null);
+
+        cache.reverseGeocode(10, 10, 1000, new Recorder());
+        this.geocoder.respond(0, ReverseGeocoder.SUCCESS, "a");
+        cache.reverseGeocode(20, 20, 1000, new Recorder());
+        this.geocoder.respond(1, ReverseGeocoder.SUCCESS, "b");
+
+        // 访问 a 后 b 成为最久未使用
+        cache.reverseGeocode(10, 10, 1000, new Recorder());
+        cache.reverseGeocode(30, 30, 1000, new Recorder());
+        this.geocoder.respond(2, ReverseGeocoder.SUCCESS, "c");
+
+        assertEquals(1, cache.getStats().getEvictions());
+        assertEquals(2, cache.getStats().getSize());
+
+        cache.reverseGeocode(10, 10, 1000, new Recorder());
+        assertEquals(3, this.geocoder.pending.size());
+        cache.reverseGeocode(20, 20, 1000, new Recorder());
+        assertEquals(4, this.geocoder.pending.size());
+    }
+
+    @Test
+    public void diskTierSurvivesANewCache() {
+        GeocodeDiskStore store = new FileGeocodeDiskStore(this.directory, 100);
+        ReverseGeocodeCache cache = this.cache(16, 8, 60_000, store);
+        cache.reverseGeocode(39.9, 116.4, 1000, new Recorder());
+        this.geocoder.respond(0, ReverseGeocoder.SUCCESS, "{\"formatAddress\":\"天安门\"}");
+
+        ReverseGeocodeCache restarted = this.cache(16, 8, 60_000, new FileGeocodeDiskStore(this.directory, 100));
+        Recorder recorder = new Recorder();
+        restarted.reverseGeocode(39.9, 116.4, 1000, recorder);
+
+        assertEquals("{\"formatAddress\":\"天安门\"}", recorder.payloads.get(0));
+        assertEquals(1, restarted.getStats().getDiskHits());
+        assertEquals(1, this.geocoder.pending.size());
+
+        // 磁盘上的结果同样受有效期限制
+        this.now += 60_000;
+        ReverseGeocodeCache expired = this.cache(16, 8, 60_000, new FileGeocodeDiskStore(this.directory, 100));
+        expired.reverseGeocode(39.9, 116.4, 1000, new Recorder());
+        assertEquals(2, this.geocoder.pending.size());
+        assertNull(store.read(expired.key(39.9, 116.4, 1000)));
+    }
+
+    private ReverseGeocodeCache cache(int maxEntries, int precision, long ttlMillis, GeocodeDiskStore store) {
+        return new ReverseGeocodeCache(this.geocoder, maxEntries, precision, ttlMillis, store, () -> this.now);
+    }
+
+    private static final class FakeGeocoder implements ReverseGeocoder {
+        private final List<Callback> pending = new ArrayList<>();
+
+        @Override
+        public void reverseGeocode(double latitude, double longitude, float radius, Callback callback) {
+            this.pending.add(callback);
+        }
+
+        void respond(int index, int code, String payload) {
+            this.pending.get(index).onResult(code, payload);
+        }
+
+        void fail(int index, Exception e) {
+            this.pending.get(index).onError(e);
+        }
+    }
+
+    private static final class Recorder implements ReverseGeocoder.Callback {
+        private final List<Integer> codes = new ArrayList<>();
+        private final List<String> payloads = new ArrayList<>();
+        private final List<Exception> errors = new ArrayList<>();
+
+        @Override
+        public void onResult(int code, String payload) {
+            this.codes.add(code);
+            if (payload != null) {
+                this.payloads.add(payload);
+            }
+        }
+
+        @Override
+        public void onError(Exception e) {
+            this.errors.add(e);
+        }
+    }
+}
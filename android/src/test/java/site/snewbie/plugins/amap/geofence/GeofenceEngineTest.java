@@ -0,0 +1,171 @@
+package site.snewbie.plugins.amap.geofence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+public class GeofenceEngineTest {
+    /**
+     * 约 0.0001° 为 11 米。
+     */
+    private static final double STEP = 0.0001;
+
+    private static String transitions(List<GeofenceEngine.Transition> transitions) {
+        return transitions.toString();
+    }
+
+    @Test
+    public void emitsOnlyTransitions() {
+        GeofenceEngine engine = new GeofenceEngine();
+        engine.add(Arrays.asList(
+                Geofence.circle("store", 30, 120, 100, 0, 0),
+                Geofence.polygon("zone", new double[][]{{30, 120, 30, 120.01, 30.01, 120.01, 30.01, 120}}, 0, 0)));
+
+        assertEquals("[]", transitions(engine.update(29.99, 120.005, 10, 0)));
+        assertEquals("[zone:ENTER]", transitions(engine.update(30.005, 120.005, 10, 1000)));
+        assertEquals("[]", transitions(engine.update(30.006, 120.005, 10, 2000)));
+        // 离开 zone 的同时进入 store，离开事件在前
+        assertEquals("[zone:EXIT, store:ENTER]", transitions(engine.update(30, 119.9995, 10, 3000)));
+        assertEquals("[store:EXIT]", transitions(engine.update(30, 119.99, 10, 4000)));
+        assertEquals(Collections.emptyList(), engine.getInside());
+
+        GeofenceEngine.Stats stats = engine.getStats();
+        assertEquals(5, stats.getFixes());
+        assertEquals(4, stats.getTransitions());
+        assertEquals(1, stats.getIndexBuilds());
+    }
+
+    @Test
+    public void hysteresisSuppressesJitterAtBoundary() {
+        GeofenceEngine engine = new GeofenceEngine();
+        engine.add(Collections.singletonList(Geofence.circle("c", 30, 120, 100, 30, 0)));
+
+        double edge = 30 + 100 / Geofence.METERS_PER_DEGREE;
+        assertEquals("[c:ENTER]", transitions(engine.update(edge - STEP / 2, 120, 5, 0)));
+        // 在边界外 20 米以内来回漂移
+        for (int i = 0; i < 10; i++) {
+            double latitude = edge + (i % 2 == 0 ? 1.8 * STEP : -STEP / 2);
+            assertEquals("[]", transitions(engine.update(latitude, 120, 5, i)));
+        }
+        assertEquals("[c:EXIT]", transitions(engine.update(edge + 3 * STEP, 120, 5, 20)));
+        // 回到边界外的缓冲区内不会再次进入
+        assertEquals("[]", transitions(engine.update(edge + STEP, 120, 5, 21)));
+        assertEquals("[c:ENTER]", transitions(engine.update(edge - STEP, 120, 5, 22)));
+    }
+
+    @Test
+    public void dwellFiresOncePerStay() {
+        GeofenceEngine engine = new GeofenceEngine();
+        engine.add(Collections.singletonList(Geofence.circle("c", 30, 120, 100, 0, 60_000)));
+
+        assertEquals("[c:ENTER]", transitions(engine.update(30, 120, 5, 0)));
+        assertEquals("[]", transitions(engine.update(30, 120, 5, 59_999)));
+        assertEquals("[c:DWELL]", transitions(engine.update(30, 120, 5, 60_000)));
+        assertEquals("[]", transitions(engine.update(30, 120, 5, 120_000)));
+        assertEquals("[c:EXIT]", transitions(engine.update(31, 120, 5, 130_000)));
+        assertEquals("[c:ENTER]", transitions(engine.update(30, 120, 5, 140_000)));
+    }
+
+    @Test
+    public void inaccurateFixesAreIgnored() {
+        GeofenceEngine engine = new GeofenceEngine(50);
+        engine.add(Collections.singletonList(Geofence.circle("c", 30, 120, 100, 0, 0)));
+
+        assertEquals("[c:ENTER]", transitions(engine.update(30, 120, 10, 0)));
+        assertEquals("[]", transitions(engine.update(31, 120, 500, 1)));
+        assertEquals("[]", transitions(engine.update(31, 120, Float.NaN, 2)));
+        assertEquals(Collections.singletonList("c"), engine.getInside());
+        assertEquals(2, engine.getStats().getIgnoredFixes());
+    }
+
+    @Test
+    public void removeAndReplaceDoNotEmitEvents() {
+        GeofenceEngine engine = new GeofenceEngine();
+        engine.add(Arrays.asList(Geofence.circle("a", 30, 120, 100, 0, 0), Geofence.circle("b", 30, 120, 200, 0, 0)));
+        assertEquals(2, engine.update(30, 120, 5, 0).size());
+
+        assertEquals(1, engine.remove(Arrays.asList("a", "missing")));
+        // 替换后仍在新的形状内，不会再次进入
+        engine.add(Collections.singletonList(Geofence.circle("b", 30, 120.0001, 200, 0, 0)));
+        assertEquals("[]", transitions(engine.update(30, 120, 5, 1)));
+        assertEquals(1, engine.size());
+
+        // 替换后已不在新的形状内
+        engine.add(Collections.singletonList(Geofence.circle("b", 31, 120, 200, 0, 0)));
+        assertEquals("[b:EXIT]", transitions(engine.update(30, 120, 5, 2)));
+    }
+
+    @Test
+    public void buildIndexSkipsStaleSnapshots() {
+        GeofenceEngine engine = new GeofenceEngine();
+        engine.add(Collections.singletonList(Geofence.circle("a", 30, 120, 100, 0, 0)));
+        engine.buildIndex();
+        engine.buildIndex();
+        assertEquals(1, engine.getStats().getIndexBuilds());
+
+        // 索引已是最新时定位不会再次打包
+        assertEquals("[a:ENTER]", transitions(engine.update(30, 120, 5, 0)));
+        assertEquals(1, engine.getStats().getIndexBuilds());
+
+        engine.remove(Collections.singletonList("a"));
+        assertEquals("[]", transitions(engine.update(30, 120, 5, 1)));
+        assertEquals(2, engine.getStats().getIndexBuilds());
+    }
+
+    @Test
+    public void matchesBruteForceOnRandomWalk() {
+        Random random = new Random(7);
+        List<Geofence> fences = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            double latitude = 30 + random.nextDouble() * 0.5;
+            double longitude = 120 + random.nextDouble() * 0.5;
+            if (i % 2 == 0) {
+                fences.add(Geofence.circle("c" + i, latitude, longitude, 50 + random.nextDouble() * 500, 0, 0));
+            } else {
+                double size = 0.001 + random.nextDouble() * 0.01;
+                fences.add(Geofence.polygon("p" + i, new double[][]{{
+                        latitude, longitude, latitude + size, longitude + size / 2, latitude, longitude + size
+                }}, 0, 0));
+            }
+        }
+
+        GeofenceEngine engine = new GeofenceEngine();
+        engine.add(fences);
+
+        Set<String> expectedInside = new HashSet<>();
+        double latitude = 30.25;
+        double longitude = 120.25;
+        for (int step = 0; step < 20_000; step++) {
+            latitude = Math.max(30, Math.min(30.5, latitude + (random.nextDouble() - 0.5) * 0.002));
+            longitude = Math.max(120, Math.min(120.5, longitude + (random.nextDouble() - 0.5) * 0.002));
+
+            Set<String> nowInside = new HashSet<>();
+            for (Geofence fence : fences) {
+                if (fence.contains(latitude, longitude)) {
+                    nowInside.add(fence.getId());
+                }
+            }
+
+            for (GeofenceEngine.Transition transition : engine.update(latitude, longitude, 5, step)) {
+                if (transition.getType() == GeofenceEngine.Type.ENTER) {
+                    assertTrue(expectedInside.add(transition.getGeofenceId()));
+                } else {
+                    assertTrue(expectedInside.remove(transition.getGeofenceId()));
+                }
+            }
+            assertEquals(nowInside, expectedInside);
+        }
+
+        GeofenceEngine.Stats stats = engine.getStats();
+        assertTrue("candidates per fix " + stats.getCandidates() / stats.getFixes(), stats.getCandidates() < stats.getFixes() * 20);
+    }
+}
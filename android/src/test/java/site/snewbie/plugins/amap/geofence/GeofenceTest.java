@@ -0,0 +1,70 @@
+package site.snewbie.plugins.amap.geofence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class GeofenceTest {
+    /**
+     * 0.01° 见方的正方形，中间有一个 0.004° 见方的洞。
+     */
+    private static Geofence squareWithHole() {
+        return Geofence.polygon("square", new double[][]{
+                {30, 120, 30, 120.01, 30.01, 120.01, 30.01, 120},
+                {30.003, 120.003, 30.007, 120.003, 30.007, 120.007, 30.003, 120.007}
+        }, 0, 0);
+    }
+
+    @Test
+    public void polygonContainsUsesEvenOddRule() {
+        Geofence fence = squareWithHole();
+        assertTrue(fence.contains(30.001, 120.001));
+        assertTrue(fence.contains(30.009, 120.005));
+        assertFalse(fence.contains(30.005, 120.005));
+        assertFalse(fence.contains(30.011, 120.005));
+        assertFalse(fence.contains(29.999, 120.005));
+
+        // 凹多边形
+        Geofence concave = Geofence.polygon("l", new double[][]{{0, 0, 0, 2, 1, 2, 1, 1, 2, 1, 2, 0}}, 0, 0);
+        assertTrue(concave.contains(0.5, 1.5));
+        assertTrue(concave.contains(1.5, 0.5));
+        assertFalse(concave.contains(1.5, 1.5));
+    }
+
+    @Test
+    public void distanceOutsideIsMeasuredToNearestEdge() {
+        Geofence fence = squareWithHole();
+        assertEquals(0, fence.distanceOutside(30.005, 120.001), 0);
+
+        // 北边界以北 0.001°，约 111 米
+        assertEquals(111.2, fence.distanceOutside(30.011, 120.005), 0.5);
+        // 洞的中心到洞的边界 0.002°，经度方向乘以 cos(30°)
+        assertEquals(0.002 * Math.cos(Math.toRadians(30.005)) * Geofence.METERS_PER_DEGREE,
+                fence.distanceOutside(30.005, 120.005), 0.5);
+    }
+
+    @Test
+    public void circleUsesGreatCircleDistance() {
+        Geofence fence = Geofence.circle("c", 30, 120, 100, 10, 0);
+        assertTrue(fence.contains(30.0008, 120));
+        assertFalse(fence.contains(30.001, 120));
+        assertEquals(11.2, fence.distanceOutside(30.001, 120), 0.5);
+
+        // 外接矩形包含整个圆
+        double east = 120 + 100 / (Geofence.METERS_PER_DEGREE * Math.cos(Math.toRadians(30)));
+        assertTrue(fence.getMaxLongitude() >= east);
+        assertTrue(fence.contains(30, east - 1e-7));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsDegeneratePolygon() {
+        Geofence.polygon("p", new double[][]{{0, 0, 1, 1}}, 0, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsInvalidCoordinate() {
+        Geofence.circle("c", 91, 0, 10, 0, 0);
+    }
+}
@@ -0,0 +1,84 @@
+package site.snewbie.plugins.amap.geofence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+public class StrTreeTest {
+    @Test
+    public void matchesBruteForce() {
+        Random random = new Random(42);
+        int count = 5000;
+        double[] boxes = new double[count * 4];
+        for (int i = 0; i < count; i++) {
+            double x = random.nextDouble() * 100;
+            double y = random.nextDouble() * 100;
+            boxes[i * 4] = x;
+            boxes[i * 4 + 1] = y;
+            boxes[i * 4 + 2] = x + random.nextDouble() * 3;
+            boxes[i * 4 + 3] = y + random.nextDouble() * 3;
+        }
+
+        StrTree tree = new StrTree(boxes);
+        assertEquals(count, tree.size());
+        assertEquals(4, tree.getDepth());
+
+        for (int q = 0; q < 500; q++) {
+            double x = random.nextDouble() * 104 - 2;
+            double y = random.nextDouble() * 104 - 2;
+
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                if (x >= boxes[i * 4] && y >= boxes[i * 4 + 1] && x <= boxes[i * 4 + 2] && y <= boxes[i * 4 + 3]) {
+                    expected.add(i);
+                }
+            }
+
+            List<Integer> actual = new ArrayList<>();
+            int found = tree.query(x, y, actual::add);
+            Collections.sort(actual);
+            assertEquals(expected, actual);
+            assertEquals(expected.size(), found);
+        }
+    }
+
+    @Test
+    public void handlesEmptyAndSingleBoxes() {
+        StrTree empty = new StrTree(new double[0]);
+        assertEquals(0, empty.query(0, 0, i -> {
+            throw new AssertionError();
+        }));
+        assertEquals(0, empty.getDepth());
+
+        StrTree single = new StrTree(new double[]{0, 0, 1, 1});
+        List<Integer> found = new ArrayList<>();
+        single.query(1, 1, found::add);
+        single.query(1.5, 1, found::add);
+        assertEquals(Collections.singletonList(0), found);
+        assertEquals(1, single.getDepth());
+    }
+
+    @Test
+    public void duplicateCentersAreAllIndexed() {
+        int count = 100;
+        double[] boxes = new double[count * 4];
+        for (int i = 0; i < count; i++) {
+            boxes[i * 4] = -1 - i * 0.01;
+            boxes[i * 4 + 1] = -1;
+            boxes[i * 4 + 2] = 1 + i * 0.01;
+            boxes[i * 4 + 3] = 1;
+        }
+
+        int[] visited = new int[count];
+        new StrTree(boxes, 4).query(0, 0, i -> visited[i]++);
+        for (int i = 0; i < count; i++) {
+            assertTrue("box " + i, visited[i] == 1);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package site.snewbie.plugins.amap.heatmap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class HeatmapGridTest {
+    @Test
+    public void aggregatesPointsInSameCell() {
+        HeatmapGrid grid = new HeatmapGrid(4, 16);
+        grid.add(30, 120, 1);
+        grid.add(30.000001, 120.000001, 2);
+        grid.add(31, 121, 5);
+
+        assertEquals(2, grid.size());
+        assertEquals(5, grid.getMaxWeight(16), 0);
+    }
+
+    @Test
+    public void lowerZoomsMergeCellsAndFollowUpdates() {
+        HeatmapGrid grid = new HeatmapGrid(4, 16);
+        grid.add(30, 120, 1);
+        grid.add(30.001, 120.001, 2);
+
+        // 缩放级别 8 时两个点落在同一个网格
+        assertEquals(3, grid.getMaxWeight(8), 0);
+
+        grid.add(30, 120, 4);
+        assertEquals(7, grid.getMaxWeight(8), 0);
+        assertEquals(5, grid.getMaxWeight(16), 0);
+    }
+
+    @Test
+    public void readsWindowAroundCell() {
+        HeatmapGrid grid = new HeatmapGrid(4, 10);
+        long cell = grid.add(0, 0, 3);
+        int cellX = (int) (cell >>> 32);
+        int cellY = (int) cell;
+
+        double[] out = new double[9];
+        assertTrue(grid.read(10, cellX - 1, cellY - 1, 3, 3, out));
+        assertEquals(3, out[4], 0);
+        assertEquals(0, out[0], 0);
+
+        assertFalse(grid.read(10, 0, 0, 3, 3, out));
+    }
+
+    @Test
+    public void ignoresInvalidPointsAndClampsToWorld() {
+        HeatmapGrid grid = new HeatmapGrid(8, 12);
+        assertEquals(-1, grid.add(Double.NaN, 120, 1));
+        assertEquals(-1, grid.add(30, 120, Double.POSITIVE_INFINITY));
+
+        long cell = grid.add(89.9, 180, 1);
+        assertEquals(grid.cellsPerAxis(12) - 1, (int) (cell >>> 32));
+        assertEquals(1, grid.size());
+
+        grid.clear();
+        assertEquals(0, grid.size());
+    }
+}
@@ -0,0 +1,147 @@
+package site.snewbie.plugins.amap.heatmap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class HeatmapLayerTest {
+    private List<int[]> encoded;
+    private HeatmapLayer layer;
+
+    @Before
+    public void setUp() {
+        this.encoded = new ArrayList<>();
+        this.layer = new HeatmapLayer(4, 16, 1024 * 1024, new HeatmapStyle(), (pixels, size) -> {
+            this.encoded.add(pixels);
+            return new byte[]{1, 2, 3};
+        });
+    }
+
+    /**
+     * 经纬度所在瓦片的列号和行号。
+     */
+    private static int[] tileOf(double latitude, double longitude, int zoom) {
+        double n = 1 << zoom;
+        double sin = Math.sin(Math.toRadians(latitude));
+        double y = 0.5 - Math.log((1 + sin) / (1 - sin)) / (4 * Math.PI);
+        return new int[]{(int) ((longitude / 360 + 0.5) * n), (int) (y * n)};
+    }
+
+    @Test
+    public void rendersOnlyTilesWithHeat() throws Exception {
+        this.layer.setPoints(new double[]{30, 120, 1, 30.0005, 120.0005, 2});
+        int[] tile = tileOf(30, 120, 14);
+
+        assertNotNull(this.layer.getTile(tile[0], tile[1], 14));
+        assertNull(this.layer.getTile(tile[0] + 3, tile[1], 14));
+        assertEquals(1, this.encoded.size());
+
+        int[] pixels = this.encoded.get(0);
+        int opaque = 0;
+        for (int pixel : pixels) {
+            if ((pixel >>> 24) > 0) {
+                opaque++;
+            }
+        }
+        assertTrue(opaque > 0 && opaque < pixels.length / 4);
+    }
+
+    @Test
+    public void cachesTilesPerZoom() throws Exception {
+        this.layer.setPoints(new double[]{30, 120, 1});
+        int[] tile = tileOf(30, 120, 12);
+
+        this.layer.getTile(tile[0], tile[1], 12);
+        this.layer.getTile(tile[0], tile[1], 12);
+        this.layer.getTile(tile[0] + 5, tile[1], 12);
+        this.layer.getTile(tile[0] + 5, tile[1], 12);
+
+        assertEquals(1, this.encoded.size());
+        HeatmapLayer.Stats stats = this.layer.getStats();
+        assertEquals(2, stats.getRenderedTiles());
+        assertEquals(2, stats.getCache().getHits());
+        assertEquals(2, stats.getCache().getEntries());
+    }
+
+    @Test
+    public void weightUpdatesInvalidateOnlyAffectedTiles() throws Exception {
+        this.layer.setStyle(new HeatmapStyle(HeatmapStyle.DEFAULT_RADIUS, HeatmapGradient.DEFAULT, HeatmapStyle.DEFAULT_OPACITY, 10));
+        this.layer.setPoints(new double[]{30, 120, 1, 40, 100, 1});
+        int[] first = tileOf(30, 120, 10);
+        int[] second = tileOf(40, 100, 10);
+        this.layer.getTile(first[0], first[1], 10);
+        this.layer.getTile(second[0], second[1], 10);
+        int[] coarse = tileOf(40, 100, 6);
+        this.layer.getTile(coarse[0], coarse[1], 6);
+        assertEquals(3, this.encoded.size());
+
+        this.layer.addWeights(new double[]{30, 120, 2});
+
+        this.layer.getTile(second[0], second[1], 10);
+        assertEquals(3, this.encoded.size());
+        this.layer.getTile(first[0], first[1], 10);
+        assertEquals(4, this.encoded.size());
+        this.layer.getTile(coarse[0], coarse[1], 6);
+        assertEquals(4, this.encoded.size());
+        assertEquals(2, this.layer.getStats().getCells());
+    }
+
+    @Test
+    public void maxWeightChangeRerendersDistantTiles() throws Exception {
+        this.layer.setPoints(new double[]{30, 120, 1, 40, 100, 1});
+        int[] far = tileOf(40, 100, 10);
+        int[] coarse = tileOf(40, 100, 6);
+        this.layer.getTile(far[0], far[1], 10);
+        this.layer.getTile(coarse[0], coarse[1], 6);
+        assertEquals(2, this.encoded.size());
+
+        this.layer.addWeights(new double[]{30, 120, 5});
+
+        this.layer.getTile(far[0], far[1], 10);
+        this.layer.getTile(coarse[0], coarse[1], 6);
+        assertEquals(4, this.encoded.size());
+    }
+
+    @Test
+    public void negativeWeightsRemoveHeat() throws Exception {
+        this.layer.setPoints(new double[]{30, 120, 1});
+        int[] tile = tileOf(30, 120, 14);
+        assertNotNull(this.layer.getTile(tile[0], tile[1], 14));
+
+        this.layer.addWeights(new double[]{30, 120, -1});
+        assertNull(this.layer.getTile(tile[0], tile[1], 14));
+    }
+
+    @Test
+    public void styleChangeClearsCache() throws Exception {
+        this.layer.setPoints(new double[]{30, 120, 1});
+        int[] tile = tileOf(30, 120, 8);
+        this.layer.getTile(tile[0], tile[1], 8);
+
+        this.layer.setStyle(new HeatmapStyle(30, HeatmapGradient.DEFAULT, 1, 0));
+        this.layer.getTile(tile[0], tile[1], 8);
+        assertEquals(2, this.encoded.size());
+    }
+
+    @Test
+    public void rendersBeyondAggregationZoom() throws Exception {
+        this.layer.setPoints(new double[]{30, 120, 1});
+        int[] tile = tileOf(30, 120, 19);
+        assertNotNull(this.layer.getTile(tile[0], tile[1], 19));
+    }
+
+    @Test
+    public void gradientFadesInBelowFirstStop() {
+        HeatmapGradient gradient = new HeatmapGradient(new int[]{0xff00ff00, 0xffff0000}, new float[]{0.5f, 1f});
+        assertEquals(0, gradient.colorOf(0) >>> 24);
+        assertEquals(0xff00ff00, gradient.colorOf(0.5));
+        assertEquals(0xffff0000, gradient.colorOf(1));
+    }
+}
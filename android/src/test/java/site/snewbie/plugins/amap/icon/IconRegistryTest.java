@@ -0,0 +1,201 @@
+package site.snewbie.plugins.amap.icon;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+public class IconRegistryTest {
+    private List<Runnable> tasks;
+    private List<String> decoded;
+    private IconRegistry<String> registry;
+
+    @Before
+    public void setUp() {
+        this.tasks = new ArrayList<>();
+        this.decoded = new ArrayList<>();
+        // 每个图标占用的字节数等于字符串长度
+        this.registry = new IconRegistry<>(10, String::length, spec -> {
+            this.decoded.add(spec.getUri());
+            if (spec.getUri().startsWith("missing")) {
+                throw new FileNotFoundException(spec.getUri());
+            }
+            return spec.getUri().substring(0, 4);
+        }, this.tasks::add);
+    }
+
+    private void runTasks() {
+        while (!this.tasks.isEmpty()) {
+            this.tasks.remove(0).run();
+        }
+    }
+
+    @Test
+    public void concurrentLoadsShareOneDecode() {
+        IconSpec spec = new IconSpec("pin-red.png", 24, 0, 2);
+        List<String> results = new ArrayList<>();
+        IconRegistry.Callback<String> callback = new IconRegistry.Callback<String>() {
+            @Override
+            public void onLoaded(IconSpec spec, String value) {
+                results.add(value);
+            }
+
+            @Override
+            public void onError(IconSpec spec, Exception e) {
+                results.add("error");
+            }
+        };
+
+        this.registry.load(spec, callback);
+        this.registry.load(new IconSpec("pin-red.png", 24, 0, 2), callback);
+        assertNull(this.registry.getIfPresent(spec));
+        assertEquals(1, this.tasks.size());
+
+        this.runTasks();
+        assertEquals(Arrays.asList("pin-", "pin-"), results);
+        assertEquals(Collections.singletonList("pin-red.png"), this.decoded);
+
+        // 命中缓存时同步回调
+        this.registry.load(spec, callback);
+        assertEquals(3, results.size());
+        assertEquals("pin-", this.registry.getIfPresent(spec));
+
+        IconRegistry.Stats stats = this.registry.getStats();
+        assertEquals(1, stats.getEntries());
+        assertEquals(4, stats.getBytes());
+        assertEquals(1, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(1, stats.getJoined());
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedByBytes() {
+        IconSpec a = new IconSpec("aaaa.png", 0, 0, 1);
+        IconSpec b = new IconSpec("bbbb.png", 0, 0, 1);
+        IconSpec c = new IconSpec("cccc.png", 0, 0, 1);
+        this.registry.loadAll(Arrays.asList(a, b), (loaded, failed) -> {
+        });
+        this.runTasks();
+
+        // 访问 a 后 b 成为最久未使用的图标
+        this.registry.getIfPresent(a);
+        this.registry.loadAll(Collections.singletonList(c), (loaded, failed) -> {
+        });
+        this.runTasks();
+
+        assertEquals("aaaa", this.registry.getIfPresent(a));
+        assertNull(this.registry.getIfPresent(b));
+        assertEquals("cccc", this.registry.getIfPresent(c));
+        IconRegistry.Stats stats = this.registry.getStats();
+        assertEquals(8, stats.getBytes());
+        assertEquals(1, stats.getEvictions());
+
+        this.registry.clear();
+        assertEquals(0, this.registry.getStats().getBytes());
+        assertNull(this.registry.getIfPresent(a));
+    }
+
+    @Test
+    public void batchReportsFailuresWithoutCachingThem() {
+        IconSpec ok = new IconSpec("okay.png", 0, 0, 1);
+        IconSpec missing = new IconSpec("missing.png", 0, 0, 1);
+        List<Map<IconSpec, String>> loadedResults = new ArrayList<>();
+        List<Map<IconSpec, Exception>> failedResults = new ArrayList<>();
+
+        this.registry.loadAll(Arrays.asList(ok, missing, ok), (loaded, failed) -> {
+            loadedResults.add(loaded);
+            failedResults.add(failed);
+        });
+        assertEquals(2, this.tasks.size());
+        this.runTasks();
+
+        assertEquals(1, loadedResults.size());
+        assertEquals("okay", loadedResults.get(0).get(ok));
+        assertTrue(failedResults.get(0).get(missing) instanceof FileNotFoundException);
+        assertEquals(1, this.registry.getStats().getFailures());
+
+        // 失败的图标下次重新解码
+        this.registry.loadAll(Collections.singletonList(missing), (loaded, failed) -> {
+        });
+        this.runTasks();
+        assertEquals(Arrays.asList("okay.png", "missing.png", "missing.png"), this.decoded);
+    }
+
+    @Test
+    public void outOfMemoryStillCompletesBatch() {
+        IconRegistry<String> registry = new IconRegistry<>(10, String::length, spec -> {
+            throw new OutOfMemoryError();
+        }, this.tasks::add);
+        IconSpec spec = new IconSpec("huge.png", 0, 0, 1);
+        List<Map<IconSpec, Exception>> failedResults = new ArrayList<>();
+
+        registry.loadAll(Collections.singletonList(spec), (loaded, failed) -> failedResults.add(failed));
+        this.runTasks();
+
+        assertEquals(1, failedResults.size());
+        assertTrue(failedResults.get(0).containsKey(spec));
+    }
+
+    @Test
+    public void specKeysAndSizes() {
+        IconSpec spec = new IconSpec("file:///data/icons/pin.png", 32, 0, 3);
+        assertEquals(IconSpec.Type.FILE, spec.getType());
+        assertEquals("/data/icons/pin.png", spec.getPath());
+        assertEquals(IconSpec.Type.ASSET, new IconSpec("./assets/pin.png", 0, 0, 1).getType());
+        assertEquals("assets/pin.png", new IconSpec("./assets/pin.png", 0, 0, 1).getPath());
+
+        IconSpec data = new IconSpec("data:image/png;base64,iVBORw0KGgo=", 0, 0, 2);
+        assertEquals(IconSpec.Type.DATA, data.getType());
+        assertEquals("iVBORw0KGgo=", data.getData());
+
+        // 相同图片不同缩放比例分别缓存
+        assertNotEquals(spec.getKey(), new IconSpec("file:///data/icons/pin.png", 32, 0, 2).getKey());
+        assertEquals(spec, new IconSpec("file:///data/icons/pin.png", 32, 0, 3));
+
+        // 只设置宽度时按比例计算高度
+        assertArrayEquals(new int[]{96, 48}, spec.targetSize(200, 100));
+        assertArrayEquals(new int[]{400, 200}, new IconSpec("pin.png", 0, 0, 2).targetSize(200, 100));
+        assertArrayEquals(new int[]{96, 96}, new IconSpec("pin.png", 32, 32, 3).targetSize(200, 100));
+
+        assertEquals(2, IconSpec.sampleSize(200, 100, 96, 48));
+        assertEquals(1, IconSpec.sampleSize(200, 100, 150, 75));
+        assertEquals(8, IconSpec.sampleSize(1024, 1024, 96, 96));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNonBase64DataUri() {
+        new IconSpec("data:image/svg+xml,<svg/>", 0, 0, 1);
+    }
+
+    @Test
+    public void oversizedIconIsReturnedButNotCached() {
+        IconRegistry<String> registry = new IconRegistry<>(3, String::length, IconSpec::getPath, Runnable::run);
+        IconSpec spec = new IconSpec("large.png", 0, 0, 1);
+        String[] result = new String[1];
+        registry.load(spec, new IconRegistry.Callback<String>() {
+            @Override
+            public void onLoaded(IconSpec spec, String value) {
+                result[0] = value;
+            }
+
+            @Override
+            public void onError(IconSpec spec, Exception e) {
+            }
+        });
+        assertSame("large.png", result[0]);
+        assertNull(registry.getIfPresent(spec));
+        assertEquals(0, registry.getStats().getEntries());
+    }
+}
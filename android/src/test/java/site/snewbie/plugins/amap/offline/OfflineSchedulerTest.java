@@ -0,0 +1,211 @@
+package site.snewbie.plugins.amap.offline;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class OfflineSchedulerTest {
+    private FakeDownloader downloader;
+    private List<Runnable> timers;
+    private List<Long> delays;
+    private long now;
+    private long available;
+    private List<String> states;
+    private List<String> progress;
+    private OfflineScheduler scheduler;
+
+    @Before
+    public void setUp() {
+        this.downloader = new FakeDownloader();
+        this.timers = new ArrayList<>();
+        this.delays = new ArrayList<>();
+        this.now = 0;
+        this.available = Long.MAX_VALUE;
+        this.states = new ArrayList<>();
+        this.progress = new ArrayList<>();
+        this.scheduler = new OfflineScheduler(this.downloader, (task, delayMillis) -> {
+            this.timers.add(task);
+            this.delays.add(delayMillis);
+            return () -> this.timers.remove(task);
+        }, () -> this.now, () -> this.available, new OfflineScheduler.Listener() {
+            @Override
+            public void onStateChanged(OfflineScheduler.Task task) {
+                states.add(task.getCityCode() + ":" + task.getState());
+            }
+
+            @Override
+            public void onProgress(OfflineScheduler.Task task) {
+                progress.add(task.getCityCode() + ":" + task.getProgress());
+            }
+        });
+    }
+
+    @Test
+    public void downloadsByPriorityWithinConcurrencyLimit() {
+        this.scheduler.configure(2, 3, 1000, 1000, 0);
+        this.scheduler.enqueue("a", 0);
+        this.scheduler.enqueue("b", 0);
+        this.scheduler.enqueue("c", 5);
+        this.scheduler.enqueue("d", 5);
+
+        assertEquals(Arrays.asList("a", "b"), this.downloader.started);
+
+        this.downloader.listener.onCompleted("a");
+        this.downloader.listener.onCompleted("b");
+        // 优先级相同时先加入的先下载
+        assertEquals(Arrays.asList("a", "b", "c", "d"), this.downloader.started);
+        assertEquals(OfflineScheduler.State.COMPLETED, this.scheduler.getTask("a").getState());
+        assertEquals(100, this.scheduler.getTask("a").getProgress());
+    }
+
+    @Test
+    public void queuedTasksStartInPriorityOrder() {
+        this.scheduler.enqueue("low", 1);
+        this.scheduler.enqueue("high", 1);
+        this.scheduler.enqueue("urgent", 9);
+        this.scheduler.enqueue("high", 5);
+
+        this.downloader.listener.onCompleted("low");
+        this.downloader.listener.onCompleted("urgent");
+        assertEquals(Arrays.asList("low", "urgent", "high"), this.downloader.started);
+    }
+
+    @Test
+    public void failuresRetryWithExponentialBackoffThenFail() {
+        this.scheduler.configure(1, 2, 1000, 1000, 0);
+        this.scheduler.enqueue("a", 0);
+        this.scheduler.enqueue("b", 0);
+
+        this.downloader.listener.onFailed("a", "network");
+        assertEquals(OfflineScheduler.State.RETRY_WAIT, this.scheduler.getTask("a").getState());
+        // 等待重试期间下一个任务开始
+        assertEquals(Arrays.asList("a", "b"), this.downloader.started);
+
+        this.downloader.listener.onCompleted("b");
+        this.timers.remove(0).run();
+        this.downloader.listener.onFailed("a", "network");
+        this.timers.remove(0).run();
+        this.downloader.listener.onFailed("a", "network");
+
+        assertEquals(Arrays.asList(1000L, 2000L), this.delays);
+        OfflineScheduler.Task task = this.scheduler.getTask("a");
+        assertEquals(OfflineScheduler.State.FAILED, task.getState());
+        assertEquals(3, task.getAttempts());
+        assertEquals("network", task.getError());
+
+        assertTrue(this.scheduler.resume("a"));
+        assertEquals(OfflineScheduler.State.DOWNLOADING, this.scheduler.getTask("a").getState());
+        assertEquals(0, this.scheduler.getTask("a").getAttempts());
+    }
+
+    @Test
+    public void insufficientDiskSpaceFailsWithoutRetry() {
+        this.downloader.sizes.put("a", 100L);
+        this.downloader.sizes.put("b", 100L);
+        this.available = 150;
+        this.scheduler.configure(2, 3, 1000, 1000, 0);
+
+        this.scheduler.enqueue("a", 0);
+        // a 下载中还需要 100 字节，剩余空间不足以再下载 b
+        this.scheduler.enqueue("b", 0);
+
+        assertEquals(Arrays.asList("a"), this.downloader.started);
+        OfflineScheduler.Task task = this.scheduler.getTask("b");
+        assertEquals(OfflineScheduler.State.FAILED, task.getState());
+        assertEquals(OfflineScheduler.ERROR_INSUFFICIENT_SPACE, task.getError());
+        assertTrue(this.timers.isEmpty());
+    }
+
+    @Test
+    public void pauseFreesSlotAndResumeRequeues() {
+        this.scheduler.enqueue("a", 0);
+        this.scheduler.enqueue("b", 0);
+
+        assertTrue(this.scheduler.pause("a"));
+        assertEquals(Arrays.asList("a"), this.downloader.paused);
+        assertEquals(Arrays.asList("a", "b"), this.downloader.started);
+
+        assertTrue(this.scheduler.resume("a"));
+        assertEquals(OfflineScheduler.State.QUEUED, this.scheduler.getTask("a").getState());
+        this.downloader.listener.onCompleted("b");
+        assertEquals(Arrays.asList("a", "b", "a"), this.downloader.started);
+
+        assertFalse(this.scheduler.resume("a"));
+        assertFalse(this.scheduler.pause("missing"));
+    }
+
+    @Test
+    public void removeDeletesDataAndStartsNext() {
+        this.scheduler.enqueue("a", 0);
+        this.scheduler.enqueue("b", 0);
+
+        assertTrue(this.scheduler.remove("a"));
+        assertEquals(Arrays.asList("a"), this.downloader.removed);
+        assertEquals(Arrays.asList("a", "b"), this.downloader.started);
+        assertTrue(this.states.contains("a:REMOVED"));
+        assertEquals(1, this.scheduler.getTasks().size());
+
+        // 迟到的回调被忽略
+        this.downloader.listener.onCompleted("a");
+        assertEquals(1, this.scheduler.getTasks().size());
+    }
+
+    @Test
+    public void progressIsThrottled() {
+        this.scheduler.configure(1, 3, 1000, 500, 0);
+        this.scheduler.enqueue("a", 0);
+
+        this.downloader.listener.onProgress("a", 10);
+        this.now = 100;
+        this.downloader.listener.onProgress("a", 20);
+        this.now = 600;
+        this.downloader.listener.onProgress("a", 30);
+
+        assertEquals(Arrays.asList("a:10", "a:30"), this.progress);
+        assertEquals(30, this.scheduler.getTask("a").getProgress());
+        assertEquals(Arrays.asList("a:QUEUED", "a:DOWNLOADING"), this.states);
+    }
+
+    private static class FakeDownloader implements OfflineDownloader {
+        private final List<String> started = new ArrayList<>();
+        private final List<String> paused = new ArrayList<>();
+        private final List<String> removed = new ArrayList<>();
+        private final Map<String, Long> sizes = new HashMap<>();
+        private Listener listener;
+
+        @Override
+        public void setListener(Listener listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public void download(String cityCode) {
+            this.started.add(cityCode);
+        }
+
+        @Override
+        public void pause(String cityCode) {
+            this.paused.add(cityCode);
+        }
+
+        @Override
+        public void remove(String cityCode) {
+            this.removed.add(cityCode);
+        }
+
+        @Override
+        public long getSize(String cityCode) {
+            Long size = this.sizes.get(cityCode);
+            return size != null ? size : 0;
+        }
+    }
+}
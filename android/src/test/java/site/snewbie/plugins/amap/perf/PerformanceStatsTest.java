@@ -0,0 +1,84 @@
+package site.snewbie.plugins.amap.perf;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+
+public class PerformanceStatsTest {
+
+    @Test
+    public void latencyPercentilesUseBucketUpperBounds() {
+        LatencyRecorder recorder = new LatencyRecorder();
+        // 90 次 300 微秒，10 次 20 毫秒
+        for (int i = 0; i < 90; i++) {
+            recorder.record(300_000);
+        }
+        for (int i = 0; i < 10; i++) {
+            recorder.record(20_000_000);
+        }
+
+        LatencyRecorder.Snapshot snapshot = recorder.snapshot();
+        assertEquals(100, snapshot.getCount());
+        assertEquals(20_000_000, snapshot.getMaxNanos());
+        assertEquals((90 * 300_000L + 10 * 20_000_000L) / 100, snapshot.getMeanNanos());
+        assertEquals(512_000, snapshot.getP50Nanos());
+        // 分位数不超过最大值
+        assertEquals(20_000_000, snapshot.getP95Nanos());
+        assertEquals(20_000_000, snapshot.getP99Nanos());
+    }
+
+    @Test
+    public void bucketsDoubleInMicroseconds() {
+        assertEquals(0, LatencyRecorder.bucketOf(999));
+        assertEquals(1, LatencyRecorder.bucketOf(1_000));
+        assertEquals(2, LatencyRecorder.bucketOf(2_000));
+        assertEquals(2, LatencyRecorder.bucketOf(3_999));
+        assertEquals(23, LatencyRecorder.bucketOf(Long.MAX_VALUE));
+        assertEquals(4_000, LatencyRecorder.upperBoundOf(2));
+    }
+
+    @Test
+    public void payloadBytesAreEstimatedFromSamples() {
+        EventCounter counter = new EventCounter();
+        int sampled = 0;
+        for (int i = 0; i < 64; i++) {
+            counter.onReceived();
+            counter.onReceived();
+            if (counter.onEmitted()) {
+                counter.recordSize(100 + sampled++);
+            }
+        }
+
+        assertEquals(64 / EventCounter.SIZE_SAMPLE_INTERVAL, sampled);
+        EventCounter.Snapshot snapshot = counter.snapshot();
+        assertEquals(128, snapshot.getReceived());
+        assertEquals(64, snapshot.getEmitted());
+        assertEquals(64, snapshot.getDropped());
+        assertEquals(Math.round((100 + 101 + 102 + 103) / 4.0 * 64), snapshot.getBytes());
+    }
+
+    @Test
+    public void resetKeepsCounterInstances() {
+        PerformanceStats stats = new PerformanceStats();
+        EventCounter counter = stats.event("onCameraChange");
+        counter.onReceived();
+        assertTrue(counter.onEmitted());
+        stats.latency("render").record(1_000_000);
+        stats.event("onMapClick").onReceived();
+
+        Map<String, EventCounter.Snapshot> events = stats.getEvents();
+        assertEquals(Arrays.asList("onCameraChange", "onMapClick"), Arrays.asList(events.keySet().toArray()));
+
+        stats.reset();
+        assertSame(counter, stats.event("onCameraChange"));
+        assertEquals(0, stats.getEvents().get("onCameraChange").getEmitted());
+        assertEquals(0, stats.getLatencies().get("render").getCount());
+        assertFalse(stats.getLatencies().get("render").getMaxNanos() > 0);
+    }
+}
@@ -0,0 +1,99 @@
+package site.snewbie.plugins.amap.pool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class BoundedPoolTest {
+
+    @Test
+    public void mostRecentlyReleasedIsReusedFirst() {
+        List<String> disposed = new ArrayList<>();
+        BoundedPool<String> pool = new BoundedPool<>(3, 1000, disposed::add);
+
+        assertNull(pool.acquire());
+        pool.prewarm("a", 10);
+        pool.release("b", 10);
+
+        assertEquals("b", pool.acquire());
+        assertEquals("a", pool.acquire());
+        assertNull(pool.acquire());
+
+        BoundedPool.Stats stats = pool.getStats();
+        assertEquals(2, stats.getHits());
+        assertEquals(2, stats.getMisses());
+        assertEquals(1, stats.getRecycled());
+        assertEquals(1, stats.getPrewarmed());
+        assertEquals(0, stats.getBytes());
+        assertTrue(disposed.isEmpty());
+    }
+
+    @Test
+    public void sizeLimitEvictsEldest() {
+        List<String> disposed = new ArrayList<>();
+        BoundedPool<String> pool = new BoundedPool<>(2, 1000, disposed::add);
+
+        pool.release("a", 1);
+        pool.release("b", 1);
+        pool.release("c", 1);
+
+        assertEquals(Arrays.asList("a"), disposed);
+        assertEquals(2, pool.getStats().getSize());
+        assertEquals(1, pool.getStats().getEvictions());
+        assertEquals(0, pool.getDeficit());
+    }
+
+    @Test
+    public void memoryBudgetEvictsAndRejects() {
+        List<String> disposed = new ArrayList<>();
+        BoundedPool<String> pool = new BoundedPool<>(10, 100, disposed::add);
+
+        pool.release("a", 40);
+        pool.release("b", 40);
+        assertFalse(pool.fits(40));
+        pool.release("c", 40);
+        assertEquals(Arrays.asList("a"), disposed);
+        assertEquals(80, pool.getStats().getBytes());
+
+        // 单个对象超过预算时直接释放
+        assertFalse(pool.accepts(101));
+        assertFalse(pool.release("huge", 101));
+        assertEquals(Arrays.asList("a", "huge"), disposed);
+        assertEquals(8, pool.getDeficit());
+    }
+
+    @Test
+    public void resizeAndClearDisposeIdleItems() {
+        List<String> disposed = new ArrayList<>();
+        BoundedPool<String> pool = new BoundedPool<>(4, 1000, disposed::add);
+        pool.prewarm("a", 1);
+        pool.prewarm("b", 1);
+        pool.prewarm("c", 1);
+
+        pool.resize(1, 1000);
+        assertEquals(Arrays.asList("a", "b"), disposed);
+
+        pool.clear();
+        assertEquals(Arrays.asList("a", "b", "c"), disposed);
+        assertEquals(0, pool.getStats().getSize());
+    }
+
+    @Test
+    public void zeroSizedPoolDisposesEverything() {
+        List<String> disposed = new ArrayList<>();
+        BoundedPool<String> pool = new BoundedPool<>(0, 1000, disposed::add);
+
+        assertFalse(pool.accepts(1));
+        assertFalse(pool.release("a", 1));
+        assertFalse(pool.prewarm("b", 1));
+        assertEquals(Arrays.asList("a", "b"), disposed);
+        assertEquals(0, pool.getDeficit());
+    }
+}
@@ -0,0 +1,134 @@
+package site.snewbie.plugins.amap.simplify;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+public class PolylineSimplifierTest {
+
+    @Test
+    public void significanceMatchesDirectDouglasPeucker() {
+        Random random = new Random(7);
+        double[] xs = new double[500];
+        double[] ys = new double[500];
+        double x = 0.5;
+        double y = 0.5;
+        for (int i = 0; i < xs.length; i++) {
+            x += (random.nextDouble() - 0.3) * 1e-4;
+            y += (random.nextDouble() - 0.5) * 1e-4;
+            xs[i] = x;
+            ys[i] = y;
+        }
+
+        double[] significance = PolylineSimplifier.significance(xs, ys);
+
+        for (double tolerance : new double[]{1e-6, 1e-5, 5e-5, 2e-4}) {
+            boolean[] expected = new boolean[xs.length];
+            expected[0] = true;
+            expected[xs.length - 1] = true;
+            douglasPeucker(xs, ys, 0, xs.length - 1, tolerance, expected);
+
+            for (int i = 0; i < xs.length; i++) {
+                assertEquals("vertex " + i + " at tolerance " + tolerance, expected[i], significance[i] > tolerance);
+            }
+        }
+    }
+
+    @Test
+    public void straightLineKeepsOnlyEndpoints() {
+        double[] coordinates = new double[200];
+        for (int i = 0; i < 100; i++) {
+            coordinates[i * 2] = 39.9;
+            coordinates[i * 2 + 1] = 116.0 + i * 0.001;
+        }
+
+        SimplifiedPolyline polyline = new SimplifiedPolyline(coordinates, 1);
+
+        assertArrayEquals(new int[]{0, 99}, polyline.getLevel(SimplifiedPolyline.MAX_ZOOM));
+    }
+
+    @Test
+    public void levelsGrowWithZoomAndAreShared() {
+        SimplifiedPolyline polyline = new SimplifiedPolyline(randomTrack(20_000, 3), 1);
+
+        int previous = 0;
+        for (int zoom = SimplifiedPolyline.MIN_ZOOM; zoom <= SimplifiedPolyline.MAX_ZOOM; zoom++) {
+            int[] level = polyline.getLevel(zoom);
+            assertTrue(level.length >= previous);
+            assertEquals(0, level[0]);
+            assertEquals(polyline.size() - 1, level[level.length - 1]);
+            previous = level.length;
+        }
+
+        // 超出范围时使用最近的级别，小数缩放级别向下取整
+        assertSame(polyline.getLevel(SimplifiedPolyline.MIN_ZOOM), polyline.getLevel(0));
+        assertSame(polyline.getLevel(SimplifiedPolyline.MAX_ZOOM), polyline.getLevel(25));
+        assertSame(polyline.getLevel(12), polyline.getLevel(12.9f));
+    }
+
+    /**
+     * 5 万点轨迹的预计算耗时和各缩放级别的顶点数。
+     */
+    @Test
+    public void fiftyThousandPointTrackIsReduced() {
+        double[] coordinates = randomTrack(50_000, 11);
+        SimplifiedPolyline polyline = new SimplifiedPolyline(coordinates, 1);
+
+        assertEquals(50_000, polyline.size());
+        assertTrue(polyline.getLevel(10).length < polyline.size() / 10);
+    }
+
+    private static void douglasPeucker(double[] xs, double[] ys, int start, int end, double tolerance, boolean[] kept) {
+        if (end - start < 2) {
+            return;
+        }
+
+        int farthest = -1;
+        double maxDistance = -1;
+        for (int i = start + 1; i < end; i++) {
+            double distance = distance(xs[i], ys[i], xs[start], ys[start], xs[end], ys[end]);
+            if (distance > maxDistance) {
+                maxDistance = distance;
+                farthest = i;
+            }
+        }
+
+        if (maxDistance > tolerance) {
+            kept[farthest] = true;
+            douglasPeucker(xs, ys, start, farthest, tolerance, kept);
+            douglasPeucker(xs, ys, farthest, end, tolerance, kept);
+        }
+    }
+
+    private static double distance(double px, double py, double ax, double ay, double bx, double by) {
+        double dx = bx - ax;
+        double dy = by - ay;
+        double lengthSquared = dx * dx + dy * dy;
+        double t = lengthSquared == 0 ? 0 : Math.max(0, Math.min(1, ((px - ax) * dx + (py - ay) * dy) / lengthSquared));
+        return Math.hypot(px - (ax + t * dx), py - (ay + t * dy));
+    }
+
+    /**
+     * 模拟 GPS 轨迹：约 1 秒一个点，方向缓慢变化并带有噪声。
+     */
+    private static double[] randomTrack(int size, long seed) {
+        Random random = new Random(seed);
+        double[] coordinates = new double[size * 2];
+        double latitude = 39.9;
+        double longitude = 116.4;
+        double heading = 0;
+        for (int i = 0; i < size; i++) {
+            heading += (random.nextDouble() - 0.5) * 0.3;
+            latitude += Math.cos(heading) * 1e-4 + random.nextGaussian() * 5e-6;
+            longitude += Math.sin(heading) * 1e-4 + random.nextGaussian() * 5e-6;
+            coordinates[i * 2] = latitude;
+            coordinates[i * 2 + 1] = longitude;
+        }
+        return coordinates;
+    }
+}
@@ -0,0 +1,123 @@
+package site.snewbie.plugins.amap.spatial;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+public class KdTreeTest {
+    private static double[] randomCoords(Random random, int count) {
+        double[] coords = new double[count * 3];
+        for (int i = 0; i < coords.length; i++) {
+            // 取整后有大量重复坐标
+            coords[i] = random.nextInt(50) / 10.0;
+        }
+        return coords;
+    }
+
+    private static double distance2(double[] coords, int i, double x, double y, double z) {
+        double dx = coords[i * 3] - x;
+        double dy = coords[i * 3 + 1] - y;
+        double dz = coords[i * 3 + 2] - z;
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    private static List<Integer> sorted(List<Integer> values) {
+        Collections.sort(values);
+        return values;
+    }
+
+    @Test
+    public void rangeAndWithinMatchBruteForce() {
+        Random random = new Random(7);
+        double[] coords = randomCoords(random, 2000);
+        KdTree tree = new KdTree(coords, 4);
+
+        for (int q = 0; q < 100; q++) {
+            double x = random.nextDouble() * 5;
+            double y = random.nextDouble() * 5;
+            double z = random.nextDouble() * 5;
+            double size = random.nextDouble();
+
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < 2000; i++) {
+                if (coords[i * 3] >= x && coords[i * 3] <= x + size && coords[i * 3 + 1] >= y && coords[i * 3 + 1] <= y + size
+                        && coords[i * 3 + 2] >= z && coords[i * 3 + 2] <= z + size) {
+                    expected.add(i);
+                }
+            }
+            List<Integer> actual = new ArrayList<>();
+            assertEquals(expected.size(), tree.range(x, y, z, x + size, y + size, z + size, actual::add));
+            assertEquals(expected, sorted(actual));
+
+            expected.clear();
+            for (int i = 0; i < 2000; i++) {
+                if (distance2(coords, i, x, y, z) <= size * size) {
+                    expected.add(i);
+                }
+            }
+            actual.clear();
+            assertEquals(expected.size(), tree.within(x, y, z, size, actual::add));
+            assertEquals(expected, sorted(actual));
+        }
+    }
+
+    @Test
+    public void nearestMatchesBruteForce() {
+        Random random = new Random(11);
+        double[] coords = new double[3000 * 3];
+        for (int i = 0; i < coords.length; i++) {
+            coords[i] = random.nextDouble();
+        }
+        KdTree tree = new KdTree(coords);
+
+        for (int q = 0; q < 50; q++) {
+            double x = random.nextDouble();
+            double y = random.nextDouble();
+            double z = random.nextDouble();
+
+            Neighbors neighbors = new Neighbors(10, Double.POSITIVE_INFINITY);
+            tree.nearest(x, y, z, neighbors, index -> index % 2 == 0);
+
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < 3000; i += 2) {
+                expected.add(i);
+            }
+            expected.sort((a, b) -> Double.compare(distance2(coords, a, x, y, z), distance2(coords, b, x, y, z)));
+
+            int[] actual = neighbors.sorted();
+            assertEquals(10, actual.length);
+            for (int i = 0; i < 10; i++) {
+                assertEquals((int) expected.get(i), actual[i]);
+            }
+        }
+    }
+
+    @Test
+    public void neighborsRespectMaxDistance() {
+        Neighbors neighbors = new Neighbors(3, 4);
+        neighbors.offer(1, 9);
+        neighbors.offer(2, 1);
+        neighbors.offer(3, 4);
+        neighbors.offer(4, 0);
+        neighbors.offer(5, 2);
+        assertArrayEquals(new int[]{4, 2, 5}, neighbors.sorted());
+        assertEquals(2, neighbors.bound(), 0);
+    }
+
+    @Test
+    public void emptyTree() {
+        KdTree tree = new KdTree(new double[0]);
+        assertEquals(0, tree.size());
+        assertEquals(0, tree.range(-1, -1, -1, 1, 1, 1, index -> {
+        }));
+        Neighbors neighbors = new Neighbors(1, Double.POSITIVE_INFINITY);
+        tree.nearest(0, 0, 0, neighbors, null);
+        assertEquals(0, neighbors.size());
+    }
+}
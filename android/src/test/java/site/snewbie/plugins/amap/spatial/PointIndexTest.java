@@ -0,0 +1,146 @@
+package site.snewbie.plugins.amap.spatial;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class PointIndexTest {
+    private static double haversine(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * PointIndex.EARTH_RADIUS * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private static List<String> sorted(List<String> ids) {
+        List<String> copy = new ArrayList<>(ids);
+        Collections.sort(copy);
+        return copy;
+    }
+
+    /**
+     * 随机添加、移动和移除点，每一轮都与逐个比较的结果对照，覆盖树、待索引集合和重新创建树的各种组合。
+     */
+    @Test
+    public void queriesMatchBruteForceWhilePointsChange() {
+        Random random = new Random(3);
+        PointIndex index = new PointIndex();
+        Map<String, double[]> points = new LinkedHashMap<>();
+
+        for (int round = 0; round < 40; round++) {
+            int changes = round == 0 ? 5000 : random.nextInt(600);
+            for (int i = 0; i < changes; i++) {
+                String id = "p" + random.nextInt(6000);
+                if (random.nextInt(5) == 0) {
+                    assertEquals(points.remove(id) != null, index.remove(id));
+                } else {
+                    double[] point = {39.5 + random.nextDouble(), 116 + random.nextDouble()};
+                    points.put(id, point);
+                    index.put(id, point[0], point[1]);
+                }
+            }
+            assertEquals(points.size(), index.size());
+
+            double south = 39.5 + random.nextDouble() * 0.8;
+            double west = 116 + random.nextDouble() * 0.8;
+            double north = south + random.nextDouble() * 0.2;
+            double east = west + random.nextDouble() * 0.2;
+            List<String> expected = new ArrayList<>();
+            for (Map.Entry<String, double[]> entry : points.entrySet()) {
+                double[] p = entry.getValue();
+                if (p[0] >= south && p[0] <= north && p[1] >= west && p[1] <= east) {
+                    expected.add(entry.getKey());
+                }
+            }
+            PointIndex.Result bounds = index.queryInBounds(south, west, north, east, 0);
+            assertEquals(sorted(expected), sorted(bounds.getIds()));
+            assertEquals(expected.size(), bounds.getTotal());
+
+            double lat = 39.5 + random.nextDouble();
+            double lng = 116 + random.nextDouble();
+            double radius = random.nextDouble() * 10_000;
+            expected.clear();
+            for (Map.Entry<String, double[]> entry : points.entrySet()) {
+                double[] p = entry.getValue();
+                if (haversine(lat, lng, p[0], p[1]) <= radius) {
+                    expected.add(entry.getKey());
+                }
+            }
+            assertEquals(sorted(expected), sorted(index.queryWithinRadius(lat, lng, radius, 0).getIds()));
+
+            List<String> all = new ArrayList<>(points.keySet());
+            all.sort((a, b) -> Double.compare(haversine(lat, lng, points.get(a)[0], points.get(a)[1]),
+                    haversine(lat, lng, points.get(b)[0], points.get(b)[1])));
+            assertEquals(all.subList(0, 10), index.queryNearest(lat, lng, 10, 0).getIds());
+        }
+
+        assertTrue(index.getStats().getRebuilds() > 1);
+    }
+
+    @Test
+    public void boundsCrossingAntimeridian() {
+        PointIndex index = new PointIndex();
+        index.put("east", 0, 179.5);
+        index.put("west", 0, -179.5);
+        index.put("middle", 0, 0);
+        index.put("north", 10, 179.5);
+
+        assertEquals(Arrays.asList("east", "west"), sorted(index.queryInBounds(-1, 179, 1, -179, 0).getIds()));
+        assertEquals(Arrays.asList("middle"), index.queryInBounds(-1, -179, 1, 179, 0).getIds());
+        assertEquals(4, index.queryInBounds(-90, -180, 90, 180, 0).getTotal());
+        // 跨越经度 180° 的最近点
+        assertEquals(Arrays.asList("west", "east"), index.queryNearest(0, -179.9, 2, 0).getIds());
+    }
+
+    @Test
+    public void limitsAndMaxDistance() {
+        PointIndex index = new PointIndex();
+        for (int i = 0; i < 100; i++) {
+            index.put("p" + i, 30, 120 + i * 0.001);
+        }
+
+        PointIndex.Result result = index.queryInBounds(29, 119, 31, 121, 5);
+        assertEquals(5, result.getIds().size());
+        assertEquals(100, result.getTotal());
+
+        // 经度 0.001° 在北纬 30° 约 96 米
+        assertEquals(Arrays.asList("p0", "p1", "p2"), index.queryNearest(30, 120, 10, 200).getIds());
+        assertEquals(3, index.queryWithinRadius(30, 120, 200, 0).getTotal());
+        assertEquals(1, index.queryWithinRadius(30, 120, 0, 0).getTotal());
+    }
+
+    @Test
+    public void removedPointsAreNotReturnedAfterRebuild() {
+        PointIndex index = new PointIndex();
+        for (int i = 0; i < 1000; i++) {
+            index.put("p" + i, 30 + i * 1e-4, 120);
+        }
+        assertEquals(1000, index.queryInBounds(29, 119, 31, 121, 0).getTotal());
+        assertEquals(0, index.getStats().getPending());
+
+        for (int i = 0; i < 1000; i += 2) {
+            index.remove("p" + i);
+        }
+        index.put("p1", 50, 120);
+        assertEquals(499, index.queryInBounds(29, 119, 31, 121, 0).getTotal());
+        assertEquals(Arrays.asList("p1"), index.queryNearest(49, 120, 1, 0).getIds());
+        assertFalse(index.contains("p0"));
+
+        index.clear();
+        assertEquals(0, index.size());
+        assertEquals(0, index.queryNearest(30, 120, 5, 0).getIds().size());
+        index.put("a", 30, 120);
+        assertEquals(Arrays.asList("a"), index.queryWithinRadius(30, 120, 1, 0).getIds());
+    }
+}
@@ -0,0 +1,82 @@
+package site.snewbie.plugins.amap.tile;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+public class TileDiskCacheTest {
+    private File directory;
+
+    @Before
+    public void setUp() {
+        this.directory = new File(System.getProperty("java.io.tmpdir"), "tile-disk-cache-test-" + System.nanoTime());
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = this.directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        this.directory.delete();
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedTiles() {
+        TileDiskCache cache = new TileDiskCache(this.directory, 100);
+        long a = TileKey.pack(5, 1, 1);
+        long b = TileKey.pack(5, 2, 1);
+        long c = TileKey.pack(5, 3, 1);
+
+        cache.put(a, new byte[40]);
+        cache.put(b, new byte[40]);
+        cache.get(a);
+        cache.put(c, new byte[40]);
+
+        assertNull(cache.get(b));
+        assertEquals(40, cache.get(a).length);
+        TileDiskCache.Stats stats = cache.getStats();
+        assertEquals(2, stats.getEntries());
+        assertEquals(80, stats.getBytes());
+        assertEquals(1, stats.getEvictions());
+        assertEquals(2, this.directory.listFiles().length);
+    }
+
+    @Test
+    public void restoresIndexFromDirectory() throws IOException {
+        TileDiskCache cache = new TileDiskCache(this.directory, 1000);
+        long key = TileKey.pack(12, 3400, 1600);
+        cache.put(key, new byte[]{7, 8, 9});
+
+        // 上次写入中断留下的临时文件
+        new File(this.directory, "1-0.tmp").createNewFile();
+
+        TileDiskCache reopened = new TileDiskCache(this.directory, 1000);
+        assertArrayEquals(new byte[]{7, 8, 9}, reopened.get(key));
+        assertEquals(3, reopened.getStats().getBytes());
+        assertEquals(1, this.directory.listFiles().length);
+    }
+
+    @Test
+    public void toleratesExternallyDeletedFiles() {
+        TileDiskCache cache = new TileDiskCache(this.directory, 1000);
+        long key = TileKey.pack(1, 0, 0);
+        cache.put(key, new byte[10]);
+
+        for (File file : this.directory.listFiles()) {
+            file.delete();
+        }
+
+        assertNull(cache.get(key));
+        assertEquals(0, cache.getStats().getBytes());
+    }
+}
@@ -0,0 +1,174 @@
+package site.snewbie.plugins.amap.tile;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TileLoaderTest {
+    private File directory;
+    private AtomicInteger reads;
+    private List<Runnable> queued;
+
+    @Before
+    public void setUp() {
+        this.directory = new File(System.getProperty("java.io.tmpdir"), "tile-loader-test-" + System.nanoTime());
+        this.reads = new AtomicInteger();
+        this.queued = new ArrayList<>();
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = this.directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        this.directory.delete();
+    }
+
+    private TileSource source() {
+        return (x, y, zoom) -> {
+            this.reads.incrementAndGet();
+            return x == 0 ? null : new byte[]{(byte) x, (byte) y, (byte) zoom};
+        };
+    }
+
+    @Test
+    public void cachesTilesAndMissingTilesInMemory() throws IOException {
+        TileLoader loader = new TileLoader(this.source(), 1024, null, null, 0, 20);
+
+        assertArrayEquals(new byte[]{1, 2, 3}, loader.load(1, 2, 3));
+        assertArrayEquals(new byte[]{1, 2, 3}, loader.load(1, 2, 3));
+        assertNull(loader.load(0, 2, 3));
+        assertNull(loader.load(0, 2, 3));
+        assertEquals(2, this.reads.get());
+
+        // 超出缩放范围或编号无效的瓦片不读取
+        assertNull(loader.load(9, 0, 3));
+        assertNull(loader.load(1, 0, 21));
+        assertEquals(2, this.reads.get());
+    }
+
+    @Test
+    public void diskCacheSurvivesNewLoader() throws IOException {
+        new TileLoader(this.source(), 1024, new TileDiskCache(this.directory, 1024), null, 0, 20).load(1, 1, 5);
+
+        TileLoader loader = new TileLoader(this.source(), 1024, new TileDiskCache(this.directory, 1024), null, 0, 20);
+        assertArrayEquals(new byte[]{1, 1, 5}, loader.load(1, 1, 5));
+        assertEquals(1, this.reads.get());
+        assertEquals(1, loader.getStats().getDisk().getHits());
+        assertEquals(0, loader.getStats().getSourceReads());
+    }
+
+    @Test
+    public void concurrentRequestsShareOneRead() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        TileLoader loader = new TileLoader((x, y, zoom) -> {
+            this.reads.incrementAndGet();
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+            return new byte[]{42};
+        }, 1024, null, null, 0, 20);
+
+        List<byte[]> results = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    results.add(loader.load(3, 3, 4));
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+            if (i == 0) {
+                assertTrue(started.await(5, TimeUnit.SECONDS));
+            }
+        }
+
+        // 等待其余线程加入正在进行的加载
+        long deadline = System.currentTimeMillis() + 5000;
+        while (loader.getStats().getJoined() < 3 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+        for (Thread thread : threads) {
+            thread.join(5000);
+        }
+
+        assertEquals(1, this.reads.get());
+        assertEquals(4, results.size());
+        assertEquals(3, loader.getStats().getJoined());
+    }
+
+    @Test
+    public void failuresAreNotCached() throws IOException {
+        AtomicInteger attempts = new AtomicInteger();
+        TileLoader loader = new TileLoader((x, y, zoom) -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new IOException("offline");
+            }
+            return new byte[]{1};
+        }, 1024, null, null, 0, 20);
+
+        try {
+            loader.load(1, 1, 1);
+            fail("expected IOException");
+        } catch (IOException e) {
+            assertEquals("offline", e.getMessage());
+        }
+
+        assertArrayEquals(new byte[]{1}, loader.load(1, 1, 1));
+        assertEquals(1, loader.getStats().getFailures());
+    }
+
+    @Test
+    public void prefetchLoadsVisibleTilesAndRing() throws IOException {
+        TileLoader loader = new TileLoader(this.source(), 1 << 20, null, this.queued::add, 0, 20);
+        loader.load(13, 6, 4);
+
+        // 缩放级别 4 时该范围只覆盖瓦片 (13, 6)，外加一圈共 9 个，已缓存的跳过
+        assertEquals(8, loader.prefetch(4, 30, 120, 31, 121, 1));
+        for (Runnable task : this.queued) {
+            task.run();
+        }
+        assertEquals(9, this.reads.get());
+        assertEquals(8, loader.getStats().getPrefetched());
+        assertEquals(0, loader.prefetch(4, 30, 120, 31, 121, 1));
+    }
+
+    @Test
+    public void newPrefetchSkipsStaleTasks() {
+        TileLoader loader = new TileLoader(this.source(), 1 << 20, null, this.queued::add, 0, 20);
+        loader.prefetch(10, 30, 120, 30.01, 120.01, 0);
+        int stale = this.queued.size();
+        loader.prefetch(10, 40, 100, 40.01, 100.01, 0);
+
+        for (Runnable task : this.queued) {
+            task.run();
+        }
+        assertEquals(this.queued.size() - stale, this.reads.get());
+    }
+}
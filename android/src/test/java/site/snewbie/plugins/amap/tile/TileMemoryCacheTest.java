@@ -0,0 +1,66 @@
+package site.snewbie.plugins.amap.tile;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+public class TileMemoryCacheTest {
+    @Test
+    public void packsZoomAndTileCoordinates() {
+        long key = TileKey.pack(18, 215_000, 99_000);
+        assertEquals(18, TileKey.zoom(key));
+        assertEquals(215_000, TileKey.x(key));
+        assertEquals(99_000, TileKey.y(key));
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedByBytes() {
+        TileMemoryCache<byte[]> cache = new TileMemoryCache<>(100, tile -> tile.length);
+        long a = TileKey.pack(1, 0, 0);
+        long b = TileKey.pack(1, 1, 0);
+        long c = TileKey.pack(1, 0, 1);
+
+        cache.put(a, new byte[40]);
+        cache.put(b, new byte[40]);
+        cache.get(a);
+        cache.put(c, new byte[40]);
+
+        assertNull(cache.get(b));
+        assertEquals(Arrays.asList(a, c), cache.keys());
+
+        TileMemoryCache.Stats stats = cache.getStats();
+        assertEquals(80, stats.getBytes());
+        assertEquals(1, stats.getEvictions());
+        assertEquals(1, stats.getHits());
+        assertEquals(1, stats.getMisses());
+    }
+
+    @Test
+    public void skipsOversizedTilesAndReplacesExisting() {
+        TileMemoryCache<byte[]> cache = new TileMemoryCache<>(100, tile -> tile.length);
+        long key = TileKey.pack(3, 1, 1);
+
+        cache.put(key, new byte[60]);
+        cache.put(key, new byte[30]);
+        assertEquals(30, cache.getStats().getBytes());
+
+        cache.put(key, new byte[200]);
+        assertNull(cache.get(key));
+        assertEquals(0, cache.getStats().getBytes());
+    }
+
+    @Test
+    public void removesSingleZoom() {
+        TileMemoryCache<byte[]> cache = new TileMemoryCache<>(1000, tile -> tile.length);
+        cache.put(TileKey.pack(3, 0, 0), new byte[10]);
+        cache.put(TileKey.pack(3, 1, 0), new byte[10]);
+        cache.put(TileKey.pack(4, 0, 0), new byte[10]);
+
+        assertEquals(2, cache.removeZoom(3));
+        assertEquals(1, cache.size());
+        assertEquals(10, cache.getStats().getBytes());
+    }
+}
@@ -0,0 +1,109 @@
+package site.snewbie.plugins.amap.tile;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class TileSourceTest {
+    private HttpServer server;
+    private List<String> requests;
+    private File directory;
+
+    @Before
+    public void setUp() throws IOException {
+        this.requests = Collections.synchronizedList(new ArrayList<>());
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        this.server.createContext("/", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            this.requests.add(path + " " + exchange.getRequestHeaders().getFirst("X-Key"));
+
+            int status = path.startsWith("/tiles/") ? 200 : path.startsWith("/error/") ? 500 : 404;
+            byte[] body = path.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, status == 200 ? body.length : -1);
+            if (status == 200) {
+                try (OutputStream output = exchange.getResponseBody()) {
+                    output.write(body);
+                }
+            }
+            exchange.close();
+        });
+        this.server.start();
+
+        this.directory = new File(System.getProperty("java.io.tmpdir"), "tile-source-test-" + System.nanoTime());
+    }
+
+    @After
+    public void tearDown() {
+        this.server.stop(0);
+        File file = new File(this.directory, "3/2/1.png");
+        file.delete();
+        file.getParentFile().delete();
+        file.getParentFile().getParentFile().delete();
+        this.directory.delete();
+    }
+
+    private String base() {
+        return "http://127.0.0.1:" + this.server.getAddress().getPort();
+    }
+
+    @Test
+    public void downloadsTilesFromUrlTemplate() throws IOException {
+        UrlTileSource source = new UrlTileSource(this.base() + "/tiles/{z}/{x}/{y}.png", 1000, Collections.singletonMap("X-Key", "secret"));
+
+        assertArrayEquals("/tiles/3/2/1.png".getBytes(StandardCharsets.UTF_8), source.read(2, 1, 3));
+        assertEquals(Collections.singletonList("/tiles/3/2/1.png secret"), this.requests);
+    }
+
+    @Test
+    public void flipsRowForTmsTemplate() throws IOException {
+        UrlTileSource source = new UrlTileSource(this.base() + "/tiles/{z}/{x}/{-y}.png", 1000, null);
+        assertArrayEquals("/tiles/3/2/6.png".getBytes(StandardCharsets.UTF_8), source.read(2, 1, 3));
+    }
+
+    @Test
+    public void missingTilesReturnNullAndErrorsThrow() throws IOException {
+        assertNull(new UrlTileSource(this.base() + "/missing/{z}/{x}/{y}", 1000, null).read(0, 0, 1));
+
+        try {
+            new UrlTileSource(this.base() + "/error/{z}/{x}/{y}", 1000, null).read(0, 0, 1);
+            fail("expected IOException");
+        } catch (IOException e) {
+            assertEquals("tile request failed with status 500", e.getMessage());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsTemplateWithoutCoordinates() {
+        new UrlTileSource(this.base() + "/tiles/{z}.png", 1000, null);
+    }
+
+    @Test
+    public void readsTilesFromDirectory() throws IOException {
+        File file = new File(this.directory, "3/2/1.png");
+        file.getParentFile().mkdirs();
+        try (OutputStream output = new FileOutputStream(file)) {
+            output.write(new byte[]{1, 2, 3});
+        }
+
+        DirectoryTileSource source = new DirectoryTileSource(this.directory, null);
+        assertArrayEquals(new byte[]{1, 2, 3}, source.read(2, 1, 3));
+        assertNull(source.read(2, 2, 3));
+    }
+}
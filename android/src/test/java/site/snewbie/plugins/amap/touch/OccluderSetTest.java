@@ -0,0 +1,64 @@
+package site.snewbie.plugins.amap.touch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+public class OccluderSetTest {
+
+    @Test
+    public void pointsInsideOccludersAreCovered() {
+        OccluderSet occluders = new OccluderSet();
+        Map<String, int[]> upserts = new HashMap<>();
+        upserts.put("header", new int[]{0, 0, 1080, 150});
+        upserts.put("fab", new int[]{900, 1800, 1040, 1940});
+        occluders.apply(false, upserts, null);
+
+        assertTrue(occluders.contains(500, 10));
+        assertTrue(occluders.contains(950, 1900));
+        assertFalse(occluders.contains(500, 150));
+        assertFalse(occluders.contains(500, 1000));
+        assertEquals(2, occluders.size());
+    }
+
+    @Test
+    public void diffsMoveAndRemoveOccluders() {
+        OccluderSet occluders = new OccluderSet();
+        occluders.apply(false, Collections.singletonMap("sheet", new int[]{0, 1500, 1080, 2400}), null);
+        assertTrue(occluders.contains(100, 1600));
+
+        // 底部面板收起
+        occluders.apply(false, Collections.singletonMap("sheet", new int[]{0, 2200, 1080, 2400}), null);
+        assertFalse(occluders.contains(100, 1600));
+        assertTrue(occluders.contains(100, 2300));
+
+        occluders.apply(false, null, Collections.singletonList("sheet"));
+        assertFalse(occluders.contains(100, 2300));
+        assertEquals(0, occluders.size());
+    }
+
+    @Test
+    public void emptyRectsAreIgnoredAndClearResets() {
+        OccluderSet occluders = new OccluderSet();
+        Map<String, int[]> upserts = new HashMap<>();
+        upserts.put("hidden", new int[]{10, 10, 10, 50});
+        upserts.put("menu", new int[]{0, 0, 100, 100});
+        assertEquals(2, occluders.apply(false, upserts, null));
+        assertEquals(1, occluders.size());
+
+        assertEquals(1, occluders.apply(true, Collections.singletonMap("toast", new int[]{0, 0, 5, 5}), null));
+        assertFalse(occluders.contains(50, 50));
+        assertTrue(occluders.contains(1, 1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void malformedRectIsRejected() {
+        new OccluderSet().apply(false, Collections.singletonMap("bad", new int[]{0, 0, 1}), null);
+    }
+}
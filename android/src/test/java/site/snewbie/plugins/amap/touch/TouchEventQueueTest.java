@@ -0,0 +1,149 @@
+package site.snewbie.plugins.amap.touch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TouchEventQueueTest {
+    private static final int DOWN = 0;
+    private static final int UP = 1;
+    private static final int MOVE = 2;
+    private static final int POINTER_DOWN = 5;
+
+    @Test
+    public void consecutiveMovesAreCompacted() {
+        FakeAdapter adapter = new FakeAdapter();
+        TouchEventQueue<FakeEvent> queue = new TouchEventQueue<>(8, adapter);
+
+        queue.offer(new FakeEvent(DOWN, 1));
+        for (int i = 0; i < 100; i++) {
+            queue.offer(new FakeEvent(MOVE, 1));
+        }
+        FakeEvent lastMove = new FakeEvent(MOVE, 1);
+        queue.offer(lastMove);
+        queue.offer(new FakeEvent(UP, 1));
+
+        assertEquals(3, queue.size());
+        assertEquals(100, queue.takeDropped());
+        assertEquals(100, adapter.recycled.size());
+
+        List<FakeEvent> replayed = new ArrayList<>();
+        assertEquals(3, queue.drain(replayed::add));
+        assertEquals(DOWN, replayed.get(0).action);
+        assertTrue(replayed.get(1) == lastMove);
+        assertEquals(UP, replayed.get(2).action);
+        assertEquals(103, adapter.recycled.size());
+        assertEquals(0, queue.takeDropped());
+    }
+
+    @Test
+    public void movesWithDifferentPointerCountAreKept() {
+        TouchEventQueue<FakeEvent> queue = new TouchEventQueue<>(8, new FakeAdapter());
+
+        queue.offer(new FakeEvent(DOWN, 1));
+        queue.offer(new FakeEvent(MOVE, 1));
+        queue.offer(new FakeEvent(POINTER_DOWN, 2));
+        queue.offer(new FakeEvent(MOVE, 2));
+        queue.offer(new FakeEvent(MOVE, 2));
+
+        assertEquals(4, queue.size());
+        assertEquals(1, queue.takeDropped());
+    }
+
+    @Test
+    public void fullQueueEvictsOldestMoveFirst() {
+        FakeAdapter adapter = new FakeAdapter();
+        TouchEventQueue<FakeEvent> queue = new TouchEventQueue<>(3, adapter);
+
+        FakeEvent down = new FakeEvent(DOWN, 1);
+        FakeEvent move = new FakeEvent(MOVE, 1);
+        FakeEvent pointerDown = new FakeEvent(POINTER_DOWN, 2);
+        FakeEvent up = new FakeEvent(UP, 1);
+        queue.offer(down);
+        queue.offer(move);
+        queue.offer(pointerDown);
+        assertEquals(1, queue.offer(up));
+
+        assertTrue(adapter.recycled.get(0) == move);
+        assertTrue(queue.poll() == down);
+        assertTrue(queue.poll() == pointerDown);
+        assertTrue(queue.poll() == up);
+        assertNull(queue.poll());
+    }
+
+    @Test
+    public void ringWrapsAroundAndClearRecyclesEverything() {
+        FakeAdapter adapter = new FakeAdapter();
+        TouchEventQueue<FakeEvent> queue = new TouchEventQueue<>(4, adapter);
+
+        for (int round = 0; round < 10; round++) {
+            queue.offer(new FakeEvent(DOWN, 1));
+            queue.offer(new FakeEvent(UP, 1));
+            queue.drain(event -> {
+            });
+        }
+        assertEquals(20, adapter.recycled.size());
+
+        queue.offer(new FakeEvent(DOWN, 1));
+        queue.offer(new FakeEvent(MOVE, 1));
+        queue.offer(new FakeEvent(MOVE, 1));
+        queue.clear();
+
+        assertEquals(0, queue.size());
+        assertEquals(0, queue.takeDropped());
+        assertEquals(23, adapter.recycled.size());
+    }
+
+    /**
+     * 长手势中连续的移动事件被合并，重放的事件数量不超过队列容量。
+     */
+    @Test
+    public void longGestureStaysWithinCapacity() {
+        TouchEventQueue<FakeEvent> queue = new TouchEventQueue<>(64, new FakeAdapter());
+        int events = 1_000_000;
+
+        queue.offer(new FakeEvent(DOWN, 1));
+        for (int i = 0; i < events; i++) {
+            queue.offer(new FakeEvent(i % 1000 == 0 ? POINTER_DOWN : MOVE, 1 + (i / 1000) % 2));
+        }
+        int replayed = queue.drain(event -> {
+        });
+
+        assertTrue(replayed <= 64);
+        assertEquals(events + 1, replayed + queue.takeDropped());
+    }
+
+    private static final class FakeEvent {
+        private final int action;
+        private final int pointerCount;
+
+        private FakeEvent(int action, int pointerCount) {
+            this.action = action;
+            this.pointerCount = pointerCount;
+        }
+    }
+
+    private static final class FakeAdapter implements TouchEventQueue.Adapter<FakeEvent> {
+        private final List<FakeEvent> recycled = new ArrayList<>();
+
+        @Override
+        public boolean isMergeable(FakeEvent event) {
+            return event.action == MOVE;
+        }
+
+        @Override
+        public boolean canMerge(FakeEvent previous, FakeEvent next) {
+            return previous.action == MOVE && next.action == MOVE && previous.pointerCount == next.pointerCount;
+        }
+
+        @Override
+        public void recycle(FakeEvent event) {
+            this.recycled.add(event);
+        }
+    }
+}
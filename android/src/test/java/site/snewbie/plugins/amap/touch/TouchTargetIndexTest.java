@@ -0,0 +1,120 @@
+package site.snewbie.plugins.amap.touch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+public class TouchTargetIndexTest {
+
+    @Test
+    public void hitTestFindsContainingMap() {
+        TouchTargetIndex<String> index = new TouchTargetIndex<>();
+        index.register("a", "A");
+        index.setBounds("a", 0, 0, 100, 100);
+        index.setTouchEnabled("a", true);
+
+        assertEquals("A", index.hitTest(50, 50));
+        assertEquals("A", index.hitTest(0, 0));
+        assertNull(index.hitTest(100, 50));
+        assertNull(index.hitTest(-1, 50));
+    }
+
+    @Test
+    public void laterRegisteredMapIsOnTop() {
+        TouchTargetIndex<String> index = new TouchTargetIndex<>();
+        index.register("a", "A");
+        index.register("b", "B");
+        index.setBounds("a", 0, 0, 100, 100);
+        index.setBounds("b", 50, 50, 150, 150);
+        index.setTouchEnabled("a", true);
+        index.setTouchEnabled("b", true);
+
+        assertEquals("B", index.hitTest(75, 75));
+        assertEquals("A", index.hitTest(25, 25));
+
+        // 重新注册会移到最上层
+        index.register("a", "A2");
+        index.setBounds("a", 0, 0, 100, 100);
+        index.setTouchEnabled("a", true);
+        assertEquals("A2", index.hitTest(75, 75));
+    }
+
+    @Test
+    public void hiddenOrDisabledMapsAreSkipped() {
+        TouchTargetIndex<String> index = new TouchTargetIndex<>();
+        index.register("a", "A");
+        index.register("b", "B");
+        index.setBounds("a", 0, 0, 100, 100);
+        index.setBounds("b", 0, 0, 100, 100);
+        index.setTouchEnabled("a", true);
+
+        assertEquals("A", index.hitTest(10, 10));
+
+        index.setTouchEnabled("b", true);
+        assertEquals("B", index.hitTest(10, 10));
+
+        // 隐藏时区域为 0
+        index.setBounds("b", 0, 0, 0, 0);
+        assertEquals("A", index.hitTest(10, 10));
+
+        index.unregister("a", "other");
+        assertEquals("A", index.hitTest(10, 10));
+
+        index.unregister("a", "A");
+        assertNull(index.hitTest(10, 10));
+        assertEquals(0, index.size());
+    }
+
+    /**
+     * 统计命中测试的内存分配，热路径上应为 0。
+     */
+    @Test
+    public void hitTestDoesNotAllocate() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+            return;
+        }
+        com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+        if (!allocations.isThreadAllocatedMemorySupported()) {
+            return;
+        }
+        allocations.setThreadAllocatedMemoryEnabled(true);
+
+        for (int maps : new int[]{1, 4, 16}) {
+            TouchTargetIndex<String> index = new TouchTargetIndex<>();
+            for (int i = 0; i < maps; i++) {
+                String key = "map" + i;
+                index.register(key, key);
+                index.setBounds(key, i * 100, 0, i * 100 + 100, 400);
+                index.setTouchEnabled(key, true);
+            }
+
+            int events = 1_000_000;
+            int hits = 0;
+            // 预热，避免把 JIT 编译期间的分配计入
+            for (int i = 0; i < events; i++) {
+                if (index.hitTest(i % (maps * 100 + 50), i % 500) != null) {
+                    hits++;
+                }
+            }
+
+            long threadId = Thread.currentThread().getId();
+            long before = allocations.getThreadAllocatedBytes(threadId);
+            for (int i = 0; i < events; i++) {
+                if (index.hitTest(i % (maps * 100 + 50), i % 500) != null) {
+                    hits++;
+                }
+            }
+            long allocated = allocations.getThreadAllocatedBytes(threadId) - before;
+
+            assertTrue(hits > 0);
+            // 允许计数器本身的少量开销
+            assertTrue(allocated < 1024);
+        }
+    }
+}
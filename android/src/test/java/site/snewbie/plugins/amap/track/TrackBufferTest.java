@@ -0,0 +1,79 @@
+package site.snewbie.plugins.amap.track;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.List;
+
+public class TrackBufferTest {
+
+    private static TrackPoint point(long time) {
+        return new TrackPoint(30, 120, 5, 0, 0, 0, time);
+    }
+
+    @Test
+    public void batchIsDueWhenFull() {
+        TrackBuffer buffer = new TrackBuffer(3, 60_000, 10);
+
+        assertFalse(buffer.add(point(1), 0));
+        assertFalse(buffer.add(point(2), 10));
+        assertTrue(buffer.add(point(3), 20));
+
+        List<TrackPoint> batch = buffer.poll(20);
+        assertEquals(3, batch.size());
+        assertEquals(1, batch.get(0).getTime());
+        assertEquals(3, batch.get(2).getTime());
+        assertEquals(0, buffer.size());
+        assertEquals(-1, buffer.millisUntilDue(20));
+    }
+
+    @Test
+    public void batchIsDueAfterMaxDelay() {
+        TrackBuffer buffer = new TrackBuffer(10, 1000, 10);
+
+        assertFalse(buffer.add(point(1), 100));
+        assertEquals(600, buffer.millisUntilDue(500));
+        assertTrue(buffer.add(point(2), 1100));
+        assertEquals(0, buffer.millisUntilDue(1200));
+
+        assertEquals(2, buffer.poll(1200).size());
+    }
+
+    @Test
+    public void pollReturnsAtMostBatchSizeAndRestartsTimer() {
+        TrackBuffer buffer = new TrackBuffer(2, 1000, 10);
+        for (int i = 0; i < 5; i++) {
+            buffer.add(point(i), 0);
+        }
+
+        assertEquals(2, buffer.poll(500).size());
+        assertEquals(3, buffer.size());
+        assertEquals(1000, buffer.millisUntilDue(500));
+
+        TrackBuffer.Stats stats = buffer.getStats();
+        assertEquals(5, stats.getAdded());
+        assertEquals(2, stats.getDelivered());
+        assertEquals(1, stats.getBatches());
+        assertEquals(3, stats.getBuffered());
+    }
+
+    @Test
+    public void overflowDropsOldest() {
+        TrackBuffer buffer = new TrackBuffer(2, 60_000, 3);
+        for (int i = 1; i <= 5; i++) {
+            buffer.add(point(i), 0);
+        }
+
+        assertEquals(3, buffer.size());
+        assertEquals(2, buffer.getStats().getOverflowed());
+        assertEquals(3, buffer.poll(0).get(0).getTime());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void capacityMustHoldOneBatch() {
+        new TrackBuffer(10, 0, 5);
+    }
+}
@@ -0,0 +1,65 @@
+package site.snewbie.plugins.amap.track;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class TrackFilterTest {
+
+    private static TrackPoint point(double latitude, double longitude, float accuracy, long time) {
+        return new TrackPoint(latitude, longitude, accuracy, 0, 0, 0, time);
+    }
+
+    @Test
+    public void distanceMatchesKnownValue() {
+        // 纬度相差 0.001 度约 111 米
+        double distance = TrackFilter.distanceMeters(point(30, 120, 5, 0), point(30.001, 120, 5, 0));
+        assertEquals(111.3, distance, 0.5);
+    }
+
+    @Test
+    public void dropsInaccurateAndInvalidFixes() {
+        TrackFilter filter = new TrackFilter(0, 0, 50);
+
+        assertFalse(filter.accept(point(30, 120, 80, 1000)));
+        assertFalse(filter.accept(point(0, 0, 5, 2000)));
+        assertFalse(filter.accept(point(91, 120, 5, 3000)));
+        assertTrue(filter.accept(point(30, 120, 10, 4000)));
+
+        assertEquals(3, filter.getStats().getInaccurate());
+        assertEquals(1, filter.getStats().getAccepted());
+    }
+
+    @Test
+    public void dropsDuplicatesAndFixesTooSoonOrTooClose() {
+        TrackFilter filter = new TrackFilter(20, 5000, 0);
+
+        assertTrue(filter.accept(point(30, 120, 5, 10_000)));
+        // SDK 重复回调的缓存结果
+        assertFalse(filter.accept(point(30.001, 120, 5, 10_000)));
+        assertFalse(filter.accept(point(30.001, 120, 5, 12_000)));
+        assertFalse(filter.accept(point(30.0001, 120, 5, 20_000)));
+        assertTrue(filter.accept(point(30.001, 120, 5, 21_000)));
+
+        TrackFilter.Stats stats = filter.getStats();
+        assertEquals(2, stats.getAccepted());
+        assertEquals(1, stats.getDuplicates());
+        assertEquals(1, stats.getTooSoon());
+        assertEquals(1, stats.getTooClose());
+    }
+
+    @Test
+    public void slowMovementAccumulatesAgainstLastAcceptedFix() {
+        TrackFilter filter = new TrackFilter(20, 0, 0);
+
+        assertTrue(filter.accept(point(30, 120, 5, 1000)));
+        // 每次约 11 米，单步都不足 20 米，但相对上一个接受的结果会累积
+        assertFalse(filter.accept(point(30.0001, 120, 5, 2000)));
+        assertTrue(filter.accept(point(30.0002, 120, 5, 3000)));
+
+        filter.reset();
+        assertTrue(filter.accept(point(30.0002, 120, 5, 4000)));
+    }
+}
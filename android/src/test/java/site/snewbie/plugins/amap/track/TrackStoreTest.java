@@ -0,0 +1,135 @@
+package site.snewbie.plugins.amap.track;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class TrackStoreTest {
+    private File directory;
+
+    @Before
+    public void setUp() {
+        this.directory = new File(System.getProperty("java.io.tmpdir"), "track-store-test-" + System.nanoTime());
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = this.directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        this.directory.delete();
+    }
+
+    private static List<TrackPoint> points(long fromTime, int count) {
+        List<TrackPoint> points = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long time = fromTime + i * 1000L;
+            points.add(new TrackPoint(30 + i * 1e-5, 120 + i * 1e-5, 5, 10, 90, 3, time));
+        }
+        return points;
+    }
+
+    private static long timeAt(TrackStore.Result result, int i) {
+        return (long) result.getValues()[i * TrackStore.STRIDE + 6];
+    }
+
+    @Test
+    public void queriesTimeRangeAcrossSegments() throws IOException {
+        TrackStore store = new TrackStore(this.directory, 1000);
+        assertEquals(2500, store.append(points(0, 2500)));
+        assertEquals(3, store.getSegmentCount());
+
+        TrackStore.Result result = store.query(999_500, 1_500_000, 0);
+        assertEquals(501, result.getTotal());
+        assertEquals(501, result.getCount());
+        assertEquals(1_000_000, timeAt(result, 0));
+        assertEquals(1_500_000, timeAt(result, 500));
+
+        double[] values = result.getValues();
+        assertEquals(30 + 1000 * 1e-5, values[0], 1e-7);
+        assertEquals(120 + 1000 * 1e-5, values[1], 1e-7);
+        assertEquals(5, values[2], 0);
+        assertEquals(3, values[5], 0);
+
+        assertEquals(0, store.query(10_000_000, 20_000_000, 0).getTotal());
+        store.close();
+    }
+
+    @Test
+    public void downsamplingKeepsEndpoints() throws IOException {
+        TrackStore store = new TrackStore(this.directory, 700);
+        store.append(points(0, 5000));
+
+        TrackStore.Result result = store.query(0, Long.MAX_VALUE, 11);
+        assertEquals(5000, result.getTotal());
+        assertEquals(11, result.getCount());
+        assertEquals(0, timeAt(result, 0));
+        assertEquals(2_500_000, timeAt(result, 5));
+        assertEquals(4_999_000, timeAt(result, 10));
+        store.close();
+    }
+
+    @Test
+    public void dropsOutOfOrderFixes() throws IOException {
+        TrackStore store = new TrackStore(this.directory);
+        store.append(points(10_000, 3));
+
+        int appended = store.append(Arrays.asList(
+                new TrackPoint(30, 120, 5, 0, 0, 0, 5_000),
+                new TrackPoint(30, 120, 5, 0, 0, 0, 13_000)));
+        assertEquals(1, appended);
+        assertEquals(4, store.size());
+        assertEquals(13_000, store.getLastTime());
+        store.close();
+    }
+
+    @Test
+    public void reopenRestoresRecordsAndTruncatesTornWrite() throws IOException {
+        TrackStore store = new TrackStore(this.directory, 1000);
+        store.append(points(0, 1500));
+        store.close();
+
+        // 模拟写入中断留下的半条记录
+        File[] files = this.directory.listFiles();
+        Arrays.sort(files);
+        try (RandomAccessFile raf = new RandomAccessFile(files[files.length - 1], "rw")) {
+            raf.seek(raf.length());
+            raf.write(new byte[TrackStore.RECORD_SIZE / 2]);
+        }
+
+        store = new TrackStore(this.directory, 1000);
+        assertEquals(1500, store.size());
+        assertEquals(1_499_000, store.getLastTime());
+        assertEquals(600, store.query(900_000, 1_499_000, 0).getTotal());
+
+        store.append(points(1_500_000, 10));
+        assertEquals(1510, store.size());
+        store.close();
+    }
+
+    @Test
+    public void deleteBeforeRemovesWholeSegments() throws IOException {
+        TrackStore store = new TrackStore(this.directory, 1000);
+        store.append(points(0, 3500));
+
+        assertEquals(2000, store.deleteBefore(2_500_000));
+        assertEquals(1500, store.size());
+        assertEquals(2_000_000, timeAt(store.query(0, Long.MAX_VALUE, 0), 0));
+
+        assertEquals(1500, store.deleteAll());
+        assertFalse(this.directory.exists());
+    }
+}
@@ -101,6 +101,25 @@ export interface AMapConfig {
    * @since 0.0.1
    */
   devicePixelRatio?: number;
+  /**
+   * 地图跟随页面滚动的方式（仅 Android）。
+   * `js`：监听页面的滚动事件，每次滚动都通过 bridge 上报位置；
+   * `native`：原生端监听 WebView 的滚动，在下一帧平移地图，不经过 JS。只适用于页面根元素滚动，
+   * `ion-content` 等内部滚动容器需要使用 `js`。
+   * @default 'js'
+   * @since 0.0.11
+   */
+  scrollTracking?: 'js' | 'native';
+  /**
+   * Override page scroll offset for native scroll tracking.
+   * @since 0.0.11
+   */
+  scrollX?: number;
+  /**
+   * Override page scroll offset for native scroll tracking.
+   * @since 0.0.11
+   */
+  scrollY?: number;
 
   /**
    * 设置“高德地图”Logo的位置。
@@ -205,6 +224,259 @@ export interface MapStatusLimits {
   northeast: LatLng;
 }
 
+/**
+ * 由插件管理的 Marker 配置，以调用方提供的 `id` 作为唯一标识。
+ * @since 0.0.11
+ */
+export interface MarkerOptions {
+  /**
+   * 调用方提供的唯一标识，后续更新、移除及事件回调均使用该标识。
+   */
+  id: string;
+  /**
+   * Marker 的经纬度坐标，添加时必填。
+   */
+  position?: LatLng;
+  /**
+   * Marker 的标题。
+   */
+  title?: string;
+  /**
+   * Marker 的文字片段。
+   */
+  snippet?: string;
+  /**
+   * Marker 是否可拖拽。
+   * @default false
+   */
+  draggable?: boolean;
+  /**
+   * Marker 是否可见。
+   * @default true
+   */
+  visible?: boolean;
+  /**
+   * Marker 是否平贴地图。
+   * @default false
+   */
+  flat?: boolean;
+  /**
+   * Marker 覆盖物是否可以弹出 infoWindow。
+   * @default true
+   */
+  infoWindowEnable?: boolean;
+  /**
+   * Marker 覆盖物的透明度，取值范围 [0,1]。
+   * @default 1
+   */
+  alpha?: number;
+  /**
+   * Marker 覆盖物图标的水平锚点，取值范围 [0,1]。
+   * @default 0.5
+   */
+  anchorU?: number;
+  /**
+   * Marker 覆盖物图标的垂直锚点，取值范围 [0,1]。
+   * @default 1
+   */
+  anchorV?: number;
+  /**
+   * Marker 覆盖物的 z 轴值。
+   */
+  zIndex?: number;
+  /**
+   * Marker 覆盖物的图标（仅 Android），未设置时使用默认图标。图标在后台线程中解码并按图片和尺寸缓存，
+   * 多个 Marker 使用相同的图标时只解码一次。
+   * @since 0.0.11
+   */
+  icon?: string | MarkerIcon;
+}
+
+/**
+ * 批量操作 Marker 的结果。
+ * @since 0.0.11
+ */
+export interface MarkerIdsResult {
+  /**
+   * 调用方提供的 id 与原生 Marker id 的映射，只包含实际生效的 Marker。
+   */
+  ids: Record<string, string>;
+}
+
+/**
+ * Marker 聚合配置。
+ * @since 0.0.11
+ */
+export interface MarkerClusteringOptions {
+  /**
+   * 是否开启聚合。
+   */
+  enabled: boolean;
+  /**
+   * 聚合网格的边长，单位：像素。
+   * @default 60
+   */
+  gridSize?: number;
+  /**
+   * 同一网格内的 Marker 数量不小于该值时才聚合。
+   * @default 2
+   */
+  minClusterSize?: number;
+  /**
+   * 缩放级别大于该值时不再聚合。
+   * @default 18
+   */
+  maxZoom?: number;
+}
+
+/**
+ * 聚合点点击事件的数据。
+ * @since 0.0.11
+ */
+export interface ClusterClickData {
+  mapId: string;
+  /**
+   * 聚合点的位置（成员的平均位置）。
+   */
+  position: LatLng;
+  /**
+   * 聚合的 Marker 数量。
+   */
+  count: number;
+  /**
+   * 聚合的 Marker id 列表。
+   */
+  memberIds: string[];
+}
+
+/**
+ * 海量点坐标，可以是经纬度数组，也可以是 `AMap.packCoordinates` 打包后的 base64 字符串。
+ * 数据量较大时建议提前打包，避免原生端逐个解析 JSON 对象。
+ * @since 0.0.11
+ */
+export type MultiPointCoordinates = LatLng[] | string;
+
+/**
+ * 海量点图层配置。
+ * @since 0.0.11
+ */
+export interface MultiPointOverlayOptions {
+  /**
+   * 调用方提供的海量点图层唯一标识。
+   */
+  overlayId: string;
+  /**
+   * 海量点坐标。
+   */
+  coordinates?: MultiPointCoordinates;
+  /**
+   * 与坐标一一对应的自定义 id，点击事件中以 `customerId` 返回，未指定时为点的下标，点的下标因增删移动时随之更新。
+   */
+  customerIds?: string[];
+  /**
+   * 图标的水平锚点，取值范围 [0,1]。
+   * @default 0.5
+   */
+  anchorU?: number;
+  /**
+   * 图标的垂直锚点，取值范围 [0,1]。
+   * @default 0.5
+   */
+  anchorV?: number;
+}
+
+/**
+ * 海量点局部更新参数，语义与 `Array.prototype.splice` 一致。
+ * @since 0.0.11
+ */
+export interface SetMultiPointItemsOptions {
+  /**
+   * 海量点图层唯一标识。
+   */
+  overlayId: string;
+  /**
+   * 写入的海量点坐标。
+   */
+  coordinates: MultiPointCoordinates;
+  /**
+   * 与坐标一一对应的自定义 id。
+   */
+  customerIds?: string[];
+  /**
+   * 开始替换的下标，不指定时替换全部海量点。
+   */
+  start?: number;
+  /**
+   * 从 `start` 开始删除的数量，默认与写入的数量相同。
+   */
+  deleteCount?: number;
+}
+
+/**
+ * 事件发送策略，被丢弃的事件在原生端不会进行任何序列化。
+ * @since 0.0.11
+ */
+export interface EventEmissionPolicy {
+  /**
+   * - `all`：每次都发送；
+   * - `throttle`：`throttleMs` 内只发送第一次；
+   * - `coalesce`：`throttleMs` 内只保留最新的一次，到期后发送（未指定间隔时按一帧合并）；
+   * - `off`：不发送。
+   * @default all
+   */
+  mode: 'all' | 'throttle' | 'coalesce' | 'off';
+  /**
+   * 节流或合并的间隔，单位：毫秒。
+   */
+  throttleMs?: number;
+}
+
+/**
+ * 折线配置。原生端会按缩放级别预先简化，只绘制屏幕能分辨的顶点。
+ * @since 0.0.11
+ */
+export interface PolylineOptions {
+  /**
+   * 调用方提供的折线唯一标识，点击事件中以 `polylineId` 返回。
+   */
+  id: string;
+  /**
+   * 折线坐标，可以是经纬度数组或 `AMap.packCoordinates` 打包后的字符串。添加时必填。
+   */
+  points?: MultiPointCoordinates;
+  /**
+   * 线宽，单位：像素。
+   */
+  width?: number;
+  /**
+   * 颜色，格式为 `#RRGGBB` 或 `#AARRGGBB`。
+   */
+  color?: string;
+  zIndex?: number;
+  visible?: boolean;
+  /**
+   * 是否绘制成大地曲线。
+   */
+  geodesic?: boolean;
+  /**
+   * 是否绘制成虚线。
+   */
+  dottedLine?: boolean;
+  /**
+   * 简化容差，单位：像素，偏移小于该值的顶点会被省略。
+   * @default 1
+   */
+  tolerance?: number;
+}
+
+/**
+ * 批量操作折线的结果，键为调用方提供的 id，值为原生 Polyline id。
+ * @since 0.0.11
+ */
+export interface PolylineIdsResult {
+  ids: { [id: string]: string };
+}
+
 /**
  * The callback function to be called when map events are emitted.
  * @since 0.0.1
@@ -228,4 +500,934 @@ export interface GetFromLocationArgs {
    * @default 1000
    */
   radius: number;
-}
\ No newline at end of file
+  /**
+   * 是否使用逆地理编码缓存，缓存配置见 `AMap.setGeocodeCacheOptions`。
+   * @default true
+   * @since 0.0.11
+   */
+  cache?: boolean;
+}
+
+/**
+ * 逆地理编码缓存配置。坐标按 geohash 量化后与搜索半径一起作为缓存键。
+ * @since 0.0.11
+ */
+export interface GeocodeCacheOptions {
+  /**
+   * 内存中最多缓存的结果数量。
+   * @default 256
+   */
+  maxEntries?: number;
+  /**
+   * geohash 精度，取值范围：1~12。精度为 7 时约 153 米见方，精度为 8 时约 38 米 x 19 米。
+   * @default 8
+   */
+  precision?: number;
+  /**
+   * 缓存有效期，单位：毫秒，不大于 0 时永不过期。
+   * @default 86400000
+   */
+  ttl?: number;
+  /**
+   * 是否同时缓存到磁盘，应用重启后仍然可以命中。
+   * @default false
+   */
+  persistent?: boolean;
+  /**
+   * 磁盘中最多缓存的结果数量。
+   * @default 4096
+   */
+  maxDiskEntries?: number;
+}
+
+/**
+ * 逆地理编码缓存统计。
+ * @since 0.0.11
+ */
+export interface GeocodeCacheStats {
+  /**
+   * 内存命中次数。
+   */
+  hits: number;
+  /**
+   * 内存未命中、磁盘命中的次数。
+   */
+  diskHits: number;
+  /**
+   * 实际发起查询的次数。
+   */
+  misses: number;
+  /**
+   * 与进行中的相同查询共享结果的次数。
+   */
+  joined: number;
+  evictions: number;
+  /**
+   * 内存中缓存的结果数量。
+   */
+  size: number;
+  /**
+   * 进行中的查询数量。
+   */
+  inFlight: number;
+}
+
+/**
+ * 批量地理编码（地址转坐标）参数。
+ * @since 0.0.11
+ */
+export interface GeocodeBatchArgs {
+  /**
+   * 待查询的地址，可以单独指定查询城市。
+   */
+  addresses: (string | { address: string; city?: string })[];
+  /**
+   * 默认查询城市，可以是城市名、citycode 或 adcode，不设置时全国范围查询。
+   */
+  city?: string;
+  /**
+   * 批次 id，用于取消批次，不设置时自动生成。
+   */
+  batchId?: string;
+  /**
+   * 每次进度事件最多包含的结果数量。
+   * @default 20
+   */
+  chunkSize?: number;
+}
+
+/**
+ * 批量逆地理编码（坐标转地址）参数。
+ * @since 0.0.11
+ */
+export interface ReverseGeocodeBatchArgs {
+  /**
+   * 经纬度坐标，经纬度小数点后不要超过 6 位。
+   */
+  locations: LatLng[];
+  /**
+   * 搜索半径，取值范围：0~3000，单位：米。
+   * @default 1000
+   */
+  radius?: number;
+  /**
+   * 批次 id，用于取消批次，不设置时自动生成。
+   */
+  batchId?: string;
+  /**
+   * 每次进度事件最多包含的结果数量。
+   * @default 20
+   */
+  chunkSize?: number;
+}
+
+/**
+ * 批量查询中单个查询的结果。
+ * @since 0.0.11
+ */
+export interface GeocodeBatchItem {
+  /**
+   * 查询在 `addresses` 或 `locations` 中的下标。
+   */
+  index: number;
+  /**
+   * 返回码，1000 表示成功。
+   */
+  code: number;
+  /**
+   * 地理编码的候选地址。
+   */
+  addresses?: any[];
+  /**
+   * 逆地理编码的地址信息。
+   */
+  address?: any;
+  /**
+   * 失败原因。
+   */
+  message?: string;
+}
+
+/**
+ * 批量查询的进度，结果按完成顺序分块返回。
+ * @since 0.0.11
+ */
+export interface GeocodeBatchProgress {
+  batchId: string;
+  results: GeocodeBatchItem[];
+  /**
+   * 已完成（包括失败和取消）的查询数量。
+   */
+  completed: number;
+  total: number;
+}
+
+/**
+ * 批量查询完成后的统计。
+ * @since 0.0.11
+ */
+export interface GeocodeBatchSummary {
+  batchId: string;
+  succeeded: number;
+  failed: number;
+  cancelled: number;
+}
+
+/**
+ * 批量查询调度配置，所有批次共享。
+ * @since 0.0.11
+ */
+export interface BatchGeocodeOptions {
+  /**
+   * 同时进行的查询数量。
+   * @default 4
+   */
+  concurrency?: number;
+  /**
+   * 每秒最多发起的查询数量，应不超过高德开放平台 Key 的并发配额。
+   * @default 10
+   */
+  queriesPerSecond?: number;
+}
+
+/**
+ * MapView 复用池配置（仅 Android）。地图销毁后 MapView 被重置并放回池中，再次创建地图时直接复用。
+ * @since 0.0.11
+ */
+export interface MapViewPoolOptions {
+  /**
+   * 池中最多保留的 MapView 数量，为 0 时关闭复用池。
+   * @default 2
+   */
+  size?: number;
+  /**
+   * 池中 MapView 估算内存之和的上限，单位：MB。
+   * @default 48
+   */
+  maxMemoryMB?: number;
+  /**
+   * 是否在主线程空闲时预先创建 MapView 直到池满。
+   * @default true
+   */
+  prewarm?: boolean;
+}
+
+/**
+ * MapView 复用池统计。
+ * @since 0.0.11
+ */
+export interface MapViewPoolStats {
+  /**
+   * 创建地图时复用池中 MapView 的次数。
+   */
+  hits: number;
+  /**
+   * 创建地图时新建 MapView 的次数。
+   */
+  coldCreates: number;
+  /**
+   * 地图销毁后 MapView 被放回池中的次数。
+   */
+  recycled: number;
+  prewarmed: number;
+  evictions: number;
+  /**
+   * 池中空闲的 MapView 数量。
+   */
+  size: number;
+  /**
+   * 池中 MapView 的估算内存之和，单位：字节。
+   */
+  bytes: number;
+}
+
+/**
+ * 耗时分布。分位数按 2 的幂微秒分桶统计，取所在桶的上界，精度在两倍以内。
+ * @since 0.0.11
+ */
+export interface LatencyStats {
+  count: number;
+  meanMs: number;
+  p50Ms: number;
+  p95Ms: number;
+  p99Ms: number;
+  maxMs: number;
+}
+
+/**
+ * 单个事件的发送统计。
+ * @since 0.0.11
+ */
+export interface EventStats {
+  /**
+   * 原生端产生的有订阅的事件次数。
+   */
+  received: number;
+  /**
+   * 发送到 JS 端的次数。
+   */
+  emitted: number;
+  /**
+   * 被发送策略丢弃或合并掉的次数。
+   */
+  dropped: number;
+  /**
+   * 按抽样估算的 payload 字节数之和。
+   */
+  bytes: number;
+}
+
+/**
+ * 一组事件计数和耗时分布。
+ * @since 0.0.11
+ */
+export interface MapPerformanceStats {
+  /**
+   * 按事件名称统计的发送次数。
+   */
+  events: { [event: string]: EventStats; };
+  /**
+   * 原生端的耗时分布：地图中为 `render`、`updateRender` 从提交到 UI 线程执行的等待时间；
+   * 插件级别为 `dispatchMapEvent` 的 UI 线程等待时间和 `touchFocus`（手势开始到 JS 端返回焦点判定的时间）。
+   */
+  latencies: { [name: string]: LatencyStats; };
+}
+
+/**
+ * 插件的性能统计。
+ * @since 0.0.11
+ */
+export interface PerformanceStats extends MapPerformanceStats {
+  /**
+   * 按地图 id 区分的统计。
+   */
+  maps: { [mapId: string]: MapPerformanceStats; };
+  /**
+   * 在 JS 端测量的插件方法调用耗时，从调用到 Promise 完成，包含桥接和原生端排队的时间。
+   */
+  methods: { [method: string]: LatencyStats; };
+  /**
+   * Marker 图标缓存的统计（仅 Android）。
+   */
+  icons?: IconCacheStats;
+}
+
+/**
+ * @since 0.0.11
+ */
+export interface PerformanceStatsOptions {
+  /**
+   * 定时发送 `onPerfStats` 事件的间隔，单位：毫秒，为 0 时停止。
+   * @default 0
+   */
+  intervalMs: number;
+}
+
+/**
+ * 持续定位的配置（仅 Android）。
+ * @since 0.0.11
+ */
+export interface LocationTrackingOptions {
+  /**
+   * SDK 的定位间隔，单位：毫秒。
+   * @default 2000
+   */
+  interval?: number;
+  /**
+   * 为 true 时同时使用 GPS 和网络定位，否则只使用网络定位。
+   * @default true
+   */
+  highAccuracy?: boolean;
+  /**
+   * 相邻两个定位结果的最小距离，单位：米，距离更近的结果被丢弃。
+   * @default 10
+   */
+  minDistance?: number;
+  /**
+   * 相邻两个定位结果的最小时间间隔，单位：毫秒。
+   * @default 0
+   */
+  minInterval?: number;
+  /**
+   * 允许的最差定位精度，单位：米，精度更差的结果被丢弃，为 0 时不限制。
+   * @default 100
+   */
+  maxAccuracy?: number;
+  /**
+   * 每批最多发送的定位结果数量，缓存的结果达到该数量时立即发送。
+   * @default 20
+   */
+  batchSize?: number;
+  /**
+   * 定位结果在原生端缓存的最长时间，单位：毫秒，为 0 时每个结果都立即发送。
+   * @default 60000
+   */
+  maxBatchDelay?: number;
+  /**
+   * 原生端最多缓存的定位结果数量，超出时丢弃最早的结果。
+   * @default 1000
+   */
+  bufferCapacity?: number;
+  /**
+   * 前台服务的通知。指定后应用进入后台仍然持续定位，宿主应用需要声明前台服务和后台定位权限。
+   */
+  notification?: { title: string; text: string; };
+  /**
+   * 同时将通过过滤的结果写入该轨迹，可以用 `AMap.queryTrack` 查询。只能包含字母、数字、下划线和连字符。
+   */
+  trackId?: string;
+}
+
+/**
+ * 持续定位的一个结果。
+ * @since 0.0.11
+ */
+export interface TrackedLocation extends LatLng {
+  /**
+   * 定位精度，单位：米。
+   */
+  accuracy: number;
+  altitude: number;
+  bearing: number;
+  /**
+   * 速度，单位：米/秒。
+   */
+  speed: number;
+  /**
+   * 定位时间，单位：毫秒。
+   */
+  time: number;
+}
+
+/**
+ * 一批按定位时间排序的持续定位结果。
+ * @since 0.0.11
+ */
+export interface LocationBatch {
+  locations: TrackedLocation[];
+}
+
+/**
+ * 持续定位的统计，未开始过定位时只有 `started` 和 `errors`。
+ * @since 0.0.11
+ */
+export interface LocationTrackingStats {
+  started: boolean;
+  /**
+   * SDK 返回定位错误的次数。
+   */
+  errors: number;
+  lastErrorCode?: number;
+  lastErrorInfo?: string;
+  /**
+   * 通过过滤的结果数量。
+   */
+  accepted?: number;
+  /**
+   * 因坐标无效或精度不足被丢弃的数量。
+   */
+  inaccurate?: number;
+  /**
+   * 与上一个结果定位时间相同而被丢弃的数量。
+   */
+  duplicates?: number;
+  tooSoon?: number;
+  tooClose?: number;
+  /**
+   * 已发送到 JS 端的结果数量。
+   */
+  delivered?: number;
+  batches?: number;
+  /**
+   * 缓存已满时被丢弃的数量。
+   */
+  overflowed?: number;
+  buffered?: number;
+}
+
+/**
+ * 定位蓝点位置的轨迹记录配置。
+ * @since 0.0.11
+ */
+export interface MyLocationTrackOptions {
+  /**
+   * 相邻两个位置的最小距离，单位：米。
+   * @default 0
+   */
+  minDistance?: number;
+  /**
+   * 相邻两个位置的最小时间间隔，单位：毫秒。
+   * @default 0
+   */
+  minInterval?: number;
+  /**
+   * 允许的最差定位精度，单位：米，为 0 时不限制。
+   * @default 0
+   */
+  maxAccuracy?: number;
+}
+
+/**
+ * @since 0.0.11
+ */
+export interface TrackQueryArgs {
+  trackId: string;
+  /**
+   * 开始时间，单位：毫秒，包含该时间，未指定时从第一个点开始。
+   */
+  from?: number;
+  /**
+   * 结束时间，单位：毫秒，包含该时间，未指定时到最后一个点结束。
+   */
+  to?: number;
+  /**
+   * 最多返回的点数，范围内的点更多时在原生端均匀抽样，始终包含第一个和最后一个点；为 0 时不限制。
+   * @default 0
+   */
+  maxPoints?: number;
+}
+
+/**
+ * @since 0.0.11
+ */
+export interface TrackQueryResult {
+  /**
+   * 时间范围内的总点数，抽样前。
+   */
+  total: number;
+  /**
+   * 按时间排序的点。
+   */
+  locations: TrackedLocation[];
+}
+
+/**
+ * SDK 提供的离线地图城市。
+ * @since 0.0.11
+ */
+export interface OfflineCity {
+  cityCode: string;
+  city: string;
+  /**
+   * 离线包大小，单位：字节。
+   */
+  size: number;
+  /**
+   * SDK 的下载状态，见 `OfflineMapStatus`。
+   */
+  state: number;
+  /**
+   * 下载进度，0 到 100。
+   */
+  progress: number;
+  version: string;
+}
+
+/**
+ * 离线地图下载任务的状态。
+ * - `retry_wait`：下载失败，等待重试。
+ * - `failed`：重试次数用尽或磁盘空间不足，需要调用 `resumeOfflineCity` 继续。
+ * @since 0.0.11
+ */
+export type OfflineTaskState = 'queued' | 'downloading' | 'paused' | 'retry_wait' | 'completed' | 'failed' | 'removed';
+
+/**
+ * 离线地图下载任务。
+ * @since 0.0.11
+ */
+export interface OfflineTask {
+  cityCode: string;
+  priority: number;
+  state: OfflineTaskState;
+  /**
+   * 下载进度，0 到 100。
+   */
+  progress: number;
+  /**
+   * 已失败的次数。
+   */
+  attempts: number;
+  /**
+   * 最后一次失败的原因，磁盘空间不足时为 `insufficient disk space`。
+   */
+  error?: string;
+}
+
+/**
+ * 离线地图下载的调度配置。
+ * @since 0.0.11
+ */
+export interface OfflineDownloadOptions {
+  /**
+   * 同时下载的城市数量。
+   * @default 1
+   */
+  maxConcurrent?: number;
+  /**
+   * 下载失败后的重试次数。
+   * @default 3
+   */
+  maxRetries?: number;
+  /**
+   * 第一次重试前的等待时间，单位：毫秒，之后每次翻倍，最长 5 分钟。
+   * @default 5000
+   */
+  retryDelay?: number;
+  /**
+   * 同一个任务两次 `onOfflineMapProgress` 事件的最小间隔，单位：毫秒。
+   * @default 1000
+   */
+  progressInterval?: number;
+  /**
+   * 下载完成后磁盘上至少保留的剩余空间，单位：MB，空间不足的任务不会开始下载。
+   * @default 50
+   */
+  reservedMB?: number;
+}
+
+/**
+ * 带权重的热力点。
+ * @since 0.0.11
+ */
+export interface WeightedLatLng extends LatLng {
+  /**
+   * 权重，在 `updateHeatmap` 中为负数时表示减去之前写入的权重。
+   * @default 1
+   */
+  weight?: number;
+}
+
+/**
+ * 热力点，可以是热力点数组，也可以是 `AMap.packHeatmapPoints` 打包后的 base64 字符串。
+ * 数据量较大时建议提前打包。
+ * @since 0.0.11
+ */
+export type HeatmapPoints = WeightedLatLng[] | string;
+
+/**
+ * 热力图的渐变色。
+ * @since 0.0.11
+ */
+export interface HeatmapGradient {
+  /**
+   * 颜色，例如 `#66e100`。
+   */
+  colors: string[];
+  /**
+   * 每个颜色的起始位置，0 到 1 之间递增，长度与 `colors` 相同。强度低于第一个起始位置时颜色逐渐透明。
+   */
+  startPoints: number[];
+}
+
+/**
+ * 热力图的样式，更新时未指定的参数保持不变。
+ * @since 0.0.11
+ */
+export interface HeatmapStyle {
+  /**
+   * 每个点影响的半径，单位：像素，1 到 64。
+   * @default 12
+   */
+  radius?: number;
+  /**
+   * 不透明度，0 到 1。
+   * @default 0.6
+   */
+  opacity?: number;
+  /**
+   * 颜色最深时对应的权重，不指定时使用当前缩放级别中网格权重的最大值。
+   */
+  maxIntensity?: number;
+  /**
+   * 渐变色，默认从绿色过渡到红色。
+   */
+  gradient?: HeatmapGradient;
+}
+
+/**
+ * 热力图配置（仅 Android）。
+ * @since 0.0.11
+ */
+export interface HeatmapOptions extends HeatmapStyle {
+  /**
+   * 调用方提供的热力图唯一标识。
+   */
+  heatmapId: string;
+  /**
+   * 热力点。
+   */
+  points?: HeatmapPoints;
+  zIndex?: number;
+  /**
+   * @default true
+   */
+  visible?: boolean;
+  /**
+   * 已渲染瓦片的内存缓存大小，单位：字节。
+   * @default 8388608
+   */
+  cacheSize?: number;
+}
+
+/**
+ * 热力图更新参数。
+ * @since 0.0.11
+ */
+export interface UpdateHeatmapOptions extends HeatmapStyle {
+  /**
+   * 热力图唯一标识。
+   */
+  heatmapId: string;
+  /**
+   * 热力点。
+   */
+  points?: HeatmapPoints;
+  /**
+   * `add` 时在已有的点上累加权重，只重新渲染受影响的瓦片；`replace` 时替换所有点。
+   * @default 'add'
+   */
+  mode?: 'add' | 'replace';
+}
+
+/**
+ * 热力图的聚合与瓦片缓存统计。
+ * @since 0.0.11
+ */
+export interface HeatmapStats {
+  /**
+   * 有权重的网格数量。
+   */
+  cells: number;
+  /**
+   * 已渲染的瓦片数量。
+   */
+  renderedTiles: number;
+  /**
+   * 缓存中的瓦片数量。
+   */
+  cachedTiles: number;
+  /**
+   * 缓存占用的字节数。
+   */
+  cacheBytes: number;
+}
+
+/**
+ * 瓦片数据源。`directory` 为本地目录，`mbtiles` 为 MBTiles 文件，`url` 为 URL 模板。
+ * 路径可以是绝对路径或 `file://` 地址；模板支持 `{x}`、`{y}`、`{z}` 和 TMS 编号的 `{-y}`。
+ * @since 0.0.11
+ */
+export type TileSourceOptions =
+  | { type: 'directory'; path: string; template?: string; }
+  | { type: 'mbtiles'; path: string; }
+  | { type: 'url'; url: string; headers?: { [key: string]: string; }; timeout?: number; };
+
+/**
+ * 自定义瓦片图层配置（仅 Android）。
+ * @since 0.0.11
+ */
+export interface TileOverlayOptions {
+  /**
+   * 调用方提供的瓦片图层唯一标识，只能包含字母、数字、下划线和连字符。相同标识的图层共用磁盘缓存。
+   */
+  overlayId: string;
+  source: TileSourceOptions;
+  /**
+   * 瓦片的边长，单位：像素。
+   * @default 256
+   */
+  tileSize?: number;
+  /**
+   * @default 3
+   */
+  minZoom?: number;
+  /**
+   * @default 20
+   */
+  maxZoom?: number;
+  zIndex?: number;
+  /**
+   * @default true
+   */
+  visible?: boolean;
+  /**
+   * 内存缓存大小，单位：字节。
+   * @default 16777216
+   */
+  memoryCacheSize?: number;
+  /**
+   * 磁盘缓存大小，单位：字节，为 0 时不使用磁盘缓存。
+   * @default 52428800
+   */
+  diskCacheSize?: number;
+  /**
+   * 相机停止移动后在可见范围外额外预取的瓦片圈数，为 -1 时不预取。
+   * @default 1
+   */
+  prefetchRing?: number;
+}
+
+/**
+ * 瓦片图层的缓存统计。
+ * @since 0.0.11
+ */
+export interface TileOverlayStats {
+  memoryTiles: number;
+  memoryBytes: number;
+  memoryHits: number;
+  memoryMisses: number;
+  /**
+   * 未使用磁盘缓存时不返回。
+   */
+  diskTiles?: number;
+  diskBytes?: number;
+  diskHits?: number;
+  diskEvictions?: number;
+  /**
+   * 从数据源读取的次数。
+   */
+  sourceReads: number;
+  /**
+   * 等待相同瓦片的加载结果、没有重复读取的次数。
+   */
+  joined: number;
+  failures: number;
+  /**
+   * 预取完成的瓦片数量。
+   */
+  prefetched: number;
+}
+
+
+/**
+ * Marker 图标。
+ * @since 0.0.11
+ */
+export interface MarkerIcon {
+  /**
+   * 图片地址，支持 `data:image/png;base64,...` 形式的 data URI、`file://` 开头或以 `/` 开头的本地文件路径，
+   * 以及相对于 Web 资源目录的路径，如 `assets/pin.png`。
+   */
+  uri: string;
+  /**
+   * 显示宽度，单位：CSS 像素。只设置宽或高时按图片比例计算另一边，都未设置时按图片原始尺寸显示。
+   */
+  width?: number;
+  /**
+   * 显示高度，单位：CSS 像素。
+   */
+  height?: number;
+}
+
+/**
+ * 预加载 Marker 图标的结果。
+ * @since 0.0.11
+ */
+export interface PreloadIconsResult {
+  /**
+   * 加载成功的图标数量，重复的图标只计算一次。
+   */
+  loaded: number;
+  failed: { uri: string; message: string; }[];
+}
+
+/**
+ * Marker 图标缓存的统计。
+ * @since 0.0.11
+ */
+export interface IconCacheStats {
+  entries: number;
+  /**
+   * 缓存的图标按 ARGB_8888 估算占用的内存，单位：字节。
+   */
+  bytes: number;
+  maxBytes: number;
+  hits: number;
+  /**
+   * 实际解码的次数。
+   */
+  misses: number;
+  failures: number;
+  evictions: number;
+}
+
+/**
+ * 地理围栏的形状：圆形围栏的半径单位为米；多边形围栏的 `points` 为外环，`holes` 为内环，
+ * 坐标可以是经纬度数组或 `AMap.packCoordinates` 打包后的字符串，首尾不需要重复。
+ * @since 0.0.11
+ */
+export type GeofenceShape =
+  | { type: 'circle'; center: LatLng; radius: number; }
+  | { type: 'polygon'; points: MultiPointCoordinates; holes?: MultiPointCoordinates[]; };
+
+/**
+ * 地理围栏配置（仅 Android）。
+ * @since 0.0.11
+ */
+export type GeofenceOptions = GeofenceShape & {
+  /**
+   * 调用方提供的围栏唯一标识，相同标识的围栏会被替换。
+   */
+  geofenceId: string;
+  /**
+   * 离开围栏时需要超出边界的距离，单位：米，用于抑制定位漂移造成的反复进出。
+   * @default 20
+   */
+  hysteresis?: number;
+  /**
+   * 进入后停留多久触发 `dwell` 事件，单位：毫秒，为 0 时不触发。
+   * @default 0
+   */
+  dwellMs?: number;
+};
+
+/**
+ * 进出地理围栏的事件。
+ * @since 0.0.11
+ */
+export interface GeofenceTransition {
+  geofenceId: string;
+  type: 'enter' | 'exit' | 'dwell';
+  /**
+   * 触发事件的定位位置。
+   */
+  position: LatLng;
+  time: number;
+}
+
+/**
+ * 地理围栏的统计。
+ * @since 0.0.11
+ */
+export interface GeofenceStats {
+  geofences: number;
+  /**
+   * 当前所在的围栏 id。
+   */
+  inside: string[];
+  fixes: number;
+  /**
+   * 精度低于 100 米被忽略的定位次数。
+   */
+  ignoredFixes: number;
+  /**
+   * 索引查询后需要精确判断的围栏数量之和。
+   */
+  candidates: number;
+  transitions: number;
+}
+
+/**
+ * Marker 空间查询的结果。
+ * @since 0.0.11
+ */
+export interface SpatialQueryResult {
+  /**
+   * 符合条件的 Marker id，最近点查询按距离从近到远排列。
+   */
+  ids: string[];
+  /**
+   * 符合条件的 Marker 总数，指定 `limit` 时可能大于 `ids` 的长度。
+   */
+  total: number;
+}
@@ -3,10 +3,44 @@ import { registerPlugin } from '@capacitor/core';
 
 import type {
     AMapConfig,
+    BatchGeocodeOptions,
     CameraPosition,
+    EventEmissionPolicy,
+    GeocodeBatchArgs,
+    GeocodeCacheOptions,
+    GeocodeCacheStats,
+    GeofenceOptions,
+    GeofenceStats,
+    HeatmapOptions,
+    HeatmapStats,
+    LatencyStats,
+    LatLng,
+    LocationTrackingOptions,
+    LocationTrackingStats,
     MapStatusLimits,
     MapType,
-    UiSettings
+    MapViewPoolOptions,
+    MapViewPoolStats,
+    MarkerClusteringOptions,
+    MarkerIcon,
+    MarkerIdsResult,
+    MarkerOptions,
+    MyLocationTrackOptions,
+    OfflineCity,
+    OfflineDownloadOptions,
+    OfflineTask,
+    PolylineIdsResult,
+    PerformanceStats,
+    PerformanceStatsOptions,
+    PolylineOptions,
+    PreloadIconsResult,
+    ReverseGeocodeBatchArgs,
+    SpatialQueryResult,
+    TileOverlayOptions,
+    TileOverlayStats,
+    TrackQueryArgs,
+    UiSettings,
+    UpdateHeatmapOptions
 } from './definitions';
 
 export interface CreateMapArgs {
@@ -98,6 +132,13 @@ export interface MapBoundsArgs {
         width: number;
         height: number;
     };
+    /**
+     * 测量 mapBounds 时页面的滚动距离，原生滚动跟踪时使用。
+     */
+    scroll?: {
+        x: number;
+        y: number;
+    };
 }
 
 /**
@@ -126,12 +167,15 @@ export interface AMapPlugin extends Plugin {
     getFromLocation(args: {
         location: {
             latitude: number; longitude: number;
-        }; radius: number;
+        }; radius: number; cache?: boolean;
     }): Promise<{
         code: number;
         address: any;
     }>;
     updatePrivacyShow(args: { isContains: boolean; isShow: boolean; }): Promise<void>;
+    setGeocodeCacheOptions(args: GeocodeCacheOptions): Promise<void>;
+    getGeocodeCacheStats(): Promise<GeocodeCacheStats>;
+    clearGeocodeCache(args: { resetStats?: boolean; }): Promise<void>;
     updatePrivacyAgree(args: { isAgree: boolean; }): Promise<void>;
     setTerrainEnable(args: { isTerrainEnable: boolean; }): Promise<void>;
     openOfflineMapActivity(): Promise<void>;
@@ -147,7 +191,7 @@ export interface AMapPlugin extends Plugin {
     onScroll(args: MapBoundsArgs): Promise<void>;
     onResize(args: MapBoundsArgs): Promise<void>;
     onDisplay(args: MapBoundsArgs): Promise<void>;
-    dispatchMapEvent(args: { id: string; focus: boolean }): Promise<void>;
+    dispatchMapEvent(args: { id: string; focus: boolean; gesture?: number; }): Promise<{ replayed: number; dropped: number; }>;
 
     enableMyLocation(args: { id: string; }): Promise<void>;
     disableMyLocation(args: { id: string; }): Promise<void>;
@@ -158,10 +202,173 @@ export interface AMapPlugin extends Plugin {
     cameraUpdatePosition(args: { id: string; cameraOptions: CameraPosition; }): Promise<void>;
     cameraZoomTo(args: { id: string; zoom: Number; }): Promise<void>;
     setMapStatusLimits(args: SetMapStatusLimitsArgs): Promise<void>;
+
+    addMarkers(args: { id: string; markers: MarkerOptions[]; }): Promise<MarkerIdsResult>;
+    updateMarkers(args: { id: string; markers: MarkerOptions[]; }): Promise<MarkerIdsResult>;
+    removeMarkers(args: { id: string; ids: string[]; }): Promise<MarkerIdsResult>;
+    preloadIcons(args: { icons: (string | MarkerIcon)[]; scale: number; }): Promise<PreloadIconsResult>;
+    setMarkerClustering(args: { id: string; } & MarkerClusteringOptions): Promise<void>;
+
+    addMultiPointOverlay(args: {
+        id: string; overlayId: string; coordinates?: string; customerIds?: string[]; anchorU?: number; anchorV?: number;
+    }): Promise<{ count: number; }>;
+    setMultiPointItems(args: {
+        id: string; overlayId: string; coordinates: string; customerIds?: string[]; start?: number; deleteCount?: number;
+    }): Promise<{ count: number; }>;
+    removeMultiPointOverlay(args: { id: string; overlayId: string; }): Promise<void>;
+
+    addHeatmap(args: { id: string; points?: string; } & Omit<HeatmapOptions, 'points'>): Promise<HeatmapStats>;
+    updateHeatmap(args: { id: string; points?: string; } & Omit<UpdateHeatmapOptions, 'points'>): Promise<HeatmapStats>;
+    removeHeatmap(args: { id: string; heatmapId: string; }): Promise<void>;
+
+    addTileOverlay(args: { id: string; } & TileOverlayOptions): Promise<void>;
+    removeTileOverlay(args: { id: string; overlayId: string; clearCache?: boolean; }): Promise<void>;
+    clearTileOverlayCache(args: { id: string; overlayId: string; }): Promise<void>;
+    getTileOverlayStats(args: { id: string; overlayId: string; }): Promise<TileOverlayStats>;
+
+    addGeofences(args: { id: string; geofences: GeofenceOptions[]; }): Promise<{ count: number; }>;
+    removeGeofences(args: { id: string; geofenceIds?: string[]; }): Promise<{ removed: number; count: number; }>;
+    getGeofenceStats(args: { id: string; }): Promise<GeofenceStats>;
+
+    queryInBounds(args: MapStatusLimits & { id: string; limit?: number; }): Promise<SpatialQueryResult>;
+    queryWithinRadius(args: { id: string; center: LatLng; radius: number; limit?: number; }): Promise<SpatialQueryResult>;
+    queryNearest(args: { id: string; center: LatLng; k: number; maxDistance?: number; }): Promise<SpatialQueryResult>;
+
+    setEventEmissionPolicy(args: { id: string; event: string; } & EventEmissionPolicy): Promise<void>;
+
+    setSubscribedEvents(args: { id: string; events: string[]; }): Promise<void>;
+    setCompactEvents(args: { id: string; events: string[]; }): Promise<void>;
+
+    addPolylines(args: { id: string; polylines: PolylineOptions[]; }): Promise<PolylineIdsResult>;
+    updatePolyline(args: { id: string; polyline: PolylineOptions; }): Promise<void>;
+    removePolylines(args: { id: string; ids: string[]; }): Promise<PolylineIdsResult>;
+
+    batchGeocode(args: GeocodeBatchArgs): Promise<{ batchId: string; total: number; }>;
+    batchReverseGeocode(args: ReverseGeocodeBatchArgs): Promise<{ batchId: string; total: number; }>;
+    cancelGeocodeBatch(args: { batchId: string; }): Promise<{ cancelled: boolean; }>;
+    setBatchGeocodeOptions(args: BatchGeocodeOptions): Promise<void>;
+
+    setMapViewPoolOptions(args: MapViewPoolOptions): Promise<void>;
+    getMapViewPoolStats(): Promise<MapViewPoolStats>;
+
+    updateOccluders(args: {
+        id: string; upsert?: { id: string; x: number; y: number; width: number; height: number; }[]; remove?: string[]; clear?: boolean; enabled?: boolean;
+    }): Promise<{ count: number; }>;
+
+    getPerformanceStats(args: { id?: string; }): Promise<Omit<PerformanceStats, 'methods'>>;
+    resetPerformanceStats(args: { id?: string; }): Promise<void>;
+    setPerformanceStatsOptions(args: PerformanceStatsOptions): Promise<void>;
+    setTracingEnabled(args: { enabled: boolean; }): Promise<void>;
+
+    startLocationTracking(args: LocationTrackingOptions): Promise<void>;
+    stopLocationTracking(): Promise<void>;
+    flushLocationTracking(): Promise<void>;
+    getLocationTrackingStats(): Promise<LocationTrackingStats>;
+
+    recordMyLocationTrack(args: { id: string; trackId: string | null; } & MyLocationTrackOptions): Promise<void>;
+    queryTrack(args: TrackQueryArgs): Promise<{ total: number; count: number; points: string; }>;
+    deleteTrack(args: { trackId: string; before?: number; }): Promise<{ deleted: number; }>;
+
+    listOfflineCities(): Promise<{ cities: OfflineCity[]; }>;
+    enqueueOfflineCities(args: { cityCodes: string[]; priority?: number; }): Promise<{ tasks: OfflineTask[]; }>;
+    pauseOfflineCity(args: { cityCode: string; }): Promise<{ updated: boolean; }>;
+    resumeOfflineCity(args: { cityCode: string; }): Promise<{ updated: boolean; }>;
+    removeOfflineCity(args: { cityCode: string; }): Promise<{ updated: boolean; }>;
+    getOfflineTasks(): Promise<{ tasks: OfflineTask[]; }>;
+    setOfflineDownloadOptions(args: OfflineDownloadOptions): Promise<void>;
+}
+
+/**
+ * 插件方法调用耗时的统计，与原生端 LatencyRecorder 一样按 2 的幂微秒分桶。
+ */
+class MethodLatencies {
+    private static readonly BUCKETS = 24;
+    private stats = new Map<string, { count: number; totalMs: number; maxMs: number; buckets: number[]; }>();
+
+    public record(method: string, elapsedMs: number): void {
+        let stat = this.stats.get(method);
+        if (!stat) {
+            stat = { count: 0, totalMs: 0, maxMs: 0, buckets: new Array(MethodLatencies.BUCKETS).fill(0) };
+            this.stats.set(method, stat);
+        }
+
+        const micros = Math.floor(Math.max(0, elapsedMs) * 1000);
+        const bucket = Math.min(micros > 0 ? Math.floor(Math.log2(micros)) + 1 : 0, MethodLatencies.BUCKETS - 1);
+        stat.count++;
+        stat.totalMs += elapsedMs;
+        stat.maxMs = Math.max(stat.maxMs, elapsedMs);
+        stat.buckets[bucket]++;
+    }
+
+    public snapshot(): { [method: string]: LatencyStats; } {
+        const result: { [method: string]: LatencyStats; } = {};
+        this.stats.forEach((stat, method) => {
+            const percentile = (quantile: number): number => {
+                const rank = Math.ceil(stat.count * quantile);
+                let seen = 0;
+                for (let i = 0; i < stat.buckets.length; i++) {
+                    seen += stat.buckets[i];
+                    if (seen >= rank) {
+                        return i == stat.buckets.length - 1 ? stat.maxMs : Math.min(Math.pow(2, i) / 1000, stat.maxMs);
+                    }
+                }
+                return stat.maxMs;
+            };
+
+            result[method] = {
+                count: stat.count,
+                meanMs: stat.count > 0 ? stat.totalMs / stat.count : 0,
+                p50Ms: percentile(0.5),
+                p95Ms: percentile(0.95),
+                p99Ms: percentile(0.99),
+                maxMs: stat.maxMs,
+            };
+        });
+        return result;
+    }
+
+    public reset(): void {
+        this.stats.clear();
+    }
 }
 
+const methodLatencies = new MethodLatencies();
+
+/**
+ * 不计入调用耗时的方法：监听管理不经过插件方法，统计本身也不应影响结果。
+ */
+const UNTIMED_METHODS = new Set(['addListener', 'removeAllListeners', 'getPerformanceStats', 'resetPerformanceStats']);
 
-const CapacitorAMap = registerPlugin<AMapPlugin>('CapacitorAMap');
+const nativePlugin = registerPlugin<AMapPlugin>('CapacitorAMap');
+
+// 统计每次插件方法调用从发起到 Promise 完成的耗时，包含桥接和原生端排队的时间
+const CapacitorAMap = new Proxy(nativePlugin, {
+    get(target, prop, receiver) {
+        const value = Reflect.get(target, prop, receiver);
+        if (typeof prop !== 'string' || typeof value !== 'function' || UNTIMED_METHODS.has(prop)) {
+            return value;
+        }
+
+        return (...args: any[]) => {
+            const start = performance.now();
+            const result = value.apply(target, args);
+            if (!result || typeof result.then !== 'function') {
+                return result;
+            }
+
+            return result.then(
+                (data: any) => {
+                    methodLatencies.record(prop, performance.now() - start);
+                    return data;
+                },
+                (err: any) => {
+                    methodLatencies.record(prop, performance.now() - start);
+                    throw err;
+                },
+            );
+        };
+    },
+});
 
 CapacitorAMap.addListener('isMapInFocus', data => {
     const x = data.x;
@@ -171,7 +378,7 @@ CapacitorAMap.addListener('isMapInFocus', data => {
     const internalId = elem?.dataset?.internalId;
     const mapInFocus = internalId === data.mapId;
 
-    CapacitorAMap.dispatchMapEvent({ id: data.mapId, focus: mapInFocus });
+    CapacitorAMap.dispatchMapEvent({ id: data.mapId, focus: mapInFocus, gesture: data.gesture });
 });
 
-export { CapacitorAMap };
\ No newline at end of file
+export { CapacitorAMap, methodLatencies };
\ No newline at end of file
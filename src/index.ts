@@ -1,7 +1,61 @@
 export {
     AMapConfig,
+    BatchGeocodeOptions,
+    ClusterClickData,
+    EventEmissionPolicy,
+    EventStats,
+    GeocodeBatchArgs,
+    GeocodeBatchItem,
+    GeocodeBatchProgress,
+    GeocodeBatchSummary,
+    GeocodeCacheOptions,
+    GeocodeCacheStats,
+    GeofenceOptions,
+    GeofenceShape,
+    GeofenceStats,
+    GeofenceTransition,
+    HeatmapGradient,
+    HeatmapOptions,
+    HeatmapPoints,
+    HeatmapStats,
+    HeatmapStyle,
+    IconCacheStats,
+    LatencyStats,
+    LocationBatch,
+    LocationTrackingOptions,
+    LocationTrackingStats,
     LogoPosition,
+    MapPerformanceStats,
     MapType,
+    MapViewPoolOptions,
+    MapViewPoolStats,
+    MarkerClusteringOptions,
+    MarkerIcon,
+    MarkerIdsResult,
+    MarkerOptions,
+    MultiPointCoordinates,
+    MultiPointOverlayOptions,
+    MyLocationTrackOptions,
+    OfflineCity,
+    OfflineDownloadOptions,
+    OfflineTask,
+    OfflineTaskState,
+    PerformanceStats,
+    PerformanceStatsOptions,
+    PolylineIdsResult,
+    PolylineOptions,
+    PreloadIconsResult,
+    ReverseGeocodeBatchArgs,
+    SetMultiPointItemsOptions,
+    SpatialQueryResult,
+    TileOverlayOptions,
+    TileOverlayStats,
+    TileSourceOptions,
+    TrackedLocation,
+    TrackQueryArgs,
+    TrackQueryResult,
+    UpdateHeatmapOptions,
+    WeightedLatLng,
 } from './definitions';
 
 export {
@@ -1,9 +1,9 @@
 import { Capacitor } from '@capacitor/core';
 import type { PluginListenerHandle } from '@capacitor/core';
 
-import { CameraPosition, GetFromLocationArgs, MapListenerCallback, MapReadyCallbackData, MapStatusLimits, MapType, UiSettings } from './definitions';
+import { BatchGeocodeOptions, CameraPosition, ClusterClickData, EventEmissionPolicy, GeocodeBatchArgs, GeocodeBatchProgress, GeocodeBatchSummary, GeocodeCacheOptions, GeocodeCacheStats, GeofenceOptions, GeofenceStats, GeofenceTransition, GetFromLocationArgs, HeatmapOptions, HeatmapStats, LatLng, LocationBatch, LocationTrackingOptions, LocationTrackingStats, MapListenerCallback, MapReadyCallbackData, MapStatusLimits, MapType, MapViewPoolOptions, MapViewPoolStats, MarkerClusteringOptions, MarkerIcon, MarkerIdsResult, MarkerOptions, MultiPointCoordinates, MultiPointOverlayOptions, MyLocationTrackOptions, OfflineCity, OfflineDownloadOptions, OfflineTask, PerformanceStats, PolylineIdsResult, PolylineOptions, PreloadIconsResult, ReverseGeocodeBatchArgs, SetMultiPointItemsOptions, SpatialQueryResult, TileOverlayOptions, TileOverlayStats, TrackedLocation, TrackQueryArgs, TrackQueryResult, UiSettings, UpdateHeatmapOptions, WeightedLatLng } from './definitions';
 import type { CreateMapArgs, MyLocationStyle } from './implementation';
-import { CapacitorAMap } from './implementation';
+import { CapacitorAMap, methodLatencies } from './implementation';
 
 /**
  * 高德地图 SDK 的 JavaScript 接口。
@@ -144,11 +144,179 @@ export interface AMapInterface {
      */
     setMapStatusLimits(args: MapStatusLimits): Promise<void>;
 
+    /**
+     * 批量添加 Marker，整批数据只经过一次桥接调用，已存在的 id 会被替换。
+     * @param markers Marker 配置列表，`position` 必填。
+     * @since 0.0.11
+     */
+    addMarkers(markers: MarkerOptions[]): Promise<MarkerIdsResult>;
+    /**
+     * 批量更新 Marker，只修改传入的属性，不存在的 id 会被忽略。
+     * @param markers Marker 局部配置列表。
+     * @since 0.0.11
+     */
+    updateMarkers(markers: MarkerOptions[]): Promise<MarkerIdsResult>;
+    /**
+     * 批量移除 Marker，不存在的 id 会被忽略。
+     * @param ids 调用方提供的 Marker id 列表。
+     * @since 0.0.11
+     */
+    removeMarkers(ids: string[]): Promise<MarkerIdsResult>;
+    /**
+     * 开启或关闭 Marker 聚合。开启后相机停止移动时在原生后台线程中重新计算聚合，只增删发生变化的 Marker。
+     * @since 0.0.11
+     */
+    setMarkerClustering(options: MarkerClusteringOptions): Promise<void>;
+
+    /**
+     * 添加海量点图层。
+     * @since 0.0.11
+     */
+    addMultiPointOverlay(options: MultiPointOverlayOptions): Promise<{ count: number; }>;
+    /**
+     * 替换海量点图层中的全部或部分点，不需要重建图层。
+     * @since 0.0.11
+     */
+    setMultiPointItems(options: SetMultiPointItemsOptions): Promise<{ count: number; }>;
+    /**
+     * 移除海量点图层。
+     * @since 0.0.11
+     */
+    removeMultiPointOverlay(overlayId: string): Promise<void>;
+    /**
+     * 添加热力图（仅 Android）。点在原生后台线程中聚合为网格，瓦片按缩放级别缓存。
+     * @since 0.0.11
+     */
+    addHeatmap(options: HeatmapOptions): Promise<HeatmapStats>;
+    /**
+     * 更新热力图的点或样式，不需要重建图层；累加权重时只重新渲染受影响的瓦片。
+     * @since 0.0.11
+     */
+    updateHeatmap(options: UpdateHeatmapOptions): Promise<HeatmapStats>;
+    /**
+     * 移除热力图。
+     * @since 0.0.11
+     */
+    removeHeatmap(heatmapId: string): Promise<void>;
+    /**
+     * 添加自定义瓦片图层（仅 Android）。瓦片在内存和磁盘中缓存，相同瓦片的并发请求只加载一次，
+     * 相机停止移动后预取可见范围周围的瓦片。
+     * @since 0.0.11
+     */
+    addTileOverlay(options: TileOverlayOptions): Promise<void>;
+    /**
+     * 移除瓦片图层。
+     * @param clearCache 是否同时删除磁盘缓存。
+     * @since 0.0.11
+     */
+    removeTileOverlay(overlayId: string, clearCache?: boolean): Promise<void>;
+    /**
+     * 清空瓦片图层的内存和磁盘缓存并重新加载，数据源更新后调用。
+     * @since 0.0.11
+     */
+    clearTileOverlayCache(overlayId: string): Promise<void>;
+    /**
+     * 获取瓦片图层的缓存统计。
+     * @since 0.0.11
+     */
+    getTileOverlayStats(overlayId: string): Promise<TileOverlayStats>;
+    /**
+     * 添加地理围栏（仅 Android），相同 id 的围栏会被替换。围栏在原生端按定位蓝点的位置判断，
+     * 只在进入、离开和停留时发送 `onGeofenceTransition` 事件，不需要订阅 `onMyLocationChange`。
+     * 需要先调用 `enableMyLocation`。
+     * @returns 添加后的围栏总数。
+     * @since 0.0.11
+     */
+    addGeofences(geofences: GeofenceOptions[]): Promise<{ count: number; }>;
+    /**
+     * 移除地理围栏，不会发送离开事件。
+     * @param geofenceIds 要移除的围栏 id，未指定时移除全部。
+     * @since 0.0.11
+     */
+    removeGeofences(geofenceIds?: string[]): Promise<{ removed: number; count: number; }>;
+    /**
+     * 获取地理围栏的统计和当前所在的围栏。
+     * @since 0.0.11
+     */
+    getGeofenceStats(): Promise<GeofenceStats>;
+    /**
+     * 查询矩形范围内的 Marker（仅 Android），只返回 id。查询使用原生的空间索引，
+     * 索引随 Marker 的添加、更新、拖动和移除同步更新，十万个 Marker 时单次查询在毫秒以内。
+     * 西南角的经度大于东北角时表示跨越经度 180° 的范围。
+     * @param limit 最多返回的 id 数量，未指定时不限制，`total` 总是范围内的 Marker 总数。
+     * @since 0.0.11
+     */
+    queryInBounds(bounds: MapStatusLimits, limit?: number): Promise<SpatialQueryResult>;
+    /**
+     * 查询与中心点的距离不超过 radius 米的 Marker（仅 Android），结果不保证按距离排序。
+     * @param limit 最多返回的 id 数量，未指定时不限制。
+     * @since 0.0.11
+     */
+    queryWithinRadius(center: LatLng, radius: number, limit?: number): Promise<SpatialQueryResult>;
+    /**
+     * 查询离中心点最近的 k 个 Marker（仅 Android），按距离从近到远排列。
+     * @param maxDistance 距离的上限，单位：米，未指定时不限制。
+     * @since 0.0.11
+     */
+    queryNearest(center: LatLng, k: number, maxDistance?: number): Promise<SpatialQueryResult>;
+    /**
+     * 批量添加折线，已存在的 id 会被替换。简化在原生端的后台线程中完成。
+     * @param polylines 折线配置列表。
+     * @since 0.0.11
+     */
+    addPolylines(polylines: PolylineOptions[]): Promise<PolylineIdsResult>;
+    /**
+     * 更新折线，只修改传入的属性，传入 `points` 时重新简化。
+     * @param polyline 折线局部配置。
+     * @since 0.0.11
+     */
+    updatePolyline(polyline: PolylineOptions): Promise<void>;
+    /**
+     * 批量移除折线，不存在的 id 会被忽略。
+     * @param ids 调用方提供的折线 id 列表。
+     * @since 0.0.11
+     */
+    removePolylines(ids: string[]): Promise<PolylineIdsResult>;
+
+    /**
+     * 设置单个事件的发送策略，例如对 `onCameraChange` 节流或按帧合并，减少拖动地图时 JS 线程的压力。
+     * `onCameraChangeFinish` 和 `onMapReady` 总是会送达，不能设置。
+     * @param event 事件名称，例如 `onCameraChange`。
+     * @since 0.0.11
+     */
+    setEventEmissionPolicy(event: string, policy: EventEmissionPolicy): Promise<void>;
+    /**
+     * 设置以紧凑格式跨桥发送的事件，替换之前的设置。紧凑格式的 payload 是按位置排列的数组，
+     * 由插件还原后再交给监听函数，监听函数收到的数据不变。
+     * 支持的事件：`onCameraChange`、`onCameraChangeFinish`、`onMapClick`、`onMapLongClick`、`onMapTouch`、`onMyLocationChange`。
+     * @param events 事件名称列表。
+     * @since 0.0.11
+     */
+    setCompactEvents(events: string[]): Promise<void>;
+    /**
+     * 设置覆盖在地图上方的页面元素（仅 Android）。设置后原生端按这些元素的位置直接判断触摸是否交给地图，
+     * 不再在每次按下时询问 JS 端；元素的位置和尺寸变化会自动同步。传入空数组时恢复默认判断方式。
+     * @param elements 覆盖在地图上方、需要接收触摸的元素。
+     * @since 0.0.11
+     */
+    setOccluders(elements: HTMLElement[]): Promise<void>;
+    /**
+     * 将定位蓝点的位置写入轨迹（仅 Android），不需要订阅 `onMyLocationChange`，可以用 `AMap.queryTrack` 查询。
+     * @param trackId 轨迹 id，只能包含字母、数字、下划线和连字符；为 null 时停止记录。
+     * @since 0.0.11
+     */
+    recordMyLocationTrack(trackId: string | null, options?: MyLocationTrackOptions): Promise<void>;
+
     /**
      * 设置地图状态的监听接口。
      * @since 0.0.2
      */
     setOnCameraChangeListener(callback?: MapListenerCallback<any>): Promise<void>;
+    /**
+     * 设置地图状态变化结束的监听接口。
+     * @since 0.0.11
+     */
+    setOnCameraChangeFinishListener(callback?: MapListenerCallback<any>): Promise<void>;
     /**
      * 设置室内地图状态监听接口。
      * @since 0.0.2
@@ -209,6 +377,16 @@ export interface AMapInterface {
      * @since 0.0.2
      */
     setOnPolylineClickListener(callback?: MapListenerCallback<any>): Promise<void>;
+    /**
+     * 设置聚合点点击事件监听接口。
+     * @since 0.0.11
+     */
+    setOnClusterClickListener(callback?: MapListenerCallback<ClusterClickData>): Promise<void>;
+    /**
+     * 设置进出地理围栏的事件监听接口（仅 Android）。
+     * @since 0.0.11
+     */
+    setOnGeofenceTransitionListener(callback?: MapListenerCallback<GeofenceTransition>): Promise<void>;
 }
 
 export class AMap implements AMapInterface {
@@ -235,15 +413,451 @@ export class AMap implements AMapInterface {
     private onMyLocationChangeListener?: PluginListenerHandle;
     private onPOIClickListener?: PluginListenerHandle;
     private onPolylineClickListener?: PluginListenerHandle;
+    private onClusterClickListener?: PluginListenerHandle;
+    private onGeofenceTransitionListener?: PluginListenerHandle;
+
+    /**
+     * 每个事件的订阅数量，原生端只为有订阅的事件注册 SDK 监听。
+     */
+    private subscriptions = new Map<string, number>();
+    private subscriptionSyncPending = false;
+    private destroyed = false;
+    /**
+     * 原生端跟踪页面滚动，JS 端只在尺寸变化时上报位置。
+     */
+    private nativeScrollTracking = false;
+    /**
+     * 覆盖在地图上方的元素及其上次同步的位置，原生端只接收变化的部分。
+     */
+    private occluders = new Map<HTMLElement, { id: string; key?: string; }>();
+    private occluderResizeObserver?: ResizeObserver;
+    private occluderMutationObserver?: MutationObserver;
+    private occluderFlushPending = false;
+    private occludersEnabled = false;
+
+    private static batchSequence = 0;
+    /**
+     * 紧凑格式 payload 的还原函数，与原生端 MapEventEncoders 的字段顺序一致。
+     */
+    private static compactDecoders: { [event: string]: (v: number[]) => any; } = {
+        onCameraChange: AMap.decodeCameraPosition,
+        onCameraChangeFinish: AMap.decodeCameraPosition,
+        onMapClick: v => ({ latitude: v[0], longitude: v[1] }),
+        onMapLongClick: v => ({ latitude: v[0], longitude: v[1] }),
+        onMapTouch: v => ({ x: v[0], y: v[1] }),
+        onMyLocationChange: v => ({
+            latitude: v[0], longitude: v[1], accuracy: v[2], altitude: v[3], bearing: v[4], speed: v[5], time: v[6],
+        }),
+    };
+    private static occluderSequence = 0;
 
     private constructor(id: string) {
         this.id = id;
     }
 
+    /**
+     * 将经纬度打包为 base64 编码的小端 Float64 数组，格式为 [lat0, lng0, lat1, lng1, ...]。
+     * @since 0.0.11
+     */
+    public static packCoordinates(points: LatLng[] | ArrayLike<number>): string {
+        let values: Float64Array;
+        if (points.length > 0 && typeof points[0] === 'object') {
+            const latLngs = points as LatLng[];
+            values = new Float64Array(latLngs.length * 2);
+            for (let i = 0; i < latLngs.length; i++) {
+                values[i * 2] = latLngs[i].latitude;
+                values[i * 2 + 1] = latLngs[i].longitude;
+            }
+        } else {
+            values = Float64Array.from(points as ArrayLike<number>);
+        }
+
+        return AMap.toBase64(AMap.toLittleEndian(values));
+    }
+
+    /**
+     * 将热力点打包为 base64 编码的小端 Float64 数组 [lat, lng, weight, ...]，未指定的权重为 1。
+     * 也可以直接传入按 [lat, lng, weight] 排列的数字数组。
+     * @since 0.0.11
+     */
+    public static packHeatmapPoints(points: WeightedLatLng[] | ArrayLike<number>): string {
+        let values: Float64Array;
+        if (points.length > 0 && typeof points[0] === 'object') {
+            const weighted = points as WeightedLatLng[];
+            values = new Float64Array(weighted.length * 3);
+            for (let i = 0; i < weighted.length; i++) {
+                values[i * 3] = weighted[i].latitude;
+                values[i * 3 + 1] = weighted[i].longitude;
+                values[i * 3 + 2] = weighted[i].weight ?? 1;
+            }
+        } else {
+            values = Float64Array.from(points as ArrayLike<number>);
+        }
+
+        return AMap.toBase64(AMap.toLittleEndian(values));
+    }
+
+    private static toLittleEndian(values: Float64Array): Uint8Array {
+        const bytes = new Uint8Array(values.length * 8);
+        const view = new DataView(bytes.buffer);
+        for (let i = 0; i < values.length; i++) {
+            view.setFloat64(i * 8, values[i], true);
+        }
+        return bytes;
+    }
+
+    private static toBase64(bytes: Uint8Array): string {
+        let binary = '';
+        const chunkSize = 0x8000;
+        for (let i = 0; i < bytes.length; i += chunkSize) {
+            binary += String.fromCharCode.apply(null, Array.from(bytes.subarray(i, i + chunkSize)));
+        }
+        return btoa(binary);
+    }
+
+    private static unpackFloat64(base64: string): Float64Array {
+        const binary = atob(base64);
+        const view = new DataView(new ArrayBuffer(binary.length));
+        for (let i = 0; i < binary.length; i++) {
+            view.setUint8(i, binary.charCodeAt(i));
+        }
+
+        const values = new Float64Array(binary.length / 8);
+        for (let i = 0; i < values.length; i++) {
+            values[i] = view.getFloat64(i * 8, true);
+        }
+        return values;
+    }
+
+    private static packIfNeeded(coordinates?: MultiPointCoordinates): string | undefined {
+        if (coordinates === undefined || typeof coordinates === 'string') {
+            return coordinates;
+        }
+        return AMap.packCoordinates(coordinates);
+    }
+
     public static getFromLocation(args: GetFromLocationArgs): Promise<{ code: number; address: any; }> {
         return CapacitorAMap.getFromLocation(args);
     }
 
+    /**
+     * 设置逆地理编码缓存，替换当前缓存。
+     * @since 0.0.11
+     */
+    public static setGeocodeCacheOptions(options: GeocodeCacheOptions): Promise<void> {
+        return CapacitorAMap.setGeocodeCacheOptions(options);
+    }
+
+    /**
+     * 获取逆地理编码缓存的命中统计。
+     * @since 0.0.11
+     */
+    public static getGeocodeCacheStats(): Promise<GeocodeCacheStats> {
+        return CapacitorAMap.getGeocodeCacheStats();
+    }
+
+    /**
+     * 清空内存和磁盘中的逆地理编码缓存。
+     * @param resetStats 是否同时清零统计
+     * @since 0.0.11
+     */
+    public static clearGeocodeCache(resetStats = false): Promise<void> {
+        return CapacitorAMap.clearGeocodeCache({ resetStats });
+    }
+
+    /**
+     * 批量地理编码（地址转坐标），查询按并发和限流配置排队执行，结果通过 `onProgress` 分块返回。
+     * @returns 全部查询完成或取消后返回统计
+     * @since 0.0.11
+     */
+    public static batchGeocode(args: GeocodeBatchArgs, onProgress?: MapListenerCallback<GeocodeBatchProgress>): Promise<GeocodeBatchSummary> {
+        return AMap.runGeocodeBatch(args.batchId, onProgress, batchId => CapacitorAMap.batchGeocode({ ...args, batchId }));
+    }
+
+    /**
+     * 批量逆地理编码（坐标转地址），查询按并发和限流配置排队执行，结果通过 `onProgress` 分块返回。
+     * @returns 全部查询完成或取消后返回统计
+     * @since 0.0.11
+     */
+    public static batchReverseGeocode(args: ReverseGeocodeBatchArgs, onProgress?: MapListenerCallback<GeocodeBatchProgress>): Promise<GeocodeBatchSummary> {
+        return AMap.runGeocodeBatch(args.batchId, onProgress, batchId => CapacitorAMap.batchReverseGeocode({ ...args, batchId }));
+    }
+
+    /**
+     * 取消批次中尚未开始的查询。
+     * @returns 批次不存在或已完成时返回 false
+     * @since 0.0.11
+     */
+    public static async cancelGeocodeBatch(batchId: string): Promise<boolean> {
+        const result = await CapacitorAMap.cancelGeocodeBatch({ batchId });
+        return result.cancelled;
+    }
+
+    /**
+     * 设置批量查询的并发数量和每秒查询数量，已提交的批次中尚未开始的查询也按新的配置执行。
+     * @since 0.0.11
+     */
+    public static setBatchGeocodeOptions(options: BatchGeocodeOptions): Promise<void> {
+        return CapacitorAMap.setBatchGeocodeOptions(options);
+    }
+
+    private static async runGeocodeBatch(
+        batchId: string | undefined,
+        onProgress: MapListenerCallback<GeocodeBatchProgress> | undefined,
+        submit: (batchId: string) => Promise<unknown>,
+    ): Promise<GeocodeBatchSummary> {
+        const id = batchId || `batch-${Date.now().toString(36)}-${++AMap.batchSequence}`;
+
+        let complete: (summary: GeocodeBatchSummary) => void = () => undefined;
+        const completed = new Promise<GeocodeBatchSummary>(resolve => complete = resolve);
+
+        // 先注册监听再提交批次，避免错过较早的事件
+        const handles: PluginListenerHandle[] = [];
+        if (onProgress) {
+            handles.push(await CapacitorAMap.addListener('onGeocodeBatchProgress', (data: GeocodeBatchProgress) => {
+                if (data.batchId === id) {
+                    onProgress(data);
+                }
+            }));
+        }
+        handles.push(await CapacitorAMap.addListener('onGeocodeBatchComplete', (data: GeocodeBatchSummary) => {
+            if (data.batchId === id) {
+                complete(data);
+            }
+        }));
+
+        try {
+            await submit(id);
+            return await completed;
+        } finally {
+            await Promise.all(handles.map(handle => handle.remove()));
+        }
+    }
+
+    /**
+     * 设置 MapView 复用池（仅 Android），池默认关闭。也可以在 capacitor.config 中通过
+     * `mapViewPoolSize` 和 `mapViewPoolMaxMemoryMB` 开启，应用启动后即开始预热。
+     * @since 0.0.11
+     */
+    public static setMapViewPoolOptions(options: MapViewPoolOptions): Promise<void> {
+        return CapacitorAMap.setMapViewPoolOptions(options);
+    }
+
+    /**
+     * 获取 MapView 复用池的命中统计（仅 Android）。
+     * @since 0.0.11
+     */
+    public static getMapViewPoolStats(): Promise<MapViewPoolStats> {
+        return CapacitorAMap.getMapViewPoolStats();
+    }
+
+    /**
+     * 预加载 Marker 图标（仅 Android），在后台线程中按当前屏幕的像素比例解码并缓存，之后添加的 Marker 不需要等待解码。
+     * 尺寸不同的同一张图片分别缓存，预加载时的尺寸需要与 Marker 的 `icon` 一致。
+     * @since 0.0.11
+     */
+    public static preloadIcons(icons: (string | MarkerIcon)[]): Promise<PreloadIconsResult> {
+        return CapacitorAMap.preloadIcons({ icons, scale: window.devicePixelRatio });
+    }
+
+    /**
+     * 获取插件的性能统计（仅 Android）：各地图的事件发送次数和 payload 大小、UI 线程等待时间，以及插件方法的调用耗时。
+     * @param mapId 只返回该地图的统计，未指定时返回所有地图。
+     * @since 0.0.11
+     */
+    public static async getPerformanceStats(mapId?: string): Promise<PerformanceStats> {
+        const stats = await CapacitorAMap.getPerformanceStats({ id: mapId });
+        return { ...stats, methods: methodLatencies.snapshot() };
+    }
+
+    /**
+     * 清零性能统计。
+     * @param mapId 只清零该地图的统计，未指定时清零所有统计。
+     * @since 0.0.11
+     */
+    public static resetPerformanceStats(mapId?: string): Promise<void> {
+        if (!mapId) {
+            methodLatencies.reset();
+        }
+        return CapacitorAMap.resetPerformanceStats({ id: mapId });
+    }
+
+    /**
+     * 按固定间隔接收性能统计，移除监听后原生端停止发送。
+     * @param intervalMs 发送间隔，单位：毫秒。
+     * @since 0.0.11
+     */
+    public static async addPerfStatsListener(callback: MapListenerCallback<PerformanceStats>, intervalMs = 5000): Promise<PluginListenerHandle> {
+        const handle = await CapacitorAMap.addListener('onPerfStats', (data: Omit<PerformanceStats, 'methods'>) => {
+            callback({ ...data, methods: methodLatencies.snapshot() });
+        });
+        await CapacitorAMap.setPerformanceStatsOptions({ intervalMs });
+
+        return {
+            remove: async () => {
+                await handle.remove();
+                await CapacitorAMap.setPerformanceStatsOptions({ intervalMs: 0 });
+            },
+        };
+    }
+
+    /**
+     * 开启或关闭 android.os.Trace 埋点（仅 Android），开启后地图创建、渲染、触摸分发、事件发送和逆地理编码
+     * 会在 Perfetto / systrace 中显示为带地图 id 或事件名称的区段。默认关闭，也可以在 capacitor.config 中设置 `tracing: true`。
+     * @since 0.0.11
+     */
+    public static setTracingEnabled(enabled: boolean): Promise<void> {
+        return CapacitorAMap.setTracingEnabled({ enabled });
+    }
+
+    /**
+     * 开始持续定位（仅 Android），与地图是否显示无关。定位结果在原生端过滤并缓存，按批通过 `addLocationBatchListener` 发送。
+     * 再次调用时先停止上一次定位并发送已缓存的结果。指定 `notification` 时以前台服务的方式定位，应用进入后台后仍然持续定位。
+     * @since 0.0.11
+     */
+    public static startLocationTracking(options: LocationTrackingOptions = {}): Promise<void> {
+        return CapacitorAMap.startLocationTracking(options);
+    }
+
+    /**
+     * 停止持续定位，已缓存的结果会立即发送。
+     * @since 0.0.11
+     */
+    public static stopLocationTracking(): Promise<void> {
+        return CapacitorAMap.stopLocationTracking();
+    }
+
+    /**
+     * 立即发送原生端缓存的定位结果，例如页面回到前台时。
+     * @since 0.0.11
+     */
+    public static flushLocationTracking(): Promise<void> {
+        return CapacitorAMap.flushLocationTracking();
+    }
+
+    /**
+     * @since 0.0.11
+     */
+    public static getLocationTrackingStats(): Promise<LocationTrackingStats> {
+        return CapacitorAMap.getLocationTrackingStats();
+    }
+
+    /**
+     * 接收持续定位的结果。没有监听时原生端会保留结果，注册监听后一并发送。
+     * @since 0.0.11
+     */
+    public static addLocationBatchListener(callback: MapListenerCallback<LocationBatch>): Promise<PluginListenerHandle> {
+        return CapacitorAMap.addListener('onLocationBatch', callback);
+    }
+
+    /**
+     * 查询原生端保存的轨迹（仅 Android）。查询在原生端按时间索引定位，点数超过 `maxPoints` 时在原生端抽样，
+     * 只有返回的点跨桥传输，耗时与轨迹的总长度无关。
+     * @since 0.0.11
+     */
+    public static async queryTrack(args: TrackQueryArgs): Promise<TrackQueryResult> {
+        const result = await CapacitorAMap.queryTrack(args);
+        const values = AMap.unpackFloat64(result.points);
+        const locations: TrackedLocation[] = new Array(result.count);
+        // 与原生端 TrackStore.STRIDE 的顺序一致
+        for (let i = 0; i < result.count; i++) {
+            const offset = i * 7;
+            locations[i] = {
+                latitude: values[offset],
+                longitude: values[offset + 1],
+                accuracy: values[offset + 2],
+                altitude: values[offset + 3],
+                bearing: values[offset + 4],
+                speed: values[offset + 5],
+                time: values[offset + 6],
+            };
+        }
+        return { total: result.total, locations };
+    }
+
+    /**
+     * 删除原生端保存的轨迹。
+     * @param before 只删除早于该时间的数据，单位：毫秒，按分段文件删除，略早于该时间的点可能保留；未指定时删除整条轨迹。
+     * @since 0.0.11
+     */
+    public static deleteTrack(trackId: string, before?: number): Promise<{ deleted: number; }> {
+        return CapacitorAMap.deleteTrack({ trackId, before });
+    }
+
+    /**
+     * 获取 SDK 提供的所有离线地图城市（仅 Android）。
+     * @since 0.0.11
+     */
+    public static async listOfflineCities(): Promise<OfflineCity[]> {
+        return (await CapacitorAMap.listOfflineCities()).cities;
+    }
+
+    /**
+     * 将城市加入离线地图下载队列（仅 Android），不需要用户操作。优先级高的城市先下载，
+     * 已在队列中的城市只更新优先级，已暂停或失败的城市重新排队。
+     * @param priority 数值越大越先下载。
+     * @since 0.0.11
+     */
+    public static async enqueueOfflineCities(cityCodes: string[], priority = 0): Promise<OfflineTask[]> {
+        return (await CapacitorAMap.enqueueOfflineCities({ cityCodes, priority })).tasks;
+    }
+
+    /**
+     * 暂停排队中或下载中的城市。
+     * @returns 城市不在队列中或无法暂停时返回 false。
+     * @since 0.0.11
+     */
+    public static async pauseOfflineCity(cityCode: string): Promise<boolean> {
+        return (await CapacitorAMap.pauseOfflineCity({ cityCode })).updated;
+    }
+
+    /**
+     * 继续已暂停或失败的城市。
+     * @since 0.0.11
+     */
+    public static async resumeOfflineCity(cityCode: string): Promise<boolean> {
+        return (await CapacitorAMap.resumeOfflineCity({ cityCode })).updated;
+    }
+
+    /**
+     * 移除下载任务并删除该城市已下载的离线地图。
+     * @since 0.0.11
+     */
+    public static async removeOfflineCity(cityCode: string): Promise<boolean> {
+        return (await CapacitorAMap.removeOfflineCity({ cityCode })).updated;
+    }
+
+    /**
+     * 获取本次启动后加入队列的所有下载任务。
+     * @since 0.0.11
+     */
+    public static async getOfflineTasks(): Promise<OfflineTask[]> {
+        return (await CapacitorAMap.getOfflineTasks()).tasks;
+    }
+
+    /**
+     * @since 0.0.11
+     */
+    public static setOfflineDownloadOptions(options: OfflineDownloadOptions): Promise<void> {
+        return CapacitorAMap.setOfflineDownloadOptions(options);
+    }
+
+    /**
+     * 监听下载任务的状态变化，每次变化都会回调。
+     * @since 0.0.11
+     */
+    public static addOfflineMapStateListener(callback: MapListenerCallback<OfflineTask>): Promise<PluginListenerHandle> {
+        return CapacitorAMap.addListener('onOfflineMapStateChange', callback);
+    }
+
+    /**
+     * 监听下载进度，同一个任务的回调间隔不小于 `progressInterval`。
+     * @since 0.0.11
+     */
+    public static addOfflineMapProgressListener(callback: MapListenerCallback<OfflineTask>): Promise<PluginListenerHandle> {
+        return CapacitorAMap.addListener('onOfflineMapProgress', callback);
+    }
+
     public static updatePrivacyShow(isContains: boolean, isShow: boolean): Promise<void> {
         return CapacitorAMap.updatePrivacyShow({ isContains, isShow });
     }
@@ -276,8 +890,11 @@ export class AMap implements AMapInterface {
         options.config.x = elementBounds.x;
         options.config.y = elementBounds.y;
         options.config.devicePixelRatio = window.devicePixelRatio;
+        options.config.scrollX = window.scrollX;
+        options.config.scrollY = window.scrollY;
 
         if (Capacitor.getPlatform() == 'android') {
+            newMap.nativeScrollTracking = options.config.scrollTracking === 'native';
             newMap.initScrolling();
         }
 
@@ -297,6 +914,7 @@ export class AMap implements AMapInterface {
                 CapacitorAMap.onResize({
                     id: newMap.id,
                     mapBounds: getMapBounds(),
+                    scroll: newMap.getScrollOffset(),
                 });
             };
 
@@ -345,18 +963,7 @@ export class AMap implements AMapInterface {
             newMap.resizeObserver.observe(newMap.element);
         }
 
-        // small delay to allow for iOS WKWebView to setup corresponding element sub-scroll views ???
-        await new Promise((resolve, reject) => {
-            setTimeout(async () => {
-                try {
-                    await CapacitorAMap.create(options);
-                    resolve(undefined);
-                } catch (err) {
-                    reject(err);
-                }
-            }, 200);
-        });
-
+        // 先注册监听再创建地图，复用的 MapView 已加载完成，onMapReady 会在创建后立即发送
         if (callback) {
             const onMapReadyListener = await CapacitorAMap.addListener(
                 'onMapReady',
@@ -369,6 +976,18 @@ export class AMap implements AMapInterface {
             );
         }
 
+        // small delay to allow for iOS WKWebView to setup corresponding element sub-scroll views ???
+        await new Promise((resolve, reject) => {
+            setTimeout(async () => {
+                try {
+                    await CapacitorAMap.create(options);
+                    resolve(undefined);
+                } catch (err) {
+                    reject(err);
+                }
+            }, 200);
+        });
+
         return newMap;
     }
 
@@ -458,6 +1077,8 @@ export class AMap implements AMapInterface {
             this.resizeObserver?.disconnect();
         }
 
+        this.disconnectOccluders();
+        this.destroyed = true;
         this.removeAllMapListeners();
 
         return CapacitorAMap.destroy({
@@ -512,6 +1133,187 @@ export class AMap implements AMapInterface {
         return CapacitorAMap.setMapStatusLimits({ id: this.id, ...args });
     }
 
+    public addMarkers(markers: MarkerOptions[]): Promise<MarkerIdsResult> {
+        return CapacitorAMap.addMarkers({ id: this.id, markers });
+    }
+
+    public updateMarkers(markers: MarkerOptions[]): Promise<MarkerIdsResult> {
+        return CapacitorAMap.updateMarkers({ id: this.id, markers });
+    }
+
+    public removeMarkers(ids: string[]): Promise<MarkerIdsResult> {
+        return CapacitorAMap.removeMarkers({ id: this.id, ids });
+    }
+
+    public setMarkerClustering(options: MarkerClusteringOptions): Promise<void> {
+        return CapacitorAMap.setMarkerClustering({ id: this.id, ...options });
+    }
+
+    public addMultiPointOverlay(options: MultiPointOverlayOptions): Promise<{ count: number; }> {
+        return CapacitorAMap.addMultiPointOverlay({
+            id: this.id,
+            ...options,
+            coordinates: AMap.packIfNeeded(options.coordinates),
+        });
+    }
+
+    public setMultiPointItems(options: SetMultiPointItemsOptions): Promise<{ count: number; }> {
+        return CapacitorAMap.setMultiPointItems({
+            id: this.id,
+            ...options,
+            coordinates: AMap.packIfNeeded(options.coordinates) ?? '',
+        });
+    }
+
+    public removeMultiPointOverlay(overlayId: string): Promise<void> {
+        return CapacitorAMap.removeMultiPointOverlay({ id: this.id, overlayId });
+    }
+
+    public addHeatmap(options: HeatmapOptions): Promise<HeatmapStats> {
+        return CapacitorAMap.addHeatmap({
+            id: this.id,
+            ...options,
+            points: typeof options.points === 'object' ? AMap.packHeatmapPoints(options.points) : options.points,
+        });
+    }
+
+    public updateHeatmap(options: UpdateHeatmapOptions): Promise<HeatmapStats> {
+        return CapacitorAMap.updateHeatmap({
+            id: this.id,
+            ...options,
+            points: typeof options.points === 'object' ? AMap.packHeatmapPoints(options.points) : options.points,
+        });
+    }
+
+    public removeHeatmap(heatmapId: string): Promise<void> {
+        return CapacitorAMap.removeHeatmap({ id: this.id, heatmapId });
+    }
+
+    public addTileOverlay(options: TileOverlayOptions): Promise<void> {
+        return CapacitorAMap.addTileOverlay({ id: this.id, ...options });
+    }
+
+    public removeTileOverlay(overlayId: string, clearCache = false): Promise<void> {
+        return CapacitorAMap.removeTileOverlay({ id: this.id, overlayId, clearCache });
+    }
+
+    public clearTileOverlayCache(overlayId: string): Promise<void> {
+        return CapacitorAMap.clearTileOverlayCache({ id: this.id, overlayId });
+    }
+
+    public getTileOverlayStats(overlayId: string): Promise<TileOverlayStats> {
+        return CapacitorAMap.getTileOverlayStats({ id: this.id, overlayId });
+    }
+
+    public addGeofences(geofences: GeofenceOptions[]): Promise<{ count: number; }> {
+        return CapacitorAMap.addGeofences({
+            id: this.id,
+            geofences: geofences.map(geofence => geofence.type === 'polygon' ? {
+                ...geofence,
+                points: AMap.packIfNeeded(geofence.points) ?? '',
+                holes: geofence.holes?.map(hole => AMap.packIfNeeded(hole) ?? ''),
+            } : geofence),
+        });
+    }
+
+    public removeGeofences(geofenceIds?: string[]): Promise<{ removed: number; count: number; }> {
+        return CapacitorAMap.removeGeofences({ id: this.id, geofenceIds });
+    }
+
+    public getGeofenceStats(): Promise<GeofenceStats> {
+        return CapacitorAMap.getGeofenceStats({ id: this.id });
+    }
+
+    public queryInBounds(bounds: MapStatusLimits, limit?: number): Promise<SpatialQueryResult> {
+        return CapacitorAMap.queryInBounds({ id: this.id, ...bounds, limit });
+    }
+
+    public queryWithinRadius(center: LatLng, radius: number, limit?: number): Promise<SpatialQueryResult> {
+        return CapacitorAMap.queryWithinRadius({ id: this.id, center, radius, limit });
+    }
+
+    public queryNearest(center: LatLng, k: number, maxDistance?: number): Promise<SpatialQueryResult> {
+        return CapacitorAMap.queryNearest({ id: this.id, center, k, maxDistance });
+    }
+
+    public addPolylines(polylines: PolylineOptions[]): Promise<PolylineIdsResult> {
+        return CapacitorAMap.addPolylines({
+            id: this.id,
+            polylines: polylines.map(polyline => ({ ...polyline, points: AMap.packIfNeeded(polyline.points) })),
+        });
+    }
+
+    public updatePolyline(polyline: PolylineOptions): Promise<void> {
+        return CapacitorAMap.updatePolyline({
+            id: this.id,
+            polyline: { ...polyline, points: AMap.packIfNeeded(polyline.points) },
+        });
+    }
+
+    public removePolylines(ids: string[]): Promise<PolylineIdsResult> {
+        return CapacitorAMap.removePolylines({ id: this.id, ids });
+    }
+
+    public setEventEmissionPolicy(event: string, policy: EventEmissionPolicy): Promise<void> {
+        return CapacitorAMap.setEventEmissionPolicy({ id: this.id, event, ...policy });
+    }
+
+    public setCompactEvents(events: string[]): Promise<void> {
+        return CapacitorAMap.setCompactEvents({ id: this.id, events });
+    }
+
+    public recordMyLocationTrack(trackId: string | null, options: MyLocationTrackOptions = {}): Promise<void> {
+        return CapacitorAMap.recordMyLocationTrack({ id: this.id, trackId, ...options });
+    }
+
+    public async setOccluders(elements: HTMLElement[]): Promise<void> {
+        if (Capacitor.getPlatform() != 'android' || this.destroyed) {
+            return;
+        }
+
+        if (elements.length == 0) {
+            this.disconnectOccluders();
+            await CapacitorAMap.updateOccluders({ id: this.id, clear: true, enabled: false });
+            return;
+        }
+
+        const remove: string[] = [];
+        const next = new Set(elements);
+        this.occluders.forEach((occluder, element) => {
+            if (!next.has(element)) {
+                remove.push(occluder.id);
+                this.occluders.delete(element);
+                this.occluderResizeObserver?.unobserve(element);
+            }
+        });
+
+        if (!this.occluderResizeObserver) {
+            this.occluderResizeObserver = new ResizeObserver(this.scheduleOccluderFlush);
+            // 样式或 DOM 变化可能移动元素而不改变尺寸
+            this.occluderMutationObserver = new MutationObserver(this.scheduleOccluderFlush);
+            this.occluderMutationObserver.observe(document.body, {
+                attributes: true,
+                attributeFilter: ['style', 'class', 'hidden'],
+                childList: true,
+                subtree: true,
+            });
+            window.addEventListener('scroll', this.scheduleOccluderFlush, true);
+            window.addEventListener('resize', this.scheduleOccluderFlush);
+        }
+
+        for (const element of elements) {
+            if (!this.occluders.has(element)) {
+                this.occluders.set(element, { id: `occluder-${++AMap.occluderSequence}` });
+                this.occluderResizeObserver.observe(element);
+            }
+        }
+
+        if (remove.length > 0) {
+            await CapacitorAMap.updateOccluders({ id: this.id, remove });
+        }
+        await this.flushOccluders();
+    }
+
     private initScrolling(): void {
         const ionContents = document.getElementsByTagName('ion-content');
 
@@ -520,17 +1322,16 @@ export class AMap implements AMapInterface {
             (ionContents[i] as any).scrollEvents = true;
         }
 
-        window.addEventListener('ionScroll', this.handleScrollEvent);
-        window.addEventListener('scroll', this.handleScrollEvent);
+        // 原生滚动跟踪时滚动不需要经过 JS，只在尺寸可能变化时上报位置
+        if (!this.nativeScrollTracking) {
+            window.addEventListener('ionScroll', this.handleScrollEvent);
+            window.addEventListener('scroll', this.handleScrollEvent);
+        }
         window.addEventListener('resize', this.handleScrollEvent);
         if (screen.orientation) {
-            screen.orientation.addEventListener('change', () => {
-                setTimeout(this.updateMapBounds, 500);
-            });
+            screen.orientation.addEventListener('change', this.handleOrientationChange);
         } else {
-            window.addEventListener('orientationchange', () => {
-                setTimeout(this.updateMapBounds, 500);
-            });
+            window.addEventListener('orientationchange', this.handleOrientationChange);
         }
     }
 
@@ -539,18 +1340,18 @@ export class AMap implements AMapInterface {
         window.removeEventListener('scroll', this.handleScrollEvent);
         window.removeEventListener('resize', this.handleScrollEvent);
         if (screen.orientation) {
-            screen.orientation.removeEventListener('change', () => {
-                setTimeout(this.updateMapBounds, 1000);
-            });
+            screen.orientation.removeEventListener('change', this.handleOrientationChange);
         } else {
-            window.removeEventListener('orientationchange', () => {
-                setTimeout(this.updateMapBounds, 1000);
-            });
+            window.removeEventListener('orientationchange', this.handleOrientationChange);
         }
     }
 
     private handleScrollEvent = (): void => this.updateMapBounds();
 
+    private handleOrientationChange = (): void => {
+        setTimeout(() => this.updateMapBounds(), 500);
+    };
+
     private updateMapBounds(): void {
         if (this.element) {
             const mapRect = this.element.getBoundingClientRect();
@@ -558,29 +1359,102 @@ export class AMap implements AMapInterface {
             CapacitorAMap.onScroll({
                 id: this.id,
                 mapBounds: mapRect,
+                scroll: this.getScrollOffset(),
             });
         }
     }
 
+    private getScrollOffset(): { x: number; y: number; } | undefined {
+        return this.nativeScrollTracking ? { x: window.scrollX, y: window.scrollY } : undefined;
+    }
+
+    private scheduleOccluderFlush = (): void => {
+        if (this.occluderFlushPending) {
+            return;
+        }
+
+        // 同一帧内的多次变化合并为一次同步
+        this.occluderFlushPending = true;
+        requestAnimationFrame(() => {
+            this.occluderFlushPending = false;
+            this.flushOccluders();
+        });
+    };
+
+    private async flushOccluders(): Promise<void> {
+        if (this.destroyed || this.occluders.size == 0) {
+            return;
+        }
+
+        const upsert: { id: string; x: number; y: number; width: number; height: number; }[] = [];
+        const remove: string[] = [];
+        this.occluders.forEach((occluder, element) => {
+            if (!element.isConnected) {
+                remove.push(occluder.id);
+                this.occluders.delete(element);
+                this.occluderResizeObserver?.unobserve(element);
+                return;
+            }
+
+            const rect = element.getBoundingClientRect();
+            const key = `${rect.x},${rect.y},${rect.width},${rect.height}`;
+            if (key !== occluder.key) {
+                occluder.key = key;
+                upsert.push({ id: occluder.id, x: rect.x, y: rect.y, width: rect.width, height: rect.height });
+            }
+        });
+
+        if (upsert.length == 0 && remove.length == 0 && this.occludersEnabled) {
+            return;
+        }
+
+        const enabled = this.occludersEnabled ? undefined : true;
+        this.occludersEnabled = true;
+        await CapacitorAMap.updateOccluders({ id: this.id, upsert, remove, enabled });
+    }
+
+    private disconnectOccluders(): void {
+        this.occluderResizeObserver?.disconnect();
+        this.occluderMutationObserver?.disconnect();
+        this.occluderResizeObserver = undefined;
+        this.occluderMutationObserver = undefined;
+        window.removeEventListener('scroll', this.scheduleOccluderFlush, true);
+        window.removeEventListener('resize', this.scheduleOccluderFlush);
+        this.occluders.clear();
+        this.occludersEnabled = false;
+    }
+
     public async setOnCameraChangeListener(callback?: MapListenerCallback<any>): Promise<void> {
         if (this.onCameraChangeListener) {
             this.onCameraChangeListener.remove();
         }
 
         if (callback) {
-            this.onCameraChangeListener = await CapacitorAMap.addListener('onCameraChange', this.generateCallback(callback));
+            this.onCameraChangeListener = await this.addMapListener('onCameraChange', callback);
         } else {
             this.onCameraChangeListener = undefined;
         }
     }
 
+    public async setOnCameraChangeFinishListener(callback?: MapListenerCallback<any> | undefined): Promise<void> {
+        if (this.onCameraChangeFinishListener) {
+            this.onCameraChangeFinishListener.remove();
+        }
+
+        if (callback) {
+            this.onCameraChangeFinishListener = await this.addMapListener('onCameraChangeFinish', callback);
+        } else {
+            this.onCameraChangeFinishListener = undefined;
+        }
+    }
+
     public async setOnIndoorBuildingActiveListener(callback?: MapListenerCallback<any> | undefined): Promise<void> {
         if (this.onIndoorBuildingListener) {
             this.onIndoorBuildingListener.remove();
         }
 
         if (callback) {
-            this.onIndoorBuildingListener = await CapacitorAMap.addListener('onIndoorBuildingActive', this.generateCallback(callback));
+            this.onIndoorBuildingListener = await this.addMapListener('onIndoorBuilding', callback);
         } else {
             this.onIndoorBuildingListener = undefined;
         }
@@ -592,7 +1466,7 @@ export class AMap implements AMapInterface {
         }
 
         if (callback) {
-            this.onInfoWindowClickListener = await CapacitorAMap.addListener('onInfoWindowClick', this.generateCallback(callback));
+            this.onInfoWindowClickListener = await this.addMapListener('onInfoWindowClick', callback);
         } else {
             this.onInfoWindowClickListener = undefined;
         }
@@ -604,7 +1478,7 @@ export class AMap implements AMapInterface {
         }
 
         if (callback) {
-            this.onMapClickListener = await CapacitorAMap.addListener('onMapClick', this.generateCallback(callback));
+            this.onMapClickListener = await this.addMapListener('onMapClick', callback);
         } else {
             this.onMapClickListener = undefined;
         }
@@ -616,7 +1490,7 @@ export class AMap implements AMapInterface {
         }
 
         if (callback) {
-            this.onMapReadyListener = await CapacitorAMap.addListener('onMapReady', this.generateCallback(callback));
+            this.onMapReadyListener = await this.addMapListener('onMapReady', callback);
         } else {
             this.onMapReadyListener = undefined;
         }
@@ -628,7 +1502,7 @@ export class AMap implements AMapInterface {
         }
 
         if (callback) {
-            this.onMapLongClickListener = await CapacitorAMap.addListener('onMapLongClick', this.generateCallback(callback));
+            this.onMapLongClickListener = await this.addMapListener('onMapLongClick', callback);
         } else {
             this.onMapLongClickListener = undefined;
         }
@@ -640,7 +1514,7 @@ export class AMap implements AMapInterface {
         }
 
         if (callback) {
-            this.onMapTouchListener = await CapacitorAMap.addListener('onMapTouch', this.generateCallback(callback));
+            this.onMapTouchListener = await this.addMapListener('onMapTouch', callback);
         } else {
             this.onMapTouchListener = undefined;
         }
@@ -652,7 +1526,7 @@ export class AMap implements AMapInterface {
         }
 
         if (callback) {
-            this.onMarkerClickListener = await CapacitorAMap.addListener('onMarkerClick', this.generateCallback(callback));
+            this.onMarkerClickListener = await this.addMapListener('onMarkerClick', callback);
         } else {
             this.onMarkerClickListener = undefined;
         }
@@ -664,7 +1538,7 @@ export class AMap implements AMapInterface {
         }
 
         if (callback) {
-            this.onMarkerDragListener = await CapacitorAMap.addListener('onMarkerDrag', this.generateCallback(callback));
+            this.onMarkerDragListener = await this.addMapListener('onMarkerDrag', callback);
         } else {
             this.onMarkerDragListener = undefined;
         }
@@ -676,7 +1550,7 @@ export class AMap implements AMapInterface {
         }
 
         if (callback) {
-            this.onMultiPointClickListener = await CapacitorAMap.addListener('onMultiPointClick', this.generateCallback(callback));
+            this.onMultiPointClickListener = await this.addMapListener('onMultiPointClick', callback);
         } else {
             this.onMultiPointClickListener = undefined;
         }
@@ -688,7 +1562,7 @@ export class AMap implements AMapInterface {
         }
 
         if (callback) {
-            this.onMyLocationChangeListener = await CapacitorAMap.addListener('onMyLocationChange', this.generateCallback(callback));
+            this.onMyLocationChangeListener = await this.addMapListener('onMyLocationChange', callback);
         } else {
             this.onMyLocationChangeListener = undefined;
         }
@@ -700,7 +1574,7 @@ export class AMap implements AMapInterface {
         }
 
         if (callback) {
-            this.onPOIClickListener = await CapacitorAMap.addListener('onPOIClick', this.generateCallback(callback));
+            this.onPOIClickListener = await this.addMapListener('onPOIClick', callback);
         } else {
             this.onPOIClickListener = undefined;
         }
@@ -712,12 +1586,36 @@ export class AMap implements AMapInterface {
         }
 
         if (callback) {
-            this.onPolylineClickListener = await CapacitorAMap.addListener('onPolylineClick', this.generateCallback(callback));
+            this.onPolylineClickListener = await this.addMapListener('onPolylineClick', callback);
         } else {
             this.onPolylineClickListener = undefined;
         }
     }
 
+    public async setOnClusterClickListener(callback?: MapListenerCallback<ClusterClickData> | undefined): Promise<void> {
+        if (this.onClusterClickListener) {
+            this.onClusterClickListener.remove();
+        }
+
+        if (callback) {
+            this.onClusterClickListener = await this.addMapListener('onClusterClick', callback);
+        } else {
+            this.onClusterClickListener = undefined;
+        }
+    }
+
+    public async setOnGeofenceTransitionListener(callback?: MapListenerCallback<GeofenceTransition> | undefined): Promise<void> {
+        if (this.onGeofenceTransitionListener) {
+            this.onGeofenceTransitionListener.remove();
+        }
+
+        if (callback) {
+            this.onGeofenceTransitionListener = await this.addMapListener('onGeofenceTransition', callback);
+        } else {
+            this.onGeofenceTransitionListener = undefined;
+        }
+    }
+
     private async removeAllMapListeners(): Promise<void> {
         if (this.onCameraChangeListener) {
             this.onCameraChangeListener.remove();
@@ -796,14 +1694,80 @@ export class AMap implements AMapInterface {
             this.onPolylineClickListener.remove();
             this.onPolylineClickListener = undefined;
         }
+
+        if (this.onClusterClickListener) {
+            this.onClusterClickListener.remove();
+            this.onClusterClickListener = undefined;
+        }
+
+        if (this.onGeofenceTransitionListener) {
+            this.onGeofenceTransitionListener.remove();
+            this.onGeofenceTransitionListener = undefined;
+        }
     }
 
-    private generateCallback(callback: MapListenerCallback<any>): MapListenerCallback<any> {
+    private async addMapListener(eventName: string, callback: MapListenerCallback<any>): Promise<PluginListenerHandle> {
+        const handle = await CapacitorAMap.addListener(eventName, this.generateCallback(eventName, callback));
+        this.updateSubscription(eventName, 1);
+
+        let removed = false;
+        return {
+            remove: async () => {
+                if (removed) {
+                    return;
+                }
+                removed = true;
+                await handle.remove();
+                this.updateSubscription(eventName, -1);
+            },
+        };
+    }
+
+    private updateSubscription(eventName: string, delta: number): void {
+        const before = this.subscriptions.get(eventName) || 0;
+        const after = Math.max(0, before + delta);
+        if (after > 0) {
+            this.subscriptions.set(eventName, after);
+        } else {
+            this.subscriptions.delete(eventName);
+        }
+
+        // 只有订阅的事件集合变化时才通知原生端，同一轮事件循环中的多次变化合并为一次调用
+        if ((before > 0) == (after > 0) || this.subscriptionSyncPending) {
+            return;
+        }
+
+        this.subscriptionSyncPending = true;
+        Promise.resolve().then(() => {
+            this.subscriptionSyncPending = false;
+            if (this.destroyed) {
+                return;
+            }
+
+            return CapacitorAMap.setSubscribedEvents({
+                id: this.id,
+                events: Array.from(this.subscriptions.keys()),
+            });
+        }).catch(err => console.error(err));
+    }
+
+    private generateCallback(eventName: string, callback: MapListenerCallback<any>): MapListenerCallback<any> {
         const mapId = this.id;
+        const decode = AMap.compactDecoders[eventName];
         return (data: any) => {
             if (data.mapId == mapId) {
-                callback(data);
+                callback(decode && Array.isArray(data.v) ? { ...decode(data.v), mapId } : data);
             }
         };
     }
+
+    private static decodeCameraPosition(v: number[]): CameraPosition & { isAbroad: boolean; } {
+        return {
+            target: { latitude: v[0], longitude: v[1] },
+            zoom: v[2],
+            tilt: v[3],
+            bearing: v[4],
+            isAbroad: v[5] == 1,
+        };
+    }
 }
\ No newline at end of file